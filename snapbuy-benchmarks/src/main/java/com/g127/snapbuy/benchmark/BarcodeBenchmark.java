@@ -0,0 +1,38 @@
+package com.g127.snapbuy.benchmark;
+
+import com.g127.snapbuy.product.service.impl.BarcodeServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sinh ảnh PNG mã vạch Code 128 kèm dòng chữ, như khi in tem sản phẩm
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class BarcodeBenchmark {
+
+    @Param({"8934673000001", "SP000123-HOP-180ML"})
+    private String barcode;
+
+    private final BarcodeServiceImpl barcodeService = new BarcodeServiceImpl();
+
+    @Benchmark
+    public byte[] generateBarcodeImage() throws IOException {
+        return barcodeService.generateBarcodeImage(barcode, 300, 100);
+    }
+}
@@ -0,0 +1,127 @@
+package com.g127.snapbuy.benchmark;
+
+import com.g127.snapbuy.product.entity.Category;
+import com.g127.snapbuy.product.entity.Product;
+import com.g127.snapbuy.promotion.entity.Promotion;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sinh dữ liệu giả lập giống danh mục của một cửa hàng tạp hóa, cố định theo seed để các lần chạy so sánh được
+ */
+final class Catalogue {
+
+    private static final String[] KINDS = {
+            "Sữa tươi", "Sữa chua", "Cà phê", "Trà xanh", "Nước mắm", "Bánh quy", "Mì gói", "Dầu ăn",
+            "Nước ngọt", "Kẹo dẻo", "Gạo thơm", "Bột giặt", "Nước rửa chén", "Xúc xích", "Đường cát", "Bánh mì"
+    };
+
+    private static final String[] BRANDS = {
+            "Vinamilk", "TH True Milk", "Trung Nguyên", "Phúc Long", "Nam Ngư", "Hảo Hảo", "Tường An",
+            "Đà Lạt Milk", "Kinh Đô", "Bích Chi", "Vissan", "Biên Hòa", "Ômô", "Sunlight"
+    };
+
+    private static final String[] VARIANTS = {
+            "ít đường", "không đường", "hương dâu", "vị cay", "gói lớn", "hộp 180ml", "chai 1 lít",
+            "túi 5kg", "loại đặc biệt", "nguyên chất", "hương chanh", "vị truyền thống"
+    };
+
+    private Catalogue() {
+    }
+
+    /**
+     * Mỗi dòng gồm mã, tên, barcode của một sản phẩm; khoảng 1/5 sản phẩm không có barcode
+     */
+    static String[][] products(int rows, Random random) {
+        String[][] products = new String[rows][];
+        for (int i = 0; i < rows; i++) {
+            String name = KINDS[random.nextInt(KINDS.length)] + " " + BRANDS[random.nextInt(BRANDS.length)]
+                    + " " + VARIANTS[random.nextInt(VARIANTS.length)];
+            String barcode = random.nextInt(5) == 0 ? null
+                    : "893" + String.format("%010d", random.nextLong(10_000_000_000L));
+            products[i] = new String[]{String.format("SP%05d", i + 1), name, barcode};
+        }
+        return products;
+    }
+
+    /**
+     * Sản phẩm dạng entity, mỗi loại hàng là một danh mục
+     */
+    static List<Product> productEntities(int rows, Random random) {
+        List<Category> categories = new ArrayList<>();
+        for (String kind : KINDS) {
+            Category category = new Category();
+            category.setCategoryId(new UUID(random.nextLong(), random.nextLong()));
+            category.setCategoryName(kind);
+            categories.add(category);
+        }
+        String[][] rawRows = products(rows, random);
+        List<Product> products = new ArrayList<>(rows);
+        for (String[] row : rawRows) {
+            Product product = new Product();
+            product.setProductId(new UUID(random.nextLong(), random.nextLong()));
+            product.setProductCode(row[0]);
+            product.setProductName(row[1]);
+            product.setBarcode(row[2]);
+            product.setCategory(categories.get(random.nextInt(categories.size())));
+            product.setCreatedDate(LocalDateTime.of(2025, 1, 1, 8, 0).plusMinutes(random.nextInt(500_000)));
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Giá bán lẻ từ 5.000đ đến 500.000đ, làm tròn nghìn đồng
+     */
+    static BigDecimal price(Random random) {
+        return BigDecimal.valueOf(5_000L + 1_000L * random.nextInt(496));
+    }
+
+    /**
+     * Khuyến mãi đang hiệu lực tại now, mỗi khuyến mãi áp dụng cho productsPerPromotion sản phẩm ngẫu nhiên
+     */
+    static List<Promotion> promotions(List<Product> products, int count, int productsPerPromotion,
+                                      LocalDateTime now, Random random) {
+        List<Promotion> promotions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Promotion promotion = new Promotion();
+            promotion.setPromotionId(new UUID(random.nextLong(), random.nextLong()));
+            promotion.setPromotionName("Khuyến mãi " + (i + 1));
+            boolean percent = random.nextBoolean();
+            promotion.setDiscountType(percent ? Promotion.DiscountType.PERCENT : Promotion.DiscountType.FIXED);
+            promotion.setDiscountValue(percent ? BigDecimal.valueOf(5 + random.nextInt(30))
+                    : BigDecimal.valueOf(1_000L * (1 + random.nextInt(20))));
+            promotion.setStartDate(now.minusDays(random.nextInt(10)));
+            promotion.setEndDate(now.plusDays(1 + random.nextInt(10)));
+            promotion.setActive(true);
+            Set<Product> applied = new HashSet<>();
+            for (int j = 0; j < productsPerPromotion; j++) {
+                applied.add(products.get(random.nextInt(products.size())));
+            }
+            promotion.setProducts(applied);
+            promotions.add(promotion);
+        }
+        return promotions;
+    }
+
+    /**
+     * Các dòng (khuyến mãi, sản phẩm) như PromotionRepository.findActivePromotionProductRows trả về
+     */
+    static List<Object[]> promotionRows(List<Promotion> promotions) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Promotion p : promotions) {
+            for (Product product : p.getProducts()) {
+                rows.add(new Object[]{p.getPromotionId(), p.getDiscountType(), p.getDiscountValue(),
+                        p.getStartDate(), p.getEndDate(), product.getProductId()});
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,73 @@
+package com.g127.snapbuy.benchmark;
+
+import com.g127.snapbuy.common.config.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đường xác thực token của mỗi request: parse + kiểm tra chữ ký lần đầu, đọc lại từ cache claims,
+ * và cách cũ validateToken(String, UserDetails) parse token hai lần.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    private JwtUtil jwtUtil;
+    private UserDetails user;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        user = new User("thungan01", "", List.of(new SimpleGrantedAuthority("ROLE_Nhân viên bán hàng")));
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtUtil.generateToken(user, Map.of("type", "access", "ver", 3, "tenantId", "tenant-" + (i % 16)));
+        }
+    }
+
+    private String nextToken() {
+        next = (next + 1) & (TOKENS - 1);
+        return tokens[next];
+    }
+
+    @Benchmark
+    public boolean parseAndValidateUncached() {
+        String token = nextToken();
+        return jwtUtil.extractType(token) != null && jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public boolean parseClaimsCachedAndValidate() {
+        JwtUtil.JwtClaims claims = jwtUtil.parseClaims(nextToken());
+        return jwtUtil.validateToken(claims, user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user, Map.of("type", "access", "ver", 3, "tenantId", "tenant-1"));
+    }
+}
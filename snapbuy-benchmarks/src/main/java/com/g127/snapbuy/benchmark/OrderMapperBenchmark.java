@@ -0,0 +1,109 @@
+package com.g127.snapbuy.benchmark;
+
+import com.g127.snapbuy.account.entity.Account;
+import com.g127.snapbuy.account.mapper.AccountMapper;
+import com.g127.snapbuy.account.mapper.AccountMapperImpl;
+import com.g127.snapbuy.customer.entity.Customer;
+import com.g127.snapbuy.order.dto.response.OrderResponse;
+import com.g127.snapbuy.order.entity.Order;
+import com.g127.snapbuy.order.entity.OrderDetail;
+import com.g127.snapbuy.order.mapper.OrderMapper;
+import com.g127.snapbuy.order.mapper.OrderMapperImpl;
+import com.g127.snapbuy.payment.entity.Payment;
+import com.g127.snapbuy.product.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chuyển đơn hàng nhiều dòng sang OrderResponse, gồm cả tính thành tiền từng dòng
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMapperBenchmark {
+
+    @Param({"10", "200", "2000"})
+    private int lines;
+
+    private final OrderMapper orderMapper = new OrderMapperImpl();
+    private final AccountMapper accountMapper = new AccountMapperImpl();
+    private Order order;
+    private List<OrderDetail> details;
+    private Payment payment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2025, 6, 15, 10, 0);
+
+        Account cashier = new Account();
+        cashier.setAccountId(UUID.randomUUID());
+        cashier.setUsername("thungan01");
+        cashier.setFullName("Nguyễn Thị Thu Ngân");
+        Customer customer = new Customer();
+        customer.setCustomerId(UUID.randomUUID());
+        customer.setFullName("Trần Văn Khách");
+        customer.setPhone("0901234567");
+
+        order = new Order();
+        order.setOrderId(UUID.randomUUID());
+        order.setOrderNumber("ORD250615001");
+        order.setAccount(cashier);
+        order.setCustomer(customer);
+        order.setOrderDate(now);
+        order.setOrderStatus("Hoàn tất");
+        order.setPaymentStatus("Đã thanh toán");
+        order.setCreatedDate(now);
+        order.setUpdatedDate(now);
+
+        List<Product> products = Catalogue.productEntities(lines, random);
+        details = new ArrayList<>(lines);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Product product : products) {
+            OrderDetail detail = new OrderDetail();
+            detail.setOrderDetailId(UUID.randomUUID());
+            detail.setOrder(order);
+            detail.setProduct(product);
+            detail.setQuantity(1 + random.nextInt(5));
+            detail.setUnitPrice(Catalogue.price(random));
+            detail.setDiscount(BigDecimal.valueOf(random.nextInt(4) * 5L));
+            details.add(detail);
+            total = total.add(detail.getUnitPrice().multiply(BigDecimal.valueOf(detail.getQuantity())));
+        }
+        order.setTotalAmount(total);
+
+        payment = new Payment();
+        payment.setPaymentId(UUID.randomUUID());
+        payment.setOrder(order);
+        payment.setPaymentMethod("Tiền mặt");
+        payment.setAmount(total);
+        payment.setPaymentStatus("Đã thanh toán");
+        payment.setPaymentDate(now);
+    }
+
+    @Benchmark
+    public OrderResponse toResponse() {
+        return orderMapper.toResponse(order, details, payment, accountMapper);
+    }
+}
@@ -0,0 +1,203 @@
+package com.g127.snapbuy.benchmark;
+
+import com.g127.snapbuy.account.entity.Account;
+import com.g127.snapbuy.account.mapper.AccountMapperImpl;
+import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.common.service.DocumentSequenceService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
+import com.g127.snapbuy.customer.entity.Customer;
+import com.g127.snapbuy.customer.repository.CustomerRepository;
+import com.g127.snapbuy.inventory.entity.Inventory;
+import com.g127.snapbuy.inventory.repository.InventoryRepository;
+import com.g127.snapbuy.inventory.repository.InventoryTransactionRepository;
+import com.g127.snapbuy.notification.service.LowStockAlertService;
+import com.g127.snapbuy.notification.service.NotificationSchedulerService;
+import com.g127.snapbuy.order.dto.request.OrderCreateRequest;
+import com.g127.snapbuy.order.dto.request.OrderDetailRequest;
+import com.g127.snapbuy.order.dto.response.OrderResponse;
+import com.g127.snapbuy.order.mapper.OrderMapperImpl;
+import com.g127.snapbuy.order.repository.OrderDetailRepository;
+import com.g127.snapbuy.order.repository.OrderRepository;
+import com.g127.snapbuy.order.service.impl.OrderServiceImpl;
+import com.g127.snapbuy.payment.repository.PaymentRepository;
+import com.g127.snapbuy.payment.service.MoMoPaymentIntentService;
+import com.g127.snapbuy.product.entity.Product;
+import com.g127.snapbuy.product.entity.ProductPrice;
+import com.g127.snapbuy.product.repository.ProductPriceRepository;
+import com.g127.snapbuy.product.repository.ProductRepository;
+import com.g127.snapbuy.promotion.entity.Promotion;
+import com.g127.snapbuy.promotion.mapper.PromotionMapper;
+import com.g127.snapbuy.promotion.repository.PromotionRepository;
+import com.g127.snapbuy.promotion.service.impl.PromotionIndexServiceImpl;
+import com.g127.snapbuy.promotion.service.impl.PromotionServiceImpl;
+import com.g127.snapbuy.report.service.SalesRollupService;
+import com.g127.snapbuy.settings.entity.PosSettings;
+import com.g127.snapbuy.settings.repository.PosSettingsRepository;
+import com.g127.snapbuy.settings.service.impl.LoyaltyPolicyServiceImpl;
+import com.g127.snapbuy.tenant.service.ScheduledJobService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderServiceImpl.createOrder với repository giả: chỉ còn phần tính giá (giá hiện hành, khuyến mãi,
+ * chiết khấu dòng, giảm giá hóa đơn, thuế, điểm tích lũy) và dựng OrderResponse.
+ * Tồn kho và khách hàng được trả về bản mới ở mỗi lần gọi như khi đọc từ DB, nên số lần chạy không bị giới hạn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPricingBenchmark {
+
+    @Param({"5", "50"})
+    private int lines;
+
+    private OrderServiceImpl orderService;
+    private OrderCreateRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = Catalogue.productEntities(lines, random);
+        List<Promotion> promotions = Catalogue.promotions(products, Math.max(1, lines / 2), 3, now, random);
+        List<ProductPrice> prices = new ArrayList<>();
+        for (Product product : products) {
+            ProductPrice price = new ProductPrice();
+            price.setProduct(product);
+            price.setUnitPrice(Catalogue.price(random));
+            price.setValidFrom(now.minusDays(30));
+            prices.add(price);
+        }
+
+        Account cashier = new Account();
+        cashier.setAccountId(UUID.randomUUID());
+        cashier.setUsername("thungan01");
+        cashier.setFullName("Nguyễn Thị Thu Ngân");
+        Account owner = new Account();
+        owner.setAccountId(UUID.randomUUID());
+        owner.setUsername("chucuahang");
+        PosSettings settings = new PosSettings();
+        settings.setAccount(owner);
+        settings.setLoyaltyPointsPercent(BigDecimal.ONE);
+        UUID customerId = UUID.randomUUID();
+
+        AccountRepository accountRepository = Stubs.of(AccountRepository.class, Map.of(
+                "findByUsername", args -> Optional.of(cashier),
+                "findById", args -> Optional.of(cashier),
+                "findByRoleName", args -> List.of(owner)));
+        CustomerRepository customerRepository = Stubs.of(CustomerRepository.class, Map.of(
+                "getCustomerByPhone", args -> {
+                    Customer customer = new Customer();
+                    customer.setCustomerId(customerId);
+                    customer.setFullName("Trần Văn Khách");
+                    customer.setPhone((String) args[0]);
+                    customer.setPoints(5_000);
+                    return customer;
+                }));
+        ProductRepository productRepository = Stubs.of(ProductRepository.class, Map.of(
+                "findAllWithCategoryAndSupplierByIdIn", args -> products));
+        InventoryRepository inventoryRepository = Stubs.of(InventoryRepository.class, Map.of(
+                "lockByProductIdIn", args -> {
+                    List<Inventory> inventories = new ArrayList<>(products.size());
+                    for (Product product : products) {
+                        Inventory inventory = new Inventory();
+                        inventory.setProduct(product);
+                        inventory.setQuantityInStock(1_000);
+                        inventories.add(inventory);
+                    }
+                    return inventories;
+                }));
+        ProductPriceRepository productPriceRepository = Stubs.of(ProductPriceRepository.class, Map.of(
+                "findCurrentPricesByProductIdIn", args -> prices));
+        PosSettingsRepository posSettingsRepository = Stubs.of(PosSettingsRepository.class, Map.of(
+                "findByAccount", args -> Optional.of(settings)));
+        List<Object[]> promotionRows = Catalogue.promotionRows(promotions);
+        PromotionRepository promotionRepository = Stubs.of(PromotionRepository.class, Map.of(
+                "findActivePromotionProductRows", args -> promotionRows));
+        DocumentSequenceService documentSequenceService = Stubs.of(DocumentSequenceService.class, Map.of(
+                "nextValue", args -> 1L));
+
+        PromotionServiceImpl promotionService = new PromotionServiceImpl(promotionRepository, productRepository,
+                Stubs.of(PromotionMapper.class), Stubs.of(NotificationSchedulerService.class),
+                Stubs.of(ScheduledJobService.class), new PromotionIndexServiceImpl(promotionRepository, Long.MAX_VALUE / 2));
+        orderService = new OrderServiceImpl(
+                Stubs.of(OrderRepository.class),
+                Stubs.of(OrderDetailRepository.class),
+                Stubs.of(PaymentRepository.class),
+                productRepository,
+                inventoryRepository,
+                Stubs.of(InventoryTransactionRepository.class),
+                accountRepository,
+                customerRepository,
+                productPriceRepository,
+                new OrderMapperImpl(),
+                new AccountMapperImpl(),
+                Stubs.of(MoMoPaymentIntentService.class),
+                promotionService,
+                new LoyaltyPolicyServiceImpl(accountRepository, posSettingsRepository,
+                        new ReferenceDataCacheServiceImpl(60000, 100)),
+                Stubs.of(LowStockAlertService.class),
+                documentSequenceService,
+                Stubs.of(SalesRollupService.class));
+
+        // Nửa số dòng lấy giá hiện hành, nửa còn lại dùng giá thu ngân nhập
+        List<OrderDetailRequest> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(OrderDetailRequest.builder()
+                    .productId(products.get(i).getProductId())
+                    .quantity(1 + random.nextInt(5))
+                    .unitPrice(i % 2 == 0 ? null : Catalogue.price(random))
+                    .discount(BigDecimal.valueOf(random.nextInt(3) * 5L))
+                    .build());
+        }
+        request = OrderCreateRequest.builder()
+                .phone("0901234567")
+                .items(items)
+                .discountAmount(BigDecimal.valueOf(5))
+                .taxAmount(BigDecimal.valueOf(8))
+                .paymentMethod("Tiền mặt")
+                .usePoints(1_000)
+                .build();
+
+        // Luồng chạy benchmark khác luồng chạy @Setup nên dùng SecurityContext chung
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(cashier.getUsername(), null, List.of()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public OrderResponse createOrder() {
+        return orderService.createOrder(request);
+    }
+}
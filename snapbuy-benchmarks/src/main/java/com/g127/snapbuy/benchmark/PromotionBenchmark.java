@@ -0,0 +1,94 @@
+package com.g127.snapbuy.benchmark;
+
+import com.g127.snapbuy.notification.service.NotificationSchedulerService;
+import com.g127.snapbuy.order.dto.response.DiscountInfoResponse;
+import com.g127.snapbuy.product.entity.Product;
+import com.g127.snapbuy.product.repository.ProductRepository;
+import com.g127.snapbuy.promotion.entity.Promotion;
+import com.g127.snapbuy.promotion.mapper.PromotionMapper;
+import com.g127.snapbuy.promotion.repository.PromotionRepository;
+import com.g127.snapbuy.promotion.service.impl.PromotionIndexServiceImpl;
+import com.g127.snapbuy.promotion.service.impl.PromotionServiceImpl;
+import com.g127.snapbuy.tenant.service.ScheduledJobService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tính giảm giá cho một trang sản phẩm (màn hình POS) và cho giỏ hàng khi tạo đơn.
+ * Repository trả về danh sách khuyến mãi dựng sẵn; chỉ mục khuyến mãi được nạp ở lần gọi đầu (trong warmup)
+ * nên chỉ đo phần tra chỉ mục và tính giảm giá.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionBenchmark {
+
+    @Param({"50", "500"})
+    private int pageSize;
+
+    @Param({"300"})
+    private int promotions;
+
+    private PromotionServiceImpl promotionService;
+    private List<UUID> productIds;
+    private Map<UUID, BigDecimal> priceMap;
+    private Map<UUID, BigDecimal> cartPrices;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        now = LocalDateTime.of(2025, 6, 15, 10, 0);
+        List<Product> products = Catalogue.productEntities(5_000, random);
+        List<Promotion> activePromotions = Catalogue.promotions(products, promotions, 20, now, random);
+
+        List<Object[]> rows = Catalogue.promotionRows(activePromotions);
+        PromotionRepository promotionRepository = Stubs.of(PromotionRepository.class, Map.of(
+                "findActivePromotionProductRows", args -> rows));
+        promotionService = new PromotionServiceImpl(promotionRepository, Stubs.of(ProductRepository.class),
+                Stubs.of(PromotionMapper.class), Stubs.of(NotificationSchedulerService.class),
+                Stubs.of(ScheduledJobService.class), new PromotionIndexServiceImpl(promotionRepository, Long.MAX_VALUE / 2));
+
+        productIds = products.subList(0, pageSize).stream().map(Product::getProductId).toList();
+        priceMap = new HashMap<>();
+        for (UUID productId : productIds) {
+            priceMap.put(productId, Catalogue.price(random));
+        }
+        cartPrices = new HashMap<>();
+        for (UUID productId : productIds.subList(0, 10)) {
+            cartPrices.put(productId, priceMap.get(productId));
+        }
+    }
+
+    @Benchmark
+    public Map<UUID, DiscountInfoResponse> computeBatchDiscountInfo() {
+        return promotionService.computeBatchDiscountInfo(productIds, priceMap, now);
+    }
+
+    @Benchmark
+    public Map<UUID, BigDecimal> computeBestDiscountPercentsForCart() {
+        return promotionService.computeBestDiscountPercents(cartPrices, now);
+    }
+}
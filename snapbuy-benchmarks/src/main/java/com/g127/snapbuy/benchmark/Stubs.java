@@ -0,0 +1,64 @@
+package com.g127.snapbuy.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cài đặt giả cho repository/service dạng interface, để benchmark chạy code thật của service mà không cần DB.
+ * Phương thức có trong answers trả về kết quả đã khai báo; save/saveAll trả lại các entity được truyền vào;
+ * còn lại trả giá trị rỗng theo kiểu trả về (Optional.empty, List.of, 0, false, null).
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            String name = method.getName();
+            Function<Object[], Object> answer = answers.get(name);
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (name) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            if (name.equals("save") && args != null && args.length == 1) {
+                return args[0];
+            }
+            if (name.equals("saveAll") && args != null && args.length == 1 && args[0] instanceof Iterable<?> entities) {
+                List<Object> saved = new ArrayList<>();
+                entities.forEach(saved::add);
+                return saved;
+            }
+            return emptyValue(method.getReturnType());
+        });
+        return type.cast(stub);
+    }
+
+    static <T> T of(Class<T> type) {
+        return of(type, Map.of());
+    }
+
+    private static Object emptyValue(Class<?> returnType) {
+        if (returnType == Optional.class) return Optional.empty();
+        if (returnType == List.class || returnType == Collection.class || returnType == Iterable.class) return List.of();
+        if (returnType == Set.class) return Set.of();
+        if (returnType == Map.class) return Map.of();
+        if (returnType == boolean.class) return false;
+        if (returnType == long.class) return 0L;
+        if (returnType == int.class) return 0;
+        if (returnType == double.class) return 0d;
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.g127.snapbuy.benchmark;
+
+import com.g127.snapbuy.common.utils.VietnameseUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.Normalizer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lọc danh mục sản phẩm theo keyword không dấu: cách cũ (Normalizer + regex cho mọi trường của mọi dòng)
+ * so với bảng fold hiện tại, keyword fold một lần rồi so khớp tại chỗ bằng containsFolded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VietnameseUtilsBenchmark {
+
+    @Param({"20000"})
+    private int rows;
+
+    private String[][] catalogue;
+
+    @State(Scope.Benchmark)
+    public static class Query {
+
+        @Param({"sua", "Cà phê", "8934", "khong co"})
+        private String keyword;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalogue = Catalogue.products(rows, new Random(42));
+    }
+
+    @Benchmark
+    public int legacyMatchesAny(Query query) {
+        int matched = 0;
+        for (String[] row : catalogue) {
+            if (LegacyVietnameseUtils.matchesAny(query.keyword, row[0], row[1], row[2])) matched++;
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int matchesAny(Query query) {
+        int matched = 0;
+        for (String[] row : catalogue) {
+            if (VietnameseUtils.matchesAny(query.keyword, row[0], row[1], row[2])) matched++;
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int matchesAnyFolded(Query query) {
+        String foldedKeyword = VietnameseUtils.fold(query.keyword);
+        int matched = 0;
+        for (String[] row : catalogue) {
+            if (VietnameseUtils.matchesAnyFolded(foldedKeyword, row[0], row[1], row[2])) matched++;
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int legacyNormalizeForSearch() {
+        int length = 0;
+        for (String[] row : catalogue) {
+            length += LegacyVietnameseUtils.removeDiacritics(row[1].toLowerCase()).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int normalizeForSearch() {
+        int length = 0;
+        for (String[] row : catalogue) {
+            length += VietnameseUtils.normalizeForSearch(row[1]).length();
+        }
+        return length;
+    }
+
+    /**
+     * Bản sao cài đặt trước đây của VietnameseUtils, giữ lại làm mốc so sánh
+     */
+    static final class LegacyVietnameseUtils {
+
+        private LegacyVietnameseUtils() {
+        }
+
+        static String removeDiacritics(String input) {
+            if (input == null) return null;
+            String normalized = Normalizer.normalize(input, Normalizer.Form.NFD)
+                    .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+            return normalized
+                    .replace("đ", "d")
+                    .replace("Đ", "D");
+        }
+
+        static boolean containsIgnoreDiacritics(String text, String keyword) {
+            if (text == null || keyword == null || keyword.isEmpty()) {
+                return keyword == null || keyword.isEmpty();
+            }
+            return removeDiacritics(text.toLowerCase())
+                    .contains(removeDiacritics(keyword.toLowerCase()));
+        }
+
+        static boolean matchesAny(String keyword, String... fields) {
+            if (keyword == null || keyword.isEmpty()) {
+                return true;
+            }
+            for (String field : fields) {
+                if (containsIgnoreDiacritics(field, keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import {
   createOrder,
   completeOrder,
   getOrderById,
+  getMomoPaymentIntent,
 } from "../../services/OrderService";
 import { getPosSettings } from "../../services/PosSettingsService";
 import {
@@ -1045,6 +1046,27 @@ const Pos = () => {
     })();
   };
 
+  // Link MoMo được server tạo sau khi đơn hàng đã lưu - hỏi lại cho đến khi sẵn sàng
+  const waitForMomoPayUrl = async (order) => {
+    if (order?.payment?.payUrl) return order.payment.payUrl;
+    if (order?.payment?.notes?.startsWith("PAYURL:")) {
+      return order.payment.notes.substring("PAYURL:".length);
+    }
+
+    const maxAttempts = 30; // ~15 giây (30 * 500ms)
+    for (let attempt = 0; attempt < maxAttempts; attempt++) {
+      await new Promise((resolve) => setTimeout(resolve, 500));
+      try {
+        const intent = await getMomoPaymentIntent(order.orderId);
+        if (intent?.status === "READY") return intent.payUrl;
+        if (intent?.status === "FAILED") return null;
+      } catch {
+        // Thử lại ở lượt tiếp theo
+      }
+    }
+    return null;
+  };
+
   const handleSelectPaymentMethod = async (paymentMethod) => {
     if (cartItems.length === 0) {
       message.warning("Vui lòng thêm sản phẩm vào giỏ hàng");
@@ -1101,7 +1123,17 @@ const Pos = () => {
           : "Đang tạo đơn hàng...",
         0
       );
-      const orderResult = await createOrder(orderData);
+      let orderResult = await createOrder(orderData);
+
+      if (paymentMethod === "momo") {
+        const payUrl = await waitForMomoPayUrl(orderResult);
+        if (payUrl) {
+          orderResult = {
+            ...orderResult,
+            payment: { ...orderResult.payment, payUrl },
+          };
+        }
+      }
       message.destroy();
 
       setCreatedOrder(orderResult);
@@ -27,6 +27,15 @@ export const getOrderById = async (id) => {
   return response.data?.result || response.data;
 };
 
+// Link MoMo được tạo bất đồng bộ sau khi lưu đơn: { status: PENDING | READY | FAILED, payUrl, message }
+export const getMomoPaymentIntent = async (id) => {
+  const response = await axios.get(
+    `${REST_API_BASE_URL}/${id}/momo-payment`,
+    getAuthHeaders()
+  );
+  return response.data?.result || response.data;
+};
+
 export const getMyTodayOrderCount = async (paymentStatus = "Đã thanh toán") => {
   const params = paymentStatus ? { paymentStatus } : {};
   const response = await axios.get(`${REST_API_BASE_URL}/my/today-count`, {
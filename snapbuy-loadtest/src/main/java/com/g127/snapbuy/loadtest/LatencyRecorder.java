@@ -0,0 +1,98 @@
+package com.g127.snapbuy.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Lưu thời gian phản hồi theo từng endpoint. Chỉ ghi khi đang ở pha đo (sau warmup),
+ * percentile được tính chính xác trên toàn bộ mẫu khi kết thúc.
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new ConcurrentSkipListMap<>();
+    private final Map<String, String> firstErrors = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        private synchronized void add(long value, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        private synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        private synchronized long errors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Thống kê của một endpoint trong pha đo
+     */
+    record EndpointStats(String endpoint, long requests, long errors, double throughputPerSecond,
+                         double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    void startRecording() {
+        recording = true;
+    }
+
+    void stopRecording() {
+        recording = false;
+    }
+
+    void record(String endpoint, long nanos, boolean ok) {
+        if (!recording) return;
+        samples.computeIfAbsent(endpoint, k -> new Samples()).add(nanos, ok);
+    }
+
+    /**
+     * Giữ lại thông báo lỗi đầu tiên của mỗi endpoint để in trong báo cáo
+     */
+    void recordError(String endpoint, String message) {
+        if (!recording) return;
+        firstErrors.putIfAbsent(endpoint, message);
+    }
+
+    Map<String, String> firstErrors() {
+        return firstErrors;
+    }
+
+    List<EndpointStats> summarize(double measuredSeconds) {
+        List<EndpointStats> stats = new ArrayList<>();
+        samples.forEach((endpoint, s) -> {
+            long[] sorted = s.sorted();
+            long errors = s.errors();
+            stats.add(new EndpointStats(endpoint, sorted.length + errors, errors,
+                    sorted.length / measuredSeconds,
+                    percentileMs(sorted, 0.50), percentileMs(sorted, 0.95), percentileMs(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0));
+        });
+        return stats;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        // Nearest-rank: phần tử nhỏ nhất mà ít nhất percentile mẫu không lớn hơn nó
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.g127.snapbuy.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tham số của một lần chạy, đọc từ dòng lệnh dạng --key=value.
+ * Mặc định khớp với docker-compose: backend ở localhost:8080, tài khoản quản trị admin/admin123.
+ */
+final class LoadTestConfig {
+
+    final String baseUrl;
+    final String adminUsername;
+    final String adminPassword;
+    final String runId;
+    final int tenants;
+    final int products;
+    final int customers;
+    final int stockPerProduct;
+    final int usersPerTenant;
+    final Duration warmup;
+    final Duration duration;
+    final Map<Workload, Integer> mix;
+    final String output;
+    final boolean cleanup;
+
+    private LoadTestConfig(Map<String, String> options) {
+        baseUrl = trimSlash(options.getOrDefault("base-url", "http://localhost:8080"));
+        adminUsername = options.getOrDefault("admin-username", "admin");
+        adminPassword = options.getOrDefault("admin-password", "admin123");
+        // Mã cửa hàng chỉ cho phép [a-z0-9_-], nên runId dùng base 36 của thời điểm chạy
+        runId = options.getOrDefault("run-id", Long.toString(System.currentTimeMillis() / 1000, 36));
+        tenants = intOption(options, "tenants", 3);
+        products = intOption(options, "products", 500);
+        customers = intOption(options, "customers", 200);
+        stockPerProduct = intOption(options, "stock", 5_000);
+        usersPerTenant = intOption(options, "users", 8);
+        warmup = Duration.ofSeconds(intOption(options, "warmup", 30));
+        duration = Duration.ofSeconds(intOption(options, "duration", 120));
+        mix = parseMix(options.getOrDefault("mix", "checkout:40,scan:30,search:20,dashboard:10"));
+        output = options.getOrDefault("output", "loadtest-result.json");
+        cleanup = Boolean.parseBoolean(options.getOrDefault("cleanup", "false"));
+
+        if (!runId.matches("^[a-z0-9]{1,20}$")) {
+            throw new IllegalArgumentException("--run-id chỉ gồm chữ thường và số, tối đa 20 ký tự");
+        }
+        if (tenants < 1 || products < 1 || usersPerTenant < 1 || duration.isZero()) {
+            throw new IllegalArgumentException("--tenants, --products, --users, --duration phải lớn hơn 0");
+        }
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Tham số không hợp lệ: " + arg + " (dạng --key=value)");
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestConfig(options);
+    }
+
+    static String usage() {
+        return """
+                java -jar loadtest.jar [--key=value ...]
+                  --base-url=http://localhost:8080   backend cần đo
+                  --admin-username=admin --admin-password=admin123
+                  --tenants=3          số cửa hàng tạo mới cho lần chạy
+                  --products=500       sản phẩm tổng hợp mỗi cửa hàng (ngoài dữ liệu mẫu)
+                  --customers=200      khách hàng tổng hợp mỗi cửa hàng
+                  --stock=5000         số lượng nhập kho cho mỗi sản phẩm
+                  --users=8            người dùng đồng thời mỗi cửa hàng
+                  --warmup=30 --duration=120   giây
+                  --mix=checkout:40,scan:30,search:20,dashboard:10
+                  --output=loadtest-result.json
+                  --cleanup=false      xóa các cửa hàng đã tạo khi kết thúc
+                  --run-id=<base36>    tiền tố mã cửa hàng, mặc định sinh theo thời gian
+                """;
+    }
+
+    private static Map<Workload, Integer> parseMix(String value) {
+        Map<Workload, Integer> mix = new EnumMap<>(Workload.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("--mix không hợp lệ: " + value);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Workload.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix phải có ít nhất một workload với trọng số > 0");
+        }
+        return mix;
+    }
+
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static String trimSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
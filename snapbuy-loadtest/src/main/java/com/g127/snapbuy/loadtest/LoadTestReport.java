@@ -0,0 +1,85 @@
+package com.g127.snapbuy.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kết quả một lần chạy: thời gian tạo từng cửa hàng và thống kê độ trễ theo endpoint.
+ * In dạng bảng ra console và ghi JSON để so sánh giữa các lần chạy.
+ */
+final class LoadTestReport {
+
+    private final LoadTestConfig config;
+    private final List<TenantFixture> fixtures;
+    private final double measuredSeconds;
+    private final List<LatencyRecorder.EndpointStats> endpoints;
+    private final Map<String, String> firstErrors;
+
+    LoadTestReport(LoadTestConfig config, List<TenantFixture> fixtures, double measuredSeconds,
+                   List<LatencyRecorder.EndpointStats> endpoints, Map<String, String> firstErrors) {
+        this.config = config;
+        this.fixtures = fixtures;
+        this.measuredSeconds = measuredSeconds;
+        this.endpoints = endpoints;
+        this.firstErrors = firstErrors;
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.println("Thời gian tạo cửa hàng:");
+        for (TenantFixture fixture : fixtures) {
+            out.printf("  %-24s %8.1f s%n", fixture.tenantCode(), fixture.provisionSeconds());
+        }
+
+        out.println();
+        out.printf("Đo trong %.1f s%n", measuredSeconds);
+        out.printf("%-40s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (LatencyRecorder.EndpointStats s : endpoints) {
+            out.printf("%-40s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    s.endpoint(), s.requests(), s.errors(), s.throughputPerSecond(),
+                    s.p50Ms(), s.p95Ms(), s.p99Ms(), s.maxMs());
+        }
+
+        if (!firstErrors.isEmpty()) {
+            out.println();
+            out.println("Lỗi đầu tiên theo loại thao tác:");
+            firstErrors.forEach((workload, message) -> out.printf("  %-10s %s%n", workload, message));
+        }
+    }
+
+    void write(String path) throws IOException {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("runId", config.runId);
+        run.put("finishedAt", Instant.now().toString());
+        run.put("baseUrl", config.baseUrl);
+        run.put("tenants", config.tenants);
+        run.put("productsPerTenant", config.products);
+        run.put("customersPerTenant", config.customers);
+        run.put("usersPerTenant", config.usersPerTenant);
+        run.put("warmupSeconds", config.warmup.toSeconds());
+        run.put("measuredSeconds", measuredSeconds);
+        run.put("mix", config.mix);
+
+        Map<String, Double> provisioning = new LinkedHashMap<>();
+        fixtures.forEach(f -> provisioning.put(f.tenantCode(), f.provisionSeconds()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("run", run);
+        result.put("provisioningSeconds", provisioning);
+        result.put("endpoints", endpoints);
+        result.put("firstErrors", firstErrors);
+
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(path), result);
+    }
+}
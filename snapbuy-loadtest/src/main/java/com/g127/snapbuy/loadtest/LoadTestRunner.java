@@ -0,0 +1,236 @@
+package com.g127.snapbuy.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chạy tải đầu-cuối vào một backend SnapBuy đang chạy (docker compose):
+ * tạo các cửa hàng tổng hợp, cho mỗi cửa hàng một nhóm người dùng ảo lặp lại hỗn hợp thao tác
+ * thanh toán / quét mã / tìm kiếm / tổng quan, rồi ghi p50/p95/p99 và throughput theo từng endpoint.
+ * <p>
+ * Ví dụ: {@code java -jar target/loadtest.jar --base-url=http://localhost:8080 --tenants=3 --duration=120}
+ */
+public final class LoadTestRunner {
+
+    static final String CREATE_ORDER = "POST /api/orders";
+    static final String COMPLETE_ORDER = "POST /api/orders/{id}/complete";
+    static final String SCAN_BARCODE = "GET /api/products/barcode/{barcode}";
+    static final String SEARCH_PRODUCTS = "GET /api/products/search-paged";
+    static final String REVENUE_SERIES = "GET /api/revenue/series";
+    static final String REVENUE_MONTHLY = "GET /api/revenue/monthly-daily";
+    static final String PRODUCTS_REVENUE = "GET /api/reports/products-revenue";
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /** Số tenant được tạo đồng thời, việc tạo database phía server vốn tuần tự nên không cần nhiều hơn */
+    private static final int PROVISION_CONCURRENCY = 2;
+
+    private final LoadTestConfig config;
+    private final SnapbuyClient client;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private volatile boolean running = true;
+
+    private LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+        this.client = new SnapbuyClient(config.baseUrl);
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String arg : args) {
+            if ("--help".equals(arg) || "-h".equals(arg)) {
+                System.out.println(LoadTestConfig.usage());
+                return;
+            }
+        }
+        new LoadTestRunner(LoadTestConfig.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        SnapbuyClient.Session admin = TenantProvisioner.adminLogin(client, config);
+        TenantProvisioner provisioner = new TenantProvisioner(client, config, admin);
+
+        List<TenantFixture> fixtures = provision(provisioner);
+        try {
+            LoadTestReport report = drive(fixtures);
+            report.print(System.out);
+            report.write(config.output);
+            System.out.println("Đã ghi kết quả vào " + config.output);
+        } finally {
+            if (config.cleanup) {
+                for (TenantFixture fixture : fixtures) {
+                    try {
+                        provisioner.delete(fixture);
+                    } catch (RuntimeException e) {
+                        System.err.println("Không xóa được tenant " + fixture.tenantCode() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private List<TenantFixture> provision(TenantProvisioner provisioner) throws Exception {
+        System.out.printf("Tạo %d cửa hàng (run %s): %d sản phẩm, %d khách hàng mỗi cửa hàng%n",
+                config.tenants, config.runId, config.products, config.customers);
+        List<TenantFixture> fixtures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(PROVISION_CONCURRENCY)) {
+            List<Future<TenantFixture>> futures = new ArrayList<>();
+            for (int i = 1; i <= config.tenants; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> provisioner.provision(index)));
+            }
+            for (Future<TenantFixture> future : futures) {
+                fixtures.add(future.get());
+            }
+        }
+        return fixtures;
+    }
+
+    private LoadTestReport drive(List<TenantFixture> fixtures) throws InterruptedException {
+        List<Thread> users = new ArrayList<>();
+        for (TenantFixture fixture : fixtures) {
+            for (int u = 0; u < config.usersPerTenant; u++) {
+                users.add(Thread.ofVirtual()
+                        .name(fixture.tenantCode() + "-user-" + u)
+                        .start(() -> userLoop(fixture)));
+            }
+        }
+
+        System.out.printf("%d người dùng ảo, khởi động %ds, đo %ds%n",
+                users.size(), config.warmup.toSeconds(), config.duration.toSeconds());
+        TimeUnit.MILLISECONDS.sleep(config.warmup.toMillis());
+        recorder.startRecording();
+        long start = System.nanoTime();
+        TimeUnit.MILLISECONDS.sleep(config.duration.toMillis());
+        recorder.stopRecording();
+        double measuredSeconds = (System.nanoTime() - start) / 1e9;
+
+        running = false;
+        for (Thread user : users) {
+            user.join();
+        }
+        return new LoadTestReport(config, fixtures, measuredSeconds,
+                recorder.summarize(measuredSeconds), recorder.firstErrors());
+    }
+
+    private void userLoop(TenantFixture fixture) {
+        while (running) {
+            Workload workload = pickWorkload();
+            try {
+                switch (workload) {
+                    case CHECKOUT -> checkout(fixture);
+                    case SCAN -> scan(fixture);
+                    case SEARCH -> search(fixture);
+                    case DASHBOARD -> dashboard(fixture);
+                }
+            } catch (RuntimeException e) {
+                recorder.recordError(workload.name(), e.getMessage());
+            }
+        }
+    }
+
+    private Workload pickWorkload() {
+        int total = config.mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Workload, Integer> entry : config.mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Tỷ trọng workload không hợp lệ: " + config.mix);
+    }
+
+    /**
+     * Giỏ 1-5 dòng, một nửa số đơn gắn với khách hàng có sẵn, thanh toán tiền mặt
+     */
+    private void checkout(TenantFixture fixture) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int lines = 1 + random.nextInt(5);
+        List<Map<String, Object>> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            TenantFixture.Product product = pick(fixture.products());
+            items.add(Map.of(
+                    "productId", product.productId(),
+                    "quantity", 1 + random.nextInt(3),
+                    "unitPrice", product.unitPrice(),
+                    "discount", BigDecimal.ZERO));
+        }
+
+        Map<String, Object> order = new LinkedHashMap<>();
+        if (random.nextBoolean() && !fixture.customerPhones().isEmpty()) {
+            order.put("phone", pick(fixture.customerPhones()));
+        }
+        order.put("items", items);
+        order.put("paymentMethod", "Tiền mặt");
+        order.put("discountAmount", BigDecimal.ZERO);
+        order.put("taxAmount", BigDecimal.ZERO);
+        order.put("usePoints", 0);
+
+        JsonNode created = client.timed(recorder, CREATE_ORDER,
+                () -> client.post(fixture.session(), "/api/orders", order));
+        String orderId = created.get("orderId").asText();
+        client.timed(recorder, COMPLETE_ORDER,
+                () -> client.post(fixture.session(), "/api/orders/" + orderId + "/complete", null));
+    }
+
+    private void scan(TenantFixture fixture) {
+        String barcode = pick(fixture.products()).barcode();
+        client.timed(recorder, SCAN_BARCODE,
+                () -> client.get(fixture.session(), "/api/products/barcode/" + SnapbuyClient.encodePath(barcode)));
+    }
+
+    private void search(TenantFixture fixture) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("keyword", pick(SyntheticData.SEARCH_KEYWORDS));
+        params.put("page", ThreadLocalRandom.current().nextInt(3));
+        params.put("size", 20);
+        client.timed(recorder, SEARCH_PRODUCTS,
+                () -> client.get(fixture.session(), "/api/products/search-paged" + SnapbuyClient.query(params)));
+    }
+
+    /**
+     * Ba request mà trang tổng quan gửi khi mở: doanh thu 30 ngày, doanh thu theo ngày của tháng, top sản phẩm
+     */
+    private void dashboard(TenantFixture fixture) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        String from = DATE_TIME.format(today.minusDays(30).atStartOfDay());
+        String to = DATE_TIME.format(now);
+
+        Map<String, Object> series = new LinkedHashMap<>();
+        series.put("startDate", from);
+        series.put("endDate", to);
+        series.put("granularity", "DAY");
+        client.timed(recorder, REVENUE_SERIES,
+                () -> client.get(fixture.session(), "/api/revenue/series" + SnapbuyClient.query(series)));
+
+        Map<String, Object> monthly = new LinkedHashMap<>();
+        monthly.put("year", today.getYear());
+        monthly.put("month", today.getMonthValue());
+        client.timed(recorder, REVENUE_MONTHLY,
+                () -> client.get(fixture.session(), "/api/revenue/monthly-daily" + SnapbuyClient.query(monthly)));
+
+        Map<String, Object> products = new LinkedHashMap<>();
+        products.put("from", from);
+        products.put("to", to);
+        client.timed(recorder, PRODUCTS_REVENUE,
+                () -> client.get(fixture.session(), "/api/reports/products-revenue" + SnapbuyClient.query(products)));
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
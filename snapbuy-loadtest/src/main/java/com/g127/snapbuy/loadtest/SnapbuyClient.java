@@ -0,0 +1,139 @@
+package com.g127.snapbuy.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Gọi REST API của backend và bóc ApiResponse: HTTP khác 2xx hoặc code khác 1000 đều coi là lỗi.
+ * Mỗi lời gọi được ghi thời gian vào recorder theo nhãn endpoint (đường dẫn mẫu, không chứa id).
+ */
+final class SnapbuyClient {
+
+    private static final int SUCCESS_CODE = 1000;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    SnapbuyClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    /**
+     * Phiên đăng nhập: token và các header đi kèm mọi request
+     */
+    record Session(String token, Map<String, String> headers) {
+
+        static Session admin(String token) {
+            return new Session(token, Map.of("X-Is-Admin", "true"));
+        }
+
+        static Session tenant(String token, String tenantId) {
+            return new Session(token, Map.of("X-Tenant-ID", tenantId));
+        }
+    }
+
+    static final class ApiException extends RuntimeException {
+        ApiException(String message) {
+            super(message);
+        }
+    }
+
+    JsonNode get(Session session, String path) {
+        return send(session, "GET", path, null);
+    }
+
+    JsonNode post(Session session, String path, Object body) {
+        return send(session, "POST", path, body);
+    }
+
+    JsonNode put(Session session, String path, Object body) {
+        return send(session, "PUT", path, body);
+    }
+
+    JsonNode delete(Session session, String path) {
+        return send(session, "DELETE", path, null);
+    }
+
+    /**
+     * Gọi API và ghi thời gian phản hồi (kể cả khi lỗi) vào recorder dưới nhãn label
+     */
+    JsonNode timed(LatencyRecorder recorder, String label, Supplier<JsonNode> call) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            JsonNode result = call.get();
+            ok = true;
+            return result;
+        } finally {
+            recorder.record(label, System.nanoTime() - start, ok);
+        }
+    }
+
+    private JsonNode send(Session session, String method, String path, Object body) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Accept", "application/json");
+            if (session != null) {
+                request.header("Authorization", "Bearer " + session.token());
+                session.headers().forEach(request::header);
+            }
+            if (body != null) {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            } else {
+                request.method(method, HttpRequest.BodyPublishers.noBody());
+            }
+
+            HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            JsonNode json = response.body().length == 0 ? null : objectMapper.readTree(response.body());
+            if (response.statusCode() / 100 != 2) {
+                throw new ApiException(method + " " + path + " -> HTTP " + response.statusCode() + ": " + message(json));
+            }
+            if (json != null && json.has("code") && json.get("code").asInt() != SUCCESS_CODE) {
+                throw new ApiException(method + " " + path + " -> code " + json.get("code").asInt() + ": " + message(json));
+            }
+            return json == null ? null : json.get("result");
+        } catch (IOException e) {
+            throw new ApiException(method + " " + path + " -> " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(method + " " + path + " bị ngắt");
+        }
+    }
+
+    static String query(Map<String, ?> params) {
+        StringBuilder query = new StringBuilder();
+        params.forEach((key, value) -> {
+            if (value == null) return;
+            query.append(query.isEmpty() ? '?' : '&')
+                    .append(key).append('=')
+                    .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+        });
+        return query.toString();
+    }
+
+    static String encodePath(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static String message(JsonNode json) {
+        return json != null && json.hasNonNull("message") ? json.get("message").asText() : "(không có message)";
+    }
+}
@@ -0,0 +1,89 @@
+package com.g127.snapbuy.loadtest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Sinh danh mục sản phẩm và khách hàng giả lập cho một cửa hàng, cố định theo seed để các lần chạy giống nhau.
+ * Mã vạch và số điện thoại chứa số thứ tự cửa hàng nên không trùng giữa các cửa hàng.
+ */
+final class SyntheticData {
+
+    static final String SUPPLIER_CODE = "LTSUP";
+    static final String SUPPLIER_NAME = "Nhà cung cấp tải thử";
+
+    private static final String[] KINDS = {
+            "Sữa tươi", "Sữa chua", "Cà phê", "Trà xanh", "Nước mắm", "Bánh quy", "Mì gói", "Dầu ăn",
+            "Nước ngọt", "Kẹo dẻo", "Gạo thơm", "Bột giặt", "Nước rửa chén", "Xúc xích", "Đường cát", "Bánh mì"
+    };
+
+    private static final String[] BRANDS = {
+            "Vinamilk", "TH True Milk", "Trung Nguyên", "Phúc Long", "Nam Ngư", "Hảo Hảo", "Tường An",
+            "Đà Lạt Milk", "Kinh Đô", "Bích Chi", "Vissan", "Biên Hòa", "Ômô", "Sunlight"
+    };
+
+    private static final String[] VARIANTS = {
+            "ít đường", "không đường", "hương dâu", "vị cay", "gói lớn", "hộp 180ml", "chai 1 lít",
+            "túi 5kg", "loại đặc biệt", "nguyên chất", "hương chanh", "vị truyền thống"
+    };
+
+    private static final String[] FAMILY_NAMES = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Võ", "Đặng", "Bùi", "Đỗ"};
+    private static final String[] MIDDLE_NAMES = {"Văn", "Thị", "Minh", "Thu", "Đức", "Ngọc", "Quốc", "Thanh"};
+    private static final String[] GIVEN_NAMES = {"An", "Bình", "Chi", "Dũng", "Giang", "Hà", "Khoa", "Lan", "Nam", "Phương", "Quân", "Trang"};
+    private static final String[] GENDERS = {"Male", "Female", "Other"};
+
+    /** Từ khóa tìm kiếm: có dấu, không dấu, viết hoa, cụm ngắn, và một từ không khớp sản phẩm nào */
+    static final List<String> SEARCH_KEYWORDS = List.of(
+            "sữa", "sua", "Cà phê", "ca phe", "Vinamilk", "trung nguyen", "hộp 180", "mi", "LT001", "khong co");
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Một dòng import sản phẩm kèm giá bán dùng khi tính tiền tại quầy
+     */
+    record ProductRow(Map<String, Object> importRequest, String barcode, BigDecimal unitPrice) {
+    }
+
+    static List<ProductRow> products(int tenantIndex, int count) {
+        Random random = new Random(31L * tenantIndex + 7);
+        List<ProductRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String kind = KINDS[random.nextInt(KINDS.length)];
+            String barcode = String.format("89%02d%09d", tenantIndex % 100, i);
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("productCode", String.format("LT%05d", i));
+            request.put("productName", kind + " " + BRANDS[random.nextInt(BRANDS.length)]
+                    + " " + VARIANTS[random.nextInt(VARIANTS.length)]);
+            request.put("categoryName", kind);
+            request.put("supplierCode", SUPPLIER_CODE);
+            request.put("supplierName", SUPPLIER_NAME);
+            request.put("unit", "Cái");
+            request.put("barcode", barcode);
+            request.put("minimumStock", 10);
+            request.put("maximumStock", 1_000_000);
+            request.put("reorderPoint", 20);
+            rows.add(new ProductRow(request, barcode, BigDecimal.valueOf(5_000L + 1_000L * random.nextInt(496))));
+        }
+        return rows;
+    }
+
+    static List<Map<String, Object>> customers(int tenantIndex, int count) {
+        Random random = new Random(17L * tenantIndex + 3);
+        List<Map<String, Object>> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("fullName", FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)] + " "
+                    + MIDDLE_NAMES[random.nextInt(MIDDLE_NAMES.length)] + " "
+                    + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)]);
+            request.put("phone", String.format("09%02d%06d", tenantIndex % 100, i));
+            request.put("gender", GENDERS[random.nextInt(GENDERS.length)]);
+            customers.add(request);
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,15 @@
+package com.g127.snapbuy.loadtest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Một cửa hàng đã được tạo cho lần chạy: phiên đăng nhập chủ cửa hàng và dữ liệu dùng để sinh request
+ */
+record TenantFixture(int index, String tenantId, String tenantCode, SnapbuyClient.Session session,
+                     List<Product> products, List<String> customerPhones, double provisionSeconds) {
+
+    record Product(UUID productId, String barcode, BigDecimal unitPrice) {
+    }
+}
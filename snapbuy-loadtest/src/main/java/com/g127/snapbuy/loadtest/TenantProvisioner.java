@@ -0,0 +1,158 @@
+package com.g127.snapbuy.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tạo cửa hàng tổng hợp qua đúng các API mà trang quản trị dùng:
+ * tạo tenant (TenantServiceImpl) -> dữ liệu mẫu (DemoDataService) -> đăng nhập chủ cửa hàng ->
+ * import danh mục -> nhập kho bằng phiếu nhập (tạo, duyệt, cập nhật số thực nhận, xác nhận) -> tạo khách hàng.
+ */
+final class TenantProvisioner {
+
+    static final String OWNER_USERNAME = "owner";
+    static final String OWNER_PASSWORD = "Owner@123";
+
+    private static final int BATCH_SIZE = 200;
+
+    private final SnapbuyClient client;
+    private final LoadTestConfig config;
+    private final SnapbuyClient.Session admin;
+
+    TenantProvisioner(SnapbuyClient client, LoadTestConfig config, SnapbuyClient.Session admin) {
+        this.client = client;
+        this.config = config;
+        this.admin = admin;
+    }
+
+    static SnapbuyClient.Session adminLogin(SnapbuyClient client, LoadTestConfig config) {
+        JsonNode auth = client.post(null, "/api/admin/auth/login",
+                Map.of("username", config.adminUsername, "password", config.adminPassword));
+        return SnapbuyClient.Session.admin(auth.get("token").asText());
+    }
+
+    TenantFixture provision(int index) {
+        long start = System.nanoTime();
+        String tenantCode = "lt" + config.runId + "-" + index;
+
+        Map<String, Object> tenantRequest = new LinkedHashMap<>();
+        tenantRequest.put("tenantName", "Cửa hàng tải thử " + config.runId + " #" + index);
+        tenantRequest.put("tenantCode", tenantCode);
+        tenantRequest.put("dbName", "SnapBuy_LT_" + config.runId + "_" + index);
+        tenantRequest.put("ownerUsername", OWNER_USERNAME);
+        tenantRequest.put("ownerPassword", OWNER_PASSWORD);
+        tenantRequest.put("ownerFullName", "Chủ cửa hàng tải thử " + index);
+        tenantRequest.put("ownerEmail", "owner+" + tenantCode + "@loadtest.local");
+        tenantRequest.put("ownerPhone", String.format("08%02d%06d", index % 100, index));
+        tenantRequest.put("maxProducts", config.products + 1_000);
+        String tenantId = client.post(admin, "/api/tenants/admin", tenantRequest).get("tenantId").asText();
+        log(tenantCode, "đã tạo tenant " + tenantId);
+
+        client.post(admin, "/api/tenants/admin/" + tenantId + "/demo-data", null);
+        log(tenantCode, "đã thêm dữ liệu mẫu");
+
+        SnapbuyClient.Session owner = ownerLogin(tenantCode, tenantId);
+
+        List<TenantFixture.Product> products = importProducts(owner, index);
+        log(tenantCode, "đã import " + products.size() + " sản phẩm");
+
+        stockUp(owner, products);
+        log(tenantCode, "đã nhập kho " + config.stockPerProduct + " cho mỗi sản phẩm");
+
+        List<String> phones = new ArrayList<>();
+        for (Map<String, Object> customer : SyntheticData.customers(index, config.customers)) {
+            client.post(owner, "/api/customers", customer);
+            phones.add((String) customer.get("phone"));
+        }
+        log(tenantCode, "đã tạo " + phones.size() + " khách hàng");
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new TenantFixture(index, tenantId, tenantCode, owner, products, phones, seconds);
+    }
+
+    void delete(TenantFixture fixture) {
+        client.delete(admin, "/api/tenants/admin/" + fixture.tenantId());
+    }
+
+    private SnapbuyClient.Session ownerLogin(String tenantCode, String tenantId) {
+        JsonNode auth = client.post(null, "/api/auth/login", Map.of(
+                "tenantCode", tenantCode,
+                "username", OWNER_USERNAME,
+                "password", OWNER_PASSWORD));
+        return SnapbuyClient.Session.tenant(auth.get("token").asText(), tenantId);
+    }
+
+    private List<TenantFixture.Product> importProducts(SnapbuyClient.Session owner, int index) {
+        List<SyntheticData.ProductRow> rows = SyntheticData.products(index, config.products);
+        Map<String, SyntheticData.ProductRow> byBarcode = new HashMap<>();
+        rows.forEach(row -> byBarcode.put(row.barcode(), row));
+
+        List<TenantFixture.Product> products = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<Map<String, Object>> batch = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())).stream()
+                    .map(SyntheticData.ProductRow::importRequest)
+                    .toList();
+            for (JsonNode imported : client.post(owner, "/api/products/import", batch)) {
+                SyntheticData.ProductRow row = byBarcode.get(imported.get("barcode").asText());
+                products.add(new TenantFixture.Product(UUID.fromString(imported.get("productId").asText()),
+                        row.barcode(), row.unitPrice()));
+            }
+        }
+        if (products.size() != rows.size()) {
+            throw new IllegalStateException("Chỉ import được " + products.size() + "/" + rows.size() + " sản phẩm");
+        }
+        return products;
+    }
+
+    private void stockUp(SnapbuyClient.Session owner, List<TenantFixture.Product> products) {
+        String supplierId = findSupplierId(owner);
+        for (int from = 0; from < products.size(); from += BATCH_SIZE) {
+            List<TenantFixture.Product> batch = products.subList(from, Math.min(from + BATCH_SIZE, products.size()));
+
+            List<Map<String, Object>> createItems = new ArrayList<>();
+            List<Map<String, Object>> updateItems = new ArrayList<>();
+            for (TenantFixture.Product product : batch) {
+                // Giá nhập bằng 70% giá bán
+                Object costPrice = product.unitPrice().multiply(java.math.BigDecimal.valueOf(7, 1));
+                createItems.add(Map.of("productId", product.productId(), "quantity", config.stockPerProduct,
+                        "unitPrice", costPrice));
+                updateItems.add(Map.of("productId", product.productId(), "quantity", config.stockPerProduct,
+                        "unitPrice", costPrice, "receiveQuantity", config.stockPerProduct));
+            }
+
+            JsonNode purchaseOrder = client.post(owner, "/api/purchase-orders",
+                    Map.of("supplierId", supplierId, "items", createItems, "notes", "Nhập kho tải thử"));
+            String purchaseOrderId = purchaseOrder.get("purchaseOrderId").asText();
+            client.put(owner, "/api/purchase-orders/" + purchaseOrderId + "/approve",
+                    Map.of("ownerAccountId", purchaseOrder.get("accountId").asText()));
+            JsonNode updated = client.put(owner, "/api/purchase-orders/" + purchaseOrderId,
+                    Map.of("items", updateItems));
+
+            List<Map<String, Object>> received = new ArrayList<>();
+            for (JsonNode detail : updated.get("details")) {
+                received.add(Map.of("purchaseOrderDetailId", detail.get("purchaseOrderDetailId").asText(),
+                        "receivedQuantity", detail.get("receivedQuantity").asInt()));
+            }
+            client.put(owner, "/api/purchase-orders/" + purchaseOrderId + "/confirm", Map.of("items", received));
+        }
+    }
+
+    private String findSupplierId(SnapbuyClient.Session owner) {
+        for (JsonNode supplier : client.get(owner, "/api/suppliers")) {
+            if (SyntheticData.SUPPLIER_CODE.equals(supplier.path("supplierCode").asText())) {
+                return supplier.get("supplierId").asText();
+            }
+        }
+        throw new IllegalStateException("Không tìm thấy nhà cung cấp " + SyntheticData.SUPPLIER_CODE + " sau khi import");
+    }
+
+    private static void log(String tenantCode, String message) {
+        System.out.printf("[%s] %s%n", tenantCode, message);
+    }
+}
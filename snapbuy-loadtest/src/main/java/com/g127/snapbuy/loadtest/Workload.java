@@ -0,0 +1,15 @@
+package com.g127.snapbuy.loadtest;
+
+/**
+ * Các loại thao tác được trộn theo trọng số trong lúc chạy tải
+ */
+enum Workload {
+    /** Tạo đơn tại quầy rồi hoàn tất thanh toán tiền mặt */
+    CHECKOUT,
+    /** Quét mã vạch để thêm sản phẩm vào giỏ */
+    SCAN,
+    /** Tìm sản phẩm theo từ khóa ở màn hình quản lý sản phẩm */
+    SEARCH,
+    /** Tải các biểu đồ và báo cáo của trang tổng quan */
+    DASHBOARD
+}
@@ -1,5 +1,6 @@
 package com.g127.snapbuy.account.entity;
 
+import com.g127.snapbuy.common.utils.VietnameseUtils;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -21,6 +22,10 @@ public class Account {
     @Column(name = "full_name", nullable = false, length = 100)
     private String fullName;
 
+    // Họ tên đã chuẩn hóa (chữ thường, bỏ dấu) để tìm kiếm trong SQL
+    @Column(name = "full_name_search", length = 100)
+    private String fullNameSearch;
+
     @Column(name = "username", nullable = false, unique = true, length = 50)
     private String username;
 
@@ -61,10 +66,12 @@ public class Account {
         if (accountId == null) accountId = UUID.randomUUID();
         if (createdDate == null) createdDate = LocalDateTime.now();
         if (updatedDate == null) updatedDate = LocalDateTime.now();
+        fullNameSearch = VietnameseUtils.normalizeForSearch(fullName);
     }
 
     @PreUpdate
     public void preUpdate() {
         updatedDate = LocalDateTime.now();
+        fullNameSearch = VietnameseUtils.normalizeForSearch(fullName);
     }
 }
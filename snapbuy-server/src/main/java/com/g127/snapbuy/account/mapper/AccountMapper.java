@@ -14,12 +14,14 @@ public interface AccountMapper {
     @Mapping(target = "roles", ignore = true)
     @Mapping(target = "email", ignore = true)
     @Mapping(target = "phone", ignore = true)
+    @Mapping(target = "fullNameSearch", ignore = true)
     Account toEntity(AccountCreateRequest req);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "roles", ignore = true)
     @Mapping(target = "passwordHash", ignore = true)
     @Mapping(target = "active", ignore = true)
+    @Mapping(target = "fullNameSearch", ignore = true)
     void updateAccount(@MappingTarget Account account, AccountUpdateRequest req);
 
     @Mapping(target = "id", expression = "java(account.getAccountId() != null ? account.getAccountId() : null)")
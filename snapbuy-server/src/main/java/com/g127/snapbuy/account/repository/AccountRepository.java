@@ -58,6 +58,36 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     List<Account> findAccountsForSearch(@Param("active") Boolean active,
                                         @Param("roleName") String roleName);
 
+    // keywordPattern lấy từ VietnameseUtils.toContainsPattern (đã chuẩn hóa, escape bằng '!'); sắp xếp theo pageable
+    @Query(value = """
+           select a
+           from Account a
+           where (:active is null or a.active = :active)
+             and (:roleName is null
+                  or a.accountId in (select a2.accountId from Account a2 join a2.roles r where r.roleName = :roleName))
+             and (:keywordPattern is null
+                  or a.fullNameSearch like :keywordPattern escape '!'
+                  or lower(a.username) like :keywordPattern escape '!'
+                  or lower(a.email) like :keywordPattern escape '!'
+                  or a.phone like :keywordPattern escape '!')
+           """,
+           countQuery = """
+           select count(a)
+           from Account a
+           where (:active is null or a.active = :active)
+             and (:roleName is null
+                  or a.accountId in (select a2.accountId from Account a2 join a2.roles r where r.roleName = :roleName))
+             and (:keywordPattern is null
+                  or a.fullNameSearch like :keywordPattern escape '!'
+                  or lower(a.username) like :keywordPattern escape '!'
+                  or lower(a.email) like :keywordPattern escape '!'
+                  or a.phone like :keywordPattern escape '!')
+           """)
+    Page<Account> searchAccounts(@Param("keywordPattern") String keywordPattern,
+                                 @Param("active") Boolean active,
+                                 @Param("roleName") String roleName,
+                                 Pageable pageable);
+
     // Simple JPQL query for staff accounts - keyword filtering is done in Java layer
     @Query("""
            select distinct a
@@ -0,0 +1,34 @@
+package com.g127.snapbuy.account.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+public interface AccountPrincipalCacheService {
+
+    /**
+     * Principal của tài khoản kèm token version hiện tại
+     */
+    @Getter
+    @AllArgsConstructor
+    class CachedPrincipal {
+        private final UserDetails userDetails;
+        private final Integer tokenVersion;
+    }
+
+    /**
+     * Lấy principal theo (tenant hiện tại, username), chỉ truy vấn DB khi chưa có trong cache
+     */
+    CachedPrincipal getPrincipal(String username) throws UsernameNotFoundException;
+
+    /**
+     * Xóa principal của một tài khoản trong tenant hiện tại (đổi mật khẩu, vai trò, trạng thái...)
+     */
+    void evict(String username);
+
+    /**
+     * Xóa toàn bộ principal của một tenant (đổi tên vai trò, xóa tenant...)
+     */
+    void evictTenant(String tenantId);
+}
@@ -25,6 +25,10 @@ public class AccountDetailsServiceImpl implements AccountDetailsService {
                 .findByUsernameWithRolesAndPermissionsIgnoreCase(uname)
                 .orElseThrow(() -> new UsernameNotFoundException("Không tìm thấy người dùng: " + username));
 
+        return toUserDetails(acc);
+    }
+
+    static UserDetails toUserDetails(Account acc) {
         String[] authorities = acc.getRoles().stream()
                 .map(r -> r.getRoleName().startsWith("ROLE_") ? r.getRoleName() : "ROLE_" + r.getRoleName())
                 .toArray(String[]::new);
@@ -0,0 +1,81 @@
+package com.g127.snapbuy.account.service.impl;
+
+import com.g127.snapbuy.account.entity.Account;
+import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.common.utils.BoundedTtlCache;
+import com.g127.snapbuy.common.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cache principal theo (tenantId, username) cho JwtAuthenticationFilter.
+ * Một lần nạp lấy cả vai trò lẫn token version nên request ở trạng thái ổn định không chạm DB.
+ * Các thay đổi trong instance này xóa cache ngay; TTL giới hạn độ trễ khi thay đổi đến từ instance khác.
+ */
+@Service
+@Slf4j
+public class AccountPrincipalCacheServiceImpl implements AccountPrincipalCacheService {
+
+    private final AccountRepository accountRepository;
+    private final long ttlMs;
+    private final BoundedTtlCache<String, CachedPrincipal> cache;
+
+    public AccountPrincipalCacheServiceImpl(AccountRepository accountRepository,
+                                            @Value("${security.principal-cache.ttl-ms:60000}") long ttlMs,
+                                            @Value("${security.principal-cache.max-size:5000}") int maxSize) {
+        this.accountRepository = accountRepository;
+        this.ttlMs = ttlMs;
+        this.cache = new BoundedTtlCache<>(maxSize);
+    }
+
+    @Override
+    public CachedPrincipal getPrincipal(String username) throws UsernameNotFoundException {
+        String key = cacheKey(TenantContext.getCurrentTenant(), username);
+        CachedPrincipal cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Account acc = accountRepository
+                .findByUsernameWithRolesAndPermissionsIgnoreCase(normalize(username))
+                .orElseThrow(() -> new UsernameNotFoundException("Không tìm thấy người dùng: " + username));
+        CachedPrincipal principal = new CachedPrincipal(
+                AccountDetailsServiceImpl.toUserDetails(acc), acc.getTokenVersion());
+
+        cache.put(key, principal, System.currentTimeMillis() + ttlMs);
+        return principal;
+    }
+
+    @Override
+    public void evict(String username) {
+        if (username == null) return;
+        String key = cacheKey(TenantContext.getCurrentTenant(), username);
+        cache.remove(key);
+        // Xóa lại sau commit để request đồng thời không nạp lại dữ liệu cũ trước khi transaction kết thúc
+        TransactionUtils.afterCommit(() -> cache.remove(key));
+    }
+
+    @Override
+    public void evictTenant(String tenantId) {
+        String prefix = tenantPrefix(tenantId);
+        cache.removeKeysIf(k -> k.startsWith(prefix));
+        TransactionUtils.afterCommit(() -> cache.removeKeysIf(k -> k.startsWith(prefix)));
+        log.debug("Đã xóa cache principal của tenant {}", tenantId);
+    }
+
+    private static String cacheKey(String tenantId, String username) {
+        return tenantPrefix(tenantId) + normalize(username);
+    }
+
+    private static String tenantPrefix(String tenantId) {
+        return (tenantId == null ? "" : tenantId) + ":";
+    }
+
+    private static String normalize(String username) {
+        return username == null ? null : username.trim().toLowerCase();
+    }
+}
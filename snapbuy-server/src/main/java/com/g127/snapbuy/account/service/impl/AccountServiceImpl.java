@@ -11,11 +11,16 @@ import com.g127.snapbuy.account.mapper.AccountMapper;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.account.repository.RoleRepository;
 import com.g127.snapbuy.account.service.AccountService;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -39,6 +44,8 @@ public class AccountServiceImpl implements AccountService {
     private final RoleRepository roleRepository;
     private final AccountMapper accountMapper;
     private final PasswordEncoder passwordEncoder;
+    private final AccountPrincipalCacheService principalCacheService;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Value("${upload.dir}")
     private String uploadDir;
@@ -56,6 +63,12 @@ public class AccountServiceImpl implements AccountService {
         }
     }
 
+    // Chủ cửa hàng được chọn theo vai trò, trạng thái và họ tên; cài đặt POS gắn với tài khoản chủ cửa hàng đó
+    private void evictShopOwnerData() {
+        referenceDataCacheService.evict(ReferenceDataCacheService.SHOP_OWNERS);
+        referenceDataCacheService.evict(ReferenceDataCacheService.POS_SETTINGS);
+    }
+
     // Các phương thức Admin đã được chuyển - hiện được quản lý trong Master DB
 
     @Override
@@ -164,7 +177,9 @@ public class AccountServiceImpl implements AccountService {
 
         acc.setPasswordHash(passwordEncoder.encode(req.getNewPassword()));
         acc.setTokenVersion((acc.getTokenVersion() == null ? 0 : acc.getTokenVersion()) + 1);
-        return accountMapper.toResponse(accountRepository.save(acc));
+        Account saved = accountRepository.save(acc);
+        principalCacheService.evict(acc.getUsername());
+        return accountMapper.toResponse(saved);
     }
 
     @Override
@@ -187,6 +202,7 @@ public class AccountServiceImpl implements AccountService {
         acc.setPasswordHash(passwordEncoder.encode(req.getNewPassword()));
         acc.setTokenVersion((acc.getTokenVersion() == null ? 0 : acc.getTokenVersion()) + 1);
         accountRepository.save(acc);
+        principalCacheService.evict(acc.getUsername());
     }
 
     @Override
@@ -200,6 +216,8 @@ public class AccountServiceImpl implements AccountService {
         acc.getRoles().add(role);
         acc.setTokenVersion((acc.getTokenVersion() == null ? 0 : acc.getTokenVersion()) + 1);
         accountRepository.save(acc);
+        principalCacheService.evict(acc.getUsername());
+        evictShopOwnerData();
         return accountMapper.toResponse(acc);
     }
 
@@ -222,6 +240,8 @@ public class AccountServiceImpl implements AccountService {
         acc.getRoles().remove(role);
         acc.setTokenVersion((acc.getTokenVersion() == null ? 0 : acc.getTokenVersion()) + 1);
         accountRepository.save(acc);
+        principalCacheService.evict(acc.getUsername());
+        evictShopOwnerData();
     }
 
     @Override
@@ -244,7 +264,9 @@ public class AccountServiceImpl implements AccountService {
             staff.setActive(req.getActive());
         }
 
-        return accountMapper.toResponse(accountRepository.save(staff));
+        Account saved = accountRepository.save(staff);
+        principalCacheService.evict(staff.getUsername());
+        return accountMapper.toResponse(saved);
     }
 
     @Override
@@ -266,7 +288,9 @@ public class AccountServiceImpl implements AccountService {
 
         staff.getRoles().clear();
         staff.getRoles().addAll(newRoles);
-        return accountMapper.toResponse(accountRepository.save(staff));
+        Account saved = accountRepository.save(staff);
+        principalCacheService.evict(staff.getUsername());
+        return accountMapper.toResponse(saved);
     }
 
     @Override
@@ -341,7 +365,10 @@ public class AccountServiceImpl implements AccountService {
             acc.getRoles().add(role);
             acc.setTokenVersion((acc.getTokenVersion() == null ? 0 : acc.getTokenVersion()) + 1);
         }
-        return accountMapper.toResponse(accountRepository.save(acc));
+        Account saved = accountRepository.save(acc);
+        principalCacheService.evict(acc.getUsername());
+        evictShopOwnerData();
+        return accountMapper.toResponse(saved);
     }
 
     @Override
@@ -409,7 +436,10 @@ public class AccountServiceImpl implements AccountService {
 
         // Cập nhật vai trò đã được loại bỏ - owner quản lý qua endpoint riêng
 
-        return accountMapper.toResponse(accountRepository.save(acc));
+        Account saved = accountRepository.save(acc);
+        principalCacheService.evict(acc.getUsername());
+        evictShopOwnerData();
+        return accountMapper.toResponse(saved);
     }
 
     @Override
@@ -427,6 +457,8 @@ public class AccountServiceImpl implements AccountService {
         if (hasProtectedRole) throw new IllegalStateException("Không thể xóa tài khoản có vai trò được bảo vệ");
 
         accountRepository.delete(acc);
+        principalCacheService.evict(acc.getUsername());
+        evictShopOwnerData();
     }
 
     @Override
@@ -444,6 +476,8 @@ public class AccountServiceImpl implements AccountService {
         account.setUpdatedDate(LocalDateTime.now());
         account.setTokenVersion((account.getTokenVersion() == null ? 0 : account.getTokenVersion()) + 1);
         Account savedAccount = accountRepository.save(account);
+        principalCacheService.evict(account.getUsername());
+        evictShopOwnerData();
         return accountMapper.toResponse(savedAccount);
     }
 
@@ -467,8 +501,9 @@ public class AccountServiceImpl implements AccountService {
         // Lọc theo keyword trong Java sử dụng VietnameseUtils
         String trimmedKeyword = (keyword != null && !keyword.isBlank()) ? keyword.trim() : null;
         if (trimmedKeyword != null) {
+            String foldedKeyword = VietnameseUtils.fold(trimmedKeyword);
             accounts = accounts.stream()
-                .filter(a -> VietnameseUtils.matchesAny(trimmedKeyword, 
+                .filter(a -> VietnameseUtils.matchesAnyFolded(foldedKeyword, 
                     a.getFullName(), a.getUsername(), a.getEmail(), a.getPhone()))
                 .toList();
         }
@@ -479,46 +514,43 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @PreAuthorize("hasRole('Chủ cửa hàng')")
     public PageResponse<AccountResponse> searchAccountsPaged(String keyword, Boolean active, String roleName, Pageable pageable) {
-        // Lấy từ DB không có bộ lọc keyword
-        List<Account> accounts = accountRepository.findAccountsForSearch(
+        // Lọc keyword (không phân biệt dấu), sắp xếp và phân trang đều chạy trong SQL
+        Page<Account> accountPage = accountRepository.searchAccounts(
+                VietnameseUtils.toContainsPattern(keyword),
                 active,
-                roleName == null || roleName.isBlank() ? null : roleName.trim()
+                roleName == null || roleName.isBlank() ? null : roleName.trim(),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), toAccountSort(pageable.getSort()))
         );
-        
-        // Lọc theo keyword trong Java sử dụng VietnameseUtils
-        String trimmedKeyword = (keyword != null && !keyword.isBlank()) ? keyword.trim() : null;
-        if (trimmedKeyword != null) {
-            accounts = accounts.stream()
-                .filter(a -> VietnameseUtils.matchesAny(trimmedKeyword, 
-                    a.getFullName(), a.getUsername(), a.getEmail(), a.getPhone()))
-                .toList();
-        }
-        
-        // Phân trang thủ công
-        int pageNumber = pageable.getPageNumber();
-        int pageSize = pageable.getPageSize();
-        int totalElements = accounts.size();
-        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
-        int fromIndex = pageNumber * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, totalElements);
-        
-        List<Account> pagedAccounts = (fromIndex < totalElements) 
-            ? accounts.subList(fromIndex, toIndex) 
-            : List.of();
-        
-        var content = pagedAccounts.stream().map(accountMapper::toResponse).toList();
+
+        var content = accountPage.getContent().stream().map(accountMapper::toResponse).toList();
         return PageResponse.<AccountResponse>builder()
                 .content(content)
-                .totalElements(totalElements)
-                .totalPages(totalPages)
-                .size(pageSize)
-                .number(pageNumber)
-                .first(pageNumber == 0)
-                .last(pageNumber >= totalPages - 1)
+                .totalElements(accountPage.getTotalElements())
+                .totalPages(accountPage.getTotalPages())
+                .size(accountPage.getSize())
+                .number(accountPage.getNumber())
+                .first(accountPage.isFirst())
+                .last(accountPage.isLast())
                 .empty(content.isEmpty())
                 .build();
     }
 
+    /**
+     * Controller truyền tên cột (full_name, username...), chuyển sang thuộc tính entity cho truy vấn JPQL;
+     * thêm accountId để thứ tự giữa các trang ổn định
+     */
+    private Sort toAccountSort(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("full_name"));
+        String property = switch (order.getProperty()) {
+            case "username" -> "username";
+            case "email" -> "email";
+            case "phone" -> "phone";
+            case "active" -> "active";
+            default -> "fullName";
+        };
+        return Sort.by(order.getDirection(), property).and(Sort.by("accountId"));
+    }
+
     @Override
     @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng')")
     public PageResponse<AccountResponse> searchStaffAccountsPaged(String keyword, Boolean active, String roleName,
@@ -537,8 +569,9 @@ public class AccountServiceImpl implements AccountService {
         // Lọc theo keyword trong Java sử dụng VietnameseUtils
         String trimmedKeyword = (keyword != null && !keyword.isBlank()) ? keyword.trim() : null;
         if (trimmedKeyword != null) {
+            String foldedKeyword = VietnameseUtils.fold(trimmedKeyword);
             accounts = accounts.stream()
-                .filter(a -> VietnameseUtils.matchesAny(trimmedKeyword, 
+                .filter(a -> VietnameseUtils.matchesAnyFolded(foldedKeyword, 
                     a.getFullName(), a.getUsername(), a.getEmail(), a.getPhone()))
                 .toList();
         }
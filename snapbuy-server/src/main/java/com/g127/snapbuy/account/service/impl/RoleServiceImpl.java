@@ -5,11 +5,14 @@ import com.g127.snapbuy.account.dto.request.RoleUpdateRequest;
 import com.g127.snapbuy.common.response.PageResponse;
 import com.g127.snapbuy.account.dto.response.RoleResponse;
 import com.g127.snapbuy.account.entity.Role;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
 import com.g127.snapbuy.common.exception.AppException;
 import com.g127.snapbuy.common.exception.ErrorCode;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.account.repository.RoleRepository;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
 import com.g127.snapbuy.account.service.RoleService;
+import com.g127.snapbuy.tenant.context.TenantContext;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +32,8 @@ public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
     private final AccountRepository accountRepository;
+    private final AccountPrincipalCacheService principalCacheService;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     private static final String ADMIN = "Quản trị viên";
     private static final String OWNER = "Chủ cửa hàng";
@@ -94,15 +99,17 @@ public class RoleServiceImpl implements RoleService {
         r.setDescription(req.getDescription());
         r.setActive(req.getActive() == null ? Boolean.TRUE : req.getActive());
         r.setCreatedDate(new Date());
-        return toResponse(roleRepository.save(r));
+        Role saved = roleRepository.save(r);
+        referenceDataCacheService.evict(ReferenceDataCacheService.ROLES);
+        return toResponse(saved);
     }
 
     @Override
     public List<RoleResponse> getAllRoles(Optional<Boolean> activeFilter) {
         // Giống như Account, trả về tất cả roles (bao gồm cả inactive) để admin quản lý
         // Không filter theo active
-        List<Role> all = roleRepository.findAll();
-        return all.stream().map(this::toResponse).toList();
+        return referenceDataCacheService.get(ReferenceDataCacheService.ROLES, "all",
+                () -> roleRepository.findAll().stream().map(this::toResponse).toList());
     }
 
     @Override
@@ -135,6 +142,8 @@ public class RoleServiceImpl implements RoleService {
                         throw new AppException(ErrorCode.NAME_EXISTED);
                     });
             r.setRoleName(newName);
+            // Tên vai trò nằm trong authorities của principal đã cache
+            principalCacheService.evictTenant(TenantContext.getCurrentTenant());
         }
 
         if (req.getDescription() != null) {
@@ -147,7 +156,9 @@ public class RoleServiceImpl implements RoleService {
         //     r.setActive(req.getActive());
         // }
 
-        return toResponse(roleRepository.save(r));
+        Role saved = roleRepository.save(r);
+        referenceDataCacheService.evict(ReferenceDataCacheService.ROLES);
+        return toResponse(saved);
     }
 
     private boolean currentUserHasRole(Role role) {
@@ -178,6 +189,9 @@ public class RoleServiceImpl implements RoleService {
             throw new IllegalStateException("Vai trò đang được sử dụng bởi " + inUse + " tài khoản. Hãy gỡ gán trước.");
         }
         roleRepository.deleteById(roleId);
+        referenceDataCacheService.evict(ReferenceDataCacheService.ROLES);
+        // Principal đã cache có thể vẫn giữ authorities của vai trò vừa xóa
+        principalCacheService.evictTenant(TenantContext.getCurrentTenant());
     }
 
     @Override
@@ -197,6 +211,8 @@ public class RoleServiceImpl implements RoleService {
         Boolean currentActive = role.getActive();
         role.setActive(currentActive == null || !currentActive);
         Role savedRole = roleRepository.save(role);
+        referenceDataCacheService.evict(ReferenceDataCacheService.ROLES);
+        principalCacheService.evictTenant(TenantContext.getCurrentTenant());
         return toResponse(savedRole);
     }
 
@@ -208,8 +224,9 @@ public class RoleServiceImpl implements RoleService {
         // Lọc theo keyword trong Java sử dụng VietnameseUtils
         String trimmedKeyword = (keyword != null && !keyword.isBlank()) ? keyword.trim() : null;
         if (trimmedKeyword != null) {
+            String foldedKeyword = VietnameseUtils.fold(trimmedKeyword);
             roles = roles.stream()
-                .filter(r -> VietnameseUtils.matchesAny(trimmedKeyword, r.getRoleName(), r.getDescription()))
+                .filter(r -> VietnameseUtils.matchesAnyFolded(foldedKeyword, r.getRoleName(), r.getDescription()))
                 .toList();
         }
         
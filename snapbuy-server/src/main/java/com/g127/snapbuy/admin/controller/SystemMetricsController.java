@@ -2,7 +2,11 @@ package com.g127.snapbuy.admin.controller;
 
 import com.g127.snapbuy.admin.dto.SystemMetrics;
 import com.g127.snapbuy.common.response.ApiResponse;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService.RegionStats;
 import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.JobStats;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -27,6 +31,8 @@ import java.util.Optional;
 public class SystemMetricsController {
 
     private final com.g127.snapbuy.tenant.repository.TenantRepository tenantRepository;
+    private final ReferenceDataCacheService referenceDataCacheService;
+    private final TenantJobRunner tenantJobRunner;
 
     @GetMapping("/metrics")
     @PreAuthorize("hasRole('Quản trị viên')")
@@ -180,4 +186,28 @@ public class SystemMetricsController {
             return response;
         }
     }
+
+    /**
+     * Số lần trúng/trượt/bị loại của cache dữ liệu tham chiếu trên máy chủ này, theo từng vùng
+     */
+    @GetMapping("/reference-cache")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<List<RegionStats>> getReferenceCacheStats() {
+        ApiResponse<List<RegionStats>> response = new ApiResponse<>();
+        response.setResult(referenceDataCacheService.getStats());
+        response.setMessage("Lấy thống kê cache thành công");
+        return response;
+    }
+
+    /**
+     * Số lần chạy, số tenant lỗi/quá thời gian chờ và thời gian từng tenant của các tác vụ nền trên máy chủ này
+     */
+    @GetMapping("/tenant-jobs")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<List<JobStats>> getTenantJobStats() {
+        ApiResponse<List<JobStats>> response = new ApiResponse<>();
+        response.setResult(tenantJobRunner.getStats());
+        response.setMessage("Lấy thống kê tác vụ nền thành công");
+        return response;
+    }
 }
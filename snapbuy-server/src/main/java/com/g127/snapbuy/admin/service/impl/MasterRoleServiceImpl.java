@@ -10,6 +10,7 @@ import com.g127.snapbuy.admin.repository.MasterRoleRepository;
 import com.g127.snapbuy.admin.service.MasterRoleService;
 import com.g127.snapbuy.common.exception.AppException;
 import com.g127.snapbuy.common.exception.ErrorCode;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
 import com.g127.snapbuy.tenant.context.TenantContext;
 import com.g127.snapbuy.tenant.entity.Tenant;
 import com.g127.snapbuy.tenant.repository.TenantOwnerRepository;
@@ -35,6 +36,7 @@ public class MasterRoleServiceImpl implements MasterRoleService {
     private final AccountRepository accountRepository;
     private final TenantOwnerRepository tenantOwnerRepository;
     private final com.g127.snapbuy.admin.repository.AdminAccountRepository adminAccountRepository;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Override
     public List<MasterRoleResponse> getAllRoles() {
@@ -150,6 +152,7 @@ public class MasterRoleServiceImpl implements MasterRoleService {
                     roleRepository.save(tenantRole);
                 }
             }
+            referenceDataCacheService.evict(ReferenceDataCacheService.ROLES);
             
         } finally {
             TenantContext.clear();
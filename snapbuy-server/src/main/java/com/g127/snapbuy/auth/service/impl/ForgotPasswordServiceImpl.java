@@ -5,6 +5,7 @@ import com.g127.snapbuy.auth.dto.request.ResetPasswordRequest;
 import com.g127.snapbuy.auth.dto.request.VerifyOtpRequest;
 import com.g127.snapbuy.account.entity.Account;
 import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
 import com.g127.snapbuy.auth.service.ForgotPasswordService;
 import com.g127.snapbuy.auth.service.MailService;
 import com.g127.snapbuy.common.config.OtpStore;
@@ -27,6 +28,7 @@ public class ForgotPasswordServiceImpl implements ForgotPasswordService {
     private final PasswordEncoder passwordEncoder;
     private final MailService mailService;
     private final OtpStore otpStore;
+    private final AccountPrincipalCacheService principalCacheService;
 
     private static final DateTimeFormatter OTP_EXPIRY_FORMATTER =
             DateTimeFormatter.ofPattern("HH:mm:ss dd-MM-yyyy");
@@ -93,6 +95,7 @@ public class ForgotPasswordServiceImpl implements ForgotPasswordService {
 
         acc.setPasswordHash(passwordEncoder.encode(req.getNewPassword()));
         accountRepository.save(acc);
+        principalCacheService.evict(acc.getUsername());
 
         otpStore.remove(req.getEmail());
     }
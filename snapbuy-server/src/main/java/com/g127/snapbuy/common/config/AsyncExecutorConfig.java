@@ -0,0 +1,123 @@
+package com.g127.snapbuy.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Các executor có giới hạn cho tác vụ chạy nền (không giữ kết nối DB của request)
+ */
+@Configuration
+public class AsyncExecutorConfig {
+
+    @Value("${momo.intent.pool-size:4}")
+    private int paymentIntentPoolSize;
+
+    @Value("${momo.intent.queue-capacity:200}")
+    private int paymentIntentQueueCapacity;
+
+    @Value("${notification.low-stock.pool-size:2}")
+    private int lowStockAlertPoolSize;
+
+    @Value("${notification.low-stock.queue-capacity:1000}")
+    private int lowStockAlertQueueCapacity;
+
+    @Value("${tenant.provisioning.pool-size:2}")
+    private int tenantProvisioningPoolSize;
+
+    @Value("${tenant.provisioning.queue-capacity:20}")
+    private int tenantProvisioningQueueCapacity;
+
+    /**
+     * Executor gọi cổng MoMo sau khi đơn hàng đã commit.
+     * Khi hàng đợi đầy, tác vụ bị từ chối để request không bị treo theo cổng thanh toán.
+     */
+    @Bean(name = "paymentIntentExecutor")
+    public ThreadPoolTaskExecutor paymentIntentExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(paymentIntentPoolSize);
+        executor.setMaxPoolSize(paymentIntentPoolSize);
+        executor.setQueueCapacity(paymentIntentQueueCapacity);
+        executor.setThreadNamePrefix("momo-intent-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor xét cảnh báo tồn kho thấp sau khi đơn hàng đã commit.
+     * Khi hàng đợi đầy, lô thay đổi bị bỏ qua thay vì chạy trên luồng của request checkout.
+     */
+    @Bean(name = "lowStockAlertExecutor")
+    public ThreadPoolTaskExecutor lowStockAlertExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(lowStockAlertPoolSize);
+        executor.setMaxPoolSize(lowStockAlertPoolSize);
+        executor.setQueueCapacity(lowStockAlertQueueCapacity);
+        executor.setThreadNamePrefix("low-stock-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor điều phối đợt migration cho tất cả tenant: một luồng, không hàng đợi,
+     * nên mỗi node chỉ chạy một đợt tại một thời điểm (các tenant được migrate song song bởi TenantJobRunner).
+     */
+    @Bean(name = "tenantMigrationExecutor")
+    public ThreadPoolTaskExecutor tenantMigrationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("tenant-migration-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor chạy job tạo cửa hàng (tạo database, migrations, dữ liệu ban đầu).
+     * Khi hàng đợi đầy, job bị đánh dấu lỗi và được chạy tiếp sau thay vì chạy trên luồng của request.
+     */
+    @Bean(name = "tenantProvisioningExecutor")
+    public ThreadPoolTaskExecutor tenantProvisioningExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(tenantProvisioningPoolSize);
+        executor.setMaxPoolSize(tenantProvisioningPoolSize);
+        executor.setQueueCapacity(tenantProvisioningQueueCapacity);
+        executor.setThreadNamePrefix("tenant-provisioning-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor dựng database dự phòng cho nhóm dựng sẵn: một luồng, không hàng đợi,
+     * nên CREATE DATABASE và migrations không chiếm luồng chung của các tác vụ @Scheduled.
+     */
+    @Bean(name = "tenantSparePoolExecutor")
+    public ThreadPoolTaskExecutor tenantSparePoolExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("tenant-spare-pool-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,7 +1,7 @@
 package com.g127.snapbuy.common.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
 import com.g127.snapbuy.admin.service.AdminUserDetailsService;
 import com.g127.snapbuy.auth.service.TokenBlacklistService;
 import io.jsonwebtoken.ExpiredJwtException;
@@ -25,22 +25,19 @@ import java.util.Map;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
     private final AdminUserDetailsService adminUserDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
-    private final AccountRepository accountRepository;
+    private final AccountPrincipalCacheService principalCacheService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil,
-                                   UserDetailsService userDetailsService,
                                    AdminUserDetailsService adminUserDetailsService,
                                    TokenBlacklistService tokenBlacklistService,
-                                   AccountRepository accountRepository) {
+                                   AccountPrincipalCacheService principalCacheService) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
         this.adminUserDetailsService = adminUserDetailsService;
         this.tokenBlacklistService = tokenBlacklistService;
-        this.accountRepository = accountRepository;
+        this.principalCacheService = principalCacheService;
     }
 
     private void sendErrorResponse(HttpServletResponse response, String code, String message) throws IOException {
@@ -77,9 +74,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String jwt = authHeader.substring(7);
 
+        // Xác thực chữ ký một lần cho cả request (token quen thuộc lấy thẳng từ cache)
+        JwtUtil.JwtClaims claims;
         try {
-            String jti = jwtUtil.extractJti(jwt);
-            if (tokenBlacklistService.isBlacklisted(jti)) {
+            claims = jwtUtil.parseClaims(jwt);
+            if (tokenBlacklistService.isBlacklisted(claims.getJti())) {
                 sendErrorResponse(response, "TOKEN_REVOKED", "Phiên đăng nhập đã bị thu hồi. Vui lòng đăng nhập lại");
                 return;
             }
@@ -94,15 +93,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        String username = jwtUtil.extractUsername(jwt);
-        String tokenType = jwtUtil.extractType(jwt);
+        String username = claims.getUsername();
+        String tokenType = claims.getType();
         
         // Handle admin token (no tenant context)
         if ("admin".equals(tokenType)) {
             try {
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     UserDetails userDetails = adminUserDetailsService.loadUserByUsername(username);
-                    if (jwtUtil.validateToken(jwt, userDetails)) {
+                    if (jwtUtil.validateToken(claims, userDetails)) {
                         var authToken = new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -119,38 +118,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         } else {
             // Handle regular tenant token
-            Integer ver = jwtUtil.extractVersion(jwt);
-            String tenantId = jwtUtil.extractTenantId(jwt);
+            Integer ver = claims.getVersion();
+            String tenantId = claims.getTenantId();
             
             if (tenantId != null) {
                 com.g127.snapbuy.tenant.context.TenantContext.setCurrentTenant(tenantId);
             }
             
             try {
-                // Now check token version (after tenant context is set)
-                if (username != null && ver != null) {
-                    var accOpt = accountRepository.findByUsername(username);
-                    if (accOpt.isPresent()) {
-                        Integer currentVer = accOpt.get().getTokenVersion();
-                        if (currentVer != null && !currentVer.equals(ver)) {
-                            sendErrorResponse(response, "TOKEN_REVOKED", "Phiên đăng nhập đã bị thu hồi. Vui lòng đăng nhập lại");
+                if (username != null) {
+                    // Principal và token version lấy từ cache theo (tenant, username), chỉ chạm DB khi cache trống
+                    AccountPrincipalCacheService.CachedPrincipal principal = principalCacheService.getPrincipal(username);
+
+                    // Now check token version (after tenant context is set)
+                    Integer currentVer = principal.getTokenVersion();
+                    if (ver != null && currentVer != null && !currentVer.equals(ver)) {
+                        sendErrorResponse(response, "TOKEN_REVOKED", "Phiên đăng nhập đã bị thu hồi. Vui lòng đăng nhập lại");
+                        return;
+                    }
+
+                    if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                        UserDetails userDetails = principal.getUserDetails();
+                        if (jwtUtil.validateToken(claims, userDetails)) {
+                            var authToken = new UsernamePasswordAuthenticationToken(
+                                    userDetails, null, userDetails.getAuthorities());
+                            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                            SecurityContextHolder.getContext().setAuthentication(authToken);
+                        } else {
+                            sendErrorResponse(response, "TOKEN_EXPIRED", "Phiên đăng nhập đã hết hạn. Vui lòng đăng nhập lại");
                             return;
                         }
                     }
                 }
-                
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                    if (jwtUtil.validateToken(jwt, userDetails)) {
-                        var authToken = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    } else {
-                        sendErrorResponse(response, "TOKEN_EXPIRED", "Phiên đăng nhập đã hết hạn. Vui lòng đăng nhập lại");
-                        return;
-                    }
-                }
             } catch (IllegalStateException e) {
                 // Tenant datasource not found
                 com.g127.snapbuy.tenant.context.TenantContext.clear();
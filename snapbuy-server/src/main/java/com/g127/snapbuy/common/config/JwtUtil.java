@@ -1,12 +1,16 @@
 package com.g127.snapbuy.common.config;
 
+import com.g127.snapbuy.common.utils.BoundedTtlCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 @Component
@@ -16,6 +20,89 @@ public class JwtUtil {
     @org.springframework.beans.factory.annotation.Value("${jwt.expiration.ms:-1}")
     private long expirationMs;
 
+    @org.springframework.beans.factory.annotation.Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize = 10000;
+
+    // Token không có exp vẫn chỉ được giữ trong cache tối đa khoảng này
+    @org.springframework.beans.factory.annotation.Value("${jwt.claims-cache.ttl-ms:600000}")
+    private long claimsCacheTtlMs = 600000;
+
+    private final Key signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+
+    // SHA-256 của token đã xác thực chữ ký -> claims, để request lặp lại với cùng token chỉ tốn một lần tra map;
+    // khóa là digest nên bộ nhớ cache không giữ lại bearer token dùng được
+    private volatile BoundedTtlCache<String, JwtClaims> claimsCache = new BoundedTtlCache<>(claimsCacheMaxSize);
+
+    @jakarta.annotation.PostConstruct
+    void initClaimsCache() {
+        // Tạo lại theo kích thước cấu hình sau khi @Value đã được gán
+        claimsCache = new BoundedTtlCache<>(claimsCacheMaxSize);
+    }
+
+    /**
+     * Các claim đã được xác thực chữ ký của một token
+     */
+    public static class JwtClaims {
+        private final String jti;
+        private final String username;
+        private final String type;
+        private final Integer version;
+        private final String tenantId;
+        private final Date expiration;
+        private final long cachedUntil;
+
+        JwtClaims(Claims claims, long cachedUntil) {
+            this.jti = claims.getId();
+            this.username = claims.getSubject();
+            Object t = claims.get("type");
+            this.type = t != null ? t.toString() : null;
+            Object v = claims.get("ver");
+            this.version = v instanceof Number ? ((Number) v).intValue() : null;
+            Object tid = claims.get("tenantId");
+            this.tenantId = tid != null ? tid.toString() : null;
+            this.expiration = claims.getExpiration();
+            this.cachedUntil = expiration != null ? Math.min(expiration.getTime(), cachedUntil) : cachedUntil;
+        }
+
+        public String getJti() { return jti; }
+        public String getUsername() { return username; }
+        public String getType() { return type; }
+        public Integer getVersion() { return version; }
+        public String getTenantId() { return tenantId; }
+        public Date getExpiration() { return expiration; }
+
+        public boolean isExpired() {
+            return expiration != null && expiration.before(new Date());
+        }
+    }
+
+    /**
+     * Xác thực chữ ký và đọc claims của token, dùng lại kết quả đã xác thực nếu token còn trong cache.
+     * Ném các ngoại lệ của jjwt (ExpiredJwtException, SignatureException...) như khi parse trực tiếp.
+     */
+    public JwtClaims parseClaims(String token) {
+        String key = cacheKey(token);
+        JwtClaims cached = claimsCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        JwtClaims claims = new JwtClaims(extractAllClaims(token), System.currentTimeMillis() + claimsCacheTtlMs);
+        claimsCache.put(key, claims, claims.cachedUntil);
+        return claims;
+    }
+
+    static String cacheKey(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Mọi JVM đều phải hỗ trợ SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -34,16 +121,11 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 
     private Boolean isTokenExpired(String token) {
@@ -114,6 +196,12 @@ public class JwtUtil {
         }
     }
 
+    public boolean validateToken(JwtClaims claims, UserDetails userDetails) {
+        return claims.getUsername() != null
+                && claims.getUsername().equals(userDetails.getUsername())
+                && !claims.isExpired();
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
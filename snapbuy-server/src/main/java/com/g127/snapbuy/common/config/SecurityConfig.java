@@ -1,7 +1,7 @@
 package com.g127.snapbuy.common.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
 import com.g127.snapbuy.auth.service.TokenBlacklistService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -35,11 +35,11 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final com.g127.snapbuy.admin.service.AdminUserDetailsService adminUserDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
-    private final AccountRepository accountRepository;
+    private final AccountPrincipalCacheService principalCacheService;
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtUtil, userDetailsService, adminUserDetailsService, tokenBlacklistService, accountRepository);
+        return new JwtAuthenticationFilter(jwtUtil, adminUserDetailsService, tokenBlacklistService, principalCacheService);
     }
 
     @Bean
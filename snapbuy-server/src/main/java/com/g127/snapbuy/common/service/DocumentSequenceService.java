@@ -0,0 +1,12 @@
+package com.g127.snapbuy.common.service;
+
+import java.util.function.LongSupplier;
+
+public interface DocumentSequenceService {
+
+    /**
+     * Lấy số tiếp theo của chuỗi {@code sequenceKey} trong tenant hiện tại.
+     * {@code initialValue} chỉ được gọi khi chuỗi chưa tồn tại trong DB (số đầu tiên của chuỗi).
+     */
+    long nextValue(String sequenceKey, LongSupplier initialValue);
+}
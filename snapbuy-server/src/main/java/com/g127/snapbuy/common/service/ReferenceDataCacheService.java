@@ -0,0 +1,55 @@
+package com.g127.snapbuy.common.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache trong bộ nhớ cho dữ liệu tham chiếu ít thay đổi của tenant (danh mục, nhà cung cấp, vai trò, cài đặt POS...).
+ * Mỗi giá trị được phân vùng theo (tenant hiện tại, vùng, khóa); không có tenant trong context thì không cache.
+ */
+public interface ReferenceDataCacheService {
+
+    String CATEGORIES = "categories";
+    String SUPPLIERS = "suppliers";
+    String ROLES = "roles";
+    String POS_SETTINGS = "pos-settings";
+    String SHOP_OWNERS = "shop-owners";
+
+    /**
+     * Thống kê của một vùng cache trên máy chủ này
+     */
+    @Getter
+    @AllArgsConstructor
+    class RegionStats {
+        private final String region;
+        private final long entries;
+        private final long hits;
+        private final long misses;
+        // Bị loại do hết hạn hoặc vượt kích thước
+        private final long evictions;
+        // Bị xóa do dữ liệu thay đổi
+        private final long invalidations;
+    }
+
+    /**
+     * Lấy giá trị của tenant hiện tại, chỉ gọi {@code loader} khi chưa có hoặc đã hết hạn.
+     * Giá trị được dùng chung giữa các request nên loader phải trả về dữ liệu không bị sửa sau đó (danh sách bất biến, DTO).
+     * Giá trị null không được cache.
+     */
+    <T> T get(String region, String key, Supplier<T> loader);
+
+    /**
+     * Xóa toàn bộ một vùng của tenant hiện tại, ngay lập tức và lại sau khi transaction commit
+     */
+    void evict(String region);
+
+    /**
+     * Xóa toàn bộ cache của một tenant (khóa, xóa cửa hàng)
+     */
+    void evictTenant(String tenantId);
+
+    List<RegionStats> getStats();
+}
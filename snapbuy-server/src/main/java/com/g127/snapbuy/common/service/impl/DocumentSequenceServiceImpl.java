@@ -0,0 +1,138 @@
+package com.g127.snapbuy.common.service.impl;
+
+import com.g127.snapbuy.common.service.DocumentSequenceService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Cấp số chứng từ theo khối (hi/lo): mỗi lần chạm DB sẽ giữ trước {@code blockSize} số
+ * trong bảng document_sequences, sau đó phát số trong bộ nhớ.
+ * Khóa chỉ theo từng (tenant, chuỗi) nên các tenant không chặn nhau,
+ * và nhiều instance backend vẫn không cấp trùng số vì khối được giữ bằng UPDATE nguyên tử.
+ * Số bị bỏ dở khi restart tạo ra khoảng trống, không tạo ra trùng lặp.
+ */
+@Service
+@Slf4j
+public class DocumentSequenceServiceImpl implements DocumentSequenceService {
+
+    private static final String RESERVE_SQL =
+            "UPDATE document_sequences WITH (ROWLOCK) " +
+            "SET next_value = next_value + ?, updated_date = GETDATE() " +
+            "OUTPUT deleted.next_value " +
+            "WHERE sequence_key = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO document_sequences (sequence_key, next_value) VALUES (?, ?)";
+
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private final DataSource tenantDataSource;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public DocumentSequenceServiceImpl(@Qualifier("tenantDataSource") DataSource tenantDataSource,
+                                       @Value("${document.sequence.block-size:20}") int blockSize) {
+        this.tenantDataSource = tenantDataSource;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    @Override
+    public long nextValue(String sequenceKey, LongSupplier initialValue) {
+        String tenantId = TenantContext.getCurrentTenant();
+        String cacheKey = (tenantId != null ? tenantId : "default") + ":" + sequenceKey;
+
+        Block block = blocks.computeIfAbsent(cacheKey, k -> new Block());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                long start = reserveBlock(sequenceKey, initialValue);
+                block.next = start;
+                block.limit = start + blockSize;
+                evictStaleBlocks();
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Giữ một khối số mới, trả về số đầu tiên của khối.
+     * Kết nối lấy trực tiếp từ DataSource (auto-commit) để khóa dòng chỉ kéo dài một câu lệnh,
+     * không bị giữ đến cuối transaction tạo đơn.
+     */
+    private long reserveBlock(String sequenceKey, LongSupplier initialValue) {
+        try (Connection conn = tenantDataSource.getConnection()) {
+            for (int attempt = 1; attempt <= MAX_RESERVE_ATTEMPTS; attempt++) {
+                Long start = tryReserve(conn, sequenceKey);
+                if (start != null) {
+                    return start;
+                }
+
+                long first = Math.max(1, initialValue.getAsLong());
+                if (tryInsert(conn, sequenceKey, first + blockSize)) {
+                    log.debug("Khởi tạo chuỗi số {} bắt đầu từ {}", sequenceKey, first);
+                    return first;
+                }
+                // Instance khác vừa tạo chuỗi, thử giữ khối lại
+            }
+            throw new IllegalStateException("Không thể cấp số cho chuỗi " + sequenceKey);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Không thể cấp số cho chuỗi " + sequenceKey + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Long tryReserve(Connection conn, String sequenceKey) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(RESERVE_SQL)) {
+            ps.setLong(1, blockSize);
+            ps.setString(2, sequenceKey);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    private boolean tryInsert(Connection conn, String sequenceKey, long nextValue) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            ps.setString(1, sequenceKey);
+            ps.setLong(2, nextValue);
+            ps.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (isDuplicateKey(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isDuplicateKey(SQLException e) {
+        // SQL Server: 2627 (PRIMARY KEY), 2601 (unique index)
+        return e.getErrorCode() == 2627 || e.getErrorCode() == 2601
+                || (e.getSQLState() != null && e.getSQLState().startsWith("23"));
+    }
+
+    /**
+     * Chuỗi theo ngày (ORDyyMMdd, POyyMMdd) không còn được dùng sau nửa đêm, bỏ khối cũ khỏi bộ nhớ
+     */
+    private void evictStaleBlocks() {
+        LocalDate today = LocalDate.now();
+        blocks.values().removeIf(b -> b.reservedOn.isBefore(today));
+    }
+
+    private static final class Block {
+        private final LocalDate reservedOn = LocalDate.now();
+        private long next;
+        private long limit;
+    }
+}
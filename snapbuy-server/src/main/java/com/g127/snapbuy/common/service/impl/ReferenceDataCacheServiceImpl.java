@@ -0,0 +1,138 @@
+package com.g127.snapbuy.common.service.impl;
+
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.common.utils.BoundedTtlCache;
+import com.g127.snapbuy.common.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Khóa cache là "tenantId|vùng|khóa" nên giá trị của tenant này không bao giờ được trả cho tenant khác.
+ * Mỗi (tenant, vùng) có một phiên bản tăng lên khi bị xóa; giá trị nạp xong chỉ được lưu nếu phiên bản không đổi
+ * trong lúc nạp, nên request đọc song song với thao tác ghi không đưa dữ liệu cũ trở lại cache.
+ * Thay đổi từ máy chủ khác được phản ánh sau tối đa ttl-ms.
+ */
+@Service
+@Slf4j
+public class ReferenceDataCacheServiceImpl implements ReferenceDataCacheService {
+
+    private final long ttlMs;
+    private final BoundedTtlCache<String, Entry> cache;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public ReferenceDataCacheServiceImpl(@Value("${tenant.reference-cache.ttl-ms:300000}") long ttlMs,
+                                         @Value("${tenant.reference-cache.max-size:10000}") int maxSize) {
+        this.ttlMs = ttlMs;
+        this.cache = new BoundedTtlCache<>(maxSize, e -> counters(e.region).evictions.increment());
+    }
+
+    private static final class Entry {
+        private final String region;
+        private final Object value;
+
+        private Entry(String region, Object value) {
+            this.region = region;
+            this.value = value;
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String region, String key, Supplier<T> loader) {
+        String tenantId = TenantContext.getCurrentTenant();
+        Counters regionCounters = counters(region);
+        if (tenantId == null) {
+            regionCounters.misses.increment();
+            return loader.get();
+        }
+
+        String cacheKey = tenantId + "|" + region + "|" + key;
+        Entry entry = cache.get(cacheKey);
+        if (entry != null) {
+            regionCounters.hits.increment();
+            return (T) entry.value;
+        }
+
+        regionCounters.misses.increment();
+        AtomicLong version = versions.computeIfAbsent(versionKey(tenantId, region), k -> new AtomicLong());
+        long versionBefore = version.get();
+        T value = loader.get();
+        if (value == null) {
+            return null;
+        }
+
+        cache.put(cacheKey, new Entry(region, value), System.currentTimeMillis() + ttlMs);
+        if (version.get() != versionBefore) {
+            // Vùng bị xóa trong lúc nạp: giá trị vừa nạp có thể đã cũ
+            cache.remove(cacheKey);
+        }
+        return value;
+    }
+
+    @Override
+    public void evict(String region) {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (tenantId == null) return;
+        String prefix = tenantId + "|" + region + "|";
+        invalidate(prefix);
+        // Xóa lại sau commit để request đồng thời không nạp lại dữ liệu cũ trước khi transaction kết thúc
+        TransactionUtils.afterCommit(() -> invalidate(prefix));
+    }
+
+    @Override
+    public void evictTenant(String tenantId) {
+        if (tenantId == null) return;
+        invalidate(tenantId + "|");
+        TransactionUtils.afterCommit(() -> invalidate(tenantId + "|"));
+        log.debug("Cleared reference data cache of tenant {}", tenantId);
+    }
+
+    @Override
+    public List<RegionStats> getStats() {
+        Map<String, Long> entries = new HashMap<>();
+        cache.forEachValue(e -> entries.merge(e.region, 1L, Long::sum));
+        return new TreeSet<>(counters.keySet()).stream()
+                .map(region -> {
+                    Counters c = counters.get(region);
+                    return new RegionStats(region, entries.getOrDefault(region, 0L), c.hits.sum(), c.misses.sum(),
+                            c.evictions.sum(), c.invalidations.sum());
+                })
+                .toList();
+    }
+
+    private void invalidate(String prefix) {
+        versions.forEach((k, v) -> {
+            if ((k + "|").startsWith(prefix)) {
+                v.incrementAndGet();
+            }
+        });
+        cache.removeKeysIf(k -> k.startsWith(prefix), e -> counters(e.region).invalidations.increment());
+    }
+
+    private Counters counters(String region) {
+        return counters.computeIfAbsent(region, r -> new Counters());
+    }
+
+    private static String versionKey(String tenantId, String region) {
+        return tenantId + "|" + region;
+    }
+}
@@ -0,0 +1,143 @@
+package com.g127.snapbuy.common.utils;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-memory cache with a per-entry expiry time and an upper bound on the number of entries.
+ * Reads are lock-free. When the cache is full, expired entries are removed first; if it is
+ * still full, the oldest tenth of the entries (by insertion order) is dropped so the cleanup
+ * does not run again on every new entry.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final Consumer<? super V> onEvict;
+    private final Map<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param maxSize the maximum number of entries, at least 1
+     */
+    public BoundedTtlCache(int maxSize) {
+        this(maxSize, value -> { });
+    }
+
+    /**
+     * @param maxSize the maximum number of entries, at least 1
+     * @param onEvict called for each value removed because it expired or the cache was full
+     */
+    public BoundedTtlCache(int maxSize, Consumer<? super V> onEvict) {
+        this.maxSize = Math.max(1, maxSize);
+        this.onEvict = onEvict;
+    }
+
+    private record Node<V>(V value, long expiresAt, long seq) {
+    }
+
+    /**
+     * Returns the cached value, or null if there is none or it has expired (the expired entry is removed).
+     *
+     * @param key the key
+     * @return the value, or null
+     */
+    public V get(K key) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.expiresAt() > System.currentTimeMillis()) {
+            return node.value();
+        }
+        if (entries.remove(key, node)) {
+            onEvict.accept(node.value());
+        }
+        return null;
+    }
+
+    /**
+     * Stores the value until the given time, making room first when the cache is full.
+     *
+     * @param key       the key
+     * @param value     the value
+     * @param expiresAt epoch millis after which the entry is no longer returned
+     */
+    public void put(K key, V value, long expiresAt) {
+        if (entries.size() >= maxSize) {
+            evictForSpace();
+        }
+        entries.put(key, new Node<>(value, expiresAt, sequence.incrementAndGet()));
+    }
+
+    /**
+     * @param key the key
+     */
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry whose key matches, without calling the eviction callback.
+     *
+     * @param filter    selects the keys to remove
+     * @param onRemoved called for each removed value
+     */
+    public void removeKeysIf(Predicate<? super K> filter, Consumer<? super V> onRemoved) {
+        entries.forEach((key, node) -> {
+            if (filter.test(key) && entries.remove(key, node)) {
+                onRemoved.accept(node.value());
+            }
+        });
+    }
+
+    /**
+     * @param filter selects the keys to remove
+     */
+    public void removeKeysIf(Predicate<? super K> filter) {
+        removeKeysIf(filter, value -> { });
+    }
+
+    /**
+     * Runs the action for every value currently held, including expired ones not yet removed.
+     *
+     * @param action the action
+     */
+    public void forEachValue(Consumer<? super V> action) {
+        entries.values().forEach(node -> action.accept(node.value()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void evictForSpace() {
+        if (entries.size() < maxSize) {
+            // Another thread has just made room
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.forEach((key, node) -> {
+            if (node.expiresAt() <= now && entries.remove(key, node)) {
+                onEvict.accept(node.value());
+            }
+        });
+        if (entries.size() >= maxSize) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().seq()))
+                    .limit(Math.max(1, maxSize / 10))
+                    .toList()
+                    .forEach(e -> {
+                        if (entries.remove(e.getKey(), e.getValue())) {
+                            onEvict.accept(e.getValue().value());
+                        }
+                    });
+        }
+    }
+}
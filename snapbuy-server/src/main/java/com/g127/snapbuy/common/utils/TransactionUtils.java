@@ -0,0 +1,84 @@
+package com.g127.snapbuy.common.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Helpers for running work once the current Spring transaction has committed
+ * (cache eviction, index updates, background dispatch).
+ */
+public class TransactionUtils {
+
+    private TransactionUtils() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Runs the action after the current transaction commits, or immediately when no transaction is active.
+     * The action is not run if the transaction rolls back.
+     *
+     * @param action the work to run
+     */
+    public static void afterCommitOrNow(Runnable action) {
+        if (!afterCommit(action)) {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the action after the current transaction commits; does nothing when no transaction is active.
+     *
+     * @param action the work to run
+     * @return true if the action was registered, false if there is no active transaction
+     */
+    public static boolean afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Returns a buffer bound to the current transaction under {@code key}. The first call in a transaction
+     * creates it with {@code factory} and registers {@code onCommit} to receive it once after commit;
+     * later calls in the same transaction return the same buffer. The binding is released on completion.
+     *
+     * @param key      resource key, usually the calling bean
+     * @param factory  creates an empty buffer
+     * @param onCommit consumes the buffer after commit
+     * @return the transaction's buffer, or null if there is no active transaction
+     */
+    public static <T> T bufferUntilCommit(Object key, Supplier<T> factory, Consumer<T> onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        T buffer = (T) TransactionSynchronizationManager.getResource(key);
+        if (buffer != null) {
+            return buffer;
+        }
+        T created = factory.get();
+        TransactionSynchronizationManager.bindResource(key, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                onCommit.accept(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+        });
+        return created;
+    }
+}
@@ -5,13 +5,67 @@ import java.text.Normalizer;
 /**
  * Utility class for Vietnamese text processing.
  * Provides methods to remove diacritics (dấu) from Vietnamese text for search functionality.
+ * <p>
+ * Folding is table driven: every code point below {@link #TABLE_SIZE} (Latin, Latin Extended A/B,
+ * combining marks and the Latin Extended Additional block holding the Vietnamese letters) maps to its
+ * base letter in a single pass, so comparisons can run over the original text without building
+ * normalized copies. The table is derived once from NFD, the same rule the previous
+ * Normalizer + regex implementation applied on every call.
  */
 public class VietnameseUtils {
 
+    /** Covers U+0000..U+1EFF; Vietnamese precomposed letters end at U+1EF9 */
+    private static final int TABLE_SIZE = 0x1F00;
+
+    /** Marker for combining diacritical marks (U+0300..U+036F), which are dropped */
+    private static final char DROP = '\uFFFF';
+
+    /** Case-preserving base letter of each code point */
+    private static final char[] BASE = new char[TABLE_SIZE];
+
+    /** Lower-cased base letter of each code point */
+    private static final char[] FOLD = new char[TABLE_SIZE];
+
+    static {
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            char base = baseOf((char) c);
+            BASE[c] = base;
+            FOLD[c] = base == DROP ? DROP : Character.toLowerCase(base);
+        }
+    }
+
     private VietnameseUtils() {
         // Private constructor to prevent instantiation
     }
 
+    private static char baseOf(char c) {
+        if (c >= 0x0300 && c <= 0x036F) return DROP;
+        // đ/Đ are separate letters, NFD does not decompose them
+        if (c == 'đ') return 'd';
+        if (c == 'Đ') return 'D';
+        if (Character.isSurrogate(c)) return c;
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        char base = 0;
+        int kept = 0;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char d = decomposed.charAt(i);
+            if (d < 0x0300 || d > 0x036F) {
+                base = d;
+                kept++;
+            }
+        }
+        // Keep code points that do not decompose to exactly one base character as they are
+        return kept == 1 ? base : c;
+    }
+
+    private static char base(char c) {
+        return c < TABLE_SIZE ? BASE[c] : c;
+    }
+
+    private static char fold(char c) {
+        return c < TABLE_SIZE ? FOLD[c] : Character.toLowerCase(c);
+    }
+
     /**
      * Removes diacritics (dấu) from Vietnamese text.
      * Example: "Nguyễn Văn Anh" -> "Nguyen Van Anh"
@@ -21,15 +75,75 @@ public class VietnameseUtils {
      */
     public static String removeDiacritics(String input) {
         if (input == null) return null;
-        
-        // Normalize to NFD form and remove combining diacritical marks
-        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-        
-        // Handle special Vietnamese characters đ/Đ that are not decomposed by NFD
-        return normalized
-                .replace("đ", "d")
-                .replace("Đ", "D");
+        int i = 0;
+        int length = input.length();
+        while (i < length && base(input.charAt(i)) == input.charAt(i)) {
+            i++;
+        }
+        if (i == length) {
+            return input;
+        }
+        StringBuilder sb = new StringBuilder(length).append(input, 0, i);
+        for (; i < length; i++) {
+            char b = base(input.charAt(i));
+            if (b != DROP) sb.append(b);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lower-cases text and removes diacritics in one pass; the form expected by {@link #containsFolded}.
+     * Example: "Nguyễn Văn Anh" -> "nguyen van anh"
+     *
+     * @param text the text to fold
+     * @return the folded text, or null if text is null
+     */
+    public static String fold(String text) {
+        if (text == null) return null;
+        int i = 0;
+        int length = text.length();
+        while (i < length && fold(text.charAt(i)) == text.charAt(i)) {
+            i++;
+        }
+        if (i == length) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(length).append(text, 0, i);
+        for (; i < length; i++) {
+            char f = fold(text.charAt(i));
+            if (f != DROP) sb.append(f);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Checks if the text contains an already folded needle, ignoring case and Vietnamese diacritics.
+     * The text is folded character by character while matching, nothing is allocated.
+     * Example: containsFolded("Nguyễn Văn Anh", fold("nguyen")) returns true
+     *
+     * @param text the text to search in
+     * @param foldedNeedle the needle produced by {@link #fold(String)}
+     * @return true if text contains the needle (ignoring diacritics), false otherwise
+     */
+    public static boolean containsFolded(CharSequence text, String foldedNeedle) {
+        if (foldedNeedle == null || foldedNeedle.isEmpty()) return true;
+        if (text == null) return false;
+        int textLength = text.length();
+        int needleLength = foldedNeedle.length();
+        char first = foldedNeedle.charAt(0);
+        for (int start = 0; start <= textLength - needleLength; start++) {
+            if (fold(text.charAt(start)) != first) continue;
+            int t = start + 1;
+            int n = 1;
+            while (n < needleLength && t < textLength) {
+                char f = fold(text.charAt(t++));
+                if (f == DROP) continue;
+                if (f != foldedNeedle.charAt(n)) break;
+                n++;
+            }
+            if (n == needleLength) return true;
+        }
+        return false;
     }
 
     /**
@@ -45,12 +159,12 @@ public class VietnameseUtils {
         if (text == null || keyword == null || keyword.isEmpty()) {
             return keyword == null || keyword.isEmpty();
         }
-        return removeDiacritics(text.toLowerCase())
-                .contains(removeDiacritics(keyword.toLowerCase()));
+        return containsFolded(text, fold(keyword));
     }
 
     /**
      * Checks if any of the provided fields contain the keyword, ignoring Vietnamese diacritics.
+     * When filtering many rows, fold the keyword once and use {@link #matchesAnyFolded} instead.
      *
      * @param keyword the keyword to search for
      * @param fields the fields to search in (varargs)
@@ -60,11 +174,58 @@ public class VietnameseUtils {
         if (keyword == null || keyword.isEmpty()) {
             return true;
         }
+        return matchesAnyFolded(fold(keyword), fields);
+    }
+
+    /**
+     * Checks if any of the provided fields contain an already folded keyword, ignoring Vietnamese diacritics.
+     *
+     * @param foldedKeyword the keyword produced by {@link #fold(String)}
+     * @param fields the fields to search in (varargs)
+     * @return true if any field contains the keyword (ignoring diacritics), false otherwise
+     */
+    public static boolean matchesAnyFolded(String foldedKeyword, String... fields) {
+        if (foldedKeyword == null || foldedKeyword.isEmpty()) {
+            return true;
+        }
         for (String field : fields) {
-            if (containsIgnoreDiacritics(field, keyword)) {
+            if (field != null && containsFolded(field, foldedKeyword)) {
                 return true;
             }
         }
         return false;
     }
+
+    /**
+     * Normalizes text for the persisted *_search columns: lower-cased, diacritics removed.
+     * Example: "Nguyễn Văn Anh" -> "nguyen van anh"
+     *
+     * @param text the text to normalize
+     * @return the normalized text, or null if text is null
+     */
+    public static String normalizeForSearch(String text) {
+        return fold(text);
+    }
+
+    /**
+     * Builds a LIKE pattern ("contains") for matching a keyword against the *_search columns.
+     * LIKE wildcards in the keyword are escaped with '!' (use together with ESCAPE '!').
+     * Example: "Sữa_1" -> "%sua!_1%"
+     *
+     * @param keyword the keyword entered by the user
+     * @return the LIKE pattern, or null if keyword is null or blank
+     */
+    public static String toContainsPattern(String keyword) {
+        if (keyword == null || keyword.isBlank()) return null;
+        String normalized = normalizeForSearch(keyword.trim());
+        StringBuilder pattern = new StringBuilder(normalized.length() + 2).append('%');
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c == '!' || c == '%' || c == '_' || c == '[') {
+                pattern.append('!');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
 }
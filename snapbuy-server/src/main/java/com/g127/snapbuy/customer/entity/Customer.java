@@ -1,5 +1,6 @@
 package com.g127.snapbuy.customer.entity;
 
+import com.g127.snapbuy.common.utils.VietnameseUtils;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,6 +31,10 @@ public class Customer {
     @Column(name = "full_name")
     private String fullName;
 
+    // Họ tên đã chuẩn hóa (chữ thường, bỏ dấu) để tìm kiếm trong SQL
+    @Column(name = "full_name_search")
+    private String fullNameSearch;
+
     @Column(name = "phone")
     private String phone;
 
@@ -55,4 +60,10 @@ public class Customer {
     @Column(name = "active")
     @Builder.Default
     private Boolean active = true;
+
+    @PrePersist
+    @PreUpdate
+    public void updateSearchColumns() {
+        fullNameSearch = VietnameseUtils.normalizeForSearch(fullName);
+    }
 }
\ No newline at end of file
@@ -13,12 +13,14 @@ public interface CustomerMapper {
     @Mapping(target = "customerCode", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
     @Mapping(target = "updatedDate", ignore = true)
+    @Mapping(target = "fullNameSearch", ignore = true)
     Customer toEntity(CustomerCreateRequest request);
 
     @Mapping(target = "customerId", ignore = true)
     @Mapping(target = "customerCode", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
     @Mapping(target = "updatedDate", ignore = true)
+    @Mapping(target = "fullNameSearch", ignore = true)
     void updateFromDto(CustomerUpdateRequest request, @MappingTarget Customer customer);
 
     @Mapping(source = "points", target = "points")
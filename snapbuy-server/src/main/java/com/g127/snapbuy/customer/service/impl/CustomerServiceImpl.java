@@ -114,8 +114,9 @@ public class CustomerServiceImpl implements CustomerService {
         // Lọc theo keyword trong Java sử dụng VietnameseUtils
         String trimmedKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
         if (trimmedKeyword != null) {
+            String foldedKeyword = VietnameseUtils.fold(trimmedKeyword);
             customers = customers.stream()
-                .filter(c -> VietnameseUtils.matchesAny(trimmedKeyword, c.getFullName(), c.getPhone()))
+                .filter(c -> VietnameseUtils.matchesAnyFolded(foldedKeyword, c.getFullName(), c.getPhone()))
                 .toList();
         }
         
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,4 +29,24 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
         WHERE product_id = :productId
     """, nativeQuery = true)
     Optional<Inventory> lockByProductId(@Param("productId") UUID productId);
+
+    // Khóa tồn kho của cả giỏ hàng trong một query
+    @Query(value = """
+        SELECT *
+        FROM inventory WITH (UPDLOCK, ROWLOCK)
+        WHERE product_id IN (:productIds)
+    """, nativeQuery = true)
+    List<Inventory> lockByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    // Tồn kho hiện tại của mọi sản phẩm dạng {productId, quantityInStock}, không nạp entity
+    @Query("SELECT i.product.productId, i.quantityInStock FROM Inventory i")
+    List<Object[]> findAllStockLevels();
+
+    // Các cột cần cho cảnh báo tồn kho thấp: sản phẩm, tên, trạng thái, tồn kho, điểm đặt hàng lại
+    @Query("""
+        SELECT p.productId, p.productName, p.active, i.quantityInStock, i.reorderPoint
+        FROM Inventory i JOIN i.product p
+        WHERE p.productId IN :productIds
+    """)
+    List<Object[]> findLowStockRowsByProductIdIn(@Param("productIds") Collection<UUID> productIds);
 }
@@ -76,9 +76,10 @@ public class InventoryTransactionServiceImpl implements InventoryTransactionServ
             );
             
             // Lọc theo productName sử dụng VietnameseUtils
+            String foldedProductName = VietnameseUtils.fold(trimmedProductName);
             List<InventoryTransaction> filteredData = allData.stream()
                 .filter(t -> t.getProduct() != null && 
-                    VietnameseUtils.matchesAny(trimmedProductName, 
+                    VietnameseUtils.matchesAnyFolded(foldedProductName, 
                         t.getProduct().getProductName(), 
                         t.getProduct().getProductCode()))
                 .toList();
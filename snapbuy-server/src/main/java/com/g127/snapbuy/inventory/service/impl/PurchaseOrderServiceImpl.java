@@ -19,6 +19,7 @@ import com.g127.snapbuy.supplier.entity.Supplier;
 import com.g127.snapbuy.notification.entity.Notification.NotificationType;
 import com.g127.snapbuy.common.exception.AppException;
 import com.g127.snapbuy.common.exception.ErrorCode;
+import com.g127.snapbuy.common.service.DocumentSequenceService;
 import com.g127.snapbuy.inventory.mapper.PurchaseOrderMapper;
 import com.g127.snapbuy.inventory.repository.PurchaseOrderRepository;
 import com.g127.snapbuy.inventory.repository.PurchaseOrderDetailRepository;
@@ -69,6 +70,7 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     private final com.g127.snapbuy.auth.service.MailService mailService;
     private final NotificationService notificationService;
     private final com.g127.snapbuy.notification.service.NotificationSettingsService notificationSettingsService;
+    private final DocumentSequenceService documentSequenceService;
 
     @Override
     @Transactional(transactionManager = "tenantTransactionManager")
@@ -1022,12 +1024,11 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     private String generateUniqueNumber() {
         String datePart = LocalDate.now().format(DateTimeFormatter.ofPattern("yyMMdd"));
 
-        long countToday = purchaseOrderRepo.countByOrderDateBetween(
-                LocalDate.now().atStartOfDay(),
-                LocalDate.now().atTime(23, 59, 59)
-        );
-
-        long nextNumber = countToday + 1;
+        long nextNumber = documentSequenceService.nextValue("PO" + datePart,
+                () -> purchaseOrderRepo.countByOrderDateBetween(
+                        LocalDate.now().atStartOfDay(),
+                        LocalDate.now().atTime(23, 59, 59)
+                ) + 1);
 
         return "PO" + datePart + String.format("%03d", nextNumber);
     }
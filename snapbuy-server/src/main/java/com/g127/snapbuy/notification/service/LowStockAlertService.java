@@ -0,0 +1,40 @@
+package com.g127.snapbuy.notification.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+public interface LowStockAlertService {
+
+    /**
+     * Một lần thay đổi tồn kho của sản phẩm (gộp theo transaction: số lượng đầu tiên và cuối cùng)
+     */
+    @Getter
+    @AllArgsConstructor
+    class StockChange {
+        private final UUID productId;
+        private final int oldQuantity;
+        private final int newQuantity;
+    }
+
+    /**
+     * Ghi nhận thay đổi tồn kho trong transaction hiện tại. Sau khi commit, các thay đổi được xét
+     * điểm đặt hàng lại trên luồng nền và thông báo tồn kho thấp được ghi theo lô; checkout không chờ bước này.
+     */
+    void stockChanged(UUID productId, int oldQuantity, int newQuantity);
+
+    /**
+     * Ghi nhận mức tồn kho vừa được thông báo cho sản phẩm của tenant hiện tại. Dùng chung cho cảnh báo theo sự kiện
+     * và kiểm tra định kỳ để một mức số lượng chỉ được báo một lần trong ngày.
+     *
+     * @return true nếu cần thông báo (chưa báo trong ngày hoặc số lượng thấp hơn lần báo trước), false nếu đã báo
+     */
+    boolean markNotified(UUID productId, int quantity);
+
+    /**
+     * Hoàn tác {@link #markNotified(UUID, int)} khi thông báo của mức đó không được lưu,
+     * để lần kiểm tra sau vẫn báo cho chủ cửa hàng
+     */
+    void unmarkNotified(UUID productId, int quantity);
+}
@@ -9,7 +9,9 @@ public interface NotificationSchedulerService {
 
     /**
      * Check for low stock items and create notifications
-     * This method is scheduled to run periodically
+     * Full inventory scan of the current tenant, run daily for every active tenant
+     * through TenantJobRunner and available as a manual trigger;
+     * checkout reports stock changes to LowStockAlertService instead
      */
     void checkLowStock();
 
@@ -26,9 +28,10 @@ public interface NotificationSchedulerService {
     void checkExpiredPromotions();
 
     /**
-     * Schedule real-time notifications for a promotion
+     * Schedule notifications for a promotion of the current tenant
      * - 1 day before expiry: "Khuyến mãi sắp hết hạn"
      * - At exact expiry time: "Khuyến mãi đã hết hạn"
+     * Jobs are persisted in scheduled_jobs and survive restarts
      */
     void schedulePromotionNotifications(UUID promotionId);
 
@@ -0,0 +1,197 @@
+package com.g127.snapbuy.notification.service.impl;
+
+import com.g127.snapbuy.account.entity.Account;
+import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.inventory.repository.InventoryRepository;
+import com.g127.snapbuy.notification.entity.Notification;
+import com.g127.snapbuy.notification.entity.Notification.NotificationType;
+import com.g127.snapbuy.notification.repository.NotificationRepository;
+import com.g127.snapbuy.notification.service.LowStockAlertService;
+import com.g127.snapbuy.notification.service.NotificationSettingsService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.common.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cảnh báo tồn kho thấp theo sự kiện thay đổi tồn kho.
+ * Các thay đổi trong một transaction được gộp theo sản phẩm và chỉ được gửi sang executor riêng sau khi commit;
+ * luồng nền chỉ đọc tồn kho của các sản phẩm vừa giảm, kiểm tra quyền nhận thông báo một lần cho mỗi chủ cửa hàng
+ * và ghi toàn bộ thông báo bằng một lần saveAll.
+ * <p>
+ * Quy tắc giống kiểm tra định kỳ: báo khi tồn kho <= điểm đặt hàng lại, báo lại khi số lượng tiếp tục giảm,
+ * mỗi mức số lượng chỉ báo một lần trong ngày. Service này giữ trạng thái đã báo duy nhất, kiểm tra định kỳ
+ * cũng ghi nhận qua {@link #markNotified(UUID, int)} nên hai luồng không báo trùng nhau.
+ */
+@Service
+@Slf4j
+public class LowStockAlertServiceImpl implements LowStockAlertService {
+
+    private final InventoryRepository inventoryRepository;
+    private final NotificationRepository notificationRepository;
+    private final AccountRepository accountRepository;
+    private final NotificationSettingsService notificationSettingsService;
+    private final TaskExecutor lowStockAlertExecutor;
+    private final ReferenceDataCacheService referenceDataCacheService;
+
+    // Số lượng đã thông báo lần cuối, key "tenantId_productId_date" để tự reset hàng ngày
+    private final Map<String, Integer> lastNotifiedQuantityMap = new ConcurrentHashMap<>();
+    private volatile String trackingDate;
+
+    public LowStockAlertServiceImpl(InventoryRepository inventoryRepository,
+                                    NotificationRepository notificationRepository,
+                                    AccountRepository accountRepository,
+                                    NotificationSettingsService notificationSettingsService,
+                                    @Qualifier("lowStockAlertExecutor") TaskExecutor lowStockAlertExecutor,
+                                    ReferenceDataCacheService referenceDataCacheService) {
+        this.inventoryRepository = inventoryRepository;
+        this.notificationRepository = notificationRepository;
+        this.accountRepository = accountRepository;
+        this.notificationSettingsService = notificationSettingsService;
+        this.lowStockAlertExecutor = lowStockAlertExecutor;
+        this.referenceDataCacheService = referenceDataCacheService;
+    }
+
+    @Override
+    public void stockChanged(UUID productId, int oldQuantity, int newQuantity) {
+        // Tồn kho tăng (trả hàng, hủy đơn) không thể làm sản phẩm rơi xuống dưới điểm đặt hàng lại
+        if (productId == null || newQuantity >= oldQuantity) return;
+
+        String tenantId = TenantContext.getCurrentTenant();
+        // Gom thay đổi của cả transaction, xét điểm đặt hàng lại một lần sau khi commit
+        Map<UUID, StockChange> pending = TransactionUtils.bufferUntilCommit(this,
+                LinkedHashMap::new, changes -> dispatch(tenantId, List.copyOf(changes.values())));
+        if (pending == null) {
+            dispatch(tenantId, List.of(new StockChange(productId, oldQuantity, newQuantity)));
+            return;
+        }
+        pending.merge(productId, new StockChange(productId, oldQuantity, newQuantity),
+                (first, last) -> new StockChange(productId, first.getOldQuantity(), last.getNewQuantity()));
+    }
+
+    private void dispatch(String tenantId, List<StockChange> changes) {
+        if (changes.isEmpty()) return;
+        try {
+            lowStockAlertExecutor.execute(() -> process(tenantId, changes));
+        } catch (RuntimeException e) {
+            // Hàng đợi đầy: bỏ qua lô này, lần giảm tồn kho tiếp theo của sản phẩm sẽ được xét lại
+            log.warn("Hàng đợi cảnh báo tồn kho thấp đã đầy, bỏ qua {} thay đổi của tenant {}", changes.size(), tenantId);
+        }
+    }
+
+    void process(String tenantId, List<StockChange> changes) {
+        String previousTenant = TenantContext.getCurrentTenant();
+        TenantContext.setCurrentTenant(tenantId);
+        // Các mức đã ghi nhận trong lô này, hoàn tác nếu thông báo không được lưu
+        Map<UUID, Integer> marked = new LinkedHashMap<>();
+        try {
+            List<UUID> shopIds = shopIdsWithLowStockEnabled();
+            if (shopIds.isEmpty()) {
+                return;
+            }
+
+            List<UUID> productIds = changes.stream().map(StockChange::getProductId).toList();
+            List<Notification> notifications = new ArrayList<>();
+
+            for (Object[] row : inventoryRepository.findLowStockRowsByProductIdIn(productIds)) {
+                UUID productId = (UUID) row[0];
+                String productName = (String) row[1];
+                Boolean active = (Boolean) row[2];
+                int quantity = row[3] != null ? (Integer) row[3] : 0;
+                Integer reorderPoint = (Integer) row[4];
+
+                if (Boolean.FALSE.equals(active)) continue;
+                if (reorderPoint == null || reorderPoint <= 0 || quantity > reorderPoint) continue;
+                if (!markNotified(productId, quantity)) continue;
+                marked.put(productId, quantity);
+
+                String message;
+                String description;
+                if (quantity <= 0) {
+                    message = "Hết hàng: " + productName;
+                    description = String.format("Sản phẩm '%s' đã hết hàng (điểm đặt hàng: %d)",
+                            productName, reorderPoint);
+                } else {
+                    message = "Cần đặt hàng lại: " + productName;
+                    description = String.format("Sản phẩm '%s' còn %d sản phẩm (điểm đặt hàng: %d)",
+                            productName, quantity, reorderPoint);
+                }
+                for (UUID shopId : shopIds) {
+                    notifications.add(Notification.builder()
+                            .shopId(shopId)
+                            .type(NotificationType.TON_KHO_THAP)
+                            .message(message)
+                            .description(description)
+                            .referenceId(productId)
+                            .isRead(false)
+                            .build());
+                }
+            }
+
+            if (!notifications.isEmpty()) {
+                notificationRepository.saveAll(notifications);
+            }
+        } catch (Exception e) {
+            // Chủ cửa hàng chưa nhận được thông báo: để lần kiểm tra sau (kể cả quét định kỳ) báo lại
+            marked.forEach(this::unmarkNotified);
+            log.error("Lỗi khi xử lý cảnh báo tồn kho thấp cho tenant {}: {}", tenantId, e.getMessage(), e);
+        } finally {
+            if (previousTenant != null) {
+                TenantContext.setCurrentTenant(previousTenant);
+            } else {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    @Override
+    public boolean markNotified(UUID productId, int quantity) {
+        String today = LocalDate.now().toString();
+        if (!today.equals(trackingDate)) {
+            // Sang ngày mới: dọn các key của ngày trước
+            trackingDate = today;
+            lastNotifiedQuantityMap.keySet().removeIf(key -> !key.endsWith("_" + today));
+        }
+        String trackingKey = trackingKey(productId);
+        boolean[] notify = {false};
+        lastNotifiedQuantityMap.compute(trackingKey, (key, lastNotified) -> {
+            if (lastNotified == null || quantity < lastNotified) {
+                notify[0] = true;
+                return quantity;
+            }
+            return lastNotified;
+        });
+        return notify[0];
+    }
+
+    @Override
+    public void unmarkNotified(UUID productId, int quantity) {
+        // Chỉ xóa nếu chưa có luồng khác ghi nhận mức khác sau đó
+        lastNotifiedQuantityMap.remove(trackingKey(productId), quantity);
+    }
+
+    private String trackingKey(UUID productId) {
+        return TenantContext.getCurrentTenantKey() + "_" + productId + "_" + LocalDate.now();
+    }
+
+    private List<UUID> shopIdsWithLowStockEnabled() {
+        List<UUID> shopOwnerIds = referenceDataCacheService.get(ReferenceDataCacheService.SHOP_OWNERS, "ids",
+                () -> accountRepository.findByRoleName("Chủ cửa hàng").stream()
+                        .map(Account::getAccountId)
+                        .toList());
+        return shopOwnerIds.stream()
+                .filter(shopId -> notificationSettingsService.isNotificationEnabledForAccount(shopId, "low_stock"))
+                .toList();
+    }
+}
@@ -5,33 +5,34 @@ import com.g127.snapbuy.inventory.entity.Inventory;
 import com.g127.snapbuy.notification.entity.Notification.NotificationType;
 import com.g127.snapbuy.promotion.entity.Promotion;
 import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
 import com.g127.snapbuy.inventory.repository.InventoryRepository;
 import com.g127.snapbuy.notification.repository.NotificationRepository;
 import com.g127.snapbuy.promotion.repository.PromotionRepository;
+import com.g127.snapbuy.notification.service.LowStockAlertService;
 import com.g127.snapbuy.notification.service.NotificationService;
 import com.g127.snapbuy.notification.service.NotificationSchedulerService;
 import com.g127.snapbuy.notification.service.NotificationSettingsService;
-import jakarta.annotation.PostConstruct;
+import com.g127.snapbuy.tenant.entity.ScheduledJob;
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+import com.g127.snapbuy.tenant.service.ScheduledJobHandler;
+import com.g127.snapbuy.tenant.service.ScheduledJobService;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
 
 @Service
 @Slf4j
-public class NotificationSchedulerServiceImpl implements NotificationSchedulerService {
+public class NotificationSchedulerServiceImpl implements NotificationSchedulerService, ScheduledJobHandler {
 
     private final NotificationService notificationService;
     private final NotificationRepository notificationRepository;
@@ -39,14 +40,10 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
     private final PromotionRepository promotionRepository;
     private final AccountRepository accountRepository;
     private final NotificationSettingsService notificationSettingsService;
-    private final TaskScheduler taskScheduler;
-
-    // Theo dõi số lượng đã thông báo lần cuối mỗi sản phẩm (productId -> quantity)
-    // Định dạng key: "productId_date" để tự động reset hàng ngày
-    private final ConcurrentHashMap<String, Integer> lastNotifiedQuantityMap = new ConcurrentHashMap<>();
-
-    // Lưu trữ các task đã lên lịch: promotionId -> [expiringTask, expiredTask]
-    private final Map<UUID, ScheduledFuture<?>[]> scheduledTasks = new ConcurrentHashMap<>();
+    private final ScheduledJobService scheduledJobService;
+    private final TenantJobRunner tenantJobRunner;
+    private final ReferenceDataCacheService referenceDataCacheService;
+    private final LowStockAlertService lowStockAlertService;
 
     public NotificationSchedulerServiceImpl(
             NotificationService notificationService,
@@ -54,29 +51,26 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
             InventoryRepository inventoryRepository,
             PromotionRepository promotionRepository,
             AccountRepository accountRepository,
-            NotificationSettingsService notificationSettingsService) {
+            NotificationSettingsService notificationSettingsService,
+            ScheduledJobService scheduledJobService,
+            TenantJobRunner tenantJobRunner,
+            ReferenceDataCacheService referenceDataCacheService,
+            LowStockAlertService lowStockAlertService) {
         this.notificationService = notificationService;
         this.notificationRepository = notificationRepository;
         this.inventoryRepository = inventoryRepository;
         this.promotionRepository = promotionRepository;
         this.accountRepository = accountRepository;
         this.notificationSettingsService = notificationSettingsService;
-
-        // Tạo TaskScheduler
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(5);
-        scheduler.setThreadNamePrefix("promo-notif-");
-        scheduler.initialize();
-        this.taskScheduler = scheduler;
+        this.scheduledJobService = scheduledJobService;
+        this.tenantJobRunner = tenantJobRunner;
+        this.referenceDataCacheService = referenceDataCacheService;
+        this.lowStockAlertService = lowStockAlertService;
     }
 
-    // @PostConstruct - Disabled for multi-tenancy: cannot query tenant DB without tenant context
-    // public void init() {
-    //     rescheduleAllPromotionNotifications();
-    // }
-
     /**
-     * Lên lịch lại tất cả thông báo khuyến mãi (gọi thủ công khi cần cho mỗi tenant)
+     * Lên lịch lại tất cả thông báo khuyến mãi của tenant hiện tại (gọi thủ công khi cần, vd: tenant có từ trước
+     * khi lịch được lưu trong scheduled_jobs)
      */
     public void rescheduleAllPromotionNotifications() {
         List<Promotion> activePromotions = promotionRepository.findAll().stream()
@@ -90,32 +84,40 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
     }
 
     /**
-     * Kiểm tra các mặt hàng tồn kho thấp và tạo thông báo
+     * Kiểm tra tồn kho thấp cho tất cả tenant đang hoạt động, các tenant chạy song song
      * Chạy một lần mỗi ngày lúc 8:00 sáng
+     */
+    @Scheduled(cron = "0 0 8 * * *") // Run daily at 8:00 AM
+    public void scheduledCheckLowStock() {
+        tenantJobRunner.runForActiveTenants("low-stock-check", this::checkLowStock);
+    }
+
+    /**
+     * Kiểm tra các mặt hàng tồn kho thấp của tenant hiện tại và tạo thông báo
      *
      * Logic:
      * - Thông báo khi tồn kho <= điểm đặt hàng lại (reorderPoint)
      * - Thông báo lại mỗi khi số lượng tồn kho GIẢM (do order)
-     * - Mỗi ngày chỉ thông báo 1 lần cho mỗi mức số lượng
+     * - Mỗi ngày chỉ thông báo 1 lần cho mỗi mức số lượng (trạng thái dùng chung với LowStockAlertService,
+     *   mức đã được báo khi checkout sẽ không bị báo lại)
+     * Lỗi được ném ra ngoài để TenantJobRunner ghi nhận tenant thất bại
      */
     @Override
-    @Scheduled(cron = "0 0 8 * * *") // Run daily at 8:00 AM
     @Transactional
     public void checkLowStock() {
-        try {
-            List<UUID> shopIds = getAllShopIds();
-            if (shopIds.isEmpty()) {
-                return;
-            }
-
-            List<Inventory> inventories = inventoryRepository.findAll();
-            int notificationCount = 0;
-            int checkedCount = 0;
-            int skippedCount = 0;
+        List<UUID> shopIds = loadShopIds();
+        if (shopIds.isEmpty()) {
+            return;
+        }
 
-            // Lấy ngày hôm nay cho tracking key
-            String today = LocalDate.now().toString();
+        List<Inventory> inventories = inventoryRepository.findAll();
+        int notificationCount = 0;
+        int checkedCount = 0;
+        int skippedCount = 0;
 
+        // Các mức đã ghi nhận trong lần quét này; lỗi thì transaction rollback nên hoàn tác để lần sau báo lại
+        Map<UUID, Integer> marked = new LinkedHashMap<>();
+        try {
             for (Inventory inventory : inventories) {
                 if (inventory.getProduct() == null ||
                     (inventory.getProduct().getActive() != null && !inventory.getProduct().getActive())) {
@@ -133,18 +135,13 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
                     continue;
                 }
 
-                // Tracking key: productId_date (auto-reset daily)
-                String trackingKey = productId.toString() + "_" + today;
-                Integer lastNotifiedQty = lastNotifiedQuantityMap.get(trackingKey);
-
                 // Thông báo nếu:
-                // 1. Chưa có thông báo trong ngày (lastNotifiedQty == null)
-                // 2. Hoặc số lượng đã giảm so với lần thông báo trước (quantity < lastNotifiedQty)
-                boolean shouldNotify = (lastNotifiedQty == null) || (quantity < lastNotifiedQty);
-
-                if (!shouldNotify) {
+                // 1. Chưa có thông báo trong ngày (kể cả từ cảnh báo khi checkout)
+                // 2. Hoặc số lượng đã giảm so với lần thông báo trước
+                if (!lowStockAlertService.markNotified(productId, quantity)) {
                     continue;
                 }
+                marked.put(productId, quantity);
 
                 // Xây dựng nội dung thông báo
                 String message;
@@ -161,42 +158,27 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
 
                 // Tạo thông báo cho tất cả chủ cửa hàng (chỉ nếu đã bật trong cài đặt)
                 for (UUID shopId : shopIds) {
-                    try {
-                        // Kiểm tra xem thông báo tồn kho thấp có được bật cho chủ cửa hàng này không
-                        if (!notificationSettingsService.isNotificationEnabledForAccount(shopId, "low_stock")) {
-                            continue;
-                        }
-                        
-                        notificationService.createNotification(
-                                shopId,
-                                NotificationType.TON_KHO_THAP,
-                                message,
-                                description,
-                                productId
-                        );
-                        notificationCount++;
-                    } catch (Exception e) {
-                        log.error("Lỗi khi tạo thông báo cho sản phẩm {}: {}",
-                                inventory.getProduct().getProductName(), e.getMessage());
+                    // Kiểm tra xem thông báo tồn kho thấp có được bật cho chủ cửa hàng này không
+                    if (!notificationSettingsService.isNotificationEnabledForAccount(shopId, "low_stock")) {
+                        continue;
                     }
-                }
 
-                // Update tracking map với số lượng đã thông báo
-                lastNotifiedQuantityMap.put(trackingKey, quantity);
+                    notificationService.createNotification(
+                            shopId,
+                            NotificationType.TON_KHO_THAP,
+                            message,
+                            description,
+                            productId
+                    );
+                    notificationCount++;
+                }
             }
-
-            // Dọn dẹp các tracking key cũ (từ các ngày trước)
-            cleanupOldTrackingKeys(today);
-        } catch (Exception e) {
-            log.error("Lỗi khi kiểm tra tồn kho thấp: {}", e.getMessage(), e);
+        } catch (RuntimeException e) {
+            marked.forEach(lowStockAlertService::unmarkNotified);
+            throw e;
         }
-    }
-
-    /**
-     * Xóa các tracking key từ các ngày trước để tránh rò rỉ bộ nhớn
-     */
-    private void cleanupOldTrackingKeys(String today) {
-        lastNotifiedQuantityMap.keySet().removeIf(key -> !key.endsWith("_" + today));
+        log.debug("Kiểm tra tồn kho thấp: {} sản phẩm, bỏ qua {}, tạo {} thông báo",
+                checkedCount, skippedCount, notificationCount);
     }
 
     /**
@@ -220,7 +202,7 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
     }
 
     /**
-     * Lên lịch thông báo thời gian thực cho một khuyến mãi
+     * Lên lịch thông báo cho một khuyến mãi của tenant hiện tại (lưu trong scheduled_jobs, không mất khi khởi động lại)
      * - 1 ngày trước khi hết hạn: "Khuyến mãi sắp hết hạn"
      * - Tại thời điểm hết hạn: "Khuyến mãi đã hết hạn"
      */
@@ -246,27 +228,15 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
         LocalDateTime endDate = promotion.getEndDate();
         LocalDateTime oneDayBefore = endDate.minusDays(1);
 
-        ScheduledFuture<?>[] tasks = new ScheduledFuture<?>[2];
-
         // Lên lịch thông báo "sắp hết hạn" (1 ngày trước)
         if (oneDayBefore.isAfter(now)) {
-            Instant expiringTime = oneDayBefore.atZone(ZoneId.systemDefault()).toInstant();
-            tasks[0] = taskScheduler.schedule(
-                () -> createExpiringNotification(promotionId),
-                expiringTime
-            );
+            scheduledJobService.schedule(JobType.PROMOTION_EXPIRING, promotionId, oneDayBefore);
         }
 
         // Lên lịch thông báo "đã hết hạn" (tại thời điểm hết hạn)
         if (endDate.isAfter(now)) {
-            Instant expiredTime = endDate.atZone(ZoneId.systemDefault()).toInstant();
-            tasks[1] = taskScheduler.schedule(
-                () -> createExpiredNotification(promotionId),
-                expiredTime
-            );
+            scheduledJobService.schedule(JobType.PROMOTION_EXPIRED, promotionId, endDate);
         }
-
-        scheduledTasks.put(promotionId, tasks);
     }
 
     /**
@@ -304,46 +274,55 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
      */
     @Override
     public void cancelPromotionNotifications(UUID promotionId) {
-        ScheduledFuture<?>[] tasks = scheduledTasks.remove(promotionId);
-        if (tasks != null) {
-            for (ScheduledFuture<?> task : tasks) {
-                if (task != null && !task.isDone()) {
-                    task.cancel(false);
-                }
-            }
+        scheduledJobService.cancel(JobType.PROMOTION_EXPIRING, promotionId);
+        scheduledJobService.cancel(JobType.PROMOTION_EXPIRED, promotionId);
+    }
+
+    @Override
+    public Set<JobType> getJobTypes() {
+        return Set.of(JobType.PROMOTION_EXPIRING, JobType.PROMOTION_EXPIRED);
+    }
+
+    /**
+     * Chạy job thông báo khuyến mãi đến hạn (TenantContext đã được đặt theo tenant của job);
+     * lỗi được ném ra để job được chạy lại
+     */
+    @Override
+    public LocalDateTime handle(ScheduledJob job) {
+        if (job.getJobType() == JobType.PROMOTION_EXPIRING) {
+            createExpiringNotification(job.getReferenceId());
+        } else {
+            createExpiredNotification(job.getReferenceId());
         }
+        return null;
     }
 
     /**
      * Tạo thông báo "sắp hết hạn" (1 ngày trước)
      */
     private void createExpiringNotification(UUID promotionId) {
-        try {
-            Promotion promotion = promotionRepository.findById(promotionId).orElse(null);
-            if (promotion == null || !Boolean.TRUE.equals(promotion.getActive())) {
-                return;
-            }
+        Promotion promotion = promotionRepository.findById(promotionId).orElse(null);
+        if (promotion == null || !Boolean.TRUE.equals(promotion.getActive())) {
+            return;
+        }
 
-            List<UUID> shopIds = getAllShopIds();
-            String message = "Khuyến mãi sắp hết hạn: " + promotion.getPromotionName();
-            String description = String.format("Khuyến mãi '%s' sẽ hết hạn vào ngày mai (%s)",
-                    promotion.getPromotionName(), promotion.getEndDate().toLocalDate());
+        List<UUID> shopIds = getAllShopIds();
+        String message = "Khuyến mãi sắp hết hạn: " + promotion.getPromotionName();
+        String description = String.format("Khuyến mãi '%s' sẽ hết hạn vào ngày mai (%s)",
+                promotion.getPromotionName(), promotion.getEndDate().toLocalDate());
 
-            for (UUID shopId : shopIds) {
-                // Kiểm tra xem thông báo khuyến mãi có được bật cho chủ cửa hàng này không
-                if (!notificationSettingsService.isNotificationEnabledForAccount(shopId, "promotion")) {
-                    continue;
-                }
-                
-                boolean exists = notificationRepository.existsByShopIdAndTypeAndReferenceIdAndIsRead(
-                        shopId, NotificationType.KHUYEN_MAI_SAP_HET_HAN, promotionId, false);
-                if (!exists) {
-                    notificationService.createNotification(shopId, NotificationType.KHUYEN_MAI_SAP_HET_HAN,
-                            message, description, promotionId);
-                }
+        for (UUID shopId : shopIds) {
+            // Kiểm tra xem thông báo khuyến mãi có được bật cho chủ cửa hàng này không
+            if (!notificationSettingsService.isNotificationEnabledForAccount(shopId, "promotion")) {
+                continue;
+            }
+
+            boolean exists = notificationRepository.existsByShopIdAndTypeAndReferenceIdAndIsRead(
+                    shopId, NotificationType.KHUYEN_MAI_SAP_HET_HAN, promotionId, false);
+            if (!exists) {
+                notificationService.createNotification(shopId, NotificationType.KHUYEN_MAI_SAP_HET_HAN,
+                        message, description, promotionId);
             }
-        } catch (Exception e) {
-            log.error("Lỗi tạo thông báo sắp hết hạn: {}", e.getMessage(), e);
         }
     }
 
@@ -351,32 +330,30 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
      * Tạo thông báo "đã hết hạn" (tại thời điểm hết hạn)
      */
     private void createExpiredNotification(UUID promotionId) {
-        try {
-            Promotion promotion = promotionRepository.findById(promotionId).orElse(null);
-            if (promotion == null || !Boolean.TRUE.equals(promotion.getActive())) {
-                return;
-            }
+        Promotion promotion = promotionRepository.findById(promotionId).orElse(null);
+        // Job PROMOTION_DEACTIVATE cùng thời điểm có thể đã tắt khuyến mãi, nên chỉ kiểm tra đã hết hạn thật
+        // (tắt thủ công thì lịch thông báo đã bị hủy)
+        if (promotion == null || promotion.getEndDate().isAfter(LocalDateTime.now())) {
+            return;
+        }
 
-            List<UUID> shopIds = getAllShopIds();
-            String message = "Khuyến mãi đã hết hạn: " + promotion.getPromotionName();
-            String description = String.format("Khuyến mãi '%s' đã hết hạn. Vui lòng kiểm tra và cập nhật.",
-                    promotion.getPromotionName());
+        List<UUID> shopIds = getAllShopIds();
+        String message = "Khuyến mãi đã hết hạn: " + promotion.getPromotionName();
+        String description = String.format("Khuyến mãi '%s' đã hết hạn. Vui lòng kiểm tra và cập nhật.",
+                promotion.getPromotionName());
 
-            for (UUID shopId : shopIds) {
-                // Kiểm tra xem thông báo khuyến mãi có được bật cho chủ cửa hàng này không
-                if (!notificationSettingsService.isNotificationEnabledForAccount(shopId, "promotion")) {
-                    continue;
-                }
-                
-                boolean exists = notificationRepository.existsByShopIdAndTypeAndReferenceIdAndIsRead(
-                        shopId, NotificationType.KHUYEN_MAI_HET_HAN, promotionId, false);
-                if (!exists) {
-                    notificationService.createNotification(shopId, NotificationType.KHUYEN_MAI_HET_HAN,
-                            message, description, promotionId);
-                }
+        for (UUID shopId : shopIds) {
+            // Kiểm tra xem thông báo khuyến mãi có được bật cho chủ cửa hàng này không
+            if (!notificationSettingsService.isNotificationEnabledForAccount(shopId, "promotion")) {
+                continue;
+            }
+
+            boolean exists = notificationRepository.existsByShopIdAndTypeAndReferenceIdAndIsRead(
+                    shopId, NotificationType.KHUYEN_MAI_HET_HAN, promotionId, false);
+            if (!exists) {
+                notificationService.createNotification(shopId, NotificationType.KHUYEN_MAI_HET_HAN,
+                        message, description, promotionId);
             }
-        } catch (Exception e) {
-            log.error("Lỗi tạo thông báo hết hạn: {}", e.getMessage(), e);
         }
     }
 
@@ -385,17 +362,18 @@ public class NotificationSchedulerServiceImpl implements NotificationSchedulerSe
      */
     private List<UUID> getAllShopIds() {
         try {
-            List<Account> shopOwners = accountRepository.findByRoleName("Chủ cửa hàng");
-            if (shopOwners != null && !shopOwners.isEmpty()) {
-                return shopOwners.stream()
-                        .map(Account::getAccountId)
-                        .toList();
-            }
-            return List.of();
+            return loadShopIds();
         } catch (Exception e) {
             log.error("Lỗi khi lấy danh sách shop ID: {}", e.getMessage());
             return List.of();
         }
     }
+
+    private List<UUID> loadShopIds() {
+        return referenceDataCacheService.get(ReferenceDataCacheService.SHOP_OWNERS, "ids",
+                () -> accountRepository.findByRoleName("Chủ cửa hàng").stream()
+                        .map(Account::getAccountId)
+                        .toList());
+    }
 }
 
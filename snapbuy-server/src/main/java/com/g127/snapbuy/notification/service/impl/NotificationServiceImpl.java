@@ -7,6 +7,7 @@ import com.g127.snapbuy.notification.entity.Notification;
 import com.g127.snapbuy.notification.entity.Notification.NotificationType;
 import com.g127.snapbuy.notification.mapper.NotificationMapper;
 import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
 import com.g127.snapbuy.notification.repository.NotificationRepository;
 import com.g127.snapbuy.notification.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +31,7 @@ public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
     private final NotificationMapper notificationMapper;
     private final AccountRepository accountRepository;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Override
     public PageResponse<NotificationResponse> getAllNotifications(
@@ -222,9 +224,12 @@ public class NotificationServiceImpl implements NotificationService {
         try {
             // Trong hệ thống single-tenant, tất cả người dùng thuộc cùng một cửa hàng
             // Lấy ID của chủ cửa hàng đầu tiên làm shop ID
-            List<Account> shopOwners = accountRepository.findByRoleName("Chủ cửa hàng");
-            if (shopOwners != null && !shopOwners.isEmpty()) {
-                UUID shopId = shopOwners.get(0).getAccountId();
+            List<UUID> shopOwnerIds = referenceDataCacheService.get(ReferenceDataCacheService.SHOP_OWNERS, "ids",
+                    () -> accountRepository.findByRoleName("Chủ cửa hàng").stream()
+                            .map(Account::getAccountId)
+                            .toList());
+            if (!shopOwnerIds.isEmpty()) {
+                UUID shopId = shopOwnerIds.get(0);
                 log.debug("Using shop owner ID as shop ID: {}", shopId);
                 return shopId;
             }
@@ -1,10 +1,14 @@
 package com.g127.snapbuy.order.controller;
 
 import com.g127.snapbuy.common.response.ApiResponse;
+import com.g127.snapbuy.common.response.PageResponse;
 import com.g127.snapbuy.order.dto.request.OrderCreateRequest;
 import com.g127.snapbuy.order.dto.response.OrderResponse;
 import com.g127.snapbuy.order.service.OrderService;
+import com.g127.snapbuy.payment.dto.response.MomoPaymentIntentResponse;
+import com.g127.snapbuy.payment.service.MoMoPaymentIntentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,6 +29,7 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final MoMoPaymentIntentService moMoPaymentIntentService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng','Nhân viên bán hàng')")
@@ -44,6 +49,15 @@ public class OrderController {
         return response;
     }
 
+    @GetMapping("/{id}/momo-payment")
+    @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng','Nhân viên bán hàng')")
+    public ApiResponse<MomoPaymentIntentResponse> getMomoPayment(@PathVariable UUID id) {
+        ApiResponse<MomoPaymentIntentResponse> response = new ApiResponse<>();
+        response.setResult(moMoPaymentIntentService.getIntent(id));
+        response.setMessage("Lấy trạng thái thanh toán MoMo thành công.");
+        return response;
+    }
+
     @GetMapping
     @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng','Nhân viên bán hàng')")
     public ApiResponse<List<OrderResponse>> getAllOrders(
@@ -126,6 +140,59 @@ public class OrderController {
         return response;
     }
 
+    @GetMapping("/search-paged")
+    @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng','Nhân viên bán hàng')")
+    public ApiResponse<PageResponse<OrderResponse>> searchOrdersPaged(
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String orderStatus,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        var pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 200));
+        ApiResponse<PageResponse<OrderResponse>> response = new ApiResponse<>();
+        response.setResult(orderService.searchOrdersPaged(
+                searchTerm, orderStatus, parseStartOfDay(from), parseEndOfDay(to), pageable));
+        response.setMessage("Tìm kiếm đơn hàng (phân trang) thành công.");
+        return response;
+    }
+
+    @GetMapping("/returns/search-paged")
+    @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng','Nhân viên bán hàng')")
+    public ApiResponse<PageResponse<OrderResponse>> searchReturnOrdersPaged(
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String orderStatus,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        var pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 200));
+        ApiResponse<PageResponse<OrderResponse>> response = new ApiResponse<>();
+        response.setResult(orderService.searchReturnOrdersPaged(
+                searchTerm, orderStatus, parseStartOfDay(from), parseEndOfDay(to), pageable));
+        response.setMessage("Tìm kiếm đơn hoàn hàng (phân trang) thành công.");
+        return response;
+    }
+
+    private static LocalDateTime parseStartOfDay(String date) {
+        if (date == null || date.trim().isEmpty()) return null;
+        try {
+            return LocalDate.parse(date.trim()).atStartOfDay();
+        } catch (Exception e) {
+            // Bỏ qua ngày sai định dạng như các API tìm kiếm khác
+            return null;
+        }
+    }
+
+    private static LocalDateTime parseEndOfDay(String date) {
+        if (date == null || date.trim().isEmpty()) return null;
+        try {
+            return LocalDate.parse(date.trim()).atTime(23, 59, 59);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     @GetMapping("/my/today-count")
     @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng','Nhân viên bán hàng')")
     public ApiResponse<Long> getMyTodayOrderCount(@RequestParam(required = false) String paymentStatus) {
@@ -1,6 +1,8 @@
 package com.g127.snapbuy.order.repository;
 
 import com.g127.snapbuy.order.entity.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -33,6 +35,31 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             @Param("endDate") LocalDateTime endDate,
             @Param("paymentStatus") String paymentStatus);
 
+    // Doanh thu và số đơn gom theo mốc thời gian (HOUR/DAY/WEEK/MONTH), mỗi dòng: {bucket_start, revenue, order_count}.
+    // Tuần bắt đầu từ thứ Hai (ngày 0 của SQL Server - 1900-01-01 - là thứ Hai), không phụ thuộc DATEFIRST.
+    @Query(value = """
+            SELECT b.bucket_start, SUM(b.total_amount) AS total_revenue, COUNT(*) AS order_count
+            FROM (
+                SELECT CASE :bucketUnit
+                           WHEN 'HOUR' THEN DATEADD(HOUR, DATEDIFF(HOUR, 0, o.created_date), 0)
+                           WHEN 'WEEK' THEN DATEADD(DAY, (DATEDIFF(DAY, 0, o.created_date) / 7) * 7, 0)
+                           WHEN 'MONTH' THEN DATEADD(MONTH, DATEDIFF(MONTH, 0, o.created_date), 0)
+                           ELSE DATEADD(DAY, DATEDIFF(DAY, 0, o.created_date), 0)
+                       END AS bucket_start,
+                       o.total_amount
+                FROM orders o
+                WHERE o.payment_status = :paymentStatus
+                  AND o.created_date BETWEEN :startDate AND :endDate
+            ) b
+            GROUP BY b.bucket_start
+            ORDER BY b.bucket_start
+            """, nativeQuery = true)
+    List<Object[]> sumRevenueGroupedByBucket(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("paymentStatus") String paymentStatus,
+            @Param("bucketUnit") String bucketUnit);
+
     @Query("SELECT COUNT(o) FROM Order o " +
             "WHERE o.account.accountId = :accountId " +
             "AND o.createdDate BETWEEN :startDate AND :endDate " +
@@ -53,31 +80,75 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             @Param("endDate") LocalDateTime endDate,
             @Param("paymentStatus") String paymentStatus);
 
-    // Simple JPQL query - keyword filtering is done in Java layer using VietnameseUtils
-    @Query("SELECT DISTINCT o FROM Order o " +
-           "LEFT JOIN FETCH o.customer c " +
-           "LEFT JOIN FETCH o.account a " +
-           "WHERE (:orderStatus IS NULL OR :orderStatus = '' OR o.orderStatus = :orderStatus) " +
-           "AND (:fromDate IS NULL OR o.orderDate >= :fromDate) " +
-           "AND (:toDate IS NULL OR o.orderDate <= :toDate) " +
-           "ORDER BY o.orderDate DESC")
-    List<Order> findOrdersForSearch(
+    // keywordPattern lấy từ VietnameseUtils.toContainsPattern (đã chuẩn hóa, escape bằng '!')
+    @Query(value = """
+           select o from Order o
+           left join fetch o.customer c
+           left join fetch o.account a
+           where (:orderStatus is null or o.orderStatus = :orderStatus)
+             and (:fromDate is null or o.orderDate >= :fromDate)
+             and (:toDate is null or o.orderDate <= :toDate)
+             and (:keywordPattern is null
+                  or lower(o.orderNumber) like :keywordPattern escape '!'
+                  or c.fullNameSearch like :keywordPattern escape '!'
+                  or a.fullNameSearch like :keywordPattern escape '!'
+                  or lower(a.username) like :keywordPattern escape '!')
+           order by o.orderDate desc, o.orderId
+           """,
+           countQuery = """
+           select count(o) from Order o
+           left join o.customer c
+           left join o.account a
+           where (:orderStatus is null or o.orderStatus = :orderStatus)
+             and (:fromDate is null or o.orderDate >= :fromDate)
+             and (:toDate is null or o.orderDate <= :toDate)
+             and (:keywordPattern is null
+                  or lower(o.orderNumber) like :keywordPattern escape '!'
+                  or c.fullNameSearch like :keywordPattern escape '!'
+                  or a.fullNameSearch like :keywordPattern escape '!'
+                  or lower(a.username) like :keywordPattern escape '!')
+           """)
+    Page<Order> searchOrders(
+            @Param("keywordPattern") String keywordPattern,
             @Param("orderStatus") String orderStatus,
             @Param("fromDate") LocalDateTime fromDate,
-            @Param("toDate") LocalDateTime toDate);
+            @Param("toDate") LocalDateTime toDate,
+            Pageable pageable);
 
-    // Simple JPQL query for return orders - keyword filtering is done in Java layer
-    @Query("SELECT DISTINCT o FROM Order o " +
-           "LEFT JOIN FETCH o.customer c " +
-           "LEFT JOIN FETCH o.account a " +
-           "WHERE (:orderStatus IS NULL OR :orderStatus = '' OR o.orderStatus = :orderStatus) " +
-           "AND (:fromDate IS NULL OR o.updatedDate >= :fromDate) " +
-           "AND (:toDate IS NULL OR o.updatedDate <= :toDate) " +
-           "ORDER BY o.updatedDate DESC")
-    List<Order> findReturnOrdersForSearch(
+    // Đơn hoàn hàng lọc và sắp xếp theo updated_date
+    @Query(value = """
+           select o from Order o
+           left join fetch o.customer c
+           left join fetch o.account a
+           where (:orderStatus is null or o.orderStatus = :orderStatus)
+             and (:fromDate is null or o.updatedDate >= :fromDate)
+             and (:toDate is null or o.updatedDate <= :toDate)
+             and (:keywordPattern is null
+                  or lower(o.orderNumber) like :keywordPattern escape '!'
+                  or c.fullNameSearch like :keywordPattern escape '!'
+                  or a.fullNameSearch like :keywordPattern escape '!'
+                  or lower(a.username) like :keywordPattern escape '!')
+           order by o.updatedDate desc, o.orderId
+           """,
+           countQuery = """
+           select count(o) from Order o
+           left join o.customer c
+           left join o.account a
+           where (:orderStatus is null or o.orderStatus = :orderStatus)
+             and (:fromDate is null or o.updatedDate >= :fromDate)
+             and (:toDate is null or o.updatedDate <= :toDate)
+             and (:keywordPattern is null
+                  or lower(o.orderNumber) like :keywordPattern escape '!'
+                  or c.fullNameSearch like :keywordPattern escape '!'
+                  or a.fullNameSearch like :keywordPattern escape '!'
+                  or lower(a.username) like :keywordPattern escape '!')
+           """)
+    Page<Order> searchReturnOrders(
+            @Param("keywordPattern") String keywordPattern,
             @Param("orderStatus") String orderStatus,
             @Param("fromDate") LocalDateTime fromDate,
-            @Param("toDate") LocalDateTime toDate);
+            @Param("toDate") LocalDateTime toDate,
+            Pageable pageable);
 
     @Query("SELECT o FROM Order o WHERE o.account.accountId = :accountId AND o.createdDate BETWEEN :start AND :end ORDER BY o.createdDate DESC")
     List<Order> findByAccountAndCreatedDateBetween(@Param("accountId") UUID accountId,
@@ -2,6 +2,8 @@ package com.g127.snapbuy.order.service;
 
 import com.g127.snapbuy.order.dto.request.OrderCreateRequest;
 import com.g127.snapbuy.order.dto.response.OrderResponse;
+import com.g127.snapbuy.common.response.PageResponse;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
@@ -14,6 +16,8 @@ public interface OrderService {
     List<OrderResponse> getAllOrders();
     List<OrderResponse> searchOrders(String searchTerm, String orderStatus, LocalDateTime fromDate, LocalDateTime toDate);
     List<OrderResponse> searchReturnOrders(String searchTerm, String orderStatus, LocalDateTime fromDate, LocalDateTime toDate);
+    PageResponse<OrderResponse> searchOrdersPaged(String searchTerm, String orderStatus, LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable);
+    PageResponse<OrderResponse> searchReturnOrdersPaged(String searchTerm, String orderStatus, LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable);
     OrderResponse completeOrder(UUID id);
     OrderResponse cancelOrder(UUID id);
     OrderResponse markForReturn(UUID id);
@@ -12,7 +12,6 @@ import com.g127.snapbuy.product.entity.ProductPrice;
 import com.g127.snapbuy.inventory.entity.Inventory;
 import com.g127.snapbuy.inventory.entity.InventoryTransaction;
 import com.g127.snapbuy.payment.entity.Payment;
-import com.g127.snapbuy.settings.entity.PosSettings;
 import com.g127.snapbuy.account.mapper.AccountMapper;
 import com.g127.snapbuy.order.mapper.OrderMapper;
 import com.g127.snapbuy.order.service.OrderService;
@@ -25,9 +24,9 @@ import com.g127.snapbuy.inventory.repository.InventoryRepository;
 import com.g127.snapbuy.inventory.repository.InventoryTransactionRepository;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.customer.repository.CustomerRepository;
-import com.g127.snapbuy.settings.repository.PosSettingsRepository;
-import com.g127.snapbuy.payment.service.MoMoService;
-import com.g127.snapbuy.notification.service.NotificationSchedulerService;
+import com.g127.snapbuy.settings.service.LoyaltyPolicyService;
+import com.g127.snapbuy.payment.service.MoMoPaymentIntentService;
+import com.g127.snapbuy.notification.service.LowStockAlertService;
 import com.g127.snapbuy.promotion.service.PromotionService;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -35,7 +34,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import com.g127.snapbuy.common.response.PageResponse;
 import com.g127.snapbuy.common.utils.VietnameseUtils;
+import com.g127.snapbuy.common.service.DocumentSequenceService;
+import com.g127.snapbuy.report.service.SalesRollupService;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -61,10 +65,12 @@ public class OrderServiceImpl implements OrderService {
     private final ProductPriceRepository productPriceRepository;
     private final OrderMapper orderMapper;
     private final AccountMapper accountMapper;
-    private final MoMoService moMoService;
+    private final MoMoPaymentIntentService moMoPaymentIntentService;
     private final PromotionService promotionService;
-    private final PosSettingsRepository posSettingsRepository;
-    private final NotificationSchedulerService notificationSchedulerService;
+    private final LoyaltyPolicyService loyaltyPolicyService;
+    private final LowStockAlertService lowStockAlertService;
+    private final DocumentSequenceService documentSequenceService;
+    private final SalesRollupService salesRollupService;
 
     private UUID resolveCurrentAccountId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -94,8 +100,12 @@ public class OrderServiceImpl implements OrderService {
         return found;
     }
 
+    /**
+     * Chạy trong transaction của DB tenant để khóa UPDLOCK trên tồn kho được giữ đến khi commit,
+     * hai lượt checkout đồng thời không thể cùng vượt qua bước kiểm tra tồn kho.
+     */
     @Override
-    @Transactional
+    @Transactional(transactionManager = "tenantTransactionManager")
     public OrderResponse createOrder(OrderCreateRequest req) {
         if (req.getItems() == null || req.getItems().isEmpty())
             throw new IllegalArgumentException("Đơn hàng phải có ít nhất 1 sản phẩm");
@@ -120,35 +130,66 @@ public class OrderServiceImpl implements OrderService {
         order.setCreatedDate(LocalDateTime.now());
         order.setUpdatedDate(LocalDateTime.now());
 
-        BigDecimal total = BigDecimal.ZERO;
-        List<OrderDetail> orderDetails = new ArrayList<>();
-
+        // Gộp số lượng theo sản phẩm để kiểm tra và trừ tồn kho một lần cho cả giỏ hàng
+        Map<UUID, Integer> requestedQuantities = new LinkedHashMap<>();
         for (OrderDetailRequest item : req.getItems()) {
             if (item.getProductId() == null)
                 throw new IllegalArgumentException("Thiếu productId cho mặt hàng");
             if (item.getQuantity() == null || item.getQuantity() <= 0)
                 throw new IllegalArgumentException("Số lượng phải > 0");
+            requestedQuantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        Set<UUID> productIds = requestedQuantities.keySet();
+
+        // Nạp sản phẩm, tồn kho (có khóa), giá hiện hành cho toàn bộ giỏ hàng - số query cố định
+        Map<UUID, Product> products = productRepository.findAllWithCategoryAndSupplierByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, p -> p));
+        Map<UUID, Inventory> inventories = inventoryRepository.lockByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(i -> i.getProduct().getProductId(), i -> i));
+        Map<UUID, BigDecimal> currentPrices = resolveCurrentUnitPrices(productIds);
+
+        for (Map.Entry<UUID, Integer> entry : requestedQuantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null)
+                throw new NoSuchElementException("Không tìm thấy sản phẩm");
+            Inventory inv = inventories.get(entry.getKey());
+            if (inv == null)
+                throw new NoSuchElementException(
+                        "Không tìm thấy tồn kho cho sản phẩm: " + product.getProductName());
+            if (inv.getQuantityInStock() < entry.getValue())
+                throw new IllegalArgumentException("Không đủ tồn kho cho sản phẩm: " + product.getProductName());
+        }
 
-            Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new NoSuchElementException("Không tìm thấy sản phẩm"));
+        // Khuyến mãi tính theo giá hiện hành của từng sản phẩm; chỉ dùng giá client gửi khi sản phẩm chưa có giá
+        Map<UUID, BigDecimal> unitPriceByProduct = new HashMap<>(currentPrices);
+        for (OrderDetailRequest item : req.getItems()) {
+            BigDecimal unitPrice = item.getUnitPrice();
+            if (unitPrice == null || unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
+                if (!currentPrices.containsKey(item.getProductId()))
+                    throw new NoSuchElementException(
+                            "Không tìm thấy giá đang hiệu lực cho sản phẩm: "
+                                    + products.get(item.getProductId()).getProductName());
+            } else {
+                unitPriceByProduct.putIfAbsent(item.getProductId(), unitPrice);
+            }
+        }
+        Map<UUID, BigDecimal> promoPercents =
+                promotionService.computeBestDiscountPercents(unitPriceByProduct, LocalDateTime.now());
 
-            Inventory inv = inventoryRepository.findByProduct(product)
-                    .orElseThrow(() -> new NoSuchElementException(
-                            "Không tìm thấy tồn kho cho sản phẩm: " + product.getProductName()));
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal subtotal = BigDecimal.ZERO;
+        List<OrderDetail> orderDetails = new ArrayList<>();
 
-            if (inv.getQuantityInStock() < item.getQuantity())
-                throw new IllegalArgumentException("Không đủ tồn kho cho sản phẩm: " + product.getProductName());
+        for (OrderDetailRequest item : req.getItems()) {
+            Product product = products.get(item.getProductId());
 
             BigDecimal unitPrice = item.getUnitPrice();
             if (unitPrice == null || unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
-                ProductPrice price = productPriceRepository.findCurrentPriceByProductId(product.getProductId())
-                        .orElseThrow(() -> new NoSuchElementException(
-                                "Không tìm thấy giá đang hiệu lực cho sản phẩm: " + product.getProductName()));
-                unitPrice = price.getUnitPrice();
+                unitPrice = currentPrices.get(item.getProductId());
             }
 
             BigDecimal discountPercent = item.getDiscount() != null ? item.getDiscount() : BigDecimal.ZERO;
-            BigDecimal promoPercent = promotionService.computeBestDiscountPercent(product.getProductId(), unitPrice, LocalDateTime.now());
+            BigDecimal promoPercent = promoPercents.get(item.getProductId());
             if (promoPercent != null && promoPercent.compareTo(discountPercent) > 0) {
                 discountPercent = promoPercent;
             }
@@ -158,11 +199,11 @@ public class OrderServiceImpl implements OrderService {
             BigDecimal discountMultiplier = BigDecimal.ONE.subtract(
                     discountPercent.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP));
 
-            BigDecimal itemTotal = unitPrice
-                    .multiply(BigDecimal.valueOf(item.getQuantity()))
-                    .multiply(discountMultiplier);
+            BigDecimal lineAmount = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+            BigDecimal itemTotal = lineAmount.multiply(discountMultiplier);
 
             total = total.add(itemTotal);
+            subtotal = subtotal.add(lineAmount);
 
             OrderDetail detail = new OrderDetail();
             detail.setOrder(order);
@@ -171,10 +212,10 @@ public class OrderServiceImpl implements OrderService {
             detail.setUnitPrice(unitPrice);
             detail.setDiscount(discountPercent);
             orderDetails.add(detail);
-
-            subtractInventoryOnly(product, item.getQuantity());
         }
 
+        subtractInventoryOnly(inventories, requestedQuantities);
+
         BigDecimal billDiscountPercent = req.getDiscountAmount() != null ? req.getDiscountAmount() : BigDecimal.ZERO;
         BigDecimal billDiscountAmount = total.multiply(
                 billDiscountPercent.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP));
@@ -202,23 +243,7 @@ public class OrderServiceImpl implements OrderService {
         if (payable.signum() < 0) payable = BigDecimal.ZERO;
 
         if (!isGuest) {
-            BigDecimal loyaltyPointsPercent = BigDecimal.ZERO; // Mặc định 0%
-            try {
-                List<Account> shopOwners = accountRepository.findByRoleName("Chủ cửa hàng");
-                if (shopOwners != null && !shopOwners.isEmpty()) {
-                    Account shopOwner = shopOwners.get(0);
-                    PosSettings posSettings = posSettingsRepository.findByAccount(shopOwner).orElse(null);
-                    if (posSettings != null && posSettings.getLoyaltyPointsPercent() != null) {
-                        loyaltyPointsPercent = posSettings.getLoyaltyPointsPercent();
-                    }
-                }
-            } catch (Exception e) {
-                log.warn("Không tìm thấy settings của chủ cửa hàng, sử dụng giá trị mặc định: {}", e.getMessage());
-            }
-
-            pointsEarned = payable.multiply(loyaltyPointsPercent)
-                    .divide(BigDecimal.valueOf(100), 0, RoundingMode.FLOOR)
-                    .intValue();
+            pointsEarned = loyaltyPolicyService.getPolicy().pointsFor(payable);
 
             if (pointsRedeemed > 0) {
                 int currentPoints = customer.getPoints() == null ? 0 : customer.getPoints();
@@ -239,51 +264,28 @@ public class OrderServiceImpl implements OrderService {
         Payment payment = new Payment();
         payment.setOrder(order);
         String method = Optional.ofNullable(req.getPaymentMethod()).orElse("Tiền mặt");
+        boolean isMoMo = "MOMO".equalsIgnoreCase(method) || "Ví điện tử".equalsIgnoreCase(method);
         payment.setPaymentMethod(method);
         payment.setAmount(payable);
         payment.setPaymentStatus("Chưa thanh toán");
         payment.setPaymentDate(LocalDateTime.now());
+        if (isMoMo) {
+            payment.setNotes(MoMoPaymentIntentService.PENDING_NOTE);
+        }
         paymentRepository.save(payment);
 
-        if ("MOMO".equalsIgnoreCase(method) || "Ví điện tử".equalsIgnoreCase(method)) {
-            try {
-                var momoResp = moMoService.createPayment(order.getOrderId());
-                if (momoResp != null && momoResp.getPayUrl() != null) {
-                    payment.setTransactionReference(momoResp.getRequestId());
-                    payment.setNotes("PAYURL:" + momoResp.getPayUrl());
-                    paymentRepository.save(payment);
-                } else {
-                    log.warn("Phản hồi MoMo rỗng hoặc thiếu payUrl cho đơn {}", orderNumber);
-                }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        // Link MoMo được tạo bất đồng bộ sau khi đơn hàng commit; client hỏi lại để lấy payUrl
+        if (isMoMo) {
+            moMoPaymentIntentService.submitAfterCommit(order.getOrderId(), payment.getPaymentId());
         }
 
         orderRepository.save(order);
 
-        BigDecimal subtotal = BigDecimal.ZERO;
-        for (var i : req.getItems()) {
-            BigDecimal up = i.getUnitPrice();
-            if (up == null || up.compareTo(BigDecimal.ZERO) <= 0) {
-                ProductPrice price = productPriceRepository.findCurrentPriceByProductId(i.getProductId())
-                        .orElseThrow(() -> new NoSuchElementException("Không tìm thấy giá đang hiệu lực"));
-                up = price.getUnitPrice();
-            }
-            subtotal = subtotal.add(up.multiply(BigDecimal.valueOf(i.getQuantity())));
-        }
-
         OrderResponse resp = orderMapper.toResponse(order, orderDetails, payment, accountMapper);
         resp.setSubtotal(subtotal);
         resp.setPointsRedeemed(pointsRedeemed);
         resp.setPointsEarned(pointsEarned);
 
-        try {
-            notificationSchedulerService.checkLowStock();
-        } catch (Exception e) {
-            log.error("Lỗi khi kiểm tra tồn kho thấp sau order: {}", e.getMessage());
-        }
-
         return resp;
     }
 
@@ -356,78 +358,67 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public List<OrderResponse> searchOrders(String searchTerm, String orderStatus, LocalDateTime fromDate, LocalDateTime toDate) {
-        String normalizedOrderStatus = (orderStatus == null || orderStatus.trim().isEmpty()) ? null : orderStatus.trim();
-        
-        LocalDateTime normalizedFromDate = null;
-        LocalDateTime normalizedToDate = null;
-        
-        if (fromDate != null) {
-            normalizedFromDate = fromDate.withHour(0).withMinute(0).withSecond(0).withNano(0);
-        }
-        if (toDate != null) {
-            normalizedToDate = toDate.withHour(23).withMinute(59).withSecond(59).withNano(999999999);
-        }
-        
-        // Lấy từ DB không có bộ lọc keyword
-        List<Order> orders = orderRepository.findOrdersForSearch(
-                normalizedOrderStatus,
-                normalizedFromDate,
-                normalizedToDate
-        );
-        
-        // Lọc theo keyword trong Java sử dụng VietnameseUtils
-        String trimmedKeyword = (searchTerm != null && !searchTerm.trim().isEmpty()) ? searchTerm.trim() : null;
-        if (trimmedKeyword != null) {
-            orders = orders.stream()
-                .filter(o -> {
-                    String orderNumber = o.getOrderNumber();
-                    String customerName = o.getCustomer() != null ? o.getCustomer().getFullName() : null;
-                    String accountName = o.getAccount() != null ? o.getAccount().getFullName() : null;
-                    String accountUsername = o.getAccount() != null ? o.getAccount().getUsername() : null;
-                    return VietnameseUtils.matchesAny(trimmedKeyword, orderNumber, customerName, accountName, accountUsername);
-                })
-                .toList();
-        }
-        
-        return batchConvertToResponses(orders);
+        return searchOrdersPaged(searchTerm, orderStatus, fromDate, toDate, Pageable.unpaged()).getContent();
     }
 
     @Override
     public List<OrderResponse> searchReturnOrders(String searchTerm, String orderStatus, LocalDateTime fromDate, LocalDateTime toDate) {
-        String normalizedOrderStatus = (orderStatus == null || orderStatus.trim().isEmpty()) ? null : orderStatus.trim();
-        
-        LocalDateTime normalizedFromDate = null;
-        LocalDateTime normalizedToDate = null;
-        
-        if (fromDate != null) {
-            normalizedFromDate = fromDate.withHour(0).withMinute(0).withSecond(0).withNano(0);
-        }
-        if (toDate != null) {
-            normalizedToDate = toDate.withHour(23).withMinute(59).withSecond(59).withNano(999999999);
-        }
-        
-        // Lấy từ DB không có bộ lọc keyword
-        List<Order> orders = orderRepository.findReturnOrdersForSearch(
-                normalizedOrderStatus,
-                normalizedFromDate,
-                normalizedToDate
+        return searchReturnOrdersPaged(searchTerm, orderStatus, fromDate, toDate, Pageable.unpaged()).getContent();
+    }
+
+    @Override
+    public PageResponse<OrderResponse> searchOrdersPaged(String searchTerm, String orderStatus,
+                                                         LocalDateTime fromDate, LocalDateTime toDate,
+                                                         Pageable pageable) {
+        // Lọc keyword (không phân biệt dấu), sắp xếp và phân trang đều chạy trong SQL
+        Page<Order> orders = orderRepository.searchOrders(
+                VietnameseUtils.toContainsPattern(searchTerm),
+                normalizeOrderStatus(orderStatus),
+                startOfDay(fromDate),
+                endOfDay(toDate),
+                pageable
         );
-        
-        // Lọc theo keyword trong Java sử dụng VietnameseUtils
-        String trimmedKeyword = (searchTerm != null && !searchTerm.trim().isEmpty()) ? searchTerm.trim() : null;
-        if (trimmedKeyword != null) {
-            orders = orders.stream()
-                .filter(o -> {
-                    String orderNumber = o.getOrderNumber();
-                    String customerName = o.getCustomer() != null ? o.getCustomer().getFullName() : null;
-                    String accountName = o.getAccount() != null ? o.getAccount().getFullName() : null;
-                    String accountUsername = o.getAccount() != null ? o.getAccount().getUsername() : null;
-                    return VietnameseUtils.matchesAny(trimmedKeyword, orderNumber, customerName, accountName, accountUsername);
-                })
-                .toList();
-        }
-        
-        return batchConvertToResponses(orders);
+        return toPageResponse(orders);
+    }
+
+    @Override
+    public PageResponse<OrderResponse> searchReturnOrdersPaged(String searchTerm, String orderStatus,
+                                                               LocalDateTime fromDate, LocalDateTime toDate,
+                                                               Pageable pageable) {
+        Page<Order> orders = orderRepository.searchReturnOrders(
+                VietnameseUtils.toContainsPattern(searchTerm),
+                normalizeOrderStatus(orderStatus),
+                startOfDay(fromDate),
+                endOfDay(toDate),
+                pageable
+        );
+        return toPageResponse(orders);
+    }
+
+    private PageResponse<OrderResponse> toPageResponse(Page<Order> orders) {
+        List<OrderResponse> content = batchConvertToResponses(orders.getContent());
+        return PageResponse.<OrderResponse>builder()
+                .content(content)
+                .totalElements(orders.getTotalElements())
+                .totalPages(orders.getTotalPages())
+                .size(orders.getSize())
+                .number(orders.getNumber())
+                .first(orders.isFirst())
+                .last(orders.isLast())
+                .empty(orders.isEmpty())
+                .build();
+    }
+
+    private static String normalizeOrderStatus(String orderStatus) {
+        return (orderStatus == null || orderStatus.trim().isEmpty()) ? null : orderStatus.trim();
+    }
+
+    private static LocalDateTime startOfDay(LocalDateTime fromDate) {
+        return fromDate == null ? null : fromDate.withHour(0).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    private static LocalDateTime endOfDay(LocalDateTime toDate) {
+        return toDate == null ? null : toDate.withHour(23).withMinute(59).withSecond(59).withNano(999999999);
     }
 
     @Override
@@ -444,6 +435,7 @@ public class OrderServiceImpl implements OrderService {
         if (payment == null) throw new NoSuchElementException("Không tìm thấy thanh toán của đơn hàng");
 
         List<OrderDetail> details = orderDetailRepository.findByOrder(order);
+        boolean refundPaidOrder = "Đã thanh toán".equalsIgnoreCase(order.getPaymentStatus());
 
         if ("Chưa thanh toán".equalsIgnoreCase(order.getPaymentStatus())) {
             for (OrderDetail d : details) {
@@ -500,6 +492,10 @@ public class OrderServiceImpl implements OrderService {
         orderRepository.save(order);
         paymentRepository.save(payment);
 
+        if (refundPaidOrder) {
+            updateSalesRollup(order, false);
+        }
+
         OrderResponse resp = orderMapper.toResponse(order, details, payment, accountMapper);
         BigDecimal subtotal = details.stream()
                 .map(d -> d.getUnitPrice().multiply(BigDecimal.valueOf(d.getQuantity())))
@@ -680,23 +676,7 @@ public class OrderServiceImpl implements OrderService {
 
             // Nếu chưa có pointsEarned, tính lại theo settings
             if (pointsEarned == 0 && order.getTotalAmount() != null) {
-                BigDecimal loyaltyPointsPercent = BigDecimal.ZERO; // Mặc định 0%
-                // Lấy settings của chủ cửa hàng (global settings)
-                try {
-                    List<Account> shopOwners = accountRepository.findByRoleName("Chủ cửa hàng");
-                    if (shopOwners != null && !shopOwners.isEmpty()) {
-                        Account shopOwner = shopOwners.get(0);
-                        PosSettings posSettings = posSettingsRepository.findByAccount(shopOwner).orElse(null);
-                        if (posSettings != null && posSettings.getLoyaltyPointsPercent() != null) {
-                            loyaltyPointsPercent = posSettings.getLoyaltyPointsPercent();
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Không tìm thấy settings của chủ cửa hàng, sử dụng giá trị mặc định: {}", e.getMessage());
-                }
-                pointsEarned = order.getTotalAmount().multiply(loyaltyPointsPercent)
-                        .divide(BigDecimal.valueOf(100), 0, RoundingMode.FLOOR)
-                        .intValue();
+                pointsEarned = loyaltyPolicyService.getPolicy().pointsFor(order.getTotalAmount());
                 order.setPointsEarned(pointsEarned);
             }
 
@@ -732,16 +712,35 @@ public class OrderServiceImpl implements OrderService {
 
         orderRepository.save(order);
         paymentRepository.save(payment);
+
+        updateSalesRollup(order, true);
+    }
+
+    /**
+     * Cập nhật bảng tổng hợp doanh số theo ngày. Lỗi ở đây không làm hỏng thanh toán / hoàn tiền,
+     * sai lệch sẽ được job đối soát hằng đêm (SalesRollupRebuildJob) tính lại.
+     */
+    private void updateSalesRollup(Order order, boolean paid) {
+        try {
+            if (paid) {
+                salesRollupService.recordPaidOrder(order.getOrderId());
+            } else {
+                salesRollupService.recordRefundedOrder(order.getOrderId());
+            }
+        } catch (Exception e) {
+            log.warn("Could not update sales rollup for order {}: {}", order.getOrderNumber(), e.getMessage());
+        }
     }
 
-    private synchronized String generateOrderNumber() {
+    private String generateOrderNumber() {
         String datePart = LocalDate.now().format(DateTimeFormatter.ofPattern("yyMMdd"));
 
-        long countToday = orderRepository.countByCreatedDateBetween(
-                LocalDate.now().atStartOfDay(),
-                LocalDate.now().atTime(23, 59, 59)
-        );
-        long nextNumber = countToday + 1;
+        // Số đầu tiên của ngày tiếp nối các đơn đã có (chỉ đếm khi chuỗi của ngày chưa được tạo)
+        long nextNumber = documentSequenceService.nextValue("ORD" + datePart,
+                () -> orderRepository.countByCreatedDateBetween(
+                        LocalDate.now().atStartOfDay(),
+                        LocalDate.now().atTime(23, 59, 59)
+                ) + 1);
         return "ORD" + datePart + String.format("%03d", nextNumber);
     }
 
@@ -789,16 +788,41 @@ public class OrderServiceImpl implements OrderService {
     }
 
 
-    private void subtractInventoryOnly(Product product, int quantity) {
-        Inventory inv = inventoryRepository.findByProduct(product)
-                .orElseThrow(() -> new NoSuchElementException(
-                        "Không tìm thấy tồn kho cho sản phẩm: " + product.getProductName()));
-        int newQty = inv.getQuantityInStock() - quantity;
-        if (newQty < 0) throw new IllegalArgumentException("Không đủ tồn kho");
+    /**
+     * Lấy giá bán đang hiệu lực cho nhiều sản phẩm trong một query
+     * (giá có validFrom mới nhất cho mỗi sản phẩm)
+     */
+    private Map<UUID, BigDecimal> resolveCurrentUnitPrices(Collection<UUID> productIds) {
+        Map<UUID, ProductPrice> latest = new HashMap<>();
+        for (ProductPrice price : productPriceRepository.findCurrentPricesByProductIdIn(productIds)) {
+            UUID productId = price.getProduct().getProductId();
+            ProductPrice existing = latest.get(productId);
+            if (existing == null || price.getValidFrom().isAfter(existing.getValidFrom())) {
+                latest.put(productId, price);
+            }
+        }
+        Map<UUID, BigDecimal> result = new HashMap<>();
+        latest.forEach((productId, price) -> result.put(productId, price.getUnitPrice()));
+        return result;
+    }
 
-        inv.setQuantityInStock(newQty);
-        inv.setLastUpdated(LocalDateTime.now());
-        inventoryRepository.save(inv);
+    /**
+     * Trừ tồn kho cho cả giỏ hàng, ghi xuống DB bằng một lượt batch update.
+     * Mỗi thay đổi được báo cho cảnh báo tồn kho thấp, việc xét điểm đặt hàng lại chạy sau khi commit.
+     */
+    private void subtractInventoryOnly(Map<UUID, Inventory> inventories, Map<UUID, Integer> quantities) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            Inventory inv = inventories.get(entry.getKey());
+            int oldQty = inv.getQuantityInStock();
+            int newQty = oldQty - entry.getValue();
+            if (newQty < 0) throw new IllegalArgumentException("Không đủ tồn kho");
+
+            inv.setQuantityInStock(newQty);
+            inv.setLastUpdated(now);
+            lowStockAlertService.stockChanged(entry.getKey(), oldQty, newQty);
+        }
+        inventoryRepository.saveAll(inventories.values());
     }
 
     private void recordSaleTransaction(
@@ -4,6 +4,7 @@ import com.g127.snapbuy.order.entity.Order;
 import com.g127.snapbuy.payment.entity.Payment;
 import com.g127.snapbuy.order.repository.OrderRepository;
 import com.g127.snapbuy.payment.repository.PaymentRepository;
+import com.g127.snapbuy.payment.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,6 +27,7 @@ public class MoMoIPNController {
 
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
 
     @Value("${momo.dev.secretKey}")
     private String devSecretKey;
@@ -107,22 +109,14 @@ public class MoMoIPNController {
             }
             
             if (resultCode == 0) {
-                payment.setPaymentStatus("Đã thanh toán");
-                payment.setTransactionReference(transId);
-
-                order.setOrderStatus("Hoàn tất");
-                order.setPaymentStatus("Đã thanh toán");
-
-                orderRepository.save(order);
-                paymentRepository.save(payment);
+                paymentService.markMoMoPaid(order.getOrderId(), transId);
 
                 return ResponseEntity.ok(Map.of(
                         "message", "Payment processed successfully",
                         "resultCode", 0
                 ));
             } else {
-                payment.setPaymentStatus("Thất bại");
-                paymentRepository.save(payment);
+                paymentService.markMoMoFailed(order.getOrderId(), false);
                 return ResponseEntity.ok(Map.of(
                         "message", "Payment failed: " + message,
                         "resultCode", resultCode
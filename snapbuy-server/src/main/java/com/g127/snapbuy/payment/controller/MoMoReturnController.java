@@ -4,13 +4,13 @@ import com.g127.snapbuy.order.entity.Order;
 import com.g127.snapbuy.payment.entity.Payment;
 import com.g127.snapbuy.order.repository.OrderRepository;
 import com.g127.snapbuy.payment.repository.PaymentRepository;
+import com.g127.snapbuy.payment.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +22,7 @@ public class MoMoReturnController {
 
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
 
     @Value("${momo.target:dev}")
     private String momoTarget;
@@ -98,15 +99,7 @@ public class MoMoReturnController {
             }
 
             if (resultCode == 0) {
-                payment.setPaymentStatus("Đã thanh toán");
-                payment.setTransactionReference(transId);
-                payment.setPaymentDate(LocalDateTime.now());
-                paymentRepository.save(payment);
-
-                order.setOrderStatus("Hoàn tất");
-                order.setPaymentStatus("Đã thanh toán");
-                order.setUpdatedDate(LocalDateTime.now());
-                orderRepository.save(order);
+                order = paymentService.markMoMoPaid(order.getOrderId(), transId);
 
                 return ResponseEntity.ok(Map.of(
                         "success", true,
@@ -117,13 +110,7 @@ public class MoMoReturnController {
                         "paymentStatus", order.getPaymentStatus()
                 ));
             } else {
-                payment.setPaymentStatus("Thất bại");
-                paymentRepository.save(payment);
-
-                order.setOrderStatus("Đã hủy");
-                order.setPaymentStatus("Chưa thanh toán");
-                order.setUpdatedDate(LocalDateTime.now());
-                orderRepository.save(order);
+                order = paymentService.markMoMoFailed(order.getOrderId(), true);
 
                 return ResponseEntity.ok(Map.of(
                         "success", true, // Still return success=true because update was successful
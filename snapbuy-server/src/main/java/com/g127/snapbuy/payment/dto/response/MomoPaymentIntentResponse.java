@@ -0,0 +1,16 @@
+package com.g127.snapbuy.payment.dto.response;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MomoPaymentIntentResponse {
+    private UUID orderId;
+    private String status;
+    private String payUrl;
+    private String message;
+}
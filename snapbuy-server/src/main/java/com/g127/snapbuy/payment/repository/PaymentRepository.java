@@ -3,7 +3,11 @@ package com.g127.snapbuy.payment.repository;
 import com.g127.snapbuy.payment.entity.Payment;
 import com.g127.snapbuy.order.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,5 +22,13 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     // Batch fetch payments for multiple orders
     @org.springframework.data.jpa.repository.Query("SELECT p FROM Payment p WHERE p.order.orderId IN :orderIds")
     List<Payment> findByOrderIdIn(@org.springframework.data.repository.query.Param("orderIds") List<UUID> orderIds);
+
+    // Cập nhật kết quả tạo link MoMo bằng một câu UPDATE ngắn (không giữ transaction trong lúc gọi cổng)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.transactionReference = :reference, p.notes = :notes WHERE p.paymentId = :paymentId")
+    int updateReferenceAndNotes(@Param("paymentId") UUID paymentId,
+                                @Param("reference") String reference,
+                                @Param("notes") String notes);
 }
 
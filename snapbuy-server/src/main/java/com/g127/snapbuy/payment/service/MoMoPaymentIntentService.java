@@ -0,0 +1,18 @@
+package com.g127.snapbuy.payment.service;
+
+import com.g127.snapbuy.payment.dto.response.MomoPaymentIntentResponse;
+
+import java.util.UUID;
+
+public interface MoMoPaymentIntentService {
+    String PAY_URL_PREFIX = "PAYURL:";
+    String PENDING_NOTE = "PAYURL_PENDING";
+    String FAILED_PREFIX = "PAYURL_FAILED:";
+
+    String STATUS_PENDING = "PENDING";
+    String STATUS_READY = "READY";
+    String STATUS_FAILED = "FAILED";
+
+    void submitAfterCommit(UUID orderId, UUID paymentId);
+    MomoPaymentIntentResponse getIntent(UUID orderId);
+}
@@ -1,5 +1,6 @@
 package com.g127.snapbuy.payment.service;
 
+import com.g127.snapbuy.order.entity.Order;
 import com.g127.snapbuy.payment.dto.request.PaymentRequest;
 import com.g127.snapbuy.payment.dto.response.PaymentResponse;
 
@@ -12,4 +13,10 @@ public interface PaymentService {
     PaymentResponse refundPayment(UUID paymentId);
     List<PaymentResponse> getPaymentsByOrder(UUID orderId);
     void finalizePaymentByReference(String momoRequestId);
+
+    // Ghi nhận MoMo báo thanh toán thành công cho đơn hàng (IPN / return), kèm cập nhật bảng tổng hợp doanh số
+    Order markMoMoPaid(UUID orderId, String transactionReference);
+
+    // Ghi nhận MoMo báo thanh toán thất bại; cancelOrder = true thì hủy luôn đơn hàng
+    Order markMoMoFailed(UUID orderId, boolean cancelOrder);
 }
@@ -0,0 +1,128 @@
+package com.g127.snapbuy.payment.service.impl;
+
+import com.g127.snapbuy.payment.dto.response.MomoPaymentIntentResponse;
+import com.g127.snapbuy.payment.dto.response.MomoPaymentResponse;
+import com.g127.snapbuy.payment.entity.Payment;
+import com.g127.snapbuy.payment.repository.PaymentRepository;
+import com.g127.snapbuy.payment.service.MoMoPaymentIntentService;
+import com.g127.snapbuy.payment.service.MoMoService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.common.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Tạo link thanh toán MoMo sau khi đơn hàng đã được commit.
+ * Lời gọi HTTP tới cổng MoMo chạy trên executor riêng có giới hạn, không giữ kết nối DB của tenant;
+ * kết quả được ghi vào ghi chú của payment để client hỏi lại (polling).
+ */
+@Service
+@Slf4j
+public class MoMoPaymentIntentServiceImpl implements MoMoPaymentIntentService {
+
+    private static final int MAX_NOTES_LENGTH = 500;
+
+    private final MoMoService moMoService;
+    private final PaymentRepository paymentRepository;
+    private final TaskExecutor paymentIntentExecutor;
+
+    public MoMoPaymentIntentServiceImpl(MoMoService moMoService,
+                                        PaymentRepository paymentRepository,
+                                        @Qualifier("paymentIntentExecutor") TaskExecutor paymentIntentExecutor) {
+        this.moMoService = moMoService;
+        this.paymentRepository = paymentRepository;
+        this.paymentIntentExecutor = paymentIntentExecutor;
+    }
+
+    @Override
+    public void submitAfterCommit(UUID orderId, UUID paymentId) {
+        String tenantId = TenantContext.getCurrentTenant();
+        Runnable task = () -> createPayUrl(tenantId, orderId, paymentId);
+
+        TransactionUtils.afterCommitOrNow(() -> dispatch(tenantId, paymentId, task));
+    }
+
+    @Override
+    public MomoPaymentIntentResponse getIntent(UUID orderId) {
+        Payment payment = paymentRepository.findByOrder_OrderId(orderId).stream().findFirst()
+                .orElseThrow(() -> new NoSuchElementException("Không tìm thấy thanh toán cho đơn hàng"));
+
+        String notes = payment.getNotes();
+        MomoPaymentIntentResponse.MomoPaymentIntentResponseBuilder builder = MomoPaymentIntentResponse.builder()
+                .orderId(orderId);
+
+        if (notes != null && notes.startsWith(PAY_URL_PREFIX)) {
+            return builder.status(STATUS_READY)
+                    .payUrl(notes.substring(PAY_URL_PREFIX.length()))
+                    .build();
+        }
+        if (notes != null && notes.startsWith(FAILED_PREFIX)) {
+            return builder.status(STATUS_FAILED)
+                    .message(notes.substring(FAILED_PREFIX.length()))
+                    .build();
+        }
+        return builder.status(STATUS_PENDING).build();
+    }
+
+    private void dispatch(String tenantId, UUID paymentId, Runnable task) {
+        try {
+            paymentIntentExecutor.execute(task);
+        } catch (RuntimeException e) {
+            // Hàng đợi đầy: báo lỗi ngay để client chọn lại phương thức thanh toán
+            log.warn("Hàng đợi tạo thanh toán MoMo đã đầy, từ chối payment {}", paymentId);
+            markFailed(tenantId, paymentId, "Hệ thống thanh toán đang bận, vui lòng thử lại");
+        }
+    }
+
+    void createPayUrl(String tenantId, UUID orderId, UUID paymentId) {
+        runInTenant(tenantId, () -> {
+            try {
+                MomoPaymentResponse resp = moMoService.createPayment(orderId);
+                if (resp != null && resp.getPayUrl() != null) {
+                    paymentRepository.updateReferenceAndNotes(paymentId, resp.getRequestId(), PAY_URL_PREFIX + resp.getPayUrl());
+                } else {
+                    log.warn("Phản hồi MoMo rỗng hoặc thiếu payUrl cho đơn {}", orderId);
+                    paymentRepository.updateReferenceAndNotes(paymentId, null,
+                            truncate(FAILED_PREFIX + (resp != null && resp.getMessage() != null
+                                    ? resp.getMessage() : "Phản hồi MoMo không hợp lệ")));
+                }
+            } catch (Exception e) {
+                log.error("Tạo thanh toán MoMo thất bại cho đơn {}: {}", orderId, e.getMessage());
+                paymentRepository.updateReferenceAndNotes(paymentId, null, truncate(FAILED_PREFIX + e.getMessage()));
+            }
+        });
+    }
+
+    private void markFailed(String tenantId, UUID paymentId, String message) {
+        runInTenant(tenantId, () -> {
+            try {
+                paymentRepository.updateReferenceAndNotes(paymentId, null, truncate(FAILED_PREFIX + message));
+            } catch (Exception e) {
+                log.error("Không thể cập nhật trạng thái thanh toán MoMo {}: {}", paymentId, e.getMessage());
+            }
+        });
+    }
+
+    private void runInTenant(String tenantId, Runnable action) {
+        String previousTenant = TenantContext.getCurrentTenant();
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            action.run();
+        } finally {
+            if (previousTenant != null) {
+                TenantContext.setCurrentTenant(previousTenant);
+            } else {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    private String truncate(String notes) {
+        return notes.length() > MAX_NOTES_LENGTH ? notes.substring(0, MAX_NOTES_LENGTH) : notes;
+    }
+}
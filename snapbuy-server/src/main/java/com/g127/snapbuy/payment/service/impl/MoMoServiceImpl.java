@@ -4,12 +4,14 @@ import com.g127.snapbuy.payment.dto.response.MomoPaymentResponse;
 import com.g127.snapbuy.order.entity.Order;
 import com.g127.snapbuy.order.repository.OrderRepository;
 import com.g127.snapbuy.payment.service.MoMoService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -48,7 +50,22 @@ public class MoMoServiceImpl implements MoMoService {
     @Value("${momo.createUrl}")
     private String createUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${momo.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${momo.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    private RestTemplate restTemplate;
+
+    // Giới hạn thời gian chờ cổng MoMo để một cổng chậm không giữ luồng xử lý vô thời hạn
+    @PostConstruct
+    void initRestTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
 
     @Override
     public MomoPaymentResponse createPayment(UUID orderId) {
@@ -8,14 +8,16 @@ import com.g127.snapbuy.order.repository.OrderRepository;
 import com.g127.snapbuy.payment.repository.PaymentRepository;
 import com.g127.snapbuy.payment.service.MoMoService;
 import com.g127.snapbuy.payment.service.PaymentService;
-import jakarta.transaction.Transactional;
+import com.g127.snapbuy.report.service.SalesRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @Service
@@ -26,9 +28,12 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final MoMoService moMoService;
+    private final SalesRollupService salesRollupService;
+
+    private static final String PAID = "Đã thanh toán";
 
     @Override
-    @Transactional
+    @Transactional(transactionManager = "tenantTransactionManager")
     public PaymentResponse createPayment(PaymentRequest request) {
         Order order = orderRepository.findById(request.getOrderId())
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng"));
@@ -65,25 +70,23 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    @Transactional
+    @Transactional(transactionManager = "tenantTransactionManager")
     public PaymentResponse finalizePayment(UUID id) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy thanh toán"));
 
-        payment.setPaymentStatus("Đã thanh toán");
+        payment.setPaymentStatus(PAID);
         payment.setPaymentDate(LocalDateTime.now());
         paymentRepository.save(payment);
 
         Order order = payment.getOrder();
-        order.setPaymentStatus("Đã thanh toán");
         order.setOrderStatus("Hoàn tất");
-        order.setUpdatedDate(LocalDateTime.now());
-        orderRepository.save(order);
+        changeOrderPaymentStatus(order, PAID);
         return toResponse(payment);
     }
 
     @Override
-    @Transactional
+    @Transactional(transactionManager = "tenantTransactionManager")
     public PaymentResponse refundPayment(UUID id) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy thanh toán"));
@@ -91,10 +94,8 @@ public class PaymentServiceImpl implements PaymentService {
         paymentRepository.save(payment);
 
         Order order = payment.getOrder();
-        order.setPaymentStatus("Đã hoàn tiền");
         order.setOrderStatus("Hoàn tất");
-        order.setUpdatedDate(LocalDateTime.now());
-        orderRepository.save(order);
+        changeOrderPaymentStatus(order, "Đã hoàn tiền");
         return toResponse(payment);
     }
 
@@ -108,21 +109,79 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    @Transactional
+    @Transactional(transactionManager = "tenantTransactionManager")
     public void finalizePaymentByReference(String momoRequestId) {
         Payment payment = paymentRepository.findByTransactionReference(momoRequestId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy thanh toán theo requestId MoMo"));
 
-        payment.setPaymentStatus("Đã thanh toán");
+        payment.setPaymentStatus(PAID);
         payment.setPaymentDate(LocalDateTime.now());
         paymentRepository.save(payment);
 
         Order order = payment.getOrder();
-        order.setPaymentStatus("Đã thanh toán");
         order.setOrderStatus("Hoàn tất");
+        changeOrderPaymentStatus(order, PAID);
+    }
+
+    @Override
+    @Transactional(transactionManager = "tenantTransactionManager")
+    public Order markMoMoPaid(UUID orderId, String transactionReference) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new NoSuchElementException("Không tìm thấy đơn hàng"));
+        Payment payment = requirePayment(order);
+
+        payment.setPaymentStatus(PAID);
+        payment.setTransactionReference(transactionReference);
+        payment.setPaymentDate(LocalDateTime.now());
+        paymentRepository.save(payment);
+
+        order.setOrderStatus("Hoàn tất");
+        changeOrderPaymentStatus(order, PAID);
+        return order;
+    }
+
+    @Override
+    @Transactional(transactionManager = "tenantTransactionManager")
+    public Order markMoMoFailed(UUID orderId, boolean cancelOrder) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new NoSuchElementException("Không tìm thấy đơn hàng"));
+        Payment payment = requirePayment(order);
+
+        payment.setPaymentStatus("Thất bại");
+        paymentRepository.save(payment);
+
+        if (cancelOrder) {
+            order.setOrderStatus("Đã hủy");
+            changeOrderPaymentStatus(order, "Chưa thanh toán");
+        }
+        return order;
+    }
+
+    private Payment requirePayment(Order order) {
+        Payment payment = paymentRepository.findByOrder(order);
+        if (payment == null) {
+            throw new NoSuchElementException("Không tìm thấy thanh toán của đơn hàng: " + order.getOrderNumber());
+        }
+        return payment;
+    }
+
+    /**
+     * Đổi trạng thái thanh toán của đơn và ghi chênh lệch vào bảng tổng hợp doanh số trong cùng transaction:
+     * cộng khi đơn chuyển sang đã thanh toán, trừ khi đơn đã thanh toán chuyển sang trạng thái khác.
+     */
+    private void changeOrderPaymentStatus(Order order, String paymentStatus) {
+        boolean wasPaid = PAID.equalsIgnoreCase(order.getPaymentStatus());
+        boolean nowPaid = PAID.equalsIgnoreCase(paymentStatus);
+
+        order.setPaymentStatus(paymentStatus);
         order.setUpdatedDate(LocalDateTime.now());
         orderRepository.save(order);
 
+        if (!wasPaid && nowPaid) {
+            salesRollupService.recordPaidOrder(order.getOrderId());
+        } else if (wasPaid && !nowPaid) {
+            salesRollupService.recordRefundedOrder(order.getOrderId());
+        }
     }
 
     private PaymentResponse toResponse(Payment payment) {
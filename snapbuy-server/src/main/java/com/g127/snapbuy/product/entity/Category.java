@@ -1,5 +1,6 @@
 package com.g127.snapbuy.product.entity;
 
+import com.g127.snapbuy.common.utils.VietnameseUtils;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,6 +26,10 @@ public class Category {
     @Column(name = "category_name", nullable = false, length = 100)
     private String categoryName;
 
+    // Tên danh mục đã chuẩn hóa (chữ thường, bỏ dấu) để tìm kiếm trong SQL
+    @Column(name = "category_name_search", length = 100)
+    private String categoryNameSearch;
+
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
@@ -40,4 +45,9 @@ public class Category {
     @Column(name = "updated_date", nullable = false)
     private LocalDateTime updatedDate = LocalDateTime.now();
 
+    @PrePersist
+    @PreUpdate
+    public void updateSearchColumns() {
+        categoryNameSearch = VietnameseUtils.normalizeForSearch(categoryName);
+    }
 }
@@ -12,12 +12,14 @@ public interface CategoryMapper {
     @Mapping(target = "categoryId", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
     @Mapping(target = "updatedDate", ignore = true)
+    @Mapping(target = "categoryNameSearch", ignore = true)
     Category toEntity(CategoryCreateRequest request);
 
     @Mapping(target = "categoryId", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
     @Mapping(target = "updatedDate", ignore = true)
     @Mapping(target = "active", ignore = true)
+    @Mapping(target = "categoryNameSearch", ignore = true)
     void updateEntity(@MappingTarget Category entity, CategoryUpdateRequest request);
 
     CategoryResponse toResponse(Category entity);
@@ -22,9 +22,19 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
 
     List<Category> findByParentCategoryId(UUID parentCategoryId);
 
-    // Simple JPQL query - keyword filtering is done in Java layer using VietnameseUtils
-    @Query("SELECT c FROM Category c WHERE c.parentCategoryId IS NULL ORDER BY c.createdDate DESC")
-    List<Category> findAllParentCategories();
+    // keywordPattern lấy từ VietnameseUtils.toContainsPattern (đã chuẩn hóa, escape bằng '!')
+    @Query(value = """
+           select c from Category c
+           where c.parentCategoryId is null
+             and (:keywordPattern is null or c.categoryNameSearch like :keywordPattern escape '!')
+           order by c.createdDate desc, c.categoryId
+           """,
+           countQuery = """
+           select count(c) from Category c
+           where c.parentCategoryId is null
+             and (:keywordPattern is null or c.categoryNameSearch like :keywordPattern escape '!')
+           """)
+    Page<Category> searchParentCategories(@Param("keywordPattern") String keywordPattern, Pageable pageable);
 
     // Simple JPQL query - keyword filtering is done in Java layer using VietnameseUtils
     @Query("SELECT c FROM Category c WHERE c.parentCategoryId IS NOT NULL ORDER BY c.createdDate DESC")
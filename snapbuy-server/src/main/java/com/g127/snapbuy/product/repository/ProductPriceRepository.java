@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +27,22 @@ public interface ProductPriceRepository extends JpaRepository<ProductPrice, UUID
     """)
     Optional<ProductPrice> findCurrentPriceByProductId(UUID productId);
 
+    // Batch fetch current prices for multiple products (caller picks the latest validFrom per product)
+    @Query("""
+        SELECT p FROM ProductPrice p
+        WHERE p.product.productId IN :productIds
+        AND (p.validTo IS NULL OR p.validTo > CURRENT_TIMESTAMP)
+    """)
+    List<ProductPrice> findCurrentPricesByProductIdIn(@org.springframework.data.repository.query.Param("productIds") Collection<UUID> productIds);
+
+    // Current prices of every product as {productId, unitPrice, validFrom} rows, for store-wide reports
+    // (caller picks the latest validFrom per product)
+    @Query("""
+        SELECT p.product.productId, p.unitPrice, p.validFrom FROM ProductPrice p
+        WHERE p.validTo IS NULL OR p.validTo > CURRENT_TIMESTAMP
+    """)
+    List<Object[]> findAllCurrentPriceRows();
+
     @Query("""
         select p from ProductPrice p
         where p.product.productId = :productId
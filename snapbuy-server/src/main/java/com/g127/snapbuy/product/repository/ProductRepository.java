@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,18 +22,14 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE p.active = true AND c.active = true")
     List<Product> findAllActiveWithActiveCategory();
 
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category LEFT JOIN FETCH p.supplier WHERE p.productId IN :productIds")
+    List<Product> findAllWithCategoryAndSupplierByIdIn(@Param("productIds") Collection<UUID> productIds);
+
     @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.barcode = :barcode")
     Optional<Product> findByBarcodeWithCategory(@Param("barcode") String barcode);
 
-    // Simple JPQL query - keyword filtering is done in Java layer using VietnameseUtils
-    @Query("SELECT p FROM Product p " +
-           "LEFT JOIN FETCH p.category c " +
-           "LEFT JOIN FETCH p.supplier s " +
-           "WHERE (:active IS NULL OR p.active = :active) " +
-           "AND (:categoryId IS NULL OR p.category.categoryId = :categoryId OR c.parentCategoryId = :categoryId) " +
-           "AND (:subCategoryId IS NULL OR (c.parentCategoryId IS NOT NULL AND p.category.categoryId = :subCategoryId)) " +
-           "ORDER BY p.createdDate DESC")
-    List<Product> findProductsForSearch(@Param("active") Boolean active,
-                                        @Param("categoryId") UUID categoryId,
-                                        @Param("subCategoryId") UUID subCategoryId);
+    // Các cột cần cho chỉ mục tìm kiếm sản phẩm: id, mã, tên, barcode, trạng thái, danh mục, ngày tạo
+    @Query("SELECT p.productId, p.productCode, p.productName, p.barcode, p.active, c.categoryId, p.createdDate " +
+           "FROM Product p LEFT JOIN p.category c")
+    List<Object[]> findSearchIndexRows();
 }
@@ -0,0 +1,34 @@
+package com.g127.snapbuy.product.service;
+
+import com.g127.snapbuy.product.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Set;
+import java.util.UUID;
+
+public interface ProductSearchIndexService {
+
+    /**
+     * Tìm id sản phẩm của tenant hiện tại theo mã, tên, barcode (không phân biệt dấu, hoa thường),
+     * sắp xếp theo ngày tạo giảm dần và chỉ trả về id của trang được yêu cầu
+     *
+     * @param categoryIds danh mục được phép; null nghĩa là không lọc theo danh mục
+     */
+    Page<UUID> search(String keyword, Boolean active, Set<UUID> categoryIds, Pageable pageable);
+
+    /**
+     * Cập nhật sản phẩm vào chỉ mục của tenant hiện tại (sau khi transaction commit nếu có)
+     */
+    void upsert(Product product);
+
+    /**
+     * Xóa sản phẩm khỏi chỉ mục của tenant hiện tại (sau khi transaction commit nếu có)
+     */
+    void remove(UUID productId);
+
+    /**
+     * Bỏ chỉ mục của một tenant, lần tìm kiếm sau sẽ nạp lại từ DB
+     */
+    void evictTenant(String tenantId);
+}
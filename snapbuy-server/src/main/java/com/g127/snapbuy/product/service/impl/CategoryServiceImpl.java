@@ -4,6 +4,7 @@ import com.g127.snapbuy.product.dto.request.CategoryCreateRequest;
 import com.g127.snapbuy.product.dto.request.CategoryUpdateRequest;
 import com.g127.snapbuy.product.dto.response.CategoryResponse;
 import com.g127.snapbuy.common.response.PageResponse;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
 import com.g127.snapbuy.common.utils.VietnameseUtils;
 import com.g127.snapbuy.product.entity.Category;
 import com.g127.snapbuy.common.exception.AppException;
@@ -14,6 +15,7 @@ import com.g127.snapbuy.product.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -29,6 +31,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Override
     public CategoryResponse createCategory(CategoryCreateRequest request) {
@@ -46,15 +49,16 @@ public class CategoryServiceImpl implements CategoryService {
         category.setCreatedDate(LocalDateTime.now());
         category.setUpdatedDate(LocalDateTime.now());
         categoryRepository.save(category);
+        referenceDataCacheService.evict(ReferenceDataCacheService.CATEGORIES);
         return categoryMapper.toResponse(category);
     }
 
     @Override
     public List<CategoryResponse> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return categories.stream()
-                .map(categoryMapper::toResponse)
-                .collect(Collectors.toList());
+        return referenceDataCacheService.get(ReferenceDataCacheService.CATEGORIES, "all",
+                () -> categoryRepository.findAll().stream()
+                        .map(categoryMapper::toResponse)
+                        .toList());
     }
 
     @Override
@@ -82,7 +86,9 @@ public class CategoryServiceImpl implements CategoryService {
 
         categoryMapper.updateEntity(category, request);
         category.setUpdatedDate(LocalDateTime.now());
-        return categoryMapper.toResponse(categoryRepository.save(category));
+        Category savedCategory = categoryRepository.save(category);
+        referenceDataCacheService.evict(ReferenceDataCacheService.CATEGORIES);
+        return categoryMapper.toResponse(savedCategory);
     }
 
     @Override
@@ -93,6 +99,7 @@ public class CategoryServiceImpl implements CategoryService {
         deleteChildCategories(id);
         
         categoryRepository.delete(category);
+        referenceDataCacheService.evict(ReferenceDataCacheService.CATEGORIES);
     }
     
     private void deleteChildCategories(UUID parentId) {
@@ -125,6 +132,7 @@ public class CategoryServiceImpl implements CategoryService {
         } else {
             disableChildCategories(id);
         }
+        referenceDataCacheService.evict(ReferenceDataCacheService.CATEGORIES);
         
         return categoryMapper.toResponse(savedCategory);
     }
@@ -175,44 +183,24 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public PageResponse<CategoryResponse> searchParentCategoriesByKeyword(String keyword, Pageable pageable) {
-        // Lấy tất cả danh mục cha từ DB
-        List<Category> allCategories = categoryRepository.findAllParentCategories();
-        
-        // Lọc theo keyword trong Java sử dụng VietnameseUtils
-        String trimmedKeyword = (keyword != null && !keyword.isBlank()) ? keyword.trim() : null;
-        List<Category> filteredCategories = allCategories;
-        
-        if (trimmedKeyword != null) {
-            filteredCategories = allCategories.stream()
-                .filter(c -> VietnameseUtils.containsIgnoreDiacritics(c.getCategoryName(), trimmedKeyword))
-                .toList();
-        }
-        
-        // Phân trang thủ công
-        int pageNumber = pageable.getPageNumber();
-        int pageSize = pageable.getPageSize();
-        int totalElements = filteredCategories.size();
-        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
-        int fromIndex = pageNumber * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, totalElements);
-        
-        List<Category> pagedCategories = (fromIndex < totalElements) 
-            ? filteredCategories.subList(fromIndex, toIndex) 
-            : List.of();
-        
-        List<CategoryResponse> responseList = pagedCategories.stream()
+        // Lọc keyword (không phân biệt dấu), sắp xếp và phân trang đều chạy trong SQL
+        Page<Category> categoryPage = categoryRepository.searchParentCategories(
+                VietnameseUtils.toContainsPattern(keyword),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+
+        List<CategoryResponse> responseList = categoryPage.getContent().stream()
                 .map(categoryMapper::toResponse)
                 .collect(Collectors.toList());
-        
+
         return PageResponse.<CategoryResponse>builder()
                 .content(responseList)
-                .totalElements(totalElements)
-                .totalPages(totalPages)
-                .size(pageSize)
-                .number(pageNumber)
-                .first(pageNumber == 0)
-                .last(pageNumber >= totalPages - 1)
-                .empty(responseList.isEmpty())
+                .totalElements(categoryPage.getTotalElements())
+                .totalPages(categoryPage.getTotalPages())
+                .size(categoryPage.getSize())
+                .number(categoryPage.getNumber())
+                .first(categoryPage.isFirst())
+                .last(categoryPage.isLast())
+                .empty(categoryPage.isEmpty())
                 .build();
     }
 
@@ -226,16 +214,17 @@ public class CategoryServiceImpl implements CategoryService {
         List<Category> filteredCategories = allCategories;
         
         if (trimmedKeyword != null) {
+            String foldedKeyword = VietnameseUtils.fold(trimmedKeyword);
             filteredCategories = allCategories.stream()
                 .filter(c -> {
                     // Tìm trong tên danh mục
-                    if (VietnameseUtils.containsIgnoreDiacritics(c.getCategoryName(), trimmedKeyword)) {
+                    if (VietnameseUtils.containsFolded(c.getCategoryName(), foldedKeyword)) {
                         return true;
                     }
                     // Cũng tìm trong tên danh mục cha
                     if (c.getParentCategoryId() != null) {
                         Category parent = categoryRepository.findById(c.getParentCategoryId()).orElse(null);
-                        if (parent != null && VietnameseUtils.containsIgnoreDiacritics(parent.getCategoryName(), trimmedKeyword)) {
+                        if (parent != null && VietnameseUtils.containsFolded(parent.getCategoryName(), foldedKeyword)) {
                             return true;
                         }
                     }
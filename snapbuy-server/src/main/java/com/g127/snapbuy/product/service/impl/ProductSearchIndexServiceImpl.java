@@ -0,0 +1,298 @@
+package com.g127.snapbuy.product.service.impl;
+
+import com.g127.snapbuy.common.utils.VietnameseUtils;
+import com.g127.snapbuy.product.entity.Product;
+import com.g127.snapbuy.product.repository.ProductRepository;
+import com.g127.snapbuy.product.service.ProductSearchIndexService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.common.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục tìm kiếm sản phẩm trong bộ nhớ, mỗi tenant một chỉ mục.
+ * Mã, tên, barcode được bỏ dấu và chuyển chữ thường một lần khi nạp; mỗi trigram trỏ tới danh sách sản phẩm chứa nó.
+ * Keyword từ 3 ký tự lấy ứng viên từ danh sách ngắn nhất trong các trigram của keyword rồi kiểm tra lại bằng contains,
+ * keyword ngắn hơn duyệt thẳng các chuỗi đã bỏ dấu, nên kết quả giống hệt VietnameseUtils.matchesAny.
+ * Thay đổi trong instance này cập nhật chỉ mục ngay; TTL giới hạn độ trễ khi thay đổi đến từ instance khác.
+ */
+@Service
+@Slf4j
+public class ProductSearchIndexServiceImpl implements ProductSearchIndexService {
+
+    private static final int GRAM = 3;
+
+    private static final Comparator<Doc> NEWEST_FIRST = Comparator
+            .comparing((Doc d) -> d.createdDate, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .reversed()
+            .thenComparing(d -> d.productId);
+
+    private final ProductRepository productRepository;
+    private final long ttlMs;
+    private final Map<String, TenantIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, Object> buildLocks = new ConcurrentHashMap<>();
+
+    public ProductSearchIndexServiceImpl(ProductRepository productRepository,
+                                         @Value("${product.search-index.ttl-ms:600000}") long ttlMs) {
+        this.productRepository = productRepository;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Dữ liệu của một sản phẩm trong chỉ mục, các trường văn bản đã bỏ dấu
+     */
+    private static final class Doc {
+        private final UUID productId;
+        private final String[] fields;
+        private final Boolean active;
+        private final UUID categoryId;
+        private final LocalDateTime createdDate;
+
+        private Doc(UUID productId, String code, String name, String barcode,
+                    Boolean active, UUID categoryId, LocalDateTime createdDate) {
+            this.productId = productId;
+            this.fields = new String[]{fold(code), fold(name), fold(barcode)};
+            this.active = active;
+            this.categoryId = categoryId;
+            this.createdDate = createdDate;
+        }
+
+        private boolean matches(String foldedKeyword) {
+            for (String field : fields) {
+                if (field != null && field.contains(foldedKeyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Danh sách số thứ tự sản phẩm của một trigram, chỉ thêm vào; phần tử cũ được loại khi kiểm tra lại
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        private void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    private static final class TenantIndex {
+        private final long expiresAt;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+
+        private TenantIndex(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        private void put(Doc doc) {
+            lock.writeLock().lock();
+            try {
+                Integer ordinal = ordinals.get(doc.productId);
+                Set<String> previousGrams = Set.of();
+                if (ordinal == null) {
+                    ordinal = docs.size();
+                    docs.add(doc);
+                    ordinals.put(doc.productId, ordinal);
+                } else {
+                    Doc previous = docs.get(ordinal);
+                    previousGrams = grams(previous.fields);
+                    docs.set(ordinal, doc);
+                }
+                for (String gram : grams(doc.fields)) {
+                    if (!previousGrams.contains(gram)) {
+                        postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(UUID productId) {
+            lock.writeLock().lock();
+            try {
+                Integer ordinal = ordinals.remove(productId);
+                if (ordinal != null) {
+                    docs.set(ordinal, null);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<Doc> find(String foldedKeyword, Boolean active, Set<UUID> categoryIds) {
+            lock.readLock().lock();
+            try {
+                List<Doc> result = new ArrayList<>();
+                if (foldedKeyword == null || foldedKeyword.length() < GRAM) {
+                    for (Doc doc : docs) {
+                        if (accepts(doc, foldedKeyword, active, categoryIds)) {
+                            result.add(doc);
+                        }
+                    }
+                    return result;
+                }
+
+                Postings shortest = null;
+                for (String gram : grams(new String[]{foldedKeyword})) {
+                    Postings candidate = postings.get(gram);
+                    if (candidate == null) {
+                        return result;
+                    }
+                    if (shortest == null || candidate.size < shortest.size) {
+                        shortest = candidate;
+                    }
+                }
+
+                BitSet seen = new BitSet(docs.size());
+                for (int i = 0; i < shortest.size; i++) {
+                    int ordinal = shortest.ordinals[i];
+                    if (seen.get(ordinal)) continue;
+                    seen.set(ordinal);
+                    Doc doc = docs.get(ordinal);
+                    if (accepts(doc, foldedKeyword, active, categoryIds)) {
+                        result.add(doc);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static boolean accepts(Doc doc, String foldedKeyword, Boolean active, Set<UUID> categoryIds) {
+            if (doc == null) return false;
+            if (active != null && !active.equals(doc.active)) return false;
+            if (categoryIds != null && !categoryIds.contains(doc.categoryId)) return false;
+            return foldedKeyword == null || doc.matches(foldedKeyword);
+        }
+    }
+
+    @Override
+    public Page<UUID> search(String keyword, Boolean active, Set<UUID> categoryIds, Pageable pageable) {
+        String foldedKeyword = (keyword != null && !keyword.isBlank()) ? fold(keyword.trim()) : null;
+        if (categoryIds != null && categoryIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        List<Doc> matched = getIndex(TenantContext.getCurrentTenantKey()).find(foldedKeyword, active, categoryIds);
+        matched.sort(NEWEST_FIRST);
+
+        int total = matched.size();
+        int fromIndex = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), total) : 0;
+        int toIndex = pageable.isPaged() ? Math.min(fromIndex + pageable.getPageSize(), total) : total;
+        List<UUID> pageIds = matched.subList(fromIndex, toIndex).stream()
+                .map(d -> d.productId)
+                .toList();
+        return new PageImpl<>(pageIds, pageable, total);
+    }
+
+    @Override
+    public void upsert(Product product) {
+        if (product == null || product.getProductId() == null) return;
+        String key = TenantContext.getCurrentTenantKey();
+        Doc doc = new Doc(product.getProductId(), product.getProductCode(), product.getProductName(),
+                product.getBarcode(), product.getActive(),
+                product.getCategory() != null ? product.getCategory().getCategoryId() : null,
+                product.getCreatedDate());
+        TransactionUtils.afterCommitOrNow(() -> {
+            // Chưa có chỉ mục thì lần tìm kiếm sau sẽ nạp từ DB, đã bao gồm thay đổi này
+            TenantIndex index = indexes.get(key);
+            if (index != null) {
+                index.put(doc);
+            }
+        });
+    }
+
+    @Override
+    public void remove(UUID productId) {
+        if (productId == null) return;
+        String key = TenantContext.getCurrentTenantKey();
+        TransactionUtils.afterCommitOrNow(() -> {
+            TenantIndex index = indexes.get(key);
+            if (index != null) {
+                index.remove(productId);
+            }
+        });
+    }
+
+    @Override
+    public void evictTenant(String tenantId) {
+        String key = tenantId == null ? "" : tenantId;
+        indexes.remove(key);
+        buildLocks.remove(key);
+        log.debug("Đã xóa chỉ mục tìm kiếm sản phẩm của tenant {}", tenantId);
+    }
+
+    private TenantIndex getIndex(String key) {
+        TenantIndex index = indexes.get(key);
+        if (index != null && index.expiresAt > System.currentTimeMillis()) {
+            return index;
+        }
+        // Một luồng nạp lại cho mỗi tenant, các luồng khác chờ rồi dùng chỉ mục vừa nạp
+        synchronized (buildLocks.computeIfAbsent(key, k -> new Object())) {
+            index = indexes.get(key);
+            if (index != null && index.expiresAt > System.currentTimeMillis()) {
+                return index;
+            }
+            index = build();
+            indexes.put(key, index);
+            return index;
+        }
+    }
+
+    private TenantIndex build() {
+        long start = System.currentTimeMillis();
+        TenantIndex index = new TenantIndex(start + ttlMs);
+        List<Object[]> rows = productRepository.findSearchIndexRows();
+        for (Object[] row : rows) {
+            index.put(new Doc((UUID) row[0], (String) row[1], (String) row[2], (String) row[3],
+                    (Boolean) row[4], (UUID) row[5], (LocalDateTime) row[6]));
+        }
+        log.debug("Built product search index for tenant {}: {} products in {} ms",
+                TenantContext.getCurrentTenant(), rows.size(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private static Set<String> grams(String[] fields) {
+        Set<String> grams = new HashSet<>();
+        for (String field : fields) {
+            if (field == null) continue;
+            for (int i = 0; i + GRAM <= field.length(); i++) {
+                grams.add(field.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    private static String fold(String text) {
+        return VietnameseUtils.fold(text);
+    }
+}
@@ -4,7 +4,6 @@ import com.g127.snapbuy.product.dto.request.ProductCreateRequest;
 import com.g127.snapbuy.product.dto.request.ProductImportRequest;
 import com.g127.snapbuy.product.dto.request.ProductUpdateRequest;
 import com.g127.snapbuy.common.response.PageResponse;
-import com.g127.snapbuy.common.utils.VietnameseUtils;
 import com.g127.snapbuy.product.dto.response.ProductResponse;
 import com.g127.snapbuy.product.entity.Product;
 import com.g127.snapbuy.product.entity.ProductPrice;
@@ -13,12 +12,14 @@ import com.g127.snapbuy.inventory.entity.Inventory;
 import com.g127.snapbuy.supplier.entity.Supplier;
 import com.g127.snapbuy.common.exception.AppException;
 import com.g127.snapbuy.common.exception.ErrorCode;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
 import com.g127.snapbuy.product.mapper.ProductMapper;
 import com.g127.snapbuy.product.repository.ProductRepository;
 import com.g127.snapbuy.product.repository.ProductPriceRepository;
 import com.g127.snapbuy.product.repository.CategoryRepository;
 import com.g127.snapbuy.inventory.repository.InventoryRepository;
 import com.g127.snapbuy.supplier.repository.SupplierRepository;
+import com.g127.snapbuy.product.service.ProductSearchIndexService;
 import com.g127.snapbuy.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +29,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
@@ -38,9 +38,11 @@ import java.nio.file.Files;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -55,6 +57,8 @@ public class ProductServiceImpl implements ProductService {
     private final ProductPriceRepository productPriceRepository;
     private final InventoryRepository inventoryRepository;
     private final ProductMapper productMapper;
+    private final ProductSearchIndexService productSearchIndexService;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Value("${upload.dir}")
     private String uploadDir;
@@ -138,6 +142,7 @@ public class ProductServiceImpl implements ProductService {
         inventory.setLastUpdated(LocalDateTime.now());
         inventoryRepository.save(inventory);
 
+        productSearchIndexService.upsert(savedProduct);
         return productMapper.toResponse(savedProduct);
     }
 
@@ -201,7 +206,9 @@ public class ProductServiceImpl implements ProductService {
         product.setUpdatedDate(LocalDateTime.now());
 
         try {
-            return productMapper.toResponse(productRepository.save(product));
+            Product savedProduct = productRepository.save(product);
+            productSearchIndexService.upsert(savedProduct);
+            return productMapper.toResponse(savedProduct);
         } catch (DataIntegrityViolationException e) {
             String errorMessage = e.getMessage();
             if (errorMessage != null && errorMessage.contains("UX_products_barcode")) {
@@ -346,6 +353,7 @@ public class ProductServiceImpl implements ProductService {
         productPriceRepository.deleteAllByProduct_ProductId(id);
         inventoryRepository.deleteAllByProduct_ProductId(id);
         productRepository.delete(product);
+        productSearchIndexService.remove(id);
     }
 
     @Override
@@ -637,6 +645,7 @@ public class ProductServiceImpl implements ProductService {
                 inventory.setLastUpdated(LocalDateTime.now());
                 inventoryRepository.save(inventory);
 
+                productSearchIndexService.upsert(savedProduct);
                 importedProducts.add(productMapper.toResponse(savedProduct));
 
             } catch (Exception e) {
@@ -649,6 +658,10 @@ public class ProductServiceImpl implements ProductService {
             errors.forEach(log::warn);
         }
 
+        // Import có thể tạo danh mục và nhà cung cấp mới
+        referenceDataCacheService.evict(ReferenceDataCacheService.CATEGORIES);
+        referenceDataCacheService.evict(ReferenceDataCacheService.SUPPLIERS);
+
         return importedProducts;
     }
 
@@ -697,35 +710,10 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public PageResponse<ProductResponse> searchProductsPaged(String keyword, Boolean active, UUID categoryId, UUID subCategoryId, Pageable pageable) {
         try {
-            // Lấy tất cả sản phẩm theo bộ lọc (ngoại trừ keyword) từ DB
-            List<Product> allProducts = productRepository.findProductsForSearch(active, categoryId, subCategoryId);
-            
-            // Lọc theo keyword trong Java sử dụng VietnameseUtils
-            String trimmedKeyword = (keyword != null && !keyword.isBlank()) ? keyword.trim() : null;
-            List<Product> filteredProducts = allProducts;
-            
-            if (trimmedKeyword != null) {
-                filteredProducts = allProducts.stream()
-                    .filter(p -> VietnameseUtils.matchesAny(trimmedKeyword, 
-                        p.getProductCode(), 
-                        p.getProductName()))
-                    .toList();
-            }
-            
-            // Phân trang thủ công
-            int pageNumber = pageable.getPageNumber();
-            int pageSize = pageable.getPageSize();
-            int totalElements = filteredProducts.size();
-            int fromIndex = pageNumber * pageSize;
-            int toIndex = Math.min(fromIndex + pageSize, totalElements);
-            
-            List<Product> pagedProducts = (fromIndex < totalElements) 
-                ? filteredProducts.subList(fromIndex, toIndex) 
-                : List.of();
-            
-            Page<Product> productPage = new PageImpl<>(pagedProducts, pageable, totalElements);
-            
-            return buildProductPageResponse(productPage);
+            // Tìm id theo chỉ mục trong bộ nhớ, chỉ nạp đầy đủ sản phẩm của trang trả về
+            Page<UUID> idPage = productSearchIndexService.search(
+                    keyword, active, resolveCategoryFilter(categoryId, subCategoryId), pageable);
+            return buildProductPageResponse(idPage);
         } catch (Exception e) {
             log.error("Error searching products: keyword={}, active={}, categoryId={}, subCategoryId={}", 
                 keyword, active, categoryId, subCategoryId, e);
@@ -733,9 +721,34 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
-    private PageResponse<ProductResponse> buildProductPageResponse(Page<Product> productPage) {
+    /**
+     * Danh mục sản phẩm được phép theo bộ lọc: danh mục cha gồm chính nó và các danh mục con,
+     * danh mục con chỉ hợp lệ khi thực sự có danh mục cha. Trả về null khi không lọc theo danh mục.
+     */
+    private Set<UUID> resolveCategoryFilter(UUID categoryId, UUID subCategoryId) {
+        Set<UUID> allowed = null;
+        if (categoryId != null) {
+            Set<UUID> withChildren = new HashSet<>();
+            withChildren.add(categoryId);
+            categoryRepository.findByParentCategoryId(categoryId)
+                    .forEach(child -> withChildren.add(child.getCategoryId()));
+            allowed = withChildren;
+        }
+        if (subCategoryId != null) {
+            boolean isSubCategory = categoryRepository.findById(subCategoryId)
+                    .map(c -> c.getParentCategoryId() != null)
+                    .orElse(false);
+            Set<UUID> subAllowed = isSubCategory ? Set.of(subCategoryId) : Set.of();
+            if (allowed == null) {
+                return subAllowed;
+            }
+            allowed.retainAll(subAllowed);
+        }
+        return allowed;
+    }
+
+    private PageResponse<ProductResponse> buildProductPageResponse(Page<UUID> productPage) {
         List<UUID> productIds = productPage.getContent().stream()
-                .map(Product::getProductId)
                 .filter(Objects::nonNull)
                 .toList();
         
@@ -747,8 +760,8 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toMap(Product::getProductId, p -> p));
         
         List<ProductResponse> responseList = productPage.getContent().stream()
-                .map(product -> {
-                    Product fullProduct = productMap.get(product.getProductId());
+                .map(productId -> {
+                    Product fullProduct = productMap.get(productId);
                     if (fullProduct == null) {
                         return null;
                     }
@@ -804,6 +817,7 @@ public class ProductServiceImpl implements ProductService {
         product.setActive(currentActive == null || !currentActive);
         product.setUpdatedDate(LocalDateTime.now());
         Product savedProduct = productRepository.save(product);
+        productSearchIndexService.upsert(savedProduct);
         return productMapper.toResponse(savedProduct);
     }
 
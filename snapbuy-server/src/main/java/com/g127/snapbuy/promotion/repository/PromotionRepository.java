@@ -13,17 +13,6 @@ public interface PromotionRepository extends JpaRepository<Promotion, UUID> {
 
     boolean existsByPromotionNameIgnoreCase(String promotionName);
 
-    @Query("""
-        select p from Promotion p
-        join p.products prod
-        where prod.productId = :productId
-          and p.active = true
-          and p.startDate <= :at
-          and p.endDate >= :at
-    """)
-    List<Promotion> findActivePromotionsForProductAt(@Param("productId") UUID productId,
-                                                     @Param("at") LocalDateTime at);
-
     @Query("""
         select p from Promotion p
         where p.active = true and p.endDate < :now
@@ -35,10 +24,13 @@ public interface PromotionRepository extends JpaRepository<Promotion, UUID> {
         left join fetch p.products
     """)
     List<Promotion> findAllWithProducts();
-}
-
-
-
-
-
 
+    // Các cột cần cho chỉ mục khuyến mãi: id, loại, giá trị, ngày bắt đầu, ngày kết thúc, sản phẩm áp dụng
+    @Query("""
+        select p.promotionId, p.discountType, p.discountValue, p.startDate, p.endDate, prod.productId
+        from Promotion p
+        join p.products prod
+        where p.active = true
+    """)
+    List<Object[]> findActivePromotionProductRows();
+}
@@ -0,0 +1,55 @@
+package com.g127.snapbuy.promotion.service;
+
+import com.g127.snapbuy.promotion.entity.Promotion;
+import com.g127.snapbuy.promotion.entity.Promotion.DiscountType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface PromotionIndexService {
+
+    /**
+     * Phần dữ liệu của một khuyến mãi đang bật cần cho việc tính giảm giá
+     */
+    @Getter
+    @AllArgsConstructor
+    class ActivePromotion {
+        private final UUID promotionId;
+        private final DiscountType discountType;
+        private final BigDecimal discountValue;
+        private final LocalDateTime startDate;
+        private final LocalDateTime endDate;
+
+        public boolean isEffectiveAt(LocalDateTime at) {
+            return startDate != null && endDate != null && !at.isBefore(startDate) && !at.isAfter(endDate);
+        }
+    }
+
+    /**
+     * Khuyến mãi đang bật và còn hiệu lực tại thời điểm at của từng sản phẩm trong tenant hiện tại.
+     * Sản phẩm không có khuyến mãi không có mặt trong map. Chỉ truy vấn DB khi chỉ mục chưa được nạp hoặc đã hết hạn.
+     */
+    Map<UUID, List<ActivePromotion>> findActive(Collection<UUID> productIds, LocalDateTime at);
+
+    /**
+     * Cập nhật khuyến mãi vào chỉ mục của tenant hiện tại (sau khi transaction commit nếu có);
+     * khuyến mãi đã tắt bị loại khỏi chỉ mục
+     */
+    void upsert(Promotion promotion);
+
+    /**
+     * Xóa khuyến mãi khỏi chỉ mục của tenant hiện tại (sau khi transaction commit nếu có)
+     */
+    void remove(UUID promotionId);
+
+    /**
+     * Bỏ chỉ mục của một tenant, lần tính giảm giá sau sẽ nạp lại từ DB
+     */
+    void evictTenant(String tenantId);
+}
@@ -21,6 +21,7 @@ public interface PromotionService {
     void delete(UUID id);
 
     BigDecimal computeBestDiscountPercent(UUID productId, BigDecimal unitPrice, LocalDateTime at);
+    Map<UUID, BigDecimal> computeBestDiscountPercents(Map<UUID, BigDecimal> priceMap, LocalDateTime at);
     DiscountInfoResponse computeBestDiscountInfo(UUID productId, BigDecimal unitPrice, LocalDateTime at);
     Map<UUID, DiscountInfoResponse> computeBatchDiscountInfo(List<UUID> productIds, Map<UUID, BigDecimal> priceMap, LocalDateTime at);
 }
@@ -0,0 +1,230 @@
+package com.g127.snapbuy.promotion.service.impl;
+
+import com.g127.snapbuy.product.entity.Product;
+import com.g127.snapbuy.promotion.entity.Promotion;
+import com.g127.snapbuy.promotion.entity.Promotion.DiscountType;
+import com.g127.snapbuy.promotion.repository.PromotionRepository;
+import com.g127.snapbuy.promotion.service.PromotionIndexService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.common.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chỉ mục sản phẩm -> khuyến mãi đang bật, mỗi tenant một bản chụp không đổi.
+ * Đọc không khóa và không chạm DB; mỗi lần tạo, sửa, bật/tắt, xóa khuyến mãi sinh bản chụp mới
+ * (chép map sản phẩm, chỉ thay các sản phẩm của khuyến mãi đó) rồi thay thế nguyên tử.
+ * Khoảng thời gian hiệu lực được kiểm tra lúc đọc nên khuyến mãi tự có/hết hiệu lực mà không cần cập nhật chỉ mục.
+ * Mỗi thay đổi tăng phiên bản của tenant; bản nạp từ DB chỉ được dùng lại nếu không có thay đổi nào xen vào trong lúc nạp.
+ * TTL giới hạn độ trễ khi thay đổi đến từ instance khác.
+ */
+@Service
+@Slf4j
+public class PromotionIndexServiceImpl implements PromotionIndexService {
+
+    private static final ActivePromotion[] NONE = new ActivePromotion[0];
+
+    private final PromotionRepository promotionRepository;
+    private final long ttlMs;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, Object> buildLocks = new ConcurrentHashMap<>();
+
+    public PromotionIndexServiceImpl(PromotionRepository promotionRepository,
+                                     @Value("${promotion.index.ttl-ms:600000}") long ttlMs) {
+        this.promotionRepository = promotionRepository;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Bản chụp chỉ mục của một tenant; không bao giờ bị sửa sau khi công bố
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final long expiresAt;
+        private final Map<UUID, ActivePromotion[]> byProduct;
+        private final Map<UUID, Set<UUID>> productsByPromotion;
+
+        private Snapshot(long version, long expiresAt,
+                         Map<UUID, ActivePromotion[]> byProduct, Map<UUID, Set<UUID>> productsByPromotion) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+            this.byProduct = byProduct;
+            this.productsByPromotion = productsByPromotion;
+        }
+
+        /**
+         * Bản chụp mới với khuyến mãi được thay thế (hoặc xóa nếu promotion là null)
+         */
+        private Snapshot with(long newVersion, UUID promotionId, ActivePromotion promotion, Set<UUID> productIds) {
+            Map<UUID, ActivePromotion[]> nextByProduct = new HashMap<>(byProduct);
+            Map<UUID, Set<UUID>> nextProductsByPromotion = new HashMap<>(productsByPromotion);
+
+            Set<UUID> previous = nextProductsByPromotion.remove(promotionId);
+            if (previous != null) {
+                for (UUID productId : previous) {
+                    ActivePromotion[] remaining = without(nextByProduct.get(productId), promotionId);
+                    if (remaining.length == 0) {
+                        nextByProduct.remove(productId);
+                    } else {
+                        nextByProduct.put(productId, remaining);
+                    }
+                }
+            }
+            if (promotion != null && !productIds.isEmpty()) {
+                nextProductsByPromotion.put(promotionId, productIds);
+                for (UUID productId : productIds) {
+                    ActivePromotion[] current = nextByProduct.getOrDefault(productId, NONE);
+                    ActivePromotion[] added = Arrays.copyOf(current, current.length + 1);
+                    added[current.length] = promotion;
+                    nextByProduct.put(productId, added);
+                }
+            }
+            return new Snapshot(newVersion, expiresAt, nextByProduct, nextProductsByPromotion);
+        }
+
+        private static ActivePromotion[] without(ActivePromotion[] promotions, UUID promotionId) {
+            if (promotions == null) return NONE;
+            List<ActivePromotion> kept = new ArrayList<>(promotions.length);
+            for (ActivePromotion p : promotions) {
+                if (!p.getPromotionId().equals(promotionId)) {
+                    kept.add(p);
+                }
+            }
+            return kept.toArray(NONE);
+        }
+    }
+
+    @Override
+    public Map<UUID, List<ActivePromotion>> findActive(Collection<UUID> productIds, LocalDateTime at) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Map.of();
+        }
+        Snapshot snapshot = getSnapshot(TenantContext.getCurrentTenantKey());
+        Map<UUID, List<ActivePromotion>> result = new HashMap<>();
+        for (UUID productId : productIds) {
+            ActivePromotion[] promotions = snapshot.byProduct.get(productId);
+            if (promotions == null) continue;
+            List<ActivePromotion> effective = new ArrayList<>(promotions.length);
+            for (ActivePromotion p : promotions) {
+                if (p.isEffectiveAt(at)) {
+                    effective.add(p);
+                }
+            }
+            if (!effective.isEmpty()) {
+                result.put(productId, effective);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void upsert(Promotion promotion) {
+        if (promotion == null || promotion.getPromotionId() == null) return;
+        UUID promotionId = promotion.getPromotionId();
+        if (!Boolean.TRUE.equals(promotion.getActive())) {
+            remove(promotionId);
+            return;
+        }
+        ActivePromotion entry = toEntry(promotion);
+        Set<UUID> productIds = new HashSet<>();
+        if (promotion.getProducts() != null) {
+            for (Product product : promotion.getProducts()) {
+                productIds.add(product.getProductId());
+            }
+        }
+        String key = TenantContext.getCurrentTenantKey();
+        TransactionUtils.afterCommitOrNow(() -> apply(key, (version, s) -> s.with(version, promotionId, entry, productIds)));
+    }
+
+    @Override
+    public void remove(UUID promotionId) {
+        if (promotionId == null) return;
+        String key = TenantContext.getCurrentTenantKey();
+        TransactionUtils.afterCommitOrNow(() -> apply(key, (version, s) -> s.with(version, promotionId, null, Set.of())));
+    }
+
+    @Override
+    public void evictTenant(String tenantId) {
+        String key = tenantId == null ? "" : tenantId;
+        version(key).incrementAndGet();
+        snapshots.remove(key);
+        buildLocks.remove(key);
+        log.debug("Đã xóa chỉ mục khuyến mãi của tenant {}", tenantId);
+    }
+
+    private interface Change {
+        Snapshot apply(long version, Snapshot snapshot);
+    }
+
+    private void apply(String key, Change change) {
+        // Tăng phiên bản trước: bản đang nạp từ DB (có thể chưa thấy thay đổi này) sẽ không được lưu lại
+        long version = version(key).incrementAndGet();
+        // Chưa có chỉ mục thì lần đọc sau sẽ nạp từ DB, đã bao gồm thay đổi này
+        snapshots.computeIfPresent(key, (k, s) -> change.apply(version, s));
+    }
+
+    private Snapshot getSnapshot(String key) {
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.expiresAt > System.currentTimeMillis()) {
+            return snapshot;
+        }
+        // Một luồng nạp lại cho mỗi tenant, các luồng khác chờ rồi dùng bản vừa nạp
+        synchronized (buildLocks.computeIfAbsent(key, k -> new Object())) {
+            snapshot = snapshots.get(key);
+            if (snapshot != null && snapshot.expiresAt > System.currentTimeMillis()) {
+                return snapshot;
+            }
+            long version = version(key).get();
+            Snapshot built = build(version);
+            snapshots.compute(key, (k, current) -> version(key).get() == version ? built : current);
+            return built;
+        }
+    }
+
+    private Snapshot build(long version) {
+        long start = System.currentTimeMillis();
+        Map<UUID, ActivePromotion> promotions = new HashMap<>();
+        Map<UUID, Set<UUID>> productsByPromotion = new HashMap<>();
+        Map<UUID, List<ActivePromotion>> byProduct = new HashMap<>();
+        List<Object[]> rows = promotionRepository.findActivePromotionProductRows();
+        for (Object[] row : rows) {
+            UUID promotionId = (UUID) row[0];
+            ActivePromotion promotion = promotions.computeIfAbsent(promotionId, id -> new ActivePromotion(id,
+                    (DiscountType) row[1], (BigDecimal) row[2], (LocalDateTime) row[3], (LocalDateTime) row[4]));
+            UUID productId = (UUID) row[5];
+            productsByPromotion.computeIfAbsent(promotionId, id -> new HashSet<>()).add(productId);
+            byProduct.computeIfAbsent(productId, id -> new ArrayList<>()).add(promotion);
+        }
+        Map<UUID, ActivePromotion[]> arrays = new HashMap<>();
+        byProduct.forEach((productId, list) -> arrays.put(productId, list.toArray(NONE)));
+        log.debug("Built promotion index v{} for tenant {}: {} promotions on {} products in {} ms",
+                version, TenantContext.getCurrentTenant(), promotions.size(), arrays.size(),
+                System.currentTimeMillis() - start);
+        return new Snapshot(version, start + ttlMs, arrays, productsByPromotion);
+    }
+
+    private AtomicLong version(String key) {
+        return versions.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private static ActivePromotion toEntry(Promotion promotion) {
+        return new ActivePromotion(promotion.getPromotionId(), promotion.getDiscountType(),
+                promotion.getDiscountValue(), promotion.getStartDate(), promotion.getEndDate());
+    }
+}
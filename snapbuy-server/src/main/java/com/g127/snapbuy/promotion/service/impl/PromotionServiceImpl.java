@@ -12,18 +12,21 @@ import com.g127.snapbuy.promotion.mapper.PromotionMapper;
 import com.g127.snapbuy.product.repository.ProductRepository;
 import com.g127.snapbuy.promotion.repository.PromotionRepository;
 import com.g127.snapbuy.notification.service.NotificationSchedulerService;
+import com.g127.snapbuy.promotion.service.PromotionIndexService;
+import com.g127.snapbuy.promotion.service.PromotionIndexService.ActivePromotion;
 import com.g127.snapbuy.promotion.service.PromotionService;
-import com.g127.snapbuy.tenant.context.TenantContext;
-import com.g127.snapbuy.tenant.entity.Tenant;
-import com.g127.snapbuy.tenant.repository.TenantRepository;
+import com.g127.snapbuy.tenant.entity.ScheduledJob;
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+import com.g127.snapbuy.tenant.service.ScheduledJobHandler;
+import com.g127.snapbuy.tenant.service.ScheduledJobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -31,13 +34,17 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class PromotionServiceImpl implements PromotionService {
+public class PromotionServiceImpl implements PromotionService, ScheduledJobHandler {
+
+    // Chu kỳ quét khuyến mãi hết hạn còn sót của mỗi tenant (job PROMOTION_DEACTIVATE đã tắt đúng thời điểm kết thúc)
+    private static final Duration EXPIRY_SWEEP_INTERVAL = Duration.ofHours(1);
 
     private final PromotionRepository promotionRepository;
     private final ProductRepository productRepository;
     private final PromotionMapper promotionMapper;
     private final NotificationSchedulerService notificationSchedulerService;
-    private final TenantRepository tenantRepository;
+    private final ScheduledJobService scheduledJobService;
+    private final PromotionIndexService promotionIndexService;
 
     @Override
     @Transactional
@@ -63,6 +70,8 @@ public class PromotionServiceImpl implements PromotionService {
         entity.setProducts(products);
 
         Promotion saved = promotionRepository.save(entity);
+        promotionIndexService.upsert(saved);
+        scheduleDeactivation(saved);
 
         // Lên lịch thông báo cho khuyến mãi này (thời gian thực)
         notificationSchedulerService.schedulePromotionNotifications(saved.getPromotionId());
@@ -101,6 +110,8 @@ public class PromotionServiceImpl implements PromotionService {
         }
 
         Promotion saved = promotionRepository.save(p);
+        promotionIndexService.upsert(saved);
+        scheduleDeactivation(saved);
 
         // Lên lịch lại thông báo sau khi cập nhật
         notificationSchedulerService.schedulePromotionNotifications(saved.getPromotionId());
@@ -130,6 +141,7 @@ public class PromotionServiceImpl implements PromotionService {
         List<Promotion> expired = promotionRepository.findExpiredActive(LocalDateTime.now());
         for (Promotion p : expired) {
             p.setActive(false);
+            promotionIndexService.remove(p.getPromotionId());
         }
         if (!expired.isEmpty()) {
             promotionRepository.saveAll(expired);
@@ -145,6 +157,8 @@ public class PromotionServiceImpl implements PromotionService {
         boolean newActive = currentActive == null || !currentActive;
         promotion.setActive(newActive);
         Promotion saved = promotionRepository.save(promotion);
+        promotionIndexService.upsert(saved);
+        scheduleDeactivation(saved);
 
         // Lên lịch hoặc hủy thông báo dựa trên trạng thái mới
         if (newActive) {
@@ -164,43 +178,67 @@ public class PromotionServiceImpl implements PromotionService {
 
         // Hủy các thông báo đã lên lịch trước khi xóa
         notificationSchedulerService.cancelPromotionNotifications(id);
+        scheduledJobService.cancel(JobType.PROMOTION_DEACTIVATE, id);
 
         promotionRepository.delete(promotion);
+        promotionIndexService.remove(id);
     }
 
-    @Scheduled(cron = "0 0 * * * *")
-    public void scheduledDeactivateExpired() {
+    @Override
+    public Set<JobType> getJobTypes() {
+        return Set.of(JobType.PROMOTION_DEACTIVATE, JobType.PROMOTION_EXPIRY_SWEEP);
+    }
 
-        // Lấy danh sách tất cả các tenant active
-        List<Tenant> tenants = tenantRepository.findAll().stream()
-                .filter(Tenant::getIsActive)
-                .toList();
-        
-        for (Tenant tenant : tenants) {
-            try {
-                // Set tenant context cho mỗi tenant (sử dụng tenantId UUID thay vì tenantCode)
-                TenantContext.setCurrentTenant(tenant.getTenantId().toString());
-                // Thực hiện deactivate expired promotions
-                deactivateExpired();
-                
-            } catch (Exception e) {
-                log.error("Error processing expired promotions for tenant: {}", tenant.getTenantCode(), e);
-            } finally {
-                // Clear tenant context sau khi xử lý xong
-                TenantContext.clear();
-            }
-        }
+    /**
+     * Tắt các khuyến mãi đã hết hạn của tenant của job (thay cho vòng lặp mọi tenant mỗi giờ trước đây):
+     * PROMOTION_DEACTIVATE chạy đúng lúc một khuyến mãi kết thúc, PROMOTION_EXPIRY_SWEEP quét lại mỗi giờ
+     */
+    @Override
+    public LocalDateTime handle(ScheduledJob job) {
+        deactivateExpired();
+        return job.getJobType() == JobType.PROMOTION_EXPIRY_SWEEP
+                ? LocalDateTime.now().plus(EXPIRY_SWEEP_INTERVAL)
+                : null;
+    }
 
+    /**
+     * Lên lịch tắt khuyến mãi tại thời điểm kết thúc, hủy lịch nếu khuyến mãi không còn hoạt động
+     */
+    private void scheduleDeactivation(Promotion promotion) {
+        if (Boolean.TRUE.equals(promotion.getActive()) && promotion.getEndDate() != null) {
+            scheduledJobService.schedule(JobType.PROMOTION_DEACTIVATE, promotion.getPromotionId(), promotion.getEndDate());
+        } else {
+            scheduledJobService.cancel(JobType.PROMOTION_DEACTIVATE, promotion.getPromotionId());
+        }
     }
 
     @Override
-    @Transactional(readOnly = true)
     public BigDecimal computeBestDiscountPercent(UUID productId, BigDecimal unitPrice, LocalDateTime at) {
-        List<Promotion> promos = promotionRepository.findActivePromotionsForProductAt(productId, at);
+        return bestDiscountPercentOf(activePromotionsOf(productId, at), unitPrice);
+    }
+
+    @Override
+    public Map<UUID, BigDecimal> computeBestDiscountPercents(Map<UUID, BigDecimal> priceMap, LocalDateTime at) {
+        if (priceMap == null || priceMap.isEmpty()) {
+            return Map.of();
+        }
+
+        // Khuyến mãi của cả giỏ hàng lấy từ chỉ mục trong bộ nhớ, không truy vấn DB
+        Map<UUID, List<ActivePromotion>> promotionsByProduct = promotionIndexService.findActive(priceMap.keySet(), at);
+
+        Map<UUID, BigDecimal> result = new HashMap<>();
+        for (Map.Entry<UUID, BigDecimal> entry : priceMap.entrySet()) {
+            List<ActivePromotion> promos = promotionsByProduct.getOrDefault(entry.getKey(), List.of());
+            result.put(entry.getKey(), bestDiscountPercentOf(promos, entry.getValue()));
+        }
+        return result;
+    }
+
+    private BigDecimal bestDiscountPercentOf(List<ActivePromotion> promos, BigDecimal unitPrice) {
         if (promos.isEmpty()) return BigDecimal.ZERO;
 
         BigDecimal bestPercent = BigDecimal.ZERO;
-        for (Promotion p : promos) {
+        for (ActivePromotion p : promos) {
             switch (p.getDiscountType()) {
                 case PERCENT -> {
                     if (p.getDiscountValue() != null) {
@@ -224,9 +262,35 @@ public class PromotionServiceImpl implements PromotionService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public DiscountInfoResponse computeBestDiscountInfo(UUID productId, BigDecimal unitPrice, LocalDateTime at) {
-        List<Promotion> promos = promotionRepository.findActivePromotionsForProductAt(productId, at);
+        return discountInfoOf(activePromotionsOf(productId, at), unitPrice);
+    }
+
+    @Override
+    public Map<UUID, DiscountInfoResponse> computeBatchDiscountInfo(List<UUID> productIds, Map<UUID, BigDecimal> priceMap, LocalDateTime at) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        // productId -> khuyến mãi áp dụng, tra trong chỉ mục thay vì nạp toàn bộ khuyến mãi kèm sản phẩm
+        Map<UUID, List<ActivePromotion>> promotionsByProduct = promotionIndexService.findActive(productIds, at);
+
+        // Tính giảm giá cho mỗi sản phẩm
+        Map<UUID, DiscountInfoResponse> result = new HashMap<>();
+        for (UUID productId : productIds) {
+            BigDecimal unitPrice = priceMap.getOrDefault(productId, BigDecimal.ZERO);
+            List<ActivePromotion> promos = promotionsByProduct.getOrDefault(productId, List.of());
+            result.put(productId, discountInfoOf(promos, unitPrice));
+        }
+
+        return result;
+    }
+
+    private List<ActivePromotion> activePromotionsOf(UUID productId, LocalDateTime at) {
+        return promotionIndexService.findActive(List.of(productId), at).getOrDefault(productId, List.of());
+    }
+
+    private DiscountInfoResponse discountInfoOf(List<ActivePromotion> promos, BigDecimal unitPrice) {
         if (promos.isEmpty()) {
             return DiscountInfoResponse.builder()
                     .discountType(null)
@@ -238,7 +302,7 @@ public class PromotionServiceImpl implements PromotionService {
         // CỘNG TẤT CẢ các loại giảm giá lại
         BigDecimal totalDiscountAmount = BigDecimal.ZERO;
 
-        for (Promotion p : promos) {
+        for (ActivePromotion p : promos) {
             BigDecimal discountAmount = BigDecimal.ZERO;
             switch (p.getDiscountType()) {
                 case PERCENT -> {
@@ -280,93 +344,6 @@ public class PromotionServiceImpl implements PromotionService {
                 .build();
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public Map<UUID, DiscountInfoResponse> computeBatchDiscountInfo(List<UUID> productIds, Map<UUID, BigDecimal> priceMap, LocalDateTime at) {
-        if (productIds == null || productIds.isEmpty()) {
-            return Map.of();
-        }
-
-        // Lấy TẤT CẢ khuyến mãi đang hoạt động với sản phẩm trong MỘT lần query
-        List<Promotion> allActivePromotions = promotionRepository.findAllWithProducts().stream()
-                .filter(p -> p.getActive() != null && p.getActive())
-                .filter(p -> p.getStartDate() != null && !at.isBefore(p.getStartDate()))
-                .filter(p -> p.getEndDate() != null && !at.isAfter(p.getEndDate()))
-                .toList();
-
-        // Xây dựng map: productId -> List<Promotion> áp dụng cho sản phẩm đó
-        Map<UUID, List<Promotion>> promotionsByProduct = new HashMap<>();
-        for (Promotion promo : allActivePromotions) {
-            if (promo.getProducts() != null) {
-                for (var product : promo.getProducts()) {
-                    UUID prodId = product.getProductId();
-                    if (productIds.contains(prodId)) {
-                        promotionsByProduct.computeIfAbsent(prodId, k -> new ArrayList<>()).add(promo);
-                    }
-                }
-            }
-        }
-
-        // Tính giảm giá cho mỗi sản phẩm
-        Map<UUID, DiscountInfoResponse> result = new HashMap<>();
-        for (UUID productId : productIds) {
-            BigDecimal unitPrice = priceMap.getOrDefault(productId, BigDecimal.ZERO);
-            List<Promotion> promos = promotionsByProduct.getOrDefault(productId, List.of());
-            
-            if (promos.isEmpty()) {
-                result.put(productId, DiscountInfoResponse.builder()
-                        .discountType(null)
-                        .discountValue(BigDecimal.ZERO)
-                        .discountPercent(BigDecimal.ZERO)
-                        .build());
-                continue;
-            }
-
-            // Tính tổng giảm giá (cùng logic với computeBestDiscountInfo)
-            BigDecimal totalDiscountAmount = BigDecimal.ZERO;
-            for (Promotion p : promos) {
-                BigDecimal discountAmount = BigDecimal.ZERO;
-                switch (p.getDiscountType()) {
-                    case PERCENT -> {
-                        if (p.getDiscountValue() != null && unitPrice != null) {
-                            discountAmount = unitPrice.multiply(p.getDiscountValue())
-                                    .divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP);
-                        }
-                    }
-                    case FIXED -> {
-                        if (p.getDiscountValue() != null) {
-                            discountAmount = p.getDiscountValue();
-                        }
-                    }
-                }
-                totalDiscountAmount = totalDiscountAmount.add(discountAmount);
-            }
-
-            // Giới hạn không vượt quá giá đơn vị
-            if (unitPrice != null && totalDiscountAmount.compareTo(unitPrice) > 0) {
-                totalDiscountAmount = unitPrice;
-            }
-
-            // Tính phần trăm tương đương
-            BigDecimal discountPercent = BigDecimal.ZERO;
-            if (unitPrice != null && unitPrice.compareTo(BigDecimal.ZERO) > 0) {
-                discountPercent = totalDiscountAmount.divide(unitPrice, 4, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100));
-                if (discountPercent.compareTo(BigDecimal.valueOf(100)) > 0) {
-                    discountPercent = BigDecimal.valueOf(100);
-                }
-            }
-
-            result.put(productId, DiscountInfoResponse.builder()
-                    .discountType(null)
-                    .discountValue(totalDiscountAmount)
-                    .discountPercent(discountPercent.setScale(2, RoundingMode.HALF_UP))
-                    .build());
-        }
-
-        return result;
-    }
-
     private Set<Product> resolveProducts(List<UUID> productIds) {
         Set<Product> products = new HashSet<>();
         for (UUID id : productIds) {
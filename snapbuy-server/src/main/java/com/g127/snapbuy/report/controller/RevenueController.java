@@ -1,7 +1,9 @@
 package com.g127.snapbuy.report.controller;
 
 import com.g127.snapbuy.common.response.ApiResponse;
+import com.g127.snapbuy.report.dto.request.RevenueGranularity;
 import com.g127.snapbuy.report.dto.response.DailyRevenueItem;
+import com.g127.snapbuy.report.dto.response.RevenueBucketItem;
 import com.g127.snapbuy.report.dto.response.RevenueResponse;
 import com.g127.snapbuy.report.service.RevenueService;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +12,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -70,4 +73,16 @@ public class RevenueController {
         response.setMessage("Lấy doanh thu theo khoảng thời gian thành công.");
         return response;
     }
+
+    @GetMapping("/series")
+    @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng')")
+    public ApiResponse<List<RevenueBucketItem>> getRevenueSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "DAY") RevenueGranularity granularity) {
+        ApiResponse<List<RevenueBucketItem>> response = new ApiResponse<>();
+        response.setResult(revenueService.getRevenueSeries(startDate, endDate, granularity));
+        response.setMessage("Lấy chuỗi doanh thu theo thời gian thành công.");
+        return response;
+    }
 }
@@ -0,0 +1,20 @@
+package com.g127.snapbuy.report.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueBucketItem {
+    private LocalDateTime bucketStart;
+    private LocalDateTime bucketEnd;
+    private BigDecimal totalRevenue;
+    private Long orderCount;
+}
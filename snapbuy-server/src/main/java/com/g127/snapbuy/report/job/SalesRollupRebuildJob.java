@@ -0,0 +1,65 @@
+package com.g127.snapbuy.report.job;
+
+import com.g127.snapbuy.report.service.SalesRollupService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Job đối soát bảng daily_sales_rollup: mỗi đêm tính lại vài ngày gần nhất cho từng tenant đang hoạt động
+ * (các tenant chạy song song qua TenantJobRunner), sửa các sai lệch nếu việc cập nhật tăng dần khi thanh toán /
+ * hoàn tiền bị lỗi.
+ */
+@Slf4j
+@Component
+public class SalesRollupRebuildJob {
+
+    private final SalesRollupService salesRollupService;
+    private final TenantJobRunner tenantJobRunner;
+    private final int rebuildDays;
+
+    public SalesRollupRebuildJob(SalesRollupService salesRollupService,
+                                 TenantJobRunner tenantJobRunner,
+                                 @Value("${report.sales-rollup.rebuild-days:7}") int rebuildDays) {
+        this.salesRollupService = salesRollupService;
+        this.tenantJobRunner = tenantJobRunner;
+        this.rebuildDays = Math.max(1, rebuildDays);
+    }
+
+    @Scheduled(cron = "${report.sales-rollup.rebuild-cron:0 30 2 * * *}")
+    public void rebuildRecentDays() {
+        LocalDate toDate = LocalDate.now();
+        LocalDate fromDate = toDate.minusDays(rebuildDays - 1L);
+
+        tenantJobRunner.runForActiveTenants("sales-rollup-rebuild", () -> {
+            int rows = salesRollupService.rebuild(fromDate, toDate);
+            log.debug("Rebuilt sales rollup for tenant {} ({}..{}): {} rows",
+                    TenantContext.getCurrentTenant(), fromDate, toDate, rows);
+        });
+    }
+
+    /**
+     * Tính lại bảng tổng hợp của một tenant cho khoảng ngày bất kỳ (nạp lại dữ liệu lịch sử).
+     */
+    public void rebuildTenant(String tenantId, LocalDate fromDate, LocalDate toDate) {
+        String previousTenant = TenantContext.getCurrentTenant();
+        try {
+            TenantContext.setCurrentTenant(tenantId);
+            int rows = salesRollupService.rebuild(fromDate, toDate);
+            log.info("Rebuilt sales rollup for tenant {} ({}..{}): {} rows", tenantId, fromDate, toDate, rows);
+        } catch (Exception e) {
+            log.error("Failed to rebuild sales rollup for tenant {}: {}", tenantId, e.getMessage(), e);
+        } finally {
+            if (previousTenant != null) {
+                TenantContext.setCurrentTenant(previousTenant);
+            } else {
+                TenantContext.clear();
+            }
+        }
+    }
+}
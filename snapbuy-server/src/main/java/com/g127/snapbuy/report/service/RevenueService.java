@@ -1,9 +1,12 @@
 package com.g127.snapbuy.report.service;
 
+import com.g127.snapbuy.report.dto.request.RevenueGranularity;
 import com.g127.snapbuy.report.dto.response.DailyRevenueItem;
+import com.g127.snapbuy.report.dto.response.RevenueBucketItem;
 import com.g127.snapbuy.report.dto.response.RevenueResponse;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RevenueService {
@@ -17,4 +20,7 @@ public interface RevenueService {
     RevenueResponse getCustomRevenue(LocalDate startDate, LocalDate endDate);
 
     List<DailyRevenueItem> getMonthlyDailyRevenue(int year, int month);
+
+    // Chuỗi doanh thu theo giờ/ngày/tuần/tháng trong khoảng thời gian, lấy bằng một truy vấn duy nhất
+    List<RevenueBucketItem> getRevenueSeries(LocalDateTime start, LocalDateTime end, RevenueGranularity granularity);
 }
@@ -0,0 +1,19 @@
+package com.g127.snapbuy.report.service;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface SalesRollupService {
+
+    // Cộng đơn vừa được thanh toán vào bảng tổng hợp doanh số theo ngày
+    void recordPaidOrder(UUID orderId);
+
+    // Trừ đơn đã thanh toán nay bị hoàn tiền khỏi bảng tổng hợp
+    void recordRefundedOrder(UUID orderId);
+
+    /**
+     * Tính lại bảng tổng hợp từ orders/order_detail cho các ngày trong [fromDate, toDate] của tenant hiện tại.
+     * @return số dòng tổng hợp được ghi lại
+     */
+    int rebuild(LocalDate fromDate, LocalDate toDate);
+}
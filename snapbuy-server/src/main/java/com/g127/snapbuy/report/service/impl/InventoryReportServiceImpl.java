@@ -3,9 +3,7 @@ package com.g127.snapbuy.report.service.impl;
 import com.g127.snapbuy.inventory.dto.response.InventoryReportFullResponse;
 import com.g127.snapbuy.inventory.dto.response.InventoryReportOverviewResponse;
 import com.g127.snapbuy.inventory.dto.response.InventoryReportResponse;
-import com.g127.snapbuy.inventory.entity.Inventory;
 import com.g127.snapbuy.product.entity.Product;
-import com.g127.snapbuy.product.entity.ProductPrice;
 import com.g127.snapbuy.inventory.repository.InventoryRepository;
 
 import com.g127.snapbuy.product.repository.ProductPriceRepository;
@@ -24,7 +22,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -35,6 +36,10 @@ public class InventoryReportServiceImpl implements InventoryReportService {
     private final ProductRepository productRepository;
     private final InventoryRepository inventoryRepository;
     private final ProductPriceRepository productPriceRepository;
+
+    private static final int IN_PERIOD = 0;
+    private static final int AFTER_PERIOD = 1;
+    private static final int[] NO_MOVEMENT = {0, 0};
     
     @PersistenceContext(unitName = "tenant")
     private EntityManager entityManager;
@@ -62,28 +67,40 @@ public class InventoryReportServiceImpl implements InventoryReportService {
         BigDecimal currentTotalValue = BigDecimal.ZERO;
         int productsWithDecrease = 0;
 
-        for (Product product : allProducts) {
-            try {
-                InventoryReportResponse reportItem = generateReportForProduct(
-                    product, 
-                    startOfDay, 
-                    reportTime
-                );
-                
-                if (reportItem != null) {
+        if (!allProducts.isEmpty()) {
+            // Số truy vấn cố định cho cả cửa hàng: tồn kho, giá hiện tại, bán ra và nhập vào (gom theo sản phẩm)
+            boolean isToday = date.equals(LocalDate.now());
+            LocalDateTime windowEnd = isToday ? reportTime : LocalDateTime.now();
+
+            Map<UUID, Integer> stockByProduct = loadCurrentStock();
+            Map<UUID, BigDecimal> priceByProduct = loadCurrentUnitPrices();
+            Map<UUID, int[]> soldByProduct = getQuantitySoldByProduct(startOfDay, reportTime, windowEnd);
+            Map<UUID, int[]> receivedByProduct = getQuantityReceivedByProduct(startOfDay, reportTime, windowEnd);
+
+            for (Product product : allProducts) {
+                try {
+                    InventoryReportResponse reportItem = generateReportForProduct(
+                        product,
+                        isToday,
+                        stockByProduct.getOrDefault(product.getProductId(), 0),
+                        priceByProduct.getOrDefault(product.getProductId(), BigDecimal.ZERO),
+                        soldByProduct.getOrDefault(product.getProductId(), NO_MOVEMENT),
+                        receivedByProduct.getOrDefault(product.getProductId(), NO_MOVEMENT)
+                    );
+
                     details.add(reportItem);
                     totalProducts++;
                     currentTotalStock += (reportItem.getCurrentStock() != null ? reportItem.getCurrentStock() : 0);
                     currentTotalValue = currentTotalValue.add(
                         reportItem.getCurrentValue() != null ? reportItem.getCurrentValue() : BigDecimal.ZERO
                     );
-                    
+
                     if (reportItem.getStockDifference() != null && reportItem.getStockDifference() < 0) {
                         productsWithDecrease++;
                     }
+                } catch (Exception e) {
+                    log.error("Error generating report for product {}: {}", product.getProductId(), e.getMessage());
                 }
-            } catch (Exception e) {
-                log.error("Error generating report for product {}: {}", product.getProductId(), e.getMessage());
             }
         }
 
@@ -102,51 +119,29 @@ public class InventoryReportServiceImpl implements InventoryReportService {
     }
 
     private InventoryReportResponse generateReportForProduct(
-        Product product, 
-        LocalDateTime startOfDay, 
-        LocalDateTime reportTime
+        Product product,
+        boolean isToday,
+        int currentStock,
+        BigDecimal unitPrice,
+        int[] sold,
+        int[] received
     ) {
-        UUID productId = product.getProductId();
-        LocalDate selectedDate = startOfDay.toLocalDate();
-        LocalDate today = LocalDate.now();
-        
-        // Lấy tồn kho hiện tại từ bảng inventory
-        Integer currentStock = 0;
-        Inventory inventory = inventoryRepository.findByProduct_ProductId(productId).orElse(null);
-        if (inventory != null) {
-            currentStock = inventory.getQuantityInStock() != null ? inventory.getQuantityInStock() : 0;
-        }
-
-        // Lấy giá hiện tại của sản phẩm
-        BigDecimal unitPrice = BigDecimal.ZERO;
-        ProductPrice currentPrice = productPriceRepository.findCurrentPriceByProductId(productId).orElse(null);
-        if (currentPrice != null && currentPrice.getUnitPrice() != null) {
-            unitPrice = currentPrice.getUnitPrice();
-        }
-
         // Tính giá trị tồn kho hiện tại
         BigDecimal currentValue = unitPrice.multiply(BigDecimal.valueOf(currentStock));
 
-        // Tính số lượng đã bán và đã nhập (trả về 0 nếu bảng không tồn tại)
-        Integer quantitySold = getQuantitySoldInPeriod(productId, startOfDay, reportTime);
-        Integer quantityReceived = getQuantityReceivedInPeriod(productId, startOfDay, reportTime);
+        // Số lượng đã bán và đã nhập trong ngày được chọn
+        Integer quantitySold = sold[IN_PERIOD];
+        Integer quantityReceived = received[IN_PERIOD];
 
         // Tính tồn tại thời điểm cuối ngày được chọn
         Integer stockAtDate;
         
-        if (selectedDate.equals(today)) {
+        if (isToday) {
             // Nếu là hôm nay, tồn tại thời điểm = tồn hiện tại
             stockAtDate = currentStock;
         } else {
-            // Tính giao dịch từ sau ngày được chọn đến hiện tại
-            LocalDateTime afterSelectedDate = reportTime.plusSeconds(1);
-            LocalDateTime now = LocalDateTime.now();
-            
-            Integer soldAfterDate = getQuantitySoldInPeriod(productId, afterSelectedDate, now);
-            Integer receivedAfterDate = getQuantityReceivedInPeriod(productId, afterSelectedDate, now);
-            
             // Tồn tại thời điểm = tồn hiện tại + hàng đã bán sau đó - hàng đã nhập sau đó
-            stockAtDate = currentStock + soldAfterDate - receivedAfterDate;
+            stockAtDate = currentStock + sold[AFTER_PERIOD] - received[AFTER_PERIOD];
             
             // Đảm bảo không âm (trong trường hợp có lỗi dữ liệu)
             if (stockAtDate < 0) {
@@ -158,7 +153,7 @@ public class InventoryReportServiceImpl implements InventoryReportService {
         Integer stockDifference = currentStock - stockAtDate;
 
         return InventoryReportResponse.builder()
-            .productId(productId)
+            .productId(product.getProductId())
             .productCode(product.getProductCode())
             .productName(product.getProductName())
             .categoryName(product.getCategory() != null ? product.getCategory().getCategoryName() : "N/A")
@@ -173,71 +168,112 @@ public class InventoryReportServiceImpl implements InventoryReportService {
     }
 
     /**
-     * Lấy số lượng sản phẩm đã bán trong khoảng thời gian
+     * Tồn kho hiện tại theo sản phẩm, đọc từ projection {productId, quantityInStock}
+     */
+    private Map<UUID, Integer> loadCurrentStock() {
+        Map<UUID, Integer> stockByProduct = new HashMap<>();
+        for (Object[] row : inventoryRepository.findAllStockLevels()) {
+            if (row[0] == null) continue;
+            stockByProduct.put((UUID) row[0], row[1] != null ? ((Number) row[1]).intValue() : 0);
+        }
+        return stockByProduct;
+    }
+
+    /**
+     * Giá đang hiệu lực của mọi sản phẩm, mỗi sản phẩm lấy bản ghi có validFrom mới nhất.
+     * Đọc từ projection {productId, unitPrice, validFrom}
+     */
+    private Map<UUID, BigDecimal> loadCurrentUnitPrices() {
+        Map<UUID, BigDecimal> prices = new HashMap<>();
+        Map<UUID, LocalDateTime> validFroms = new HashMap<>();
+        for (Object[] row : productPriceRepository.findAllCurrentPriceRows()) {
+            if (row[0] == null || row[1] == null) continue;
+            UUID productId = (UUID) row[0];
+            LocalDateTime validFrom = (LocalDateTime) row[2];
+            if (!prices.containsKey(productId) || isLater(validFrom, validFroms.get(productId))) {
+                prices.put(productId, (BigDecimal) row[1]);
+                validFroms.put(productId, validFrom);
+            }
+        }
+        return prices;
+    }
+
+    private boolean isLater(LocalDateTime validFrom, LocalDateTime other) {
+        if (other == null) return validFrom != null;
+        return validFrom != null && validFrom.isAfter(other);
+    }
+
+    /**
+     * Số lượng đã bán theo sản phẩm: [trong khoảng startTime..periodEnd, sau periodEnd đến windowEnd]
      */
-    private Integer getQuantitySoldInPeriod(UUID productId, LocalDateTime startTime, LocalDateTime endTime) {
+    private Map<UUID, int[]> getQuantitySoldByProduct(LocalDateTime startTime, LocalDateTime periodEnd,
+                                                       LocalDateTime windowEnd) {
         try {
             String sql = """
-                SELECT ISNULL(SUM(od.quantity), 0)
+                SELECT od.product_id,
+                       SUM(CASE WHEN o.created_date <= :periodEnd THEN od.quantity ELSE 0 END),
+                       SUM(CASE WHEN o.created_date > :periodEnd THEN od.quantity ELSE 0 END)
                 FROM dbo.order_detail od
                 INNER JOIN dbo.orders o ON od.order_id = o.order_id
-                WHERE od.product_id = :productId
-                  AND o.payment_status = N'Đã thanh toán'
+                WHERE o.payment_status = N'Đã thanh toán'
                   AND o.created_date >= :startTime
-                  AND o.created_date <= :endTime
+                  AND o.created_date <= :windowEnd
+                GROUP BY od.product_id
             """;
 
-            Query query = entityManager.createNativeQuery(sql);
-            query.setParameter("productId", productId);
-            query.setParameter("startTime", startTime);
-            query.setParameter("endTime", endTime);
-
-            Object result = query.getSingleResult();
-            if (result == null) {
-                return 0;
-            }
-            
-            return ((Number) result).intValue();
+            return runMovementQuery(sql, startTime, periodEnd, windowEnd);
         } catch (Exception e) {
             log.debug("Could not query order_detail table (may not exist): {}", e.getMessage());
-            return 0;
+            return Collections.emptyMap();
         }
     }
 
     /**
-     * Lấy số lượng sản phẩm đã nhập trong khoảng thời gian
-     * Bao gồm cả:
-     * 1. Inventory transactions với type = 'IN'
-     * 2. Purchase orders đã nhận hàng (received_date trong khoảng thời gian)
+     * Số lượng đã nhập theo sản phẩm từ các phiếu nhập đã nhận hàng (received_date trong khoảng thời gian):
+     * [trong khoảng startTime..periodEnd, sau periodEnd đến windowEnd]
      */
-    private Integer getQuantityReceivedInPeriod(UUID productId, LocalDateTime startTime, LocalDateTime endTime) {
+    private Map<UUID, int[]> getQuantityReceivedByProduct(LocalDateTime startTime, LocalDateTime periodEnd,
+                                                           LocalDateTime windowEnd) {
         try {
             String sql = """
-                SELECT ISNULL(SUM(pod.received_quantity), 0) as total_received
+                SELECT pod.product_id,
+                       SUM(CASE WHEN po.received_date <= :periodEnd THEN pod.received_quantity ELSE 0 END),
+                       SUM(CASE WHEN po.received_date > :periodEnd THEN pod.received_quantity ELSE 0 END)
                 FROM dbo.purchase_order_detail pod
                 INNER JOIN dbo.purchase_order po ON pod.purchase_order_id = po.purchase_order_id
-                WHERE pod.product_id = :productId
-                  AND po.received_date IS NOT NULL
+                WHERE po.received_date IS NOT NULL
                   AND po.received_date >= :startTime
-                  AND po.received_date <= :endTime
+                  AND po.received_date <= :windowEnd
                   AND pod.received_quantity IS NOT NULL
                   AND pod.received_quantity > 0
+                GROUP BY pod.product_id
             """;
 
-            Query query = entityManager.createNativeQuery(sql);
-            query.setParameter("productId", productId);
-            query.setParameter("startTime", startTime);
-            query.setParameter("endTime", endTime);
-
-            Object result = query.getSingleResult();
-            if (result == null) {
-                return 0;
-            }
-            
-            return ((Number) result).intValue();
+            return runMovementQuery(sql, startTime, periodEnd, windowEnd);
         } catch (Exception e) {
             log.debug("Could not query purchase_order table (may not exist): {}", e.getMessage());
-            return 0;
+            return Collections.emptyMap();
         }
     }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, int[]> runMovementQuery(String sql, LocalDateTime startTime, LocalDateTime periodEnd,
+                                              LocalDateTime windowEnd) {
+        Query query = entityManager.createNativeQuery(sql);
+        query.setParameter("startTime", startTime);
+        query.setParameter("periodEnd", periodEnd);
+        query.setParameter("windowEnd", windowEnd);
+
+        Map<UUID, int[]> result = new HashMap<>();
+        for (Object[] row : (List<Object[]>) query.getResultList()) {
+            if (row[0] == null) continue;
+            UUID productId = row[0] instanceof UUID uuid ? uuid : UUID.fromString(row[0].toString());
+            result.put(productId, new int[]{toInt(row[1]), toInt(row[2])});
+        }
+        return result;
+    }
+
+    private int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
 }
@@ -1,8 +1,8 @@
 package com.g127.snapbuy.report.service.impl;
 
 import com.g127.snapbuy.report.dto.response.ProductReportResponse;
-import com.g127.snapbuy.order.repository.OrderDetailRepository;
 import com.g127.snapbuy.report.service.ProductReportService;
+import com.g127.snapbuy.revenue.repository.DailySalesRollupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,8 +20,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ProductReportServiceImpl implements ProductReportService {
 
-    private final OrderDetailRepository orderDetailRepository;
-    private static final String PAID_VN = "Đã thanh toán";
+    // Báo cáo sản phẩm đọc từ bảng tổng hợp doanh số theo ngày (daily_sales_rollup)
+    private final DailySalesRollupRepository dailySalesRollupRepository;
 
     @Override
     @Transactional(readOnly = true)
@@ -29,13 +29,13 @@ public class ProductReportServiceImpl implements ProductReportService {
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
 
-        Long totalProductsSold = orderDetailRepository.sumTotalQuantitySold(
-                startOfDay, endOfDay, PAID_VN);
-        Long uniqueProductsCount = orderDetailRepository.countUniqueProductsSold(
-                startOfDay, endOfDay, PAID_VN);
+        Long totalProductsSold = dailySalesRollupRepository.sumQuantityByDateRange(
+                startOfDay.toLocalDate(), endOfDay.toLocalDate());
+        Long uniqueProductsCount = dailySalesRollupRepository.countSoldProductsByDateRange(
+                startOfDay.toLocalDate(), endOfDay.toLocalDate());
         
-        List<Object[]> productData = orderDetailRepository.getProductSalesByDateRange(
-                startOfDay, endOfDay, PAID_VN);
+        List<Object[]> productData = dailySalesRollupRepository.getProductSalesByDateRange(
+                startOfDay.toLocalDate(), endOfDay.toLocalDate());
 
         List<ProductReportResponse.ProductSalesDetail> productDetails = productData.stream()
                 .map(row -> {
@@ -76,12 +76,12 @@ public class ProductReportServiceImpl implements ProductReportService {
         LocalDateTime startOfMonth = startDate.atStartOfDay();
         LocalDateTime endOfMonth = endDate.atTime(LocalTime.MAX);
 
-        Long totalProductsSold = orderDetailRepository.sumTotalQuantitySold(
-                startOfMonth, endOfMonth, PAID_VN);
-        Long uniqueProductsCount = orderDetailRepository.countUniqueProductsSold(
-                startOfMonth, endOfMonth, PAID_VN);
-        List<Object[]> productData = orderDetailRepository.getProductSalesByDateRange(
-                startOfMonth, endOfMonth, PAID_VN);
+        Long totalProductsSold = dailySalesRollupRepository.sumQuantityByDateRange(
+                startOfMonth.toLocalDate(), endOfMonth.toLocalDate());
+        Long uniqueProductsCount = dailySalesRollupRepository.countSoldProductsByDateRange(
+                startOfMonth.toLocalDate(), endOfMonth.toLocalDate());
+        List<Object[]> productData = dailySalesRollupRepository.getProductSalesByDateRange(
+                startOfMonth.toLocalDate(), endOfMonth.toLocalDate());
 
         List<ProductReportResponse.ProductSalesDetail> productDetails = productData.stream()
                 .map(row -> {
@@ -119,12 +119,12 @@ public class ProductReportServiceImpl implements ProductReportService {
         LocalDateTime startOfYear = LocalDate.of(year, 1, 1).atStartOfDay();
         LocalDateTime endOfYear = LocalDate.of(year, 12, 31).atTime(LocalTime.MAX);
 
-        Long totalProductsSold = orderDetailRepository.sumTotalQuantitySold(
-                startOfYear, endOfYear, PAID_VN);
-        Long uniqueProductsCount = orderDetailRepository.countUniqueProductsSold(
-                startOfYear, endOfYear, PAID_VN);
-        List<Object[]> productData = orderDetailRepository.getProductSalesByDateRange(
-                startOfYear, endOfYear, PAID_VN);
+        Long totalProductsSold = dailySalesRollupRepository.sumQuantityByDateRange(
+                startOfYear.toLocalDate(), endOfYear.toLocalDate());
+        Long uniqueProductsCount = dailySalesRollupRepository.countSoldProductsByDateRange(
+                startOfYear.toLocalDate(), endOfYear.toLocalDate());
+        List<Object[]> productData = dailySalesRollupRepository.getProductSalesByDateRange(
+                startOfYear.toLocalDate(), endOfYear.toLocalDate());
 
         List<ProductReportResponse.ProductSalesDetail> productDetails = productData.stream()
                 .map(row -> {
@@ -162,12 +162,12 @@ public class ProductReportServiceImpl implements ProductReportService {
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
 
-        Long totalProductsSold = orderDetailRepository.sumTotalQuantitySold(
-                start, end, PAID_VN);
-        Long uniqueProductsCount = orderDetailRepository.countUniqueProductsSold(
-                start, end, PAID_VN);
-        List<Object[]> productData = orderDetailRepository.getProductSalesByDateRange(
-                start, end, PAID_VN);
+        Long totalProductsSold = dailySalesRollupRepository.sumQuantityByDateRange(
+                start.toLocalDate(), end.toLocalDate());
+        Long uniqueProductsCount = dailySalesRollupRepository.countSoldProductsByDateRange(
+                start.toLocalDate(), end.toLocalDate());
+        List<Object[]> productData = dailySalesRollupRepository.getProductSalesByDateRange(
+                start.toLocalDate(), end.toLocalDate());
 
         List<ProductReportResponse.ProductSalesDetail> productDetails = productData.stream()
                 .map(row -> {
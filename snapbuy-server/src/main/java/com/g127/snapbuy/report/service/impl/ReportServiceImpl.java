@@ -3,6 +3,7 @@ package com.g127.snapbuy.report.service.impl;
 import com.g127.snapbuy.report.dto.response.ProductRevenueReportResponse;
 import com.g127.snapbuy.order.repository.OrderDetailRepository;
 import com.g127.snapbuy.report.service.ReportService;
+import com.g127.snapbuy.revenue.repository.DailySalesRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -17,10 +18,15 @@ import java.math.BigDecimal;
 public class ReportServiceImpl implements ReportService {
 
     private final OrderDetailRepository orderDetailRepository;
+    private final DailySalesRollupRepository dailySalesRollupRepository;
 
     @Override
     public List<ProductRevenueReportResponse> getProductRevenue(LocalDateTime fromDate, LocalDateTime toDate, UUID accountId) {
-        List<Object[]> rows = orderDetailRepository.getProductRevenueReport(fromDate, toDate, accountId);
+        // Khoảng trọn ngày đọc từ bảng tổng hợp theo ngày, khoảng lẻ giờ đọc trực tiếp order_detail
+        List<Object[]> rows = RollupRanges.coversWholeDays(fromDate, toDate)
+                ? dailySalesRollupRepository.getProductRevenueReport(
+                        fromDate.toLocalDate(), toDate.toLocalDate(), accountId)
+                : orderDetailRepository.getProductRevenueReport(fromDate, toDate, accountId);
         List<ProductRevenueReportResponse> result = new ArrayList<>();
         for (Object[] row : rows) {
             result.add(ProductRevenueReportResponse.builder()
@@ -48,9 +54,13 @@ public class ReportServiceImpl implements ReportService {
         String sb = (sortBy == null || (!sortBy.equals("sold") && !sortBy.equals("revenue"))) ? "revenue" : sortBy;
         String sd = (sortDir == null || (!sortDir.equalsIgnoreCase("asc") && !sortDir.equalsIgnoreCase("desc"))) ? "desc" : sortDir.toLowerCase();
 
-        List<Object[]> rows = orderDetailRepository.reportProductRevenueFlexible(
-                from, to, productId, categoryId, supplierId, minRevenue, safeLimit, sb, sd
-        );
+        List<Object[]> rows = RollupRanges.coversWholeDays(from, to)
+                ? dailySalesRollupRepository.reportProductRevenueFlexible(
+                        from.toLocalDate(), to.toLocalDate(), productId, categoryId, supplierId, minRevenue, safeLimit, sb, sd
+                )
+                : orderDetailRepository.reportProductRevenueFlexible(
+                        from, to, productId, categoryId, supplierId, minRevenue, safeLimit, sb, sd
+                );
 
         List<ProductRevenueReportResponse> result = new ArrayList<>();
         for (Object[] r : rows) {
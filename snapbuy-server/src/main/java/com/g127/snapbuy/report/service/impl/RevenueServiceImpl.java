@@ -1,20 +1,28 @@
 package com.g127.snapbuy.report.service.impl;
 
+import com.g127.snapbuy.common.exception.AppException;
+import com.g127.snapbuy.common.exception.ErrorCode;
+import com.g127.snapbuy.report.dto.request.RevenueGranularity;
 import com.g127.snapbuy.report.dto.response.DailyRevenueItem;
+import com.g127.snapbuy.report.dto.response.RevenueBucketItem;
 import com.g127.snapbuy.report.dto.response.RevenueResponse;
 import com.g127.snapbuy.order.repository.OrderRepository;
 import com.g127.snapbuy.report.service.RevenueService;
+import com.g127.snapbuy.revenue.repository.DailySalesRollupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -22,9 +30,13 @@ import java.util.List;
 public class RevenueServiceImpl implements RevenueService {
 
     private final OrderRepository orderRepository;
+    private final DailySalesRollupRepository dailySalesRollupRepository;
 
     private static final String PAID_VN = "Đã thanh toán";
 
+    // Giới hạn số mốc của một chuỗi doanh thu (ví dụ: theo giờ trong tối đa ~7 tháng)
+    private static final int MAX_SERIES_BUCKETS = 5000;
+
     @Override
     @Transactional(readOnly = true)
     public RevenueResponse getDailyRevenue(LocalDate date) {
@@ -32,10 +44,11 @@ public class RevenueServiceImpl implements RevenueService {
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
 
-        BigDecimal totalRevenue = orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-                startOfDay, endOfDay, PAID_VN);
-        Long orderCount = orderRepository.countOrdersByDateRangeAndPaymentStatus(
-                startOfDay, endOfDay, PAID_VN);
+        // Đọc từ bảng tổng hợp theo ngày: chi phí như nhau dù khoảng thời gian dài bao nhiêu
+        BigDecimal totalRevenue = dailySalesRollupRepository.sumRevenueByDateRange(
+                startOfDay.toLocalDate(), endOfDay.toLocalDate());
+        Long orderCount = dailySalesRollupRepository.sumOrderCountByDateRange(
+                startOfDay.toLocalDate(), endOfDay.toLocalDate());
 
         return RevenueResponse.builder()
                 .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
@@ -55,10 +68,11 @@ public class RevenueServiceImpl implements RevenueService {
         LocalDateTime startOfMonth = startDate.atStartOfDay();
         LocalDateTime endOfMonth = endDate.atTime(LocalTime.MAX);
 
-        BigDecimal totalRevenue = orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-                startOfMonth, endOfMonth, PAID_VN);
-        Long orderCount = orderRepository.countOrdersByDateRangeAndPaymentStatus(
-                startOfMonth, endOfMonth, PAID_VN);
+        // Đọc từ bảng tổng hợp theo ngày: chi phí như nhau dù khoảng thời gian dài bao nhiêu
+        BigDecimal totalRevenue = dailySalesRollupRepository.sumRevenueByDateRange(
+                startOfMonth.toLocalDate(), endOfMonth.toLocalDate());
+        Long orderCount = dailySalesRollupRepository.sumOrderCountByDateRange(
+                startOfMonth.toLocalDate(), endOfMonth.toLocalDate());
 
         return RevenueResponse.builder()
                 .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
@@ -76,10 +90,11 @@ public class RevenueServiceImpl implements RevenueService {
         LocalDateTime startOfYear = LocalDate.of(year, 1, 1).atStartOfDay();
         LocalDateTime endOfYear = LocalDate.of(year, 12, 31).atTime(LocalTime.MAX);
 
-        BigDecimal totalRevenue = orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-                startOfYear, endOfYear, PAID_VN);
-        Long orderCount = orderRepository.countOrdersByDateRangeAndPaymentStatus(
-                startOfYear, endOfYear, PAID_VN);
+        // Đọc từ bảng tổng hợp theo ngày: chi phí như nhau dù khoảng thời gian dài bao nhiêu
+        BigDecimal totalRevenue = dailySalesRollupRepository.sumRevenueByDateRange(
+                startOfYear.toLocalDate(), endOfYear.toLocalDate());
+        Long orderCount = dailySalesRollupRepository.sumOrderCountByDateRange(
+                startOfYear.toLocalDate(), endOfYear.toLocalDate());
 
         return RevenueResponse.builder()
                 .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
@@ -97,10 +112,11 @@ public class RevenueServiceImpl implements RevenueService {
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
 
-        BigDecimal totalRevenue = orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-                start, end, PAID_VN);
-        Long orderCount = orderRepository.countOrdersByDateRangeAndPaymentStatus(
-                start, end, PAID_VN);
+        // Đọc từ bảng tổng hợp theo ngày: chi phí như nhau dù khoảng thời gian dài bao nhiêu
+        BigDecimal totalRevenue = dailySalesRollupRepository.sumRevenueByDateRange(
+                start.toLocalDate(), end.toLocalDate());
+        Long orderCount = dailySalesRollupRepository.sumOrderCountByDateRange(
+                start.toLocalDate(), end.toLocalDate());
 
         return RevenueResponse.builder()
                 .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
@@ -115,26 +131,72 @@ public class RevenueServiceImpl implements RevenueService {
     @Transactional(readOnly = true)
     public List<DailyRevenueItem> getMonthlyDailyRevenue(int year, int month) {
         LocalDate startDate = LocalDate.of(year, month, 1);
-        int daysInMonth = startDate.lengthOfMonth();
-        List<DailyRevenueItem> dailyRevenues = new ArrayList<>();
-
-        for (int day = 1; day <= daysInMonth; day++) {
-            LocalDate date = LocalDate.of(year, month, day);
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
 
-            BigDecimal totalRevenue = orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-                    startOfDay, endOfDay, PAID_VN);
-            Long orderCount = orderRepository.countOrdersByDateRangeAndPaymentStatus(
-                    startOfDay, endOfDay, PAID_VN);
+        // Một truy vấn gom theo ngày cho cả tháng thay vì hai truy vấn cho mỗi ngày
+        List<RevenueBucketItem> buckets = getRevenueSeries(
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX), RevenueGranularity.DAY);
 
+        List<DailyRevenueItem> dailyRevenues = new ArrayList<>(buckets.size());
+        for (RevenueBucketItem bucket : buckets) {
             dailyRevenues.add(DailyRevenueItem.builder()
-                    .date(date)
-                    .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
-                    .orderCount(orderCount != null ? orderCount : 0L)
+                    .date(bucket.getBucketStart().toLocalDate())
+                    .totalRevenue(bucket.getTotalRevenue())
+                    .orderCount(bucket.getOrderCount())
                     .build());
         }
 
         return dailyRevenues;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RevenueBucketItem> getRevenueSeries(LocalDateTime start, LocalDateTime end,
+                                                    RevenueGranularity granularity) {
+        if (start == null || end == null || granularity == null || start.isAfter(end)) {
+            throw new AppException(ErrorCode.INVALID_DATE_RANGE);
+        }
+
+        // Dựng sẵn toàn bộ các mốc để mốc không có đơn vẫn hiển thị doanh thu 0
+        Map<LocalDateTime, RevenueBucketItem> buckets = new LinkedHashMap<>();
+        for (LocalDateTime bucketStart = granularity.bucketStart(start);
+             !bucketStart.isAfter(end);
+             bucketStart = granularity.next(bucketStart)) {
+            if (buckets.size() >= MAX_SERIES_BUCKETS) {
+                throw new AppException(ErrorCode.INVALID_DATE_RANGE);
+            }
+            LocalDateTime bucketEnd = granularity.next(bucketStart).minusNanos(1);
+            buckets.put(bucketStart, RevenueBucketItem.builder()
+                    .bucketStart(bucketStart)
+                    .bucketEnd(bucketEnd.isAfter(end) ? end : bucketEnd)
+                    .totalRevenue(BigDecimal.ZERO)
+                    .orderCount(0L)
+                    .build());
+        }
+
+        // Mốc ngày/tuần/tháng trên khoảng trọn ngày đọc từ bảng tổng hợp, mốc giờ hoặc khoảng lẻ giờ đọc trực tiếp orders
+        List<Object[]> rows = granularity != RevenueGranularity.HOUR && RollupRanges.coversWholeDays(start, end)
+                ? dailySalesRollupRepository.sumRevenueGroupedByBucket(
+                        start.toLocalDate(), end.toLocalDate(), granularity.name())
+                : orderRepository.sumRevenueGroupedByBucket(start, end, PAID_VN, granularity.name());
+        for (Object[] row : rows) {
+            LocalDateTime bucketStart = toLocalDateTime(row[0]);
+            RevenueBucketItem bucket = bucketStart != null ? buckets.get(bucketStart) : null;
+            if (bucket == null) {
+                log.warn("Revenue bucket {} is outside the requested {} series", row[0], granularity);
+                continue;
+            }
+            bucket.setTotalRevenue(row[1] != null ? new BigDecimal(row[1].toString()) : BigDecimal.ZERO);
+            bucket.setOrderCount(row[2] != null ? ((Number) row[2]).longValue() : 0L);
+        }
+
+        return new ArrayList<>(buckets.values());
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime localDateTime) return localDateTime;
+        if (value instanceof Timestamp timestamp) return timestamp.toLocalDateTime();
+        if (value instanceof java.util.Date date) return new Timestamp(date.getTime()).toLocalDateTime();
+        return null;
+    }
 }
@@ -0,0 +1,22 @@
+package com.g127.snapbuy.report.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Bảng daily_sales_rollup gom theo ngày nên chỉ dùng được cho khoảng thời gian trọn ngày
+ * (từ 00:00 của ngày đầu đến cuối ngày cuối), các khoảng lẻ giờ vẫn truy vấn trực tiếp orders.
+ */
+final class RollupRanges {
+
+    private static final LocalTime LAST_SECOND_OF_DAY = LocalTime.of(23, 59, 59);
+
+    private RollupRanges() {
+    }
+
+    static boolean coversWholeDays(LocalDateTime from, LocalDateTime to) {
+        return from != null && to != null
+                && from.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && !to.toLocalTime().isBefore(LAST_SECOND_OF_DAY);
+    }
+}
@@ -0,0 +1,53 @@
+package com.g127.snapbuy.report.service.impl;
+
+import com.g127.snapbuy.common.exception.AppException;
+import com.g127.snapbuy.common.exception.ErrorCode;
+import com.g127.snapbuy.report.service.SalesRollupService;
+import com.g127.snapbuy.revenue.repository.DailySalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Duy trì bảng daily_sales_rollup: cập nhật tăng dần khi đơn được thanh toán / hoàn tiền,
+ * và tính lại theo khoảng ngày (job đối soát hằng đêm hoặc nạp lại dữ liệu).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private final DailySalesRollupRepository dailySalesRollupRepository;
+
+    private static final String PAID_VN = "Đã thanh toán";
+
+    @Override
+    @Transactional(transactionManager = "tenantTransactionManager")
+    public void recordPaidOrder(UUID orderId) {
+        dailySalesRollupRepository.applyOrder(orderId, 1);
+    }
+
+    @Override
+    @Transactional(transactionManager = "tenantTransactionManager")
+    public void recordRefundedOrder(UUID orderId) {
+        dailySalesRollupRepository.applyOrder(orderId, -1);
+    }
+
+    @Override
+    @Transactional(transactionManager = "tenantTransactionManager")
+    public int rebuild(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null || fromDate.isAfter(toDate)) {
+            throw new AppException(ErrorCode.INVALID_DATE_RANGE);
+        }
+
+        int deleted = dailySalesRollupRepository.deleteRange(fromDate, toDate);
+        int inserted = dailySalesRollupRepository.insertRange(
+                fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay(), PAID_VN);
+        log.debug("Rebuilt sales rollup {}..{}: {} rows removed, {} rows written", fromDate, toDate, deleted, inserted);
+        return inserted;
+    }
+}
@@ -0,0 +1,52 @@
+package com.g127.snapbuy.revenue.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Doanh số đã thanh toán gom theo ngày x nhân viên x sản phẩm.
+ * productId = null là dòng tổng cấp đơn hàng (doanh thu theo total_amount của đơn).
+ */
+@Entity
+@Table(name = "daily_sales_rollup")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+
+    @Column(name = "revenue", precision = 18, scale = 2, nullable = false)
+    private BigDecimal revenue;
+
+    @Column(name = "cost", precision = 18, scale = 2, nullable = false)
+    private BigDecimal cost;
+
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount;
+
+    @Column(name = "updated_date", nullable = false)
+    private LocalDateTime updatedDate;
+}
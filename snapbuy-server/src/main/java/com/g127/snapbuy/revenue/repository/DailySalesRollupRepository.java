@@ -0,0 +1,287 @@
+package com.g127.snapbuy.revenue.repository;
+
+import com.g127.snapbuy.revenue.entity.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    // Cộng (sign = 1) hoặc trừ (sign = -1) một đơn hàng vào bảng tổng hợp: các dòng theo sản phẩm và dòng tổng cấp đơn hàng.
+    // Giá vốn lấy theo bảng giá hiệu lực tại thời điểm tạo đơn.
+    @Modifying
+    @Query(value = """
+            WITH lines AS (
+                SELECT CAST(o.created_date AS DATE) AS sales_date,
+                       o.account_id,
+                       od.product_id,
+                       SUM(od.quantity) AS quantity,
+                       SUM(od.total_price) AS revenue,
+                       SUM(od.quantity * ISNULL(pc.cost_price, 0)) AS cost
+                FROM orders o
+                INNER JOIN order_detail od ON od.order_id = o.order_id
+                OUTER APPLY (
+                    SELECT TOP 1 pp.cost_price
+                    FROM product_price pp
+                    WHERE pp.product_id = od.product_id
+                      AND pp.valid_from <= o.created_date
+                    ORDER BY pp.valid_from DESC
+                ) pc
+                WHERE o.order_id = :orderId
+                GROUP BY CAST(o.created_date AS DATE), o.account_id, od.product_id
+            ), src AS (
+                SELECT sales_date, account_id, product_id, quantity, revenue, cost
+                FROM lines
+                UNION ALL
+                SELECT CAST(o.created_date AS DATE), o.account_id, NULL,
+                       ISNULL((SELECT SUM(quantity) FROM lines), 0),
+                       o.total_amount,
+                       ISNULL((SELECT SUM(cost) FROM lines), 0)
+                FROM orders o
+                WHERE o.order_id = :orderId
+                  AND o.created_date IS NOT NULL
+            )
+            MERGE daily_sales_rollup WITH (HOLDLOCK) AS t
+            USING src AS s
+            ON t.sales_date = s.sales_date
+               AND t.account_id = s.account_id
+               AND (t.product_id = s.product_id OR (t.product_id IS NULL AND s.product_id IS NULL))
+            WHEN MATCHED THEN UPDATE SET
+                quantity = t.quantity + :sign * s.quantity,
+                revenue = t.revenue + :sign * s.revenue,
+                cost = t.cost + :sign * s.cost,
+                order_count = t.order_count + :sign,
+                updated_date = GETDATE()
+            WHEN NOT MATCHED THEN
+                INSERT (sales_date, account_id, product_id, quantity, revenue, cost, order_count, updated_date)
+                VALUES (s.sales_date, s.account_id, s.product_id,
+                        :sign * s.quantity, :sign * s.revenue, :sign * s.cost, :sign, GETDATE());
+            """, nativeQuery = true)
+    int applyOrder(@Param("orderId") UUID orderId, @Param("sign") int sign);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM daily_sales_rollup WITH (HOLDLOCK)
+            WHERE sales_date >= :fromDate AND sales_date <= :toDate
+            """, nativeQuery = true)
+    int deleteRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // Tính lại bảng tổng hợp từ orders/order_detail cho các đơn tạo trong [fromTime, toTimeExclusive)
+    @Modifying
+    @Query(value = """
+            WITH lines AS (
+                SELECT o.order_id,
+                       CAST(o.created_date AS DATE) AS sales_date,
+                       o.account_id,
+                       od.product_id,
+                       od.quantity,
+                       od.total_price AS revenue,
+                       od.quantity * ISNULL(pc.cost_price, 0) AS cost
+                FROM orders o
+                INNER JOIN order_detail od ON od.order_id = o.order_id
+                OUTER APPLY (
+                    SELECT TOP 1 pp.cost_price
+                    FROM product_price pp
+                    WHERE pp.product_id = od.product_id
+                      AND pp.valid_from <= o.created_date
+                    ORDER BY pp.valid_from DESC
+                ) pc
+                WHERE o.payment_status = :paymentStatus
+                  AND o.created_date >= :fromTime
+                  AND o.created_date < :toTimeExclusive
+            ), order_totals AS (
+                SELECT order_id, SUM(quantity) AS quantity, SUM(cost) AS cost
+                FROM lines
+                GROUP BY order_id
+            )
+            INSERT INTO daily_sales_rollup (sales_date, account_id, product_id, quantity, revenue, cost, order_count, updated_date)
+            SELECT sales_date, account_id, product_id, SUM(quantity), SUM(revenue), SUM(cost), COUNT(DISTINCT order_id), GETDATE()
+            FROM lines
+            GROUP BY sales_date, account_id, product_id
+            UNION ALL
+            SELECT CAST(o.created_date AS DATE), o.account_id, NULL,
+                   ISNULL(SUM(ot.quantity), 0), SUM(o.total_amount), ISNULL(SUM(ot.cost), 0), COUNT(*), GETDATE()
+            FROM orders o
+            LEFT JOIN order_totals ot ON ot.order_id = o.order_id
+            WHERE o.payment_status = :paymentStatus
+              AND o.created_date >= :fromTime
+              AND o.created_date < :toTimeExclusive
+            GROUP BY CAST(o.created_date AS DATE), o.account_id
+            """, nativeQuery = true)
+    int insertRange(@Param("fromTime") LocalDateTime fromTime,
+                    @Param("toTimeExclusive") LocalDateTime toTimeExclusive,
+                    @Param("paymentStatus") String paymentStatus);
+
+    @Query("SELECT SUM(r.revenue) FROM DailySalesRollup r " +
+            "WHERE r.productId IS NULL AND r.salesDate BETWEEN :fromDate AND :toDate")
+    BigDecimal sumRevenueByDateRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT SUM(r.orderCount) FROM DailySalesRollup r " +
+            "WHERE r.productId IS NULL AND r.salesDate BETWEEN :fromDate AND :toDate")
+    Long sumOrderCountByDateRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT SUM(r.quantity) FROM DailySalesRollup r " +
+            "WHERE r.productId IS NULL AND r.salesDate BETWEEN :fromDate AND :toDate")
+    Long sumQuantityByDateRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query(value = """
+            SELECT COUNT(*) FROM (
+                SELECT r.product_id
+                FROM daily_sales_rollup r
+                WHERE r.product_id IS NOT NULL
+                  AND r.sales_date BETWEEN :fromDate AND :toDate
+                GROUP BY r.product_id
+                HAVING SUM(r.quantity) > 0
+            ) sold
+            """, nativeQuery = true)
+    Long countSoldProductsByDateRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // Doanh thu và số đơn gom theo mốc DAY/WEEK/MONTH, mỗi dòng: {bucket_start, revenue, order_count}
+    // (cùng quy ước mốc tuần bắt đầu từ thứ Hai như OrderRepository.sumRevenueGroupedByBucket)
+    @Query(value = """
+            SELECT b.bucket_start, SUM(b.revenue) AS total_revenue, SUM(b.order_count) AS order_count
+            FROM (
+                SELECT CASE :bucketUnit
+                           WHEN 'WEEK' THEN DATEADD(DAY, (DATEDIFF(DAY, 0, r.sales_date) / 7) * 7, 0)
+                           WHEN 'MONTH' THEN DATEADD(MONTH, DATEDIFF(MONTH, 0, r.sales_date), 0)
+                           ELSE CAST(r.sales_date AS DATETIME)
+                       END AS bucket_start,
+                       r.revenue,
+                       r.order_count
+                FROM daily_sales_rollup r
+                WHERE r.product_id IS NULL
+                  AND r.sales_date BETWEEN :fromDate AND :toDate
+            ) b
+            GROUP BY b.bucket_start
+            ORDER BY b.bucket_start
+            """, nativeQuery = true)
+    List<Object[]> sumRevenueGroupedByBucket(@Param("fromDate") LocalDate fromDate,
+                                             @Param("toDate") LocalDate toDate,
+                                             @Param("bucketUnit") String bucketUnit);
+
+    // Cùng cột với OrderDetailRepository.getProductSalesByDateRange
+    @Query(value = """
+            SELECT
+                CAST(p.product_id AS VARCHAR(36)) as product_id,
+                p.product_name,
+                p.product_code,
+                sold.total_quantity_sold,
+                ISNULL(c.category_name, 'N/A') as category_name,
+                ISNULL(s.supplier_name, 'N/A') as supplier_name,
+                ISNULL(pp_current.unit_price, 0) as unit_price,
+                ISNULL(pp_current.cost_price, 0) as cost_price
+            FROM (
+                SELECT r.product_id, SUM(r.quantity) AS total_quantity_sold
+                FROM daily_sales_rollup r
+                WHERE r.product_id IS NOT NULL
+                  AND r.sales_date BETWEEN :fromDate AND :toDate
+                GROUP BY r.product_id
+                HAVING SUM(r.quantity) > 0
+            ) sold
+            INNER JOIN products p ON sold.product_id = p.product_id
+            LEFT JOIN categories c ON p.category_id = c.category_id
+            LEFT JOIN suppliers s ON p.supplier_id = s.supplier_id
+            OUTER APPLY (
+                SELECT TOP 1 pp.unit_price, pp.cost_price
+                FROM product_price pp
+                WHERE pp.product_id = p.product_id
+                  AND pp.valid_from <= GETDATE()
+                  AND (pp.valid_to IS NULL OR pp.valid_to > GETDATE())
+                ORDER BY pp.valid_from DESC
+            ) pp_current
+            ORDER BY sold.total_quantity_sold DESC
+            """, nativeQuery = true)
+    List<Object[]> getProductSalesByDateRange(@Param("fromDate") LocalDate fromDate,
+                                              @Param("toDate") LocalDate toDate);
+
+    // Cùng cột với OrderDetailRepository.getProductRevenueReport
+    @Query(value = """
+            SELECT
+                p.product_id,
+                p.product_name,
+                sold.total_sold,
+                sold.total_revenue,
+                c.category_id,
+                c.category_name,
+                s.supplier_id,
+                s.supplier_name
+            FROM (
+                SELECT r.product_id, SUM(r.quantity) AS total_sold, SUM(r.revenue) AS total_revenue
+                FROM daily_sales_rollup r
+                WHERE r.product_id IS NOT NULL
+                  AND r.sales_date BETWEEN :fromDate AND :toDate
+                  AND (:accountId IS NULL OR r.account_id = :accountId)
+                GROUP BY r.product_id
+                HAVING SUM(r.quantity) > 0
+            ) sold
+            JOIN products p ON sold.product_id = p.product_id
+            LEFT JOIN categories c ON p.category_id = c.category_id
+            LEFT JOIN suppliers s ON p.supplier_id = s.supplier_id
+            ORDER BY sold.total_revenue DESC
+            """, nativeQuery = true)
+    List<Object[]> getProductRevenueReport(@Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate,
+                                           @Param("accountId") UUID accountId);
+
+    // Cùng cột và quy tắc lọc / sắp xếp với OrderDetailRepository.reportProductRevenueFlexible
+    @Query(value = """
+        WITH base AS (
+            SELECT
+                p.product_id,
+                p.product_name,
+                c.category_id,
+                c.category_name,
+                s.supplier_id,
+                s.supplier_name,
+                sold.total_sold,
+                sold.total_revenue
+            FROM (
+                SELECT r.product_id, SUM(r.quantity) AS total_sold, SUM(r.revenue) AS total_revenue
+                FROM daily_sales_rollup r
+                WHERE r.product_id IS NOT NULL
+                  AND r.sales_date BETWEEN :fromDate AND :toDate
+                  AND (:productId IS NULL OR r.product_id = :productId)
+                GROUP BY r.product_id
+                HAVING SUM(r.quantity) > 0
+            ) sold
+            JOIN products p      ON sold.product_id = p.product_id
+            LEFT JOIN categories c ON p.category_id = c.category_id
+            LEFT JOIN suppliers s  ON p.supplier_id = s.supplier_id
+            WHERE (:categoryId IS NULL OR c.category_id = :categoryId)
+              AND (:supplierId IS NULL OR s.supplier_id = :supplierId)
+        )
+        SELECT
+            product_id, product_name, total_sold, total_revenue,
+            category_id, category_name, supplier_id, supplier_name
+        FROM base
+        WHERE (:minRevenue IS NULL OR total_revenue >= :minRevenue)
+        ORDER BY
+            CASE WHEN :sortBy = 'sold'    AND :sortDir = 'asc'  THEN total_sold    END ASC,
+            CASE WHEN :sortBy = 'sold'    AND :sortDir = 'desc' THEN total_sold    END DESC,
+            CASE WHEN :sortBy = 'revenue' AND :sortDir = 'asc'  THEN total_revenue END ASC,
+            CASE WHEN :sortBy = 'revenue' AND :sortDir = 'desc' THEN total_revenue END DESC,
+            total_revenue DESC
+        OFFSET 0 ROWS
+        FETCH NEXT :limitRows ROWS ONLY
+        """, nativeQuery = true)
+    List<Object[]> reportProductRevenueFlexible(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("productId") UUID productId,
+            @Param("categoryId") UUID categoryId,
+            @Param("supplierId") UUID supplierId,
+            @Param("minRevenue") BigDecimal minRevenue,
+            @Param("limitRows") int limitRows,
+            @Param("sortBy") String sortBy,
+            @Param("sortDir") String sortDir
+    );
+}
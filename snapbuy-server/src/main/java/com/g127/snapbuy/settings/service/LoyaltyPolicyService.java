@@ -0,0 +1,40 @@
+package com.g127.snapbuy.settings.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Chính sách tích điểm của tenant hiện tại, được giữ trong bộ nhớ để tính điểm khi bán hàng mà không cần truy vấn.
+ * Được nạp lại sau khi cài đặt POS hoặc chủ cửa hàng thay đổi.
+ */
+public interface LoyaltyPolicyService {
+
+    @Getter
+    @AllArgsConstructor
+    class LoyaltyPolicy {
+        public static final LoyaltyPolicy NONE = new LoyaltyPolicy(BigDecimal.ZERO);
+
+        // Phần trăm giá trị đơn hàng được quy đổi thành điểm
+        private final BigDecimal pointsPercent;
+
+        /**
+         * Số điểm tích được cho số tiền đã thanh toán, làm tròn xuống
+         */
+        public int pointsFor(BigDecimal amount) {
+            if (amount == null || amount.signum() <= 0 || pointsPercent.signum() <= 0) {
+                return 0;
+            }
+            return amount.multiply(pointsPercent)
+                    .divide(BigDecimal.valueOf(100), 0, RoundingMode.FLOOR)
+                    .intValue();
+        }
+    }
+
+    /**
+     * Chính sách hiện hành; không có chủ cửa hàng hoặc cài đặt thì không tích điểm
+     */
+    LoyaltyPolicy getPolicy();
+}
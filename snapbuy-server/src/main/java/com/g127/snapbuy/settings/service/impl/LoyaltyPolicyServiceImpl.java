@@ -0,0 +1,53 @@
+package com.g127.snapbuy.settings.service.impl;
+
+import com.g127.snapbuy.account.entity.Account;
+import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.settings.entity.PosSettings;
+import com.g127.snapbuy.settings.repository.PosSettingsRepository;
+import com.g127.snapbuy.settings.service.LoyaltyPolicyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Chính sách nằm trong vùng cài đặt POS của cache dữ liệu tham chiếu, nên cập nhật cài đặt POS
+ * hoặc thay đổi chủ cửa hàng sẽ xóa nó khi transaction commit và lần tính điểm kế tiếp nạp lại.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoyaltyPolicyServiceImpl implements LoyaltyPolicyService {
+
+    private final AccountRepository accountRepository;
+    private final PosSettingsRepository posSettingsRepository;
+    private final ReferenceDataCacheService referenceDataCacheService;
+
+    @Override
+    public LoyaltyPolicy getPolicy() {
+        LoyaltyPolicy policy = referenceDataCacheService.get(ReferenceDataCacheService.POS_SETTINGS, "loyalty",
+                this::loadPolicy);
+        return policy != null ? policy : LoyaltyPolicy.NONE;
+    }
+
+    private LoyaltyPolicy loadPolicy() {
+        try {
+            // Lấy settings của chủ cửa hàng (global settings)
+            List<Account> shopOwners = accountRepository.findByRoleName("Chủ cửa hàng");
+            if (shopOwners == null || shopOwners.isEmpty()) {
+                return LoyaltyPolicy.NONE;
+            }
+            PosSettings posSettings = posSettingsRepository.findByAccount(shopOwners.get(0)).orElse(null);
+            if (posSettings == null || posSettings.getLoyaltyPointsPercent() == null) {
+                return LoyaltyPolicy.NONE;
+            }
+            return new LoyaltyPolicy(posSettings.getLoyaltyPointsPercent());
+        } catch (Exception e) {
+            // Không cache khi lỗi để lần sau đọc lại
+            log.warn("Không tìm thấy settings của chủ cửa hàng, sử dụng giá trị mặc định: {}", e.getMessage());
+            return null;
+        }
+    }
+}
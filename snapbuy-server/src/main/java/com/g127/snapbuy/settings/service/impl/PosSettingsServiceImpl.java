@@ -7,6 +7,7 @@ import com.g127.snapbuy.settings.entity.PosSettings;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.settings.repository.PosSettingsRepository;
 import com.g127.snapbuy.settings.service.PosSettingsService;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.access.AccessDeniedException;
@@ -27,6 +28,7 @@ public class PosSettingsServiceImpl implements PosSettingsService {
 
     private final PosSettingsRepository posSettingsRepository;
     private final AccountRepository accountRepository;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     private UUID resolveCurrentAccountId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -61,6 +63,10 @@ public class PosSettingsServiceImpl implements PosSettingsService {
     @Override
     @Transactional
     public PosSettingsResponse getSettings() {
+        return referenceDataCacheService.get(ReferenceDataCacheService.POS_SETTINGS, "current", this::loadSettings);
+    }
+
+    private PosSettingsResponse loadSettings() {
         // Luôn trả về settings của chủ cửa hàng (global settings)
         Account shopOwner = findShopOwnerAccount();
         PosSettings settings = posSettingsRepository.findByAccount(shopOwner)
@@ -121,6 +127,7 @@ public class PosSettingsServiceImpl implements PosSettingsService {
         }
 
         PosSettings saved = posSettingsRepository.save(settings);
+        referenceDataCacheService.evict(ReferenceDataCacheService.POS_SETTINGS);
 
         return PosSettingsResponse.builder()
                 .settingsId(saved.getSettingsId())
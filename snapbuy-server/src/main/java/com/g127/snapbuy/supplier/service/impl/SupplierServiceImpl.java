@@ -4,6 +4,7 @@ import com.g127.snapbuy.supplier.dto.request.SupplierCreateRequest;
 import com.g127.snapbuy.supplier.dto.request.SupplierUpdateRequest;
 import com.g127.snapbuy.supplier.dto.response.SupplierResponse;
 import com.g127.snapbuy.supplier.entity.Supplier;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
 import com.g127.snapbuy.common.exception.AppException;
 import com.g127.snapbuy.common.exception.ErrorCode;
 import com.g127.snapbuy.supplier.mapper.SupplierMapper;
@@ -16,7 +17,6 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +25,7 @@ public class SupplierServiceImpl implements SupplierService {
 
     private final SupplierRepository supplierRepository;
     private final SupplierMapper supplierMapper;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Override
     public SupplierResponse createSupplier(SupplierCreateRequest request) {
@@ -32,6 +33,7 @@ public class SupplierServiceImpl implements SupplierService {
         supplier.setCreatedDate(LocalDateTime.now());
         supplier.setUpdatedDate(LocalDateTime.now());
         supplierRepository.save(supplier);
+        referenceDataCacheService.evict(ReferenceDataCacheService.SUPPLIERS);
         return supplierMapper.toResponse(supplier);
     }
 
@@ -46,10 +48,10 @@ public class SupplierServiceImpl implements SupplierService {
     public List<SupplierResponse> getAllSuppliers() {
         // Trả về tất cả suppliers (bao gồm cả inactive) để admin có thể quản lý
         // Frontend sẽ filter theo active khi hiển thị trong dropdown
-        List<Supplier> suppliers = supplierRepository.findAll();
-        return suppliers.stream()
-                .map(supplierMapper::toResponse)
-                .collect(Collectors.toList());
+        return referenceDataCacheService.get(ReferenceDataCacheService.SUPPLIERS, "all",
+                () -> supplierRepository.findAll().stream()
+                        .map(supplierMapper::toResponse)
+                        .toList());
     }
 
     @Override
@@ -58,7 +60,9 @@ public class SupplierServiceImpl implements SupplierService {
                 .orElseThrow(() -> new AppException(ErrorCode.SUPPLIER_NOT_FOUND));
         supplierMapper.updateEntity(supplier, request);
         supplier.setUpdatedDate(LocalDateTime.now());
-        return supplierMapper.toResponse(supplierRepository.save(supplier));
+        Supplier savedSupplier = supplierRepository.save(supplier);
+        referenceDataCacheService.evict(ReferenceDataCacheService.SUPPLIERS);
+        return supplierMapper.toResponse(savedSupplier);
     }
 
     @Override
@@ -66,6 +70,7 @@ public class SupplierServiceImpl implements SupplierService {
         Supplier supplier = supplierRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.SUPPLIER_NOT_FOUND));
         supplierRepository.delete(supplier);
+        referenceDataCacheService.evict(ReferenceDataCacheService.SUPPLIERS);
     }
 
     @Override
@@ -75,6 +80,7 @@ public class SupplierServiceImpl implements SupplierService {
         supplier.setActive(!supplier.isActive());
         supplier.setUpdatedDate(LocalDateTime.now());
         Supplier savedSupplier = supplierRepository.save(supplier);
+        referenceDataCacheService.evict(ReferenceDataCacheService.SUPPLIERS);
         return supplierMapper.toResponse(savedSupplier);
     }
 }
@@ -0,0 +1,104 @@
+package com.g127.snapbuy.tenant.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource của một tenant chạy trên pool dùng chung với các tenant khác cùng SQL Server.
+ * Khi mượn kết nối sẽ chuyển sang database của tenant (setCatalog = USE [db]),
+ * khi trả kết nối sẽ kiểm tra lại catalog; kết nối bị đổi sang database khác sẽ bị loại khỏi pool.
+ * Đóng DataSource này không đóng pool dùng chung.
+ */
+@Slf4j
+public class CatalogSwitchingDataSource extends DelegatingDataSource {
+
+    private final HikariDataSource sharedPool;
+    private final String catalog;
+
+    public CatalogSwitchingDataSource(HikariDataSource sharedPool, String catalog) {
+        super(sharedPool);
+        this.sharedPool = sharedPool;
+        this.catalog = catalog;
+    }
+
+    public String getCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return switchCatalog(sharedPool.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return switchCatalog(sharedPool.getConnection(username, password));
+    }
+
+    private Connection switchCatalog(Connection connection) throws SQLException {
+        try {
+            if (!catalog.equals(connection.getCatalog())) {
+                connection.setCatalog(catalog);
+            }
+        } catch (SQLException e) {
+            sharedPool.evictConnection(connection);
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new CatalogCheckingHandler(connection));
+    }
+
+    private final class CatalogCheckingHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private CatalogCheckingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                returnToPool();
+                return null;
+            }
+            if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private void returnToPool() throws SQLException {
+            String current;
+            try {
+                current = target.isClosed() ? catalog : target.getCatalog();
+            } catch (SQLException e) {
+                current = null;
+            }
+            if (!catalog.equals(current)) {
+                // Kết nối đã bị chuyển sang database khác trong lúc sử dụng: không trả lại cho tenant khác dùng
+                log.warn("Connection for catalog {} was returned on catalog {}, evicting it", catalog, current);
+                sharedPool.evictConnection(target);
+                return;
+            }
+            target.close();
+        }
+    }
+}
@@ -57,6 +57,10 @@ public class TenantDataSourceConfig {
         properties.put("hibernate.hbm2ddl.auto", "none");
         properties.put("hibernate.temp.use_jdbc_metadata_defaults", false);
         properties.put("hibernate.jdbc.lob.non_contextual_creation", true);
+        // Gom các câu INSERT/UPDATE cùng loại thành JDBC batch (vd: trừ tồn kho cả giỏ hàng khi checkout)
+        properties.put("hibernate.jdbc.batch_size", 50);
+        properties.put("hibernate.order_inserts", true);
+        properties.put("hibernate.order_updates", true);
         
         return builder
                 .dataSource(dataSource)
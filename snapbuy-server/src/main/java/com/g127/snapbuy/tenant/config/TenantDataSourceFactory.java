@@ -0,0 +1,128 @@
+package com.g127.snapbuy.tenant.config;
+
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tạo DataSource cho tenant theo một trong hai chế độ:
+ * - mặc định: mỗi tenant một Hikari pool riêng (kích thước có thể cấu hình theo tenant)
+ * - shared-pool: các tenant cùng host/port/tài khoản dùng chung một pool,
+ *   database của tenant được chọn khi mượn kết nối (xem CatalogSwitchingDataSource)
+ */
+@Slf4j
+@Component
+public class TenantDataSourceFactory {
+
+    @Value("${tenant.datasource.max-pool-size:10}")
+    private int defaultMaxPoolSize = 10;
+
+    @Value("${tenant.datasource.min-idle:0}")
+    private int defaultMinIdle = 0;
+
+    @Value("${tenant.datasource.connection-idle-timeout-ms:300000}")
+    private long connectionIdleTimeoutMs = 300000;
+
+    @Value("${tenant.datasource.shared-pool.enabled:false}")
+    private boolean sharedPoolEnabled = false;
+
+    @Value("${tenant.datasource.shared-pool.max-size:30}")
+    private int sharedPoolMaxSize = 30;
+
+    @Value("${tenant.datasource.shared-pool.min-idle:2}")
+    private int sharedPoolMinIdle = 2;
+
+    private final Map<ServerKey, HikariDataSource> sharedPools = new ConcurrentHashMap<>();
+
+    private static final class ServerKey {
+        private final String host;
+        private final int port;
+        private final String username;
+        private final String password;
+
+        private ServerKey(Tenant tenant) {
+            this.host = tenant.getDbHost().trim().toLowerCase();
+            this.port = tenant.getDbPort();
+            this.username = tenant.getDbUsername();
+            this.password = tenant.getDbPassword();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ServerKey other)) return false;
+            return port == other.port && host.equals(other.host)
+                    && Objects.equals(username, other.username) && Objects.equals(password, other.password);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, username, password);
+        }
+    }
+
+    public DataSource create(Tenant tenant) {
+        if (sharedPoolEnabled) {
+            HikariDataSource pool = sharedPools.computeIfAbsent(new ServerKey(tenant), k -> createSharedPool(tenant));
+            return new CatalogSwitchingDataSource(pool, tenant.getDbName());
+        }
+        return createDedicatedPool(tenant);
+    }
+
+    public boolean isSharedPoolEnabled() {
+        return sharedPoolEnabled;
+    }
+
+    private HikariDataSource createDedicatedPool(Tenant tenant) {
+        HikariConfig config = baseConfig(tenant, tenant.getDbName());
+        config.setPoolName("tenant-" + tenant.getTenantCode());
+        // Kích thước pool có thể cấu hình riêng cho từng tenant, mặc định theo cấu hình chung
+        config.setMaximumPoolSize(tenant.getDbPoolMaxSize() != null ? tenant.getDbPoolMaxSize() : defaultMaxPoolSize);
+        config.setMinimumIdle(Math.min(
+                tenant.getDbPoolMinIdle() != null ? tenant.getDbPoolMinIdle() : defaultMinIdle,
+                config.getMaximumPoolSize()));
+        return new HikariDataSource(config);
+    }
+
+    private HikariDataSource createSharedPool(Tenant tenant) {
+        // Kết nối vật lý mở lên master để pool không phụ thuộc database của tenant nào (tenant có thể bị xóa),
+        // database của tenant được chọn khi mượn kết nối
+        HikariConfig config = baseConfig(tenant, "master");
+        config.setPoolName("tenant-shared-" + tenant.getDbHost() + "-" + tenant.getDbPort() + "-" + sharedPools.size());
+        config.setMaximumPoolSize(sharedPoolMaxSize);
+        config.setMinimumIdle(Math.min(sharedPoolMinIdle, sharedPoolMaxSize));
+        log.info("Opened shared tenant pool for {}:{}", tenant.getDbHost(), tenant.getDbPort());
+        return new HikariDataSource(config);
+    }
+
+    private HikariConfig baseConfig(Tenant tenant, String dbName) {
+        String jdbcUrl = String.format(
+                "jdbc:sqlserver://%s:%d;databaseName=%s;encrypt=false;trustServerCertificate=true",
+                tenant.getDbHost(), tenant.getDbPort(), dbName
+        );
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(tenant.getDbUsername());
+        config.setPassword(tenant.getDbPassword());
+        config.setDriverClassName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
+        config.setIdleTimeout(connectionIdleTimeoutMs);
+        config.setConnectionTimeout(30000);
+        return config;
+    }
+
+    @PreDestroy
+    public void closeSharedPools() {
+        sharedPools.values().forEach(HikariDataSource::close);
+        sharedPools.clear();
+    }
+}
@@ -3,7 +3,9 @@ package com.g127.snapbuy.tenant.config;
 import com.g127.snapbuy.tenant.context.TenantContext;
 import lombok.extern.slf4j.Slf4j;
 import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
@@ -11,46 +13,45 @@ import javax.sql.DataSource;
 /**
  * Flyway runner thủ công cho các database tenant
  * Chạy sau khi tạo tenant và thiết lập tenant context
+ * Cấu hình Flyway được dựng một lần và dùng chung cho mọi tenant (Flyway thread-safe,
+ * kết nối lấy từ routing data source theo TenantContext của luồng đang chạy)
  */
 @Slf4j
 @Component
 public class TenantFlywayRunner {
 
-    private final TenantRoutingDataSource tenantDataSource;
+    private final Flyway flyway;
 
-    public TenantFlywayRunner(@Qualifier("tenantDataSource") DataSource tenantDataSource) {
-        this.tenantDataSource = (TenantRoutingDataSource) tenantDataSource;
+    public TenantFlywayRunner(@Qualifier("tenantDataSource") DataSource tenantDataSource,
+                              @Value("${tenant.flyway.locations:classpath:db/migration}") String[] locations,
+                              @Value("${tenant.flyway.baseline-on-migrate:true}") boolean baselineOnMigrate) {
+        this.flyway = Flyway.configure()
+                .dataSource((TenantRoutingDataSource) tenantDataSource)
+                .locations(locations)
+                .baselineOnMigrate(baselineOnMigrate)
+                .load();
     }
 
     /**
-     * Chạy Flyway migrations cho tenant hiện tại
-     * Gọi sau khi thiết lập TenantContext
+     * Chạy Flyway migrations cho tenant được chỉ định
+     * TenantContext của luồng gọi được khôi phục sau khi chạy xong
      */
-    public void runMigrations(String tenantId) {
+    public MigrateResult runMigrations(String tenantId) {
+        // Thiết lập tenant context tạm thời
+        String previousTenant = TenantContext.getCurrentTenant();
         try {
-            // Thiết lập tenant context tạm thời
-            String previousTenant = TenantContext.getCurrentTenant();
             TenantContext.setCurrentTenant(tenantId);
-
-            Flyway flyway = Flyway.configure()
-                    .dataSource(tenantDataSource)
-                    .locations("classpath:db/migration")
-                    .baselineOnMigrate(true)
-                    .load();
-
-            var result = flyway.migrate();
-
+            return flyway.migrate();
+        } catch (Exception e) {
+            log.error("Failed to run Flyway migrations for tenant {}: {}", tenantId, e.getMessage(), e);
+            throw new RuntimeException("Không thể chạy migrations cho tenant database: " + e.getMessage());
+        } finally {
             // Khôi phục tenant context trước đó
             if (previousTenant != null) {
                 TenantContext.setCurrentTenant(previousTenant);
             } else {
                 TenantContext.clear();
             }
-
-        } catch (Exception e) {
-            log.error("Failed to run Flyway migrations for tenant {}: {}", tenantId, e.getMessage(), e);
-            TenantContext.clear();
-            throw new RuntimeException("Không thể chạy migrations cho tenant database: " + e.getMessage());
         }
     }
 }
@@ -1,58 +1,179 @@
 package com.g127.snapbuy.tenant.config;
 
 import com.g127.snapbuy.tenant.context.TenantContext;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * Routing datasource cho tenant với registry tạo pool theo nhu cầu:
+ * pool của một tenant chỉ được mở ở request đầu tiên của tenant đó (qua dataSourceFactory)
+ * và bị đóng lại khi tenant không hoạt động quá lâu (evictIdle).
+ */
+@Slf4j
 public class TenantRoutingDataSource extends AbstractRoutingDataSource {
-    
-    private final Map<Object, Object> targetDataSources = new HashMap<>();
-    
+
+    private final Map<String, TenantPool> pools = new ConcurrentHashMap<>();
+
+    // Trả về null nếu tenant không tồn tại hoặc đã ngừng hoạt động
+    private volatile Function<String, DataSource> dataSourceFactory;
+
     public TenantRoutingDataSource() {
         super();
-        super.setTargetDataSources(this.targetDataSources);
+        // Không dùng map target của AbstractRoutingDataSource, việc tra cứu do registry bên dưới đảm nhận
+        super.setTargetDataSources(new HashMap<>());
+    }
+
+    private static final class TenantPool {
+        private volatile DataSource dataSource;
+        private volatile long lastAccess = System.currentTimeMillis();
+        // Đã bị gỡ khỏi registry (evict/remove); chỉ đọc/ghi khi giữ monitor của pool
+        private boolean closed;
+
+        private TenantPool() {
+        }
+
+        private TenantPool(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
     }
-    
+
+    public void setDataSourceFactory(Function<String, DataSource> dataSourceFactory) {
+        this.dataSourceFactory = dataSourceFactory;
+    }
+
     @Override
     protected Object determineCurrentLookupKey() {
         return TenantContext.getCurrentTenant();
     }
-    
+
     @Override
     protected DataSource determineTargetDataSource() {
         Object lookupKey = determineCurrentLookupKey();
-        if (lookupKey != null && !targetDataSources.containsKey(lookupKey)) {
+        if (lookupKey == null) {
+            throw new IllegalStateException("Cannot determine target DataSource for lookup key [null]");
+        }
+        DataSource dataSource = resolveTenantDataSource(lookupKey.toString());
+        if (dataSource == null) {
             throw new IllegalStateException(
-                "Không tìm thấy cơ sở dữ liệu cho cửa hàng với mã: " + lookupKey + 
+                "Không tìm thấy cơ sở dữ liệu cho cửa hàng với mã: " + lookupKey +
                 ". Vui lòng liên hệ quản trị viên hệ thống."
             );
         }
-        return super.determineTargetDataSource();
+        return dataSource;
     }
-    
+
+    /**
+     * Lấy pool của tenant, tạo mới nếu chưa có. Trả về null nếu tenant không hợp lệ.
+     * Việc tạo pool chỉ khóa theo từng tenant, các tenant khác không phải chờ.
+     * Pool được đánh dấu đang dùng (cập nhật lastAccess) trước khi trả ra, dưới cùng khóa với evictIdle,
+     * nên một request không thể nhận về pool đang bị đóng.
+     */
+    public DataSource resolveTenantDataSource(String tenantId) {
+        while (true) {
+            TenantPool pool = pools.computeIfAbsent(tenantId, k -> new TenantPool());
+            synchronized (pool) {
+                if (pool.closed) {
+                    // Vừa bị evict: lấy entry mới từ registry
+                    continue;
+                }
+                pool.lastAccess = System.currentTimeMillis();
+                DataSource dataSource = pool.dataSource;
+                if (dataSource == null) {
+                    Function<String, DataSource> factory = this.dataSourceFactory;
+                    dataSource = factory != null ? factory.apply(tenantId) : null;
+                    if (dataSource == null) {
+                        pool.closed = true;
+                        pools.remove(tenantId, pool);
+                        return null;
+                    }
+                    pool.dataSource = dataSource;
+                    log.info("Opened datasource for tenant: {} ({} open)", tenantId, pools.size());
+                }
+                return dataSource;
+            }
+        }
+    }
+
     public void addTenantDataSource(String tenantId, DataSource dataSource) {
-        this.targetDataSources.put(tenantId, dataSource);
-        super.setTargetDataSources(this.targetDataSources);
-        super.afterPropertiesSet();
+        TenantPool previous = pools.put(tenantId, new TenantPool(dataSource));
+        if (previous != null && markClosed(previous) && previous.dataSource != dataSource) {
+            close(previous.dataSource);
+        }
     }
-    
+
     public void removeTenantDataSource(String tenantId) {
-        Object dataSource = this.targetDataSources.get(tenantId);
-        
-        // Close the datasource if it's a HikariDataSource
-        if (dataSource instanceof com.zaxxer.hikari.HikariDataSource) {
-            ((com.zaxxer.hikari.HikariDataSource) dataSource).close();
+        TenantPool pool = pools.remove(tenantId);
+        if (pool != null && markClosed(pool)) {
+            close(pool.dataSource);
+        }
+    }
+
+    /**
+     * Đóng pool của các tenant không có request nào trong {@code idleMillis} và không còn kết nối đang mượn.
+     * Điều kiện rảnh được kiểm tra lại dưới khóa của pool, và entry chỉ bị gỡ nếu vẫn là entry đó trong registry.
+     * @return số pool đã đóng
+     */
+    public int evictIdle(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        int evicted = 0;
+        for (Map.Entry<String, TenantPool> entry : pools.entrySet()) {
+            TenantPool pool = entry.getValue();
+            synchronized (pool) {
+                if (pool.closed || pool.dataSource == null || pool.lastAccess > cutoff
+                        || hasActiveConnections(pool.dataSource)) {
+                    continue;
+                }
+                if (!pools.remove(entry.getKey(), pool)) {
+                    continue;
+                }
+                pool.closed = true;
+            }
+            close(pool.dataSource);
+            evicted++;
+            log.info("Closed idle datasource for tenant: {}", entry.getKey());
         }
-        
-        this.targetDataSources.remove(tenantId);
-        super.setTargetDataSources(this.targetDataSources);
-        super.afterPropertiesSet();
+        return evicted;
     }
-    
+
+    public int getOpenDataSourceCount() {
+        return pools.size();
+    }
+
     public DataSource getCurrentDataSource() {
         return determineTargetDataSource();
     }
+
+    private boolean hasActiveConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+            return mxBean != null && mxBean.getActiveConnections() > 0;
+        }
+        return false;
+    }
+
+    // Trả về false nếu pool đã được đóng bởi luồng khác
+    private boolean markClosed(TenantPool pool) {
+        synchronized (pool) {
+            if (pool.closed) {
+                return false;
+            }
+            pool.closed = true;
+            return true;
+        }
+    }
+
+    private void close(DataSource dataSource) {
+        // Close the datasource if it's a HikariDataSource
+        if (dataSource instanceof HikariDataSource) {
+            ((HikariDataSource) dataSource).close();
+        }
+    }
 }
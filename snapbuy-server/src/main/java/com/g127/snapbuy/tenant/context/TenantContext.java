@@ -12,6 +12,12 @@ public class TenantContext {
         return CURRENT_TENANT.get();
     }
     
+    // Khóa của tenant hiện tại cho các cache trong bộ nhớ; chuỗi rỗng khi chưa có tenant
+    public static String getCurrentTenantKey() {
+        String tenantId = CURRENT_TENANT.get();
+        return tenantId == null ? "" : tenantId;
+    }
+    
     public static void clear() {
         CURRENT_TENANT.remove();
     }
@@ -3,13 +3,16 @@ package com.g127.snapbuy.tenant.controller;
 import com.g127.snapbuy.common.response.ApiResponse;
 import com.g127.snapbuy.tenant.dto.request.TenantCreateRequest;
 import com.g127.snapbuy.tenant.dto.request.TenantUpdateRequest;
+import com.g127.snapbuy.tenant.dto.response.TenantProvisioningResponse;
 import com.g127.snapbuy.tenant.dto.response.TenantResponse;
 import com.g127.snapbuy.tenant.service.DemoDataService;
+import com.g127.snapbuy.tenant.service.TenantProvisioningService;
 import com.g127.snapbuy.tenant.service.TenantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,6 +26,7 @@ public class TenantController {
 
     private final TenantService tenantService;
     private final DemoDataService demoDataService;
+    private final TenantProvisioningService tenantProvisioningService;
     
     @Value("${tenant.db.host:localhost}")
     private String tenantDbHost;
@@ -83,20 +87,7 @@ public class TenantController {
     @PreAuthorize("hasRole('Quản trị viên')")
     public ApiResponse<TenantResponse> createTenant(@Valid @RequestBody TenantCreateRequest request) {
         try {
-            // Inject cấu hình database tenant từ biến môi trường
-            // Cho phép sử dụng 'db' trong Docker và 'localhost' ở local development
-            if (request.getDbHost() == null || request.getDbHost().isEmpty() || request.getDbHost().equals("localhost")) {
-                request.setDbHost(tenantDbHost);
-            }
-            if (request.getDbPort() == null) {
-                request.setDbPort(tenantDbPort);
-            }
-            if (request.getDbUsername() == null || request.getDbUsername().isEmpty()) {
-                request.setDbUsername(tenantDbUsername);
-            }
-            if (request.getDbPassword() == null || request.getDbPassword().isEmpty()) {
-                request.setDbPassword(tenantDbPassword);
-            }
+            applyDbDefaults(request);
             
             ApiResponse<TenantResponse> response = new ApiResponse<>();
             response.setResult(tenantService.createTenant(request));
@@ -115,6 +106,61 @@ public class TenantController {
         }
     }
 
+    /**
+     * Tạo cửa hàng chạy nền: trả về job ngay, theo dõi tiến trình qua /admin/provisioning/{jobId}
+     */
+    @PostMapping("/admin/provisioning")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<TenantProvisioningResponse> startProvisioning(@Valid @RequestBody TenantCreateRequest request,
+                                                                     Authentication authentication) {
+        ApiResponse<TenantProvisioningResponse> response = new ApiResponse<>();
+        try {
+            applyDbDefaults(request);
+            response.setResult(tenantProvisioningService.startProvisioning(request, authentication.getName()));
+            response.setMessage("Đang tạo cửa hàng '" + request.getTenantCode() + "'");
+        } catch (IllegalArgumentException e) {
+            response.setCode(4002);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setCode(5000);
+            response.setMessage("Lỗi khi tạo cửa hàng: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @GetMapping("/admin/provisioning/{jobId}")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<TenantProvisioningResponse> getProvisioning(@PathVariable UUID jobId) {
+        ApiResponse<TenantProvisioningResponse> response = new ApiResponse<>();
+        try {
+            response.setResult(tenantProvisioningService.getJob(jobId));
+        } catch (NoSuchElementException e) {
+            response.setCode(4004);
+            response.setMessage(e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Chạy tiếp job tạo cửa hàng bị lỗi từ bước chưa hoàn tất
+     */
+    @PostMapping("/admin/provisioning/{jobId}/resume")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<TenantProvisioningResponse> resumeProvisioning(@PathVariable UUID jobId) {
+        ApiResponse<TenantProvisioningResponse> response = new ApiResponse<>();
+        try {
+            response.setResult(tenantProvisioningService.resumeProvisioning(jobId));
+            response.setMessage("Đã chạy tiếp job tạo cửa hàng");
+        } catch (NoSuchElementException e) {
+            response.setCode(4004);
+            response.setMessage(e.getMessage());
+        } catch (IllegalStateException e) {
+            response.setCode(4000);
+            response.setMessage(e.getMessage());
+        }
+        return response;
+    }
+
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('Quản trị viên')")
     public ApiResponse<List<TenantResponse>> getAllTenants() {
@@ -218,4 +264,21 @@ public class TenantController {
         response.setMessage(hasDemoData ? "Cửa hàng đã có dữ liệu mẫu" : "Cửa hàng chưa có dữ liệu mẫu");
         return response;
     }
+
+    // Inject cấu hình database tenant từ biến môi trường
+    // Cho phép sử dụng 'db' trong Docker và 'localhost' ở local development
+    private void applyDbDefaults(TenantCreateRequest request) {
+        if (request.getDbHost() == null || request.getDbHost().isEmpty() || request.getDbHost().equals("localhost")) {
+            request.setDbHost(tenantDbHost);
+        }
+        if (request.getDbPort() == null) {
+            request.setDbPort(tenantDbPort);
+        }
+        if (request.getDbUsername() == null || request.getDbUsername().isEmpty()) {
+            request.setDbUsername(tenantDbUsername);
+        }
+        if (request.getDbPassword() == null || request.getDbPassword().isEmpty()) {
+            request.setDbPassword(tenantDbPassword);
+        }
+    }
 }
@@ -3,16 +3,24 @@ package com.g127.snapbuy.tenant.controller;
 import com.g127.snapbuy.common.response.ApiResponse;
 import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
 import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.dto.response.TenantMigrationRunResponse;
+import com.g127.snapbuy.tenant.service.TenantMigrationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/tenant")
 @RequiredArgsConstructor
 public class TenantMigrationController {
 
     private final TenantFlywayRunner flywayRunner;
+    private final TenantMigrationService tenantMigrationService;
 
     @PostMapping("/run-migrations")
     @PreAuthorize("hasAnyRole('Quản trị viên','Chủ cửa hàng')")
@@ -38,4 +46,70 @@ public class TenantMigrationController {
             return response;
         }
     }
+
+    // ========== MIGRATION CHO TẤT CẢ TENANT (quản trị viên) ==========
+
+    /**
+     * Bắt đầu đợt migration cho database của tất cả tenant đang hoạt động (chạy nền)
+     */
+    @PostMapping("/migrations")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<TenantMigrationRunResponse> startMigration(Authentication authentication) {
+        ApiResponse<TenantMigrationRunResponse> response = new ApiResponse<>();
+        try {
+            response.setResult(tenantMigrationService.startMigration(authentication.getName()));
+            response.setMessage("Đã bắt đầu đợt migration cho tất cả tenant");
+        } catch (IllegalStateException e) {
+            response.setCode(4000);
+            response.setMessage(e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Chạy tiếp đợt migration: migrate lại các tenant chưa thành công
+     */
+    @PostMapping("/migrations/{runId}/resume")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<TenantMigrationRunResponse> resumeMigration(@PathVariable UUID runId) {
+        ApiResponse<TenantMigrationRunResponse> response = new ApiResponse<>();
+        try {
+            response.setResult(tenantMigrationService.resumeMigration(runId));
+            response.setMessage("Đã chạy tiếp đợt migration");
+        } catch (NoSuchElementException e) {
+            response.setCode(4004);
+            response.setMessage(e.getMessage());
+        } catch (IllegalStateException e) {
+            response.setCode(4000);
+            response.setMessage(e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Tiến độ và lỗi của một đợt migration
+     */
+    @GetMapping("/migrations/{runId}")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<TenantMigrationRunResponse> getMigration(@PathVariable UUID runId) {
+        ApiResponse<TenantMigrationRunResponse> response = new ApiResponse<>();
+        try {
+            response.setResult(tenantMigrationService.getRun(runId));
+        } catch (NoSuchElementException e) {
+            response.setCode(4004);
+            response.setMessage(e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Các đợt migration gần đây
+     */
+    @GetMapping("/migrations")
+    @PreAuthorize("hasRole('Quản trị viên')")
+    public ApiResponse<List<TenantMigrationRunResponse>> getMigrations() {
+        ApiResponse<List<TenantMigrationRunResponse>> response = new ApiResponse<>();
+        response.setResult(tenantMigrationService.getRecentRuns());
+        return response;
+    }
 }
@@ -1,5 +1,7 @@
 package com.g127.snapbuy.tenant.dto.request;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
@@ -19,4 +21,13 @@ public class TenantUpdateRequest {
     
     @Pattern(regexp = "^[0-9]{10,11}$", message = "Số điện thoại phải có 10-11 chữ số")
     private String ownerPhone;
+
+    // Để trống nếu dùng kích thước pool mặc định
+    @Min(value = 1, message = "Kích thước pool tối thiểu là 1")
+    @Max(value = 100, message = "Kích thước pool tối đa là 100")
+    private Integer dbPoolMaxSize;
+
+    @Min(value = 0, message = "Số kết nối nhàn rỗi không được âm")
+    @Max(value = 100, message = "Số kết nối nhàn rỗi tối đa là 100")
+    private Integer dbPoolMinIdle;
 }
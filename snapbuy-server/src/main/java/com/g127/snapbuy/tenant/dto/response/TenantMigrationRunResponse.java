@@ -0,0 +1,31 @@
+package com.g127.snapbuy.tenant.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class TenantMigrationRunResponse {
+    private String runId;
+    private String status;
+    private String startedBy;
+    private Integer totalTenants;
+    private Long pending;
+    private Long running;
+    private Long succeeded;
+    private Long failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<FailedTenant> failures; // Tenant lỗi, chạy tiếp (resume) để migrate lại
+
+    @Data
+    @Builder
+    public static class FailedTenant {
+        private String tenantId;
+        private String error;
+        private LocalDateTime finishedAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.g127.snapbuy.tenant.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class TenantProvisioningResponse {
+    private String jobId;
+    private String tenantId;
+    private String tenantCode;
+    private String stage; // REQUESTED -> DB_CREATED -> MIGRATED -> SEEDED -> READY
+    private String status;
+    private Integer attempts;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
@@ -19,6 +19,8 @@ public class TenantResponse {
     private LocalDateTime subscriptionEnd;
     private Integer maxUsers;
     private Integer maxProducts;
+    private Integer dbPoolMaxSize;
+    private Integer dbPoolMinIdle;
     private String ownerName;
     private String ownerEmail;
     private String ownerPhone;
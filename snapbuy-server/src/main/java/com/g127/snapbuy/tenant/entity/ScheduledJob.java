@@ -0,0 +1,78 @@
+package com.g127.snapbuy.tenant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "scheduled_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledJob {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "job_id", columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID jobId;
+
+    @Column(name = "tenant_id", nullable = false, columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false, length = 50)
+    private JobType jobType;
+
+    // Đối tượng mà job xử lý (vd: promotionId); null với job chạy cho cả tenant
+    @Column(name = "reference_id", columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID referenceId;
+
+    @Column(name = "run_at", nullable = false)
+    private LocalDateTime runAt;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    // Lease: node đang chạy job và thời điểm lease hết hạn (node khác được nhận lại job sau thời điểm này)
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum JobType {
+        // Thông báo "khuyến mãi sắp hết hạn", 1 ngày trước khi kết thúc
+        PROMOTION_EXPIRING(false),
+        // Thông báo "khuyến mãi đã hết hạn", tại thời điểm kết thúc
+        PROMOTION_EXPIRED(false),
+        // Tắt khuyến mãi đã hết hạn, tại thời điểm kết thúc
+        PROMOTION_DEACTIVATE(false),
+        // Quét định kỳ tắt các khuyến mãi hết hạn còn sót của tenant
+        PROMOTION_EXPIRY_SWEEP(true);
+
+        // Job chạy cho cả tenant: mỗi tenant đang hoạt động luôn có đúng một job loại này
+        private final boolean tenantWide;
+
+        JobType(boolean tenantWide) {
+            this.tenantWide = tenantWide;
+        }
+
+        public boolean isTenantWide() {
+            return tenantWide;
+        }
+    }
+}
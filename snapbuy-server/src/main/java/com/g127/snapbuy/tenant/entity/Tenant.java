@@ -67,4 +67,11 @@ public class Tenant {
     
     @Column(name = "max_products")
     private Integer maxProducts;
+
+    // Null = dùng tenant.datasource.max-pool-size / min-idle
+    @Column(name = "db_pool_max_size")
+    private Integer dbPoolMaxSize;
+
+    @Column(name = "db_pool_min_idle")
+    private Integer dbPoolMinIdle;
 }
@@ -0,0 +1,63 @@
+package com.g127.snapbuy.tenant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "tenant_migration_results")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantMigrationResult {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "result_id", columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID resultId;
+
+    @Column(name = "run_id", nullable = false, columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID runId;
+
+    @Column(name = "tenant_id", nullable = false, columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    // Phiên bản schema trước và sau khi migrate
+    @Column(name = "initial_version", length = 50)
+    private String initialVersion;
+
+    @Column(name = "target_version", length = 50)
+    private String targetVersion;
+
+    @Column(name = "migrations_executed")
+    private Integer migrationsExecuted;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
@@ -0,0 +1,54 @@
+package com.g127.snapbuy.tenant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "tenant_migration_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantMigrationRun {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "run_id", columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private RunStatus status;
+
+    @Column(name = "started_by")
+    private String startedBy;
+
+    @Column(name = "total_tenants", nullable = false)
+    private Integer totalTenants;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Node đang chạy đợt và thời điểm node đó cập nhật gần nhất (đợt RUNNING ngừng cập nhật quá lâu thì được nhận lại)
+    @Column(name = "owned_by", length = 100)
+    private String ownedBy;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public enum RunStatus {
+        RUNNING,
+        COMPLETED,
+        // Có tenant lỗi; chạy tiếp (resume) sẽ chỉ migrate các tenant chưa thành công
+        FAILED
+    }
+}
@@ -0,0 +1,68 @@
+package com.g127.snapbuy.tenant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "tenant_provisioning_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantProvisioningJob {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "job_id", columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID jobId;
+
+    @Column(name = "tenant_id", nullable = false, columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID tenantId;
+
+    // Bước cuối cùng đã hoàn tất
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stage", nullable = false, length = 20)
+    private Stage stage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Stage {
+        REQUESTED,
+        DB_CREATED,
+        MIGRATED,
+        SEEDED,
+        READY
+    }
+
+    public enum Status {
+        RUNNING,
+        FAILED,
+        COMPLETED
+    }
+}
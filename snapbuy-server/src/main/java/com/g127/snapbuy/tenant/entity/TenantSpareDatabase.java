@@ -0,0 +1,60 @@
+package com.g127.snapbuy.tenant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "tenant_spare_databases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantSpareDatabase {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "spare_id", columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID spareId;
+
+    @Column(name = "db_host", nullable = false)
+    private String dbHost;
+
+    @Column(name = "db_port", nullable = false)
+    private Integer dbPort;
+
+    @Column(name = "db_name", nullable = false, length = 100)
+    private String dbName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    // Phiên bản schema khi dựng xong; migration mới hơn được chạy khi cửa hàng nhận database
+    @Column(name = "schema_version", length = 50)
+    private String schemaVersion;
+
+    // Cửa hàng đã nhận database này
+    @Column(name = "tenant_id", columnDefinition = "UNIQUEIDENTIFIER")
+    private UUID tenantId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    public enum Status {
+        PREPARING,
+        READY,
+        CLAIMED
+    }
+}
@@ -0,0 +1,100 @@
+package com.g127.snapbuy.tenant.repository;
+
+import com.g127.snapbuy.tenant.entity.ScheduledJob;
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ScheduledJobRepository extends JpaRepository<ScheduledJob, UUID> {
+
+    // Tạo hoặc dời lịch job theo khóa (tenant_id, job_type, reference_id) bằng một câu MERGE:
+    // HOLDLOCK giữ khóa trên khóa chưa tồn tại nên hai node lên cùng một lịch không vi phạm UQ_scheduled_jobs_key;
+    // dời lịch thì đặt lại số lần lỗi và bỏ lease để kết quả lần chạy đang dở không ghi đè lịch mới
+    @Modifying
+    @Transactional
+    @Query(value = """
+            MERGE scheduled_jobs WITH (HOLDLOCK) AS j
+            USING (SELECT :tenantId AS tenant_id, :jobType AS job_type, :referenceId AS reference_id) AS s
+            ON j.tenant_id = s.tenant_id
+               AND j.job_type = s.job_type
+               AND (j.reference_id = s.reference_id OR (j.reference_id IS NULL AND s.reference_id IS NULL))
+            WHEN MATCHED THEN UPDATE SET
+                run_at = :runAt, attempts = 0, last_error = NULL, locked_by = NULL, locked_until = NULL
+            WHEN NOT MATCHED THEN
+                INSERT (job_id, tenant_id, job_type, reference_id, run_at, attempts, created_at)
+                VALUES (NEWID(), s.tenant_id, s.job_type, s.reference_id, :runAt, 0, GETDATE());
+            """, nativeQuery = true)
+    int upsertJob(@Param("tenantId") UUID tenantId,
+                  @Param("jobType") String jobType,
+                  @Param("referenceId") UUID referenceId,
+                  @Param("runAt") LocalDateTime runAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ScheduledJob j WHERE j.tenantId = :tenantId AND j.jobType = :jobType AND j.referenceId = :referenceId")
+    int deleteByKey(@Param("tenantId") UUID tenantId,
+                    @Param("jobType") JobType jobType,
+                    @Param("referenceId") UUID referenceId);
+
+    // Nhận tối đa :batchSize job đến hạn của tenant đang hoạt động bằng một câu UPDATE:
+    // READPAST bỏ qua các dòng node khác đang nhận, lease hết hạn (node chết giữa chừng) thì job được nhận lại
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE TOP (:batchSize) j
+            SET j.locked_by = :lockedBy, j.locked_until = :lockedUntil
+            FROM scheduled_jobs j WITH (UPDLOCK, READPAST, ROWLOCK)
+            WHERE j.run_at <= :now
+              AND (j.locked_until IS NULL OR j.locked_until < :now)
+              AND EXISTS (SELECT 1 FROM tenants t WHERE t.tenant_id = j.tenant_id AND t.is_active = 1)
+            """, nativeQuery = true)
+    int claimDue(@Param("lockedBy") String lockedBy,
+                 @Param("lockedUntil") LocalDateTime lockedUntil,
+                 @Param("now") LocalDateTime now,
+                 @Param("batchSize") int batchSize);
+
+    List<ScheduledJob> findByLockedByOrderByRunAtAsc(String lockedBy);
+
+    // Các thao tác kết thúc job chỉ có hiệu lực khi lease vẫn thuộc node này
+    // (job được lên lịch lại trong lúc chạy đã bị xóa lease nên không bị ghi đè)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ScheduledJob j WHERE j.jobId = :jobId AND j.lockedBy = :lockedBy")
+    int deleteLeased(@Param("jobId") UUID jobId, @Param("lockedBy") String lockedBy);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE ScheduledJob j
+            SET j.runAt = :runAt, j.attempts = :attempts, j.lastError = :lastError,
+                j.lockedBy = NULL, j.lockedUntil = NULL
+            WHERE j.jobId = :jobId AND j.lockedBy = :lockedBy
+            """)
+    int releaseLeased(@Param("jobId") UUID jobId,
+                      @Param("lockedBy") String lockedBy,
+                      @Param("runAt") LocalDateTime runAt,
+                      @Param("attempts") int attempts,
+                      @Param("lastError") String lastError);
+
+    // Tạo job chạy cho cả tenant (reference_id NULL) cho mọi tenant đang hoạt động chưa có job loại này
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO scheduled_jobs (job_id, tenant_id, job_type, reference_id, run_at, attempts, created_at)
+            SELECT NEWID(), t.tenant_id, :jobType, NULL, :runAt, 0, GETDATE()
+            FROM tenants t
+            WHERE t.is_active = 1
+              AND NOT EXISTS (SELECT 1 FROM scheduled_jobs j
+                              WHERE j.tenant_id = t.tenant_id AND j.job_type = :jobType AND j.reference_id IS NULL)
+            """, nativeQuery = true)
+    int insertMissingTenantJobs(@Param("jobType") String jobType, @Param("runAt") LocalDateTime runAt);
+}
@@ -0,0 +1,72 @@
+package com.g127.snapbuy.tenant.repository;
+
+import com.g127.snapbuy.tenant.entity.TenantMigrationResult;
+import com.g127.snapbuy.tenant.entity.TenantMigrationResult.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TenantMigrationResultRepository extends JpaRepository<TenantMigrationResult, UUID> {
+
+    List<TenantMigrationResult> findByRunIdAndStatusIn(UUID runId, Collection<Status> statuses);
+
+    // Số tenant theo trạng thái của một đợt: [status, count]
+    @Query("SELECT r.status, COUNT(r) FROM TenantMigrationResult r WHERE r.runId = :runId GROUP BY r.status")
+    List<Object[]> countByStatus(@Param("runId") UUID runId);
+
+    // Các bước chuyển trạng thái của một tenant là compare-and-set trên trạng thái hiện tại và chỉ có hiệu lực
+    // khi node :ownedBy vẫn giữ đợt: tenant đã bị đánh dấu quá thời gian chờ thì luồng migrate xong muộn không ghi đè
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE r SET r.status = 'RUNNING', r.started_at = :startedAt
+            FROM tenant_migration_results r
+            JOIN tenant_migration_runs run ON run.run_id = r.run_id
+            WHERE r.result_id = :resultId AND r.status = 'PENDING' AND run.owned_by = :ownedBy
+            """, nativeQuery = true)
+    int markRunning(@Param("resultId") UUID resultId,
+                    @Param("ownedBy") String ownedBy,
+                    @Param("startedAt") LocalDateTime startedAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE r SET r.status = 'SUCCEEDED', r.initial_version = :initialVersion,
+                r.target_version = :targetVersion, r.migrations_executed = :migrationsExecuted, r.error = NULL,
+                r.duration_ms = :durationMs, r.finished_at = :finishedAt
+            FROM tenant_migration_results r
+            JOIN tenant_migration_runs run ON run.run_id = r.run_id
+            WHERE r.result_id = :resultId AND r.status = 'RUNNING' AND run.owned_by = :ownedBy
+            """, nativeQuery = true)
+    int markSucceeded(@Param("resultId") UUID resultId,
+                      @Param("ownedBy") String ownedBy,
+                      @Param("initialVersion") String initialVersion,
+                      @Param("targetVersion") String targetVersion,
+                      @Param("migrationsExecuted") Integer migrationsExecuted,
+                      @Param("durationMs") long durationMs,
+                      @Param("finishedAt") LocalDateTime finishedAt);
+
+    // Lỗi khi migrate hoặc quá thời gian chờ (kể cả tenant chưa kịp bắt đầu)
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE r SET r.status = 'FAILED', r.error = :error, r.duration_ms = :durationMs, r.finished_at = :finishedAt
+            FROM tenant_migration_results r
+            JOIN tenant_migration_runs run ON run.run_id = r.run_id
+            WHERE r.result_id = :resultId AND r.status IN ('PENDING', 'RUNNING') AND run.owned_by = :ownedBy
+            """, nativeQuery = true)
+    int markFailed(@Param("resultId") UUID resultId,
+                   @Param("ownedBy") String ownedBy,
+                   @Param("error") String error,
+                   @Param("durationMs") long durationMs,
+                   @Param("finishedAt") LocalDateTime finishedAt);
+}
@@ -0,0 +1,58 @@
+package com.g127.snapbuy.tenant.repository;
+
+import com.g127.snapbuy.tenant.entity.TenantMigrationRun;
+import com.g127.snapbuy.tenant.entity.TenantMigrationRun.RunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TenantMigrationRunRepository extends JpaRepository<TenantMigrationRun, UUID> {
+    boolean existsByStatus(RunStatus status);
+    List<TenantMigrationRun> findTop20ByOrderByStartedAtDesc();
+
+    // Nhận đợt để chạy tiếp bằng một câu UPDATE có điều kiện: đợt FAILED, hoặc đợt RUNNING mà node chạy
+    // không cập nhật heartbeat từ trước :staleBefore; hai node cùng chạy tiếp một đợt thì chỉ một node nhận được
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE tenant_migration_runs
+            SET status = 'RUNNING', owned_by = :ownedBy, heartbeat_at = :now, finished_at = NULL
+            WHERE run_id = :runId
+              AND (status = 'FAILED'
+                   OR (status = 'RUNNING' AND (heartbeat_at IS NULL OR heartbeat_at < :staleBefore)))
+            """, nativeQuery = true)
+    int claim(@Param("runId") UUID runId,
+              @Param("ownedBy") String ownedBy,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE tenant_migration_runs SET heartbeat_at = :now
+            WHERE run_id = :runId AND owned_by = :ownedBy
+            """, nativeQuery = true)
+    int heartbeat(@Param("runId") UUID runId,
+                  @Param("ownedBy") String ownedBy,
+                  @Param("now") LocalDateTime now);
+
+    // Kết thúc đợt chỉ khi node này vẫn giữ đợt (node khác đã nhận lại thì không ghi đè)
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE tenant_migration_runs SET status = :status, finished_at = :finishedAt
+            WHERE run_id = :runId AND owned_by = :ownedBy AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int finish(@Param("runId") UUID runId,
+               @Param("ownedBy") String ownedBy,
+               @Param("status") String status,
+               @Param("finishedAt") LocalDateTime finishedAt);
+}
@@ -4,6 +4,7 @@ import com.g127.snapbuy.tenant.entity.TenantOwner;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,6 +13,7 @@ import java.util.UUID;
 public interface TenantOwnerRepository extends JpaRepository<TenantOwner, UUID> {
     Optional<TenantOwner> findByUsername(String username);
     List<TenantOwner> findByTenantId(UUID tenantId);
+    List<TenantOwner> findByTenantIdIn(Collection<UUID> tenantIds);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByPhone(String phone);
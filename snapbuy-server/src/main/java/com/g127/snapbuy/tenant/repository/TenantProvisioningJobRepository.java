@@ -0,0 +1,13 @@
+package com.g127.snapbuy.tenant.repository;
+
+import com.g127.snapbuy.tenant.entity.TenantProvisioningJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TenantProvisioningJobRepository extends JpaRepository<TenantProvisioningJob, UUID> {
+    Optional<TenantProvisioningJob> findByTenantId(UUID tenantId);
+}
@@ -0,0 +1,41 @@
+package com.g127.snapbuy.tenant.repository;
+
+import com.g127.snapbuy.tenant.entity.TenantSpareDatabase;
+import com.g127.snapbuy.tenant.entity.TenantSpareDatabase.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TenantSpareDatabaseRepository extends JpaRepository<TenantSpareDatabase, UUID> {
+
+    long countByDbHostAndDbPortAndStatusIn(String dbHost, Integer dbPort, Collection<Status> statuses);
+
+    Optional<TenantSpareDatabase> findByTenantId(UUID tenantId);
+
+    List<TenantSpareDatabase> findByStatusAndCreatedAtBefore(Status status, LocalDateTime createdAt);
+
+    // Nhận một database dựng sẵn cho tenant bằng một câu UPDATE: READPAST bỏ qua dòng node khác đang nhận,
+    // chạy trong transaction của caller nên việc nhận bị hủy nếu việc tạo tenant bị rollback
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE TOP (1) s
+            SET s.status = 'CLAIMED', s.tenant_id = :tenantId, s.claimed_at = :now
+            FROM tenant_spare_databases s WITH (UPDLOCK, READPAST, ROWLOCK)
+            WHERE s.status = 'READY' AND s.db_host = :dbHost AND s.db_port = :dbPort
+            """, nativeQuery = true)
+    int claim(@Param("tenantId") UUID tenantId,
+              @Param("dbHost") String dbHost,
+              @Param("dbPort") Integer dbPort,
+              @Param("now") LocalDateTime now);
+}
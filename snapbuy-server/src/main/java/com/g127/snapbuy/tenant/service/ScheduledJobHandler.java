@@ -0,0 +1,20 @@
+package com.g127.snapbuy.tenant.service;
+
+import com.g127.snapbuy.tenant.entity.ScheduledJob;
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Xử lý các job của ScheduledJobService; handle được gọi khi TenantContext đã trỏ tới tenant của job
+ */
+public interface ScheduledJobHandler {
+
+    Set<JobType> getJobTypes();
+
+    /**
+     * @return thời điểm chạy lần sau với job định kỳ, null nếu job đã xong
+     */
+    LocalDateTime handle(ScheduledJob job);
+}
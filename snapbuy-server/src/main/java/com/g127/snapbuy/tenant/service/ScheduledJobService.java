@@ -0,0 +1,30 @@
+package com.g127.snapbuy.tenant.service;
+
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Hàng đợi công việc hẹn giờ lưu trong bảng scheduled_jobs (master DB), dùng chung cho mọi instance.
+ * Job được chạy trong TenantContext của tenant đã lên lịch, bởi ScheduledJobHandler khai báo loại job đó.
+ */
+public interface ScheduledJobService {
+
+    /**
+     * Lên lịch (hoặc dời lịch) job của tenant hiện tại; mỗi (loại, đối tượng) chỉ có một lịch
+     */
+    void schedule(JobType jobType, UUID referenceId, LocalDateTime runAt);
+
+    /**
+     * Hủy job của tenant hiện tại nếu có
+     */
+    void cancel(JobType jobType, UUID referenceId);
+
+    /**
+     * Nhận một lô job đến hạn (lease) và chạy chúng
+     *
+     * @return số job đã nhận
+     */
+    int runDueJobs();
+}
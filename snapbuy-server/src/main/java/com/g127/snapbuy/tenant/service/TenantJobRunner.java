@@ -0,0 +1,86 @@
+package com.g127.snapbuy.tenant.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Chạy một tác vụ nền cho nhiều tenant song song (có giới hạn số tenant chạy cùng lúc).
+ * Mỗi tenant chạy trên luồng riêng với TenantContext đã được đặt, có thời gian chờ tối đa riêng;
+ * tenant lỗi hoặc chậm không chặn các tenant khác.
+ */
+public interface TenantJobRunner {
+
+    /**
+     * Chạy tác vụ cho tất cả tenant đang hoạt động và chờ đến khi mọi tenant xong hoặc hết thời gian chờ
+     */
+    TenantJobReport runForActiveTenants(String jobName, Runnable task);
+
+    /**
+     * Chạy tác vụ cho các tenant được chỉ định và chờ đến khi mọi tenant xong hoặc hết thời gian chờ
+     */
+    TenantJobReport run(String jobName, Collection<String> tenantIds, Runnable task);
+
+    /**
+     * Như {@link #run(String, Collection, Runnable)} nhưng với giới hạn song song và thời gian chờ riêng
+     * (tác vụ nặng như migration cần nhiều thời gian hơn và ít tenant chạy cùng lúc hơn)
+     */
+    TenantJobReport run(String jobName, Collection<String> tenantIds, int parallelism, long tenantTimeoutMs,
+                        Runnable task);
+
+    /**
+     * Số liệu theo tác vụ trên máy chủ này từ lúc khởi động
+     */
+    List<JobStats> getStats();
+
+    enum Status {
+        SUCCEEDED,
+        FAILED,
+        TIMED_OUT
+    }
+
+    /**
+     * Kết quả của một tenant
+     */
+    @Getter
+    @AllArgsConstructor
+    class TenantRun {
+        private final String tenantId;
+        private final Status status;
+        private final long durationMs;
+        private final String error;
+    }
+
+    /**
+     * Kết quả một lần chạy: thời gian tổng và kết quả từng tenant
+     */
+    @Getter
+    @AllArgsConstructor
+    class TenantJobReport {
+        private final String jobName;
+        private final long durationMs;
+        private final List<TenantRun> runs;
+
+        public long count(Status status) {
+            return runs.stream().filter(r -> r.getStatus() == status).count();
+        }
+    }
+
+    /**
+     * Thống kê của một tác vụ: số lần chạy, số lần chạy của từng tenant theo kết quả và thời gian của từng tenant
+     */
+    @Getter
+    @AllArgsConstructor
+    class JobStats {
+        private final String jobName;
+        private final long runs;
+        private final long tenantRuns;
+        private final long failed;
+        private final long timedOut;
+        private final long totalTenantDurationMs;
+        private final long maxTenantDurationMs;
+        private final long lastRunDurationMs;
+    }
+}
@@ -0,0 +1,28 @@
+package com.g127.snapbuy.tenant.service;
+
+import com.g127.snapbuy.tenant.dto.response.TenantMigrationRunResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Chạy Flyway migrations cho database của tất cả tenant song song (có giới hạn số tenant chạy cùng lúc).
+ * Tiến độ và lỗi của từng tenant được ghi vào master DB; đợt lỗi hoặc bị gián đoạn có thể chạy tiếp
+ * cho các tenant chưa thành công.
+ */
+public interface TenantMigrationService {
+
+    /**
+     * Tạo đợt migration mới cho các tenant đang hoạt động và chạy nền
+     */
+    TenantMigrationRunResponse startMigration(String startedBy);
+
+    /**
+     * Chạy tiếp một đợt: migrate lại các tenant chưa thành công
+     */
+    TenantMigrationRunResponse resumeMigration(UUID runId);
+
+    TenantMigrationRunResponse getRun(UUID runId);
+
+    List<TenantMigrationRunResponse> getRecentRuns();
+}
@@ -0,0 +1,20 @@
+package com.g127.snapbuy.tenant.service;
+
+import com.g127.snapbuy.tenant.dto.request.TenantCreateRequest;
+import com.g127.snapbuy.tenant.dto.response.TenantProvisioningResponse;
+
+import java.util.UUID;
+
+/**
+ * Tạo cửa hàng chạy nền: request chỉ ghi tenant, chủ cửa hàng và job vào master DB rồi trả về ngay;
+ * tạo database, chạy migrations, đồng bộ vai trò và tạo tài khoản chủ cửa hàng chạy trên executor riêng.
+ * Cửa hàng chỉ được kích hoạt khi mọi bước hoàn tất; job lỗi có thể chạy tiếp từ bước lỗi.
+ */
+public interface TenantProvisioningService {
+
+    TenantProvisioningResponse startProvisioning(TenantCreateRequest request, String requestedBy);
+
+    TenantProvisioningResponse resumeProvisioning(UUID jobId);
+
+    TenantProvisioningResponse getJob(UUID jobId);
+}
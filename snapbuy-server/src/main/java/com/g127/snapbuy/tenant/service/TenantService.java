@@ -9,6 +9,11 @@ import java.util.UUID;
 
 public interface TenantService {
     TenantResponse createTenant(TenantCreateRequest request);
+
+    /**
+     * Kiểm tra mã cửa hàng và thông tin chủ cửa hàng chưa bị sử dụng
+     */
+    void validateNewTenant(TenantCreateRequest request);
     TenantResponse getTenant(UUID tenantId);
     List<TenantResponse> getAllTenants();
     TenantResponse updateTenant(UUID tenantId, TenantUpdateRequest request);
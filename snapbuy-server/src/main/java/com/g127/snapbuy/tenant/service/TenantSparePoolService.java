@@ -0,0 +1,35 @@
+package com.g127.snapbuy.tenant.service;
+
+import com.g127.snapbuy.tenant.entity.Tenant;
+
+/**
+ * Nhóm database tenant dựng sẵn (đã tạo, đã migrate, đã có vai trò) trên máy chủ database mặc định.
+ * Cửa hàng mới nhận một database trong nhóm thay vì CREATE DATABASE và chạy toàn bộ migrations;
+ * nhóm được bổ sung nền khi số database sẵn sàng thấp hơn kích thước cấu hình.
+ */
+public interface TenantSparePoolService {
+
+    /**
+     * Nhận một database dựng sẵn cho tenant (đã lưu, có tenantId) trong transaction master của caller.
+     * Nếu tenant chưa có dbName, tenant được gán tên database nhận được.
+     * @return false nếu nhóm trống hoặc tenant không dùng máy chủ database mặc định
+     */
+    boolean claim(Tenant tenant);
+
+    /**
+     * Gắn database đã nhận vào tenant: đổi tên database theo dbName của tenant nếu khác (chạy lại được).
+     * @return false nếu tenant chưa nhận database dựng sẵn nào
+     */
+    boolean attach(Tenant tenant);
+
+    /**
+     * Trả database đã nhận về nhóm khi không gắn được vào tenant; database không còn tồn tại bị bỏ khỏi nhóm
+     */
+    void release(Tenant tenant);
+
+    /**
+     * Giao cho executor riêng việc dựng thêm một database khi nhóm chưa đủ kích thước
+     * @return true nếu đã giao việc, false nếu nhóm tắt hoặc lần dựng trước vẫn đang chạy
+     */
+    boolean topUp();
+}
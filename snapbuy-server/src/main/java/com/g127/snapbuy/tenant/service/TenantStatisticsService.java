@@ -0,0 +1,32 @@
+package com.g127.snapbuy.tenant.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Thống kê từng tenant (số người dùng, số sản phẩm, doanh thu) cho trang quản trị cửa hàng.
+ * Mỗi tenant được đếm bằng một truy vấn gộp, các tenant chạy song song và kết quả được cache trong thời gian ngắn.
+ */
+public interface TenantStatisticsService {
+
+    /**
+     * Thống kê của các tenant; tenant không đọc được (DB lỗi, quá thời gian chờ) không có trong kết quả
+     */
+    Map<UUID, TenantStats> getStats(Collection<UUID> tenantIds);
+
+    void evict(UUID tenantId);
+
+    @Getter
+    @AllArgsConstructor
+    class TenantStats {
+        public static final TenantStats EMPTY = new TenantStats(0, 0, 0L);
+
+        private final int userCount;
+        private final int productCount;
+        private final long revenue;
+    }
+}
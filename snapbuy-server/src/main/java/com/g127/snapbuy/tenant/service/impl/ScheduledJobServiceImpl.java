@@ -0,0 +1,209 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.entity.ScheduledJob;
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+import com.g127.snapbuy.tenant.repository.ScheduledJobRepository;
+import com.g127.snapbuy.tenant.service.ScheduledJobHandler;
+import com.g127.snapbuy.tenant.service.ScheduledJobService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hàng đợi job hẹn giờ trên bảng scheduled_jobs.
+ * Mỗi lần poll, node nhận một lô job đến hạn bằng một câu UPDATE ghi lease (locked_by, locked_until),
+ * nên mỗi job chỉ do một node chạy; node chết giữa chừng thì job được node khác nhận lại khi lease hết hạn.
+ * Job lỗi được chạy lại sau retry-delay-ms * số lần lỗi, quá max-attempts thì bỏ.
+ */
+@Service
+@Slf4j
+public class ScheduledJobServiceImpl implements ScheduledJobService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ScheduledJobRepository scheduledJobRepository;
+    private final ObjectProvider<ScheduledJobHandler> handlerProvider;
+    private final int batchSize;
+    private final long leaseMs;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final String nodeId;
+
+    private volatile Map<JobType, ScheduledJobHandler> handlers;
+
+    public ScheduledJobServiceImpl(ScheduledJobRepository scheduledJobRepository,
+                                   ObjectProvider<ScheduledJobHandler> handlerProvider,
+                                   @Value("${scheduled-jobs.batch-size:50}") int batchSize,
+                                   @Value("${scheduled-jobs.lease-ms:300000}") long leaseMs,
+                                   @Value("${scheduled-jobs.max-attempts:5}") int maxAttempts,
+                                   @Value("${scheduled-jobs.retry-delay-ms:60000}") long retryDelayMs) {
+        this.scheduledJobRepository = scheduledJobRepository;
+        this.handlerProvider = handlerProvider;
+        this.batchSize = Math.max(1, batchSize);
+        this.leaseMs = leaseMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = retryDelayMs;
+        String runtimeName = ManagementFactory.getRuntimeMXBean().getName();
+        this.nodeId = runtimeName.length() > 60 ? runtimeName.substring(0, 60) : runtimeName;
+    }
+
+    @Override
+    public void schedule(JobType jobType, UUID referenceId, LocalDateTime runAt) {
+        UUID tenantId = currentTenantId();
+        if (tenantId == null) {
+            log.warn("Bỏ qua lịch {} cho {}: không có tenant context", jobType, referenceId);
+            return;
+        }
+        // Upsert nguyên tử: nhiều node cùng lên lịch một job không đụng ràng buộc unique
+        scheduledJobRepository.upsertJob(tenantId, jobType.name(), referenceId, runAt);
+    }
+
+    @Override
+    public void cancel(JobType jobType, UUID referenceId) {
+        UUID tenantId = currentTenantId();
+        if (tenantId == null || referenceId == null) {
+            return;
+        }
+        scheduledJobRepository.deleteByKey(tenantId, jobType, referenceId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${scheduled-jobs.poll-interval-ms:15000}")
+    public int runDueJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        String lockedBy = nodeId + "/" + UUID.randomUUID();
+        List<ScheduledJob> jobs;
+        try {
+            int claimed = scheduledJobRepository.claimDue(lockedBy, now.plus(Duration.ofMillis(leaseMs)), now, batchSize);
+            if (claimed == 0) {
+                return 0;
+            }
+            jobs = scheduledJobRepository.findByLockedByOrderByRunAtAsc(lockedBy);
+        } catch (Exception e) {
+            log.error("Failed to claim scheduled jobs: {}", e.getMessage(), e);
+            return 0;
+        }
+
+        for (ScheduledJob job : jobs) {
+            try {
+                run(job, lockedBy);
+            } catch (Exception e) {
+                // Lỗi khi ghi kết quả: job được nhận lại khi lease hết hạn
+                log.error("Failed to finish scheduled job {} ({}): {}", job.getJobId(), job.getJobType(), e.getMessage(), e);
+            }
+        }
+        return jobs.size();
+    }
+
+    /**
+     * Tạo job chạy cho cả tenant còn thiếu (tenant mới, tenant có trước khi có bảng scheduled_jobs)
+     */
+    @Scheduled(initialDelayString = "${scheduled-jobs.poll-interval-ms:15000}",
+            fixedDelayString = "${scheduled-jobs.seed-interval-ms:3600000}")
+    public void seedTenantJobs() {
+        for (JobType jobType : JobType.values()) {
+            if (!jobType.isTenantWide()) continue;
+            try {
+                int created = scheduledJobRepository.insertMissingTenantJobs(jobType.name(), LocalDateTime.now());
+                if (created > 0) {
+                    log.info("Created {} {} jobs for tenants without one", created, jobType);
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Node khác vừa tạo cùng lúc, lần sau sẽ không còn thiếu
+                log.debug("Tenant jobs {} were created concurrently: {}", jobType, e.getMessage());
+            } catch (Exception e) {
+                log.error("Failed to create {} jobs: {}", jobType, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void run(ScheduledJob job, String lockedBy) {
+        ScheduledJobHandler handler = handlers().get(job.getJobType());
+        if (handler == null) {
+            fail(job, lockedBy, new IllegalStateException("Không có handler cho job " + job.getJobType()));
+            return;
+        }
+
+        LocalDateTime nextRunAt;
+        String previousTenant = TenantContext.getCurrentTenant();
+        try {
+            TenantContext.setCurrentTenant(job.getTenantId().toString());
+            nextRunAt = handler.handle(job);
+        } catch (Exception e) {
+            fail(job, lockedBy, e);
+            return;
+        } finally {
+            if (previousTenant != null) {
+                TenantContext.setCurrentTenant(previousTenant);
+            } else {
+                TenantContext.clear();
+            }
+        }
+
+        if (nextRunAt == null) {
+            scheduledJobRepository.deleteLeased(job.getJobId(), lockedBy);
+        } else {
+            scheduledJobRepository.releaseLeased(job.getJobId(), lockedBy, nextRunAt, 0, null);
+        }
+    }
+
+    private void fail(ScheduledJob job, String lockedBy, Exception e) {
+        int attempts = (job.getAttempts() != null ? job.getAttempts() : 0) + 1;
+        if (attempts >= maxAttempts) {
+            log.error("Scheduled job {} ({}, tenant {}, ref {}) failed {} times, giving up: {}",
+                    job.getJobId(), job.getJobType(), job.getTenantId(), job.getReferenceId(), attempts, e.getMessage(), e);
+            scheduledJobRepository.deleteLeased(job.getJobId(), lockedBy);
+            return;
+        }
+        log.warn("Scheduled job {} ({}, tenant {}) failed, attempt {}/{}: {}",
+                job.getJobId(), job.getJobType(), job.getTenantId(), attempts, maxAttempts, e.getMessage());
+        String error = String.valueOf(e);
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        LocalDateTime retryAt = LocalDateTime.now().plus(Duration.ofMillis(retryDelayMs * attempts));
+        scheduledJobRepository.releaseLeased(job.getJobId(), lockedBy, retryAt, attempts, error);
+    }
+
+    // Handler được nạp lần đầu khi chạy job, tránh phụ thuộc vòng với các service vừa lên lịch vừa xử lý job
+    private Map<JobType, ScheduledJobHandler> handlers() {
+        Map<JobType, ScheduledJobHandler> result = handlers;
+        if (result == null) {
+            result = new EnumMap<>(JobType.class);
+            for (ScheduledJobHandler handler : handlerProvider.orderedStream().toList()) {
+                for (JobType jobType : handler.getJobTypes()) {
+                    ScheduledJobHandler previous = result.put(jobType, handler);
+                    if (previous != null && previous != handler) {
+                        throw new IllegalStateException("Job " + jobType + " có nhiều handler");
+                    }
+                }
+            }
+            handlers = result;
+        }
+        return result;
+    }
+
+    private static UUID currentTenantId() {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (tenantId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(tenantId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
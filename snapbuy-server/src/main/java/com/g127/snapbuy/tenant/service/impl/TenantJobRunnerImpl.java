@@ -0,0 +1,261 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.repository.TenantRepository;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mỗi tenant chạy trên một virtual thread; semaphore giới hạn số tenant chạy cùng lúc (số pool DB được mở cùng lúc).
+ * Watchdog đánh dấu TIMED_OUT và ngắt luồng của tenant quá tenant-timeout-ms. Chỗ chạy chỉ được trả khi luồng
+ * thực sự kết thúc, nên truy vấn không phản hồi việc ngắt vẫn giữ chỗ và số tenant chạy cùng lúc không vượt giới hạn;
+ * tenant chờ chỗ quá hai lần tenant-timeout-ms cũng bị đánh dấu TIMED_OUT mà không chạy, để lần chạy vẫn kết thúc.
+ * Thời gian và kết quả từng tenant được cộng dồn theo tên tác vụ ({@link #getStats()}).
+ */
+@Service
+@Slf4j
+public class TenantJobRunnerImpl implements TenantJobRunner {
+
+    private final TenantRepository tenantRepository;
+    private final int parallelism;
+    private final long tenantTimeoutMs;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService watchdog;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public TenantJobRunnerImpl(TenantRepository tenantRepository,
+                               @Value("${tenant.jobs.parallelism:8}") int parallelism,
+                               @Value("${tenant.jobs.tenant-timeout-ms:300000}") long tenantTimeoutMs) {
+        this.tenantRepository = tenantRepository;
+        this.parallelism = Math.max(1, parallelism);
+        this.tenantTimeoutMs = tenantTimeoutMs;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tenant-job-", 0).factory());
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "tenant-job-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.watchdog = scheduler;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Override
+    public TenantJobReport runForActiveTenants(String jobName, Runnable task) {
+        List<String> tenantIds = tenantRepository.findAll().stream()
+                .filter(t -> Boolean.TRUE.equals(t.getIsActive()))
+                .map(Tenant::getTenantId)
+                .map(Object::toString)
+                .toList();
+        return run(jobName, tenantIds, task);
+    }
+
+    @Override
+    public TenantJobReport run(String jobName, Collection<String> tenantIds, Runnable task) {
+        return run(jobName, tenantIds, parallelism, tenantTimeoutMs, task);
+    }
+
+    @Override
+    public TenantJobReport run(String jobName, Collection<String> tenantIds, int parallelism, long tenantTimeoutMs,
+                               Runnable task) {
+        long start = System.nanoTime();
+        List<String> tenants = List.copyOf(tenantIds);
+        TenantRun[] runs = new TenantRun[tenants.size()];
+        Semaphore permits = new Semaphore(Math.max(1, parallelism));
+        CountDownLatch done = new CountDownLatch(tenants.size());
+        Counters jobCounters = counters(jobName);
+
+        try {
+            // Tenant đang giữ chỗ có tenant-timeout-ms để chạy và thêm chừng ấy để thoát sau khi bị ngắt
+            long slotWaitMs = 2 * tenantTimeoutMs;
+            for (int i = 0; i < tenants.size(); i++) {
+                if (!permits.tryAcquire(slotWaitMs, TimeUnit.MILLISECONDS)) {
+                    // Các tenant trước vẫn giữ hết chỗ (truy vấn không phản hồi việc ngắt)
+                    new Slot(tenants.get(i), i, runs, permits, done, jobCounters)
+                            .finish(Status.TIMED_OUT, "Không có chỗ chạy sau " + slotWaitMs + " ms");
+                    continue;
+                }
+                Slot slot = new Slot(tenants.get(i), i, runs, permits, done, jobCounters);
+                Future<?> future = executor.submit(() -> slot.run(task));
+                slot.watch(watchdog.schedule(() -> slot.timeOut(future, tenantTimeoutMs),
+                        tenantTimeoutMs, TimeUnit.MILLISECONDS));
+            }
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Tenant job {} interrupted, {} tenants not finished", jobName, done.getCount());
+        }
+
+        List<TenantRun> result = Arrays.stream(runs)
+                .filter(Objects::nonNull)
+                .toList();
+        TenantJobReport report = new TenantJobReport(jobName, elapsedMs(start), result);
+        jobCounters.runs.increment();
+        jobCounters.lastRunMs = report.getDurationMs();
+        logReport(report);
+        return report;
+    }
+
+    @Override
+    public List<JobStats> getStats() {
+        return new TreeSet<>(counters.keySet()).stream()
+                .map(jobName -> {
+                    Counters c = counters.get(jobName);
+                    return new JobStats(jobName, c.runs.sum(), c.tenantRuns.sum(), c.failed.sum(), c.timedOut.sum(),
+                            c.totalTenantMs.sum(), c.maxTenantMs.get(), c.lastRunMs);
+                })
+                .toList();
+    }
+
+    private Counters counters(String jobName) {
+        return counters.computeIfAbsent(jobName, j -> new Counters());
+    }
+
+    private void logReport(TenantJobReport report) {
+        TenantRun slowest = report.getRuns().stream()
+                .max(Comparator.comparingLong(TenantRun::getDurationMs))
+                .orElse(null);
+        log.info("Tenant job {}: {} tenants in {} ms (succeeded {}, failed {}, timed out {}), slowest {} ({} ms)",
+                report.getJobName(), report.getRuns().size(), report.getDurationMs(),
+                report.count(Status.SUCCEEDED), report.count(Status.FAILED), report.count(Status.TIMED_OUT),
+                slowest != null ? slowest.getTenantId() : "-", slowest != null ? slowest.getDurationMs() : 0);
+        for (TenantRun run : report.getRuns()) {
+            if (run.getStatus() != Status.SUCCEEDED) {
+                log.warn("Tenant job {} {} for tenant {} after {} ms: {}",
+                        report.getJobName(), run.getStatus(), run.getTenantId(), run.getDurationMs(), run.getError());
+            }
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static final class Counters {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder tenantRuns = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder totalTenantMs = new LongAdder();
+        private final LongAccumulator maxTenantMs = new LongAccumulator(Long::max, 0);
+        private volatile long lastRunMs;
+
+        private void record(TenantRun run) {
+            tenantRuns.increment();
+            if (run.getStatus() == Status.FAILED) {
+                failed.increment();
+            } else if (run.getStatus() == Status.TIMED_OUT) {
+                timedOut.increment();
+            }
+            totalTenantMs.add(run.getDurationMs());
+            maxTenantMs.accumulate(run.getDurationMs());
+        }
+    }
+
+    /**
+     * Một tenant trong một lần chạy; kết quả chỉ được ghi một lần (hoàn tất hoặc hết thời gian chờ, cái nào đến trước).
+     * Chỗ chạy được trả khi luồng kết thúc, hoặc ngay khi hết thời gian chờ nếu tác vụ chưa kịp bắt đầu.
+     */
+    private static final class Slot {
+        private final String tenantId;
+        private final int index;
+        private final TenantRun[] runs;
+        private final Semaphore permits;
+        private final CountDownLatch done;
+        private final Counters counters;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timeout;
+
+        private Slot(String tenantId, int index, TenantRun[] runs, Semaphore permits, CountDownLatch done,
+                     Counters counters) {
+            this.tenantId = tenantId;
+            this.index = index;
+            this.runs = runs;
+            this.permits = permits;
+            this.done = done;
+            this.counters = counters;
+        }
+
+        private void run(Runnable task) {
+            if (!started.compareAndSet(false, true)) {
+                // Đã hết thời gian chờ trước khi kịp chạy, chỗ chạy đã được trả
+                return;
+            }
+            try {
+                TenantContext.setCurrentTenant(tenantId);
+                task.run();
+                finish(Status.SUCCEEDED, null);
+            } catch (Exception e) {
+                finish(Status.FAILED, String.valueOf(e));
+            } finally {
+                TenantContext.clear();
+                permits.release();
+            }
+        }
+
+        private void timeOut(Future<?> future, long tenantTimeoutMs) {
+            if (!finish(Status.TIMED_OUT, "Quá " + tenantTimeoutMs + " ms")) {
+                return;
+            }
+            if (started.compareAndSet(false, true)) {
+                permits.release();
+            } else {
+                future.cancel(true);
+            }
+        }
+
+        private void watch(ScheduledFuture<?> timeout) {
+            this.timeout = timeout;
+            if (finished.get()) {
+                timeout.cancel(false);
+            }
+        }
+
+        private boolean finish(Status status, String error) {
+            if (!finished.compareAndSet(false, true)) {
+                return false;
+            }
+            TenantRun run = new TenantRun(tenantId, status, elapsedMs(start), error);
+            runs[index] = run;
+            counters.record(run);
+            ScheduledFuture<?> pending = timeout;
+            if (pending != null && status != Status.TIMED_OUT) {
+                pending.cancel(false);
+            }
+            done.countDown();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.dto.response.TenantMigrationRunResponse;
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.entity.TenantMigrationResult;
+import com.g127.snapbuy.tenant.entity.TenantMigrationResult.Status;
+import com.g127.snapbuy.tenant.entity.TenantMigrationRun;
+import com.g127.snapbuy.tenant.entity.TenantMigrationRun.RunStatus;
+import com.g127.snapbuy.tenant.repository.TenantMigrationResultRepository;
+import com.g127.snapbuy.tenant.repository.TenantMigrationRunRepository;
+import com.g127.snapbuy.tenant.repository.TenantRepository;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.TenantJobReport;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.TenantRun;
+import com.g127.snapbuy.tenant.service.TenantMigrationService;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Đợt migration chạy trên executor riêng (mỗi node chỉ một đợt tại một thời điểm);
+ * các tenant được migrate song song qua TenantJobRunner với giới hạn và thời gian chờ riêng cho migration.
+ * Trạng thái từng tenant được ghi vào tenant_migration_results ngay khi bắt đầu và kết thúc,
+ * nên khi node chết giữa chừng, chạy tiếp sẽ migrate lại các tenant chưa thành công
+ * (Flyway bỏ qua các migration đã chạy).
+ * <p>
+ * Mỗi lần bắt đầu hoặc chạy tiếp, đợt được giữ bởi một lần chạy trên một node (owned_by) và node đó cập nhật heartbeat mỗi khi một tenant bắt đầu hoặc kết thúc;
+ * chạy tiếp phải nhận đợt bằng một câu UPDATE có điều kiện nên hai node không chạy cùng một đợt.
+ * Kết quả từng tenant chỉ được chuyển trạng thái bằng compare-and-set, nên tenant đã bị đánh dấu quá thời gian chờ
+ * không bị luồng migrate kết thúc muộn ghi đè thành SUCCEEDED.
+ */
+@Service
+@Slf4j
+public class TenantMigrationServiceImpl implements TenantMigrationService {
+
+    private static final String JOB_NAME = "tenant-migration";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final TenantRepository tenantRepository;
+    private final TenantMigrationRunRepository runRepository;
+    private final TenantMigrationResultRepository resultRepository;
+    private final TenantFlywayRunner flywayRunner;
+    private final TenantJobRunner tenantJobRunner;
+    private final TaskExecutor tenantMigrationExecutor;
+    private final int parallelism;
+    private final long tenantTimeoutMs;
+    private final String nodeId;
+
+    // Đợt đang chạy trên node này
+    private final AtomicReference<UUID> activeRun = new AtomicReference<>();
+
+    public TenantMigrationServiceImpl(TenantRepository tenantRepository,
+                                      TenantMigrationRunRepository runRepository,
+                                      TenantMigrationResultRepository resultRepository,
+                                      TenantFlywayRunner flywayRunner,
+                                      TenantJobRunner tenantJobRunner,
+                                      @Qualifier("tenantMigrationExecutor") TaskExecutor tenantMigrationExecutor,
+                                      @Value("${tenant.migration.parallelism:8}") int parallelism,
+                                      @Value("${tenant.migration.tenant-timeout-ms:1800000}") long tenantTimeoutMs) {
+        this.tenantRepository = tenantRepository;
+        this.runRepository = runRepository;
+        this.resultRepository = resultRepository;
+        this.flywayRunner = flywayRunner;
+        this.tenantJobRunner = tenantJobRunner;
+        this.tenantMigrationExecutor = tenantMigrationExecutor;
+        this.parallelism = Math.max(1, parallelism);
+        this.tenantTimeoutMs = tenantTimeoutMs;
+        String runtimeName = ManagementFactory.getRuntimeMXBean().getName();
+        this.nodeId = runtimeName.length() > 60 ? runtimeName.substring(0, 60) : runtimeName;
+    }
+
+    @Override
+    public TenantMigrationRunResponse startMigration(String startedBy) {
+        if (activeRun.get() != null || runRepository.existsByStatus(RunStatus.RUNNING)) {
+            throw new IllegalStateException("Đang có đợt migration chạy, hãy chờ hoặc chạy tiếp đợt đó");
+        }
+
+        List<UUID> tenantIds = tenantRepository.findAll().stream()
+                .filter(t -> Boolean.TRUE.equals(t.getIsActive()))
+                .map(Tenant::getTenantId)
+                .toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        TenantMigrationRun run;
+        try {
+            // Chỉ mục duy nhất trên đợt RUNNING chặn hai admin bắt đầu cùng lúc (kiểm tra ở trên không nguyên tử)
+            run = runRepository.saveAndFlush(TenantMigrationRun.builder()
+                    .status(RunStatus.RUNNING)
+                    .startedBy(startedBy)
+                    .totalTenants(tenantIds.size())
+                    .startedAt(now)
+                    .ownedBy(newOwner())
+                    .heartbeatAt(now)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Đang có đợt migration chạy, hãy chờ hoặc chạy tiếp đợt đó");
+        }
+        resultRepository.saveAll(tenantIds.stream()
+                .map(tenantId -> TenantMigrationResult.builder()
+                        .runId(run.getRunId())
+                        .tenantId(tenantId)
+                        .status(Status.PENDING)
+                        .build())
+                .toList());
+
+        log.info("Tenant migration run {} started by {} for {} tenants", run.getRunId(), startedBy, tenantIds.size());
+        dispatch(run);
+        return toResponse(run);
+    }
+
+    @Override
+    public TenantMigrationRunResponse resumeMigration(UUID runId) {
+        TenantMigrationRun run = findRun(runId);
+        if (run.getStatus() == RunStatus.COMPLETED) {
+            throw new IllegalStateException("Đợt migration đã hoàn tất");
+        }
+        if (activeRun.get() != null) {
+            throw new IllegalStateException("Đang có đợt migration chạy trên máy chủ này");
+        }
+
+        // Node chạy đợt còn sống thì heartbeat không cũ quá hai lần thời gian chờ của một tenant
+        // Người giữ mới cho mỗi lần chạy tiếp: luồng còn sót của lần chạy trước không ghi được kết quả
+        LocalDateTime now = LocalDateTime.now();
+        String owner = newOwner();
+        int claimed;
+        try {
+            claimed = runRepository.claim(runId, owner, now, now.minus(Duration.ofMillis(2 * tenantTimeoutMs)));
+        } catch (DataIntegrityViolationException e) {
+            // Chạy tiếp đợt FAILED trong khi một đợt khác đang RUNNING
+            throw new IllegalStateException("Đang có đợt migration khác chạy, hãy chờ đợt đó kết thúc");
+        }
+        if (claimed == 0) {
+            throw new IllegalStateException("Đợt migration đang chạy trên máy chủ khác");
+        }
+        run.setStatus(RunStatus.RUNNING);
+        run.setOwnedBy(owner);
+        run.setHeartbeatAt(now);
+        run.setFinishedAt(null);
+
+        // Tenant đang RUNNING của đợt bị gián đoạn cũng được chạy lại
+        List<TenantMigrationResult> unfinished = resultRepository.findByRunIdAndStatusIn(runId,
+                List.of(Status.RUNNING, Status.FAILED));
+        unfinished.forEach(result -> {
+            result.setStatus(Status.PENDING);
+            result.setError(null);
+        });
+        resultRepository.saveAll(unfinished);
+
+        log.info("Tenant migration run {} resumed, {} tenants to retry", runId, unfinished.size());
+        dispatch(run);
+        return toResponse(run);
+    }
+
+    @Override
+    public TenantMigrationRunResponse getRun(UUID runId) {
+        return toResponse(findRun(runId));
+    }
+
+    @Override
+    public List<TenantMigrationRunResponse> getRecentRuns() {
+        return runRepository.findTop20ByOrderByStartedAtDesc().stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    private void dispatch(TenantMigrationRun run) {
+        if (!activeRun.compareAndSet(null, run.getRunId())) {
+            finishRun(run, RunStatus.FAILED);
+            throw new IllegalStateException("Đang có đợt migration chạy trên máy chủ này");
+        }
+        try {
+            tenantMigrationExecutor.execute(() -> execute(run));
+        } catch (Exception e) {
+            activeRun.set(null);
+            log.error("Failed to dispatch tenant migration run {}: {}", run.getRunId(), e.getMessage(), e);
+            finishRun(run, RunStatus.FAILED);
+            throw new IllegalStateException("Không thể bắt đầu đợt migration: " + e.getMessage());
+        }
+    }
+
+    private void execute(TenantMigrationRun run) {
+        UUID runId = run.getRunId();
+        try {
+            Map<String, TenantMigrationResult> pending = resultRepository
+                    .findByRunIdAndStatusIn(runId, List.of(Status.PENDING)).stream()
+                    .collect(Collectors.toMap(r -> r.getTenantId().toString(), Function.identity()));
+
+            TenantJobReport report = tenantJobRunner.run(JOB_NAME, pending.keySet(), parallelism, tenantTimeoutMs,
+                    () -> migrateCurrentTenant(run, pending));
+
+            // Tenant quá thời gian chờ: luồng migrate có thể vẫn chạy nhưng không ghi đè được kết quả FAILED này
+            for (TenantRun tenantRun : report.getRuns()) {
+                if (tenantRun.getStatus() == TenantJobRunner.Status.TIMED_OUT) {
+                    resultRepository.markFailed(pending.get(tenantRun.getTenantId()).getResultId(), run.getOwnedBy(),
+                            truncate(tenantRun.getError()), tenantRun.getDurationMs(), LocalDateTime.now());
+                }
+            }
+
+            // Kết quả đợt lấy theo bảng kết quả (nguồn duy nhất), không theo báo cáo của runner
+            Map<Status, Long> counts = countByStatus(runId);
+            long succeeded = counts.getOrDefault(Status.SUCCEEDED, 0L);
+            long unfinished = counts.values().stream().mapToLong(Long::longValue).sum() - succeeded;
+            finishRun(run, unfinished == 0 ? RunStatus.COMPLETED : RunStatus.FAILED);
+            log.info("Tenant migration run {} finished in {} ms: {} migrated, {} failed",
+                    runId, report.getDurationMs(), succeeded, unfinished);
+        } catch (Exception e) {
+            log.error("Tenant migration run {} failed: {}", runId, e.getMessage(), e);
+            finishRun(run, RunStatus.FAILED);
+        } finally {
+            activeRun.compareAndSet(runId, null);
+        }
+    }
+
+    private void migrateCurrentTenant(TenantMigrationRun run, Map<String, TenantMigrationResult> pending) {
+        UUID runId = run.getRunId();
+        String owner = run.getOwnedBy();
+        String tenantId = TenantContext.getCurrentTenant();
+        UUID resultId = pending.get(tenantId).getResultId();
+        if (resultRepository.markRunning(resultId, owner, LocalDateTime.now()) == 0) {
+            // Đã bị đánh dấu quá thời gian chờ, hoặc đợt đã được node khác nhận lại
+            log.warn("Skipping tenant {} of migration run {}: result is no longer pending", tenantId, runId);
+            return;
+        }
+        runRepository.heartbeat(runId, owner, LocalDateTime.now());
+
+        long start = System.nanoTime();
+        try {
+            MigrateResult migrateResult = flywayRunner.runMigrations(tenantId);
+            if (resultRepository.markSucceeded(resultId, owner, migrateResult.initialSchemaVersion,
+                    migrateResult.targetSchemaVersion, migrateResult.migrationsExecuted, elapsedMs(start),
+                    LocalDateTime.now()) == 0) {
+                log.warn("Tenant {} of migration run {} finished after its result was closed, keeping the recorded result",
+                        tenantId, runId);
+            }
+        } catch (RuntimeException e) {
+            resultRepository.markFailed(resultId, owner, truncate(e.getMessage()), elapsedMs(start), LocalDateTime.now());
+            throw e;
+        } finally {
+            runRepository.heartbeat(runId, owner, LocalDateTime.now());
+        }
+    }
+
+    private void finishRun(TenantMigrationRun run, RunStatus status) {
+        LocalDateTime finishedAt = LocalDateTime.now();
+        if (runRepository.finish(run.getRunId(), run.getOwnedBy(), status.name(), finishedAt) == 0) {
+            log.warn("Tenant migration run {} was taken over by another node, not marking it {}", run.getRunId(), status);
+            return;
+        }
+        run.setStatus(status);
+        run.setFinishedAt(finishedAt);
+    }
+
+    private String newOwner() {
+        return nodeId + "/" + UUID.randomUUID();
+    }
+
+    private TenantMigrationRun findRun(UUID runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new NoSuchElementException("Không tìm thấy đợt migration"));
+    }
+
+    private Map<Status, Long> countByStatus(UUID runId) {
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        for (Object[] row : resultRepository.countByStatus(runId)) {
+            counts.put((Status) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private TenantMigrationRunResponse toResponse(TenantMigrationRun run) {
+        Map<Status, Long> counts = countByStatus(run.getRunId());
+        List<TenantMigrationRunResponse.FailedTenant> failures = counts.getOrDefault(Status.FAILED, 0L) == 0
+                ? List.of()
+                : resultRepository.findByRunIdAndStatusIn(run.getRunId(), List.of(Status.FAILED)).stream()
+                .map(r -> TenantMigrationRunResponse.FailedTenant.builder()
+                        .tenantId(r.getTenantId().toString())
+                        .error(r.getError())
+                        .finishedAt(r.getFinishedAt())
+                        .build())
+                .toList();
+
+        return TenantMigrationRunResponse.builder()
+                .runId(run.getRunId().toString())
+                .status(run.getStatus().name())
+                .startedBy(run.getStartedBy())
+                .totalTenants(run.getTotalTenants())
+                .pending(counts.getOrDefault(Status.PENDING, 0L))
+                .running(counts.getOrDefault(Status.RUNNING, 0L))
+                .succeeded(counts.getOrDefault(Status.SUCCEEDED, 0L))
+                .failed(counts.getOrDefault(Status.FAILED, 0L))
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .failures(failures)
+                .build();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,390 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.admin.service.MasterRoleService;
+import com.g127.snapbuy.common.utils.VietnameseUtils;
+import com.g127.snapbuy.tenant.config.TenantDataSourceFactory;
+import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
+import com.g127.snapbuy.tenant.config.TenantRoutingDataSource;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.dto.request.TenantCreateRequest;
+import com.g127.snapbuy.tenant.dto.response.TenantProvisioningResponse;
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.entity.TenantOwner;
+import com.g127.snapbuy.tenant.entity.TenantProvisioningJob;
+import com.g127.snapbuy.tenant.entity.TenantProvisioningJob.Stage;
+import com.g127.snapbuy.tenant.entity.TenantProvisioningJob.Status;
+import com.g127.snapbuy.tenant.repository.TenantOwnerRepository;
+import com.g127.snapbuy.tenant.repository.TenantProvisioningJobRepository;
+import com.g127.snapbuy.tenant.repository.TenantRepository;
+import com.g127.snapbuy.tenant.service.TenantProvisioningService;
+import com.g127.snapbuy.tenant.service.TenantService;
+import com.g127.snapbuy.tenant.service.TenantSparePoolService;
+import com.g127.snapbuy.common.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Mỗi bước của job đều chạy lại được (tạo database nếu chưa có, Flyway bỏ qua migration đã chạy,
+ * vai trò và tài khoản chủ cửa hàng chỉ thêm khi còn thiếu), nên khi lỗi hoặc node chết giữa chừng,
+ * chạy tiếp sẽ bắt đầu lại từ bước cuối cùng chưa hoàn tất.
+ * Mật khẩu chủ cửa hàng chỉ được lưu dạng đã mã hóa trong master DB; job dùng lại chuỗi mã hóa đó cho database tenant.
+ */
+@Service
+@Slf4j
+public class TenantProvisioningServiceImpl implements TenantProvisioningService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Pattern DB_NAME_PATTERN = Pattern.compile("^[A-Za-z0-9_]{1,100}$");
+
+    private final TenantRepository tenantRepository;
+    private final TenantOwnerRepository tenantOwnerRepository;
+    private final TenantProvisioningJobRepository jobRepository;
+    private final TenantService tenantService;
+    private final PasswordEncoder passwordEncoder;
+    private final TenantRoutingDataSource tenantRoutingDataSource;
+    private final TenantDataSourceFactory dataSourceFactory;
+    private final TenantFlywayRunner flywayRunner;
+    private final MasterRoleService masterRoleService;
+    private final TaskExecutor tenantProvisioningExecutor;
+    private final TenantSparePoolService sparePoolService;
+
+    // Job đang chạy trên node này
+    private final Set<UUID> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public TenantProvisioningServiceImpl(TenantRepository tenantRepository,
+                                         TenantOwnerRepository tenantOwnerRepository,
+                                         TenantProvisioningJobRepository jobRepository,
+                                         TenantService tenantService,
+                                         PasswordEncoder passwordEncoder,
+                                         @Qualifier("tenantDataSource") DataSource tenantDataSource,
+                                         TenantDataSourceFactory dataSourceFactory,
+                                         TenantFlywayRunner flywayRunner,
+                                         MasterRoleService masterRoleService,
+                                         @Qualifier("tenantProvisioningExecutor") TaskExecutor tenantProvisioningExecutor,
+                                         TenantSparePoolService sparePoolService) {
+        this.tenantRepository = tenantRepository;
+        this.tenantOwnerRepository = tenantOwnerRepository;
+        this.jobRepository = jobRepository;
+        this.tenantService = tenantService;
+        this.passwordEncoder = passwordEncoder;
+        this.tenantRoutingDataSource = (TenantRoutingDataSource) tenantDataSource;
+        this.dataSourceFactory = dataSourceFactory;
+        this.flywayRunner = flywayRunner;
+        this.masterRoleService = masterRoleService;
+        this.tenantProvisioningExecutor = tenantProvisioningExecutor;
+        this.sparePoolService = sparePoolService;
+    }
+
+    @Override
+    @Transactional("masterTransactionManager")
+    public TenantProvisioningResponse startProvisioning(TenantCreateRequest request, String requestedBy) {
+        tenantService.validateNewTenant(request);
+
+        String dbName = (request.getDbName() != null && !request.getDbName().isBlank())
+                ? request.getDbName()
+                : null;
+
+        // Cửa hàng chưa hoạt động cho đến khi job hoàn tất
+        Tenant tenant = Tenant.builder()
+                .tenantName(request.getTenantName())
+                .tenantCode(request.getTenantCode())
+                .dbHost(request.getDbHost())
+                .dbPort(request.getDbPort())
+                .dbName(dbName)
+                .dbUsername(request.getDbUsername())
+                .dbPassword(request.getDbPassword())
+                .isActive(false)
+                .subscriptionStart(LocalDateTime.now())
+                .maxUsers(request.getMaxUsers())
+                .maxProducts(request.getMaxProducts())
+                .build();
+        if (dbName != null) {
+            if (!DB_NAME_PATTERN.matcher(dbName).matches()) {
+                throw new IllegalArgumentException("Tên cơ sở dữ liệu chỉ được chứa chữ, số và dấu gạch dưới.");
+            }
+            if (databaseExists(tenant)) {
+                throw new IllegalArgumentException("Cơ sở dữ liệu '" + dbName + "' đã tồn tại. Vui lòng sử dụng tên khác.");
+            }
+        }
+
+        tenant = tenantRepository.save(tenant);
+        // Nhận database dựng sẵn nếu có; không chỉ định tên thì cửa hàng dùng luôn tên database đó
+        sparePoolService.claim(tenant);
+        if (dbName == null) {
+            if (tenant.getDbName() == null) {
+                tenant.setDbName("SnapBuy_" + tenant.getTenantId().toString().replace("-", ""));
+            }
+            tenant = tenantRepository.save(tenant);
+        }
+
+        tenantOwnerRepository.save(TenantOwner.builder()
+                .tenantId(tenant.getTenantId())
+                .username(request.getOwnerUsername())
+                .passwordHash(passwordEncoder.encode(request.getOwnerPassword()))
+                .fullName(request.getOwnerFullName())
+                .email(request.getOwnerEmail())
+                .phone(request.getOwnerPhone())
+                .isActive(true)
+                .build());
+
+        LocalDateTime now = LocalDateTime.now();
+        TenantProvisioningJob job = jobRepository.save(TenantProvisioningJob.builder()
+                .tenantId(tenant.getTenantId())
+                .stage(Stage.REQUESTED)
+                .status(Status.RUNNING)
+                .attempts(0)
+                .requestedBy(requestedBy)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        log.info("Tenant provisioning job {} created for tenant {} ({})", job.getJobId(), tenant.getTenantCode(), tenant.getTenantId());
+        TenantProvisioningResponse response = toResponse(job, tenant);
+        dispatchAfterCommit(job.getJobId());
+        return response;
+    }
+
+    @Override
+    public TenantProvisioningResponse resumeProvisioning(UUID jobId) {
+        TenantProvisioningJob job = findJob(jobId);
+        if (job.getStatus() == Status.COMPLETED) {
+            throw new IllegalStateException("Cửa hàng đã được tạo xong");
+        }
+        if (activeJobs.contains(jobId)) {
+            throw new IllegalStateException("Job tạo cửa hàng đang chạy");
+        }
+
+        job.setStatus(Status.RUNNING);
+        job.setError(null);
+        job.setUpdatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        log.info("Tenant provisioning job {} resumed from stage {}", jobId, job.getStage());
+        TenantProvisioningResponse response = toResponse(job, tenantRepository.findById(job.getTenantId()).orElse(null));
+        dispatch(jobId);
+        return response;
+    }
+
+    @Override
+    public TenantProvisioningResponse getJob(UUID jobId) {
+        TenantProvisioningJob job = findJob(jobId);
+        return toResponse(job, tenantRepository.findById(job.getTenantId()).orElse(null));
+    }
+
+    // Chỉ chạy sau khi tenant, chủ cửa hàng và job đã được commit vào master DB
+    private void dispatchAfterCommit(UUID jobId) {
+        TransactionUtils.afterCommitOrNow(() -> dispatch(jobId));
+    }
+
+    private void dispatch(UUID jobId) {
+        try {
+            tenantProvisioningExecutor.execute(() -> run(jobId));
+        } catch (Exception e) {
+            // Hàng đợi đầy: job giữ nguyên bước hiện tại, quản trị viên chạy tiếp sau
+            log.warn("Tenant provisioning job {} rejected: {}", jobId, e.getMessage());
+            jobRepository.findById(jobId).ifPresent(job -> fail(job, "Hệ thống đang bận, vui lòng chạy tiếp sau: " + e.getMessage()));
+        }
+    }
+
+    void run(UUID jobId) {
+        if (!activeJobs.add(jobId)) {
+            return;
+        }
+        TenantProvisioningJob job = null;
+        try {
+            job = findJob(jobId);
+            Tenant tenant = tenantRepository.findById(job.getTenantId())
+                    .orElseThrow(() -> new NoSuchElementException("Không tìm thấy cửa hàng"));
+            job.setAttempts(job.getAttempts() + 1);
+            job = save(job);
+            String tenantId = tenant.getTenantId().toString();
+
+            if (job.getStage() == Stage.REQUESTED) {
+                if (!attachSpareDatabase(tenant)) {
+                    createDatabaseIfMissing(tenant);
+                }
+                job = advance(job, Stage.DB_CREATED);
+            }
+            if (job.getStage() != Stage.READY) {
+                // Tenant chưa hoạt động nên routing data source không tự mở pool
+                tenantRoutingDataSource.addTenantDataSource(tenantId, dataSourceFactory.create(tenant));
+            }
+            if (job.getStage() == Stage.DB_CREATED) {
+                flywayRunner.runMigrations(tenantId);
+                job = advance(job, Stage.MIGRATED);
+            }
+            if (job.getStage() == Stage.MIGRATED) {
+                masterRoleService.syncRolesToTenant(tenantId);
+                TenantOwner owner = tenantOwnerRepository.findByTenantId(tenant.getTenantId()).stream()
+                        .findFirst()
+                        .orElseThrow(() -> new NoSuchElementException("Không tìm thấy chủ cửa hàng"));
+                insertOwnerIfMissing(tenantId, owner);
+                job = advance(job, Stage.SEEDED);
+            }
+            if (job.getStage() == Stage.SEEDED) {
+                tenant.setIsActive(true);
+                tenantRepository.save(tenant);
+                job = advance(job, Stage.READY);
+            }
+
+            job.setStatus(Status.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            save(job);
+            log.info("Tenant {} provisioned after {} attempt(s)", tenant.getTenantCode(), job.getAttempts());
+        } catch (Exception e) {
+            log.error("Tenant provisioning job {} failed: {}", jobId, e.getMessage(), e);
+            if (job != null) {
+                fail(job, e.getMessage());
+            }
+        } finally {
+            activeJobs.remove(jobId);
+        }
+    }
+
+    // Database dựng sẵn đã có schema và vai trò; hai bước sau chỉ chạy bù phần còn thiếu
+    private boolean attachSpareDatabase(Tenant tenant) {
+        try {
+            return sparePoolService.attach(tenant);
+        } catch (RuntimeException e) {
+            log.warn("Could not attach spare database for tenant {}, creating a new one: {}", tenant.getTenantCode(), e.getMessage());
+            sparePoolService.release(tenant);
+            return false;
+        }
+    }
+
+    private TenantProvisioningJob advance(TenantProvisioningJob job, Stage stage) {
+        log.debug("Tenant provisioning job {}: {} -> {}", job.getJobId(), job.getStage(), stage);
+        job.setStage(stage);
+        return save(job);
+    }
+
+    private void fail(TenantProvisioningJob job, String error) {
+        job.setStatus(Status.FAILED);
+        job.setError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        save(job);
+    }
+
+    private TenantProvisioningJob save(TenantProvisioningJob job) {
+        job.setUpdatedAt(LocalDateTime.now());
+        return jobRepository.save(job);
+    }
+
+    private TenantProvisioningJob findJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new NoSuchElementException("Không tìm thấy job tạo cửa hàng"));
+    }
+
+    private static String serverUrl(Tenant tenant) {
+        return String.format("jdbc:sqlserver://%s:%d;databaseName=master;encrypt=false;trustServerCertificate=true",
+                tenant.getDbHost(), tenant.getDbPort());
+    }
+
+    boolean databaseExists(Tenant tenant) {
+        try (Connection conn = DriverManager.getConnection(serverUrl(tenant), tenant.getDbUsername(), tenant.getDbPassword());
+             PreparedStatement stmt = conn.prepareStatement("SELECT database_id FROM sys.databases WHERE name = ?")) {
+            stmt.setString(1, tenant.getDbName());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Không thể kết nối máy chủ cơ sở dữ liệu: " + e.getMessage(), e);
+        }
+    }
+
+    void createDatabaseIfMissing(Tenant tenant) throws SQLException {
+        if (databaseExists(tenant)) {
+            // Database đã được tạo ở lần chạy trước nhưng bước chưa kịp ghi lại
+            log.debug("Database '{}' already exists, continuing", tenant.getDbName());
+            return;
+        }
+        try (Connection conn = DriverManager.getConnection(serverUrl(tenant), tenant.getDbUsername(), tenant.getDbPassword());
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE DATABASE [" + tenant.getDbName() + "]");
+        }
+    }
+
+    void insertOwnerIfMissing(String tenantId, TenantOwner owner) throws SQLException {
+        String previousTenant = TenantContext.getCurrentTenant();
+        try {
+            TenantContext.setCurrentTenant(tenantId);
+            try (Connection conn = tenantRoutingDataSource.getConnection()) {
+                String accountId = findAccountId(conn, owner.getUsername());
+                if (accountId == null) {
+                    try (PreparedStatement insert = conn.prepareStatement(
+                            "INSERT INTO accounts (full_name, full_name_search, username, password_hash, email, phone, active) " +
+                                    "VALUES (?, ?, ?, ?, ?, ?, 1)")) {
+                        insert.setNString(1, owner.getFullName());
+                        insert.setNString(2, VietnameseUtils.normalizeForSearch(owner.getFullName()));
+                        insert.setString(3, owner.getUsername());
+                        insert.setString(4, owner.getPasswordHash());
+                        insert.setString(5, owner.getEmail());
+                        insert.setString(6, owner.getPhone() != null ? owner.getPhone() : "");
+                        insert.executeUpdate();
+                    }
+                    accountId = findAccountId(conn, owner.getUsername());
+                    if (accountId == null) {
+                        throw new IllegalStateException("Không tìm thấy account vừa tạo");
+                    }
+                }
+
+                // Gán vai trò "Chủ cửa hàng" nếu chưa có
+                try (PreparedStatement assign = conn.prepareStatement(
+                        "INSERT INTO account_roles (account_id, role_id) " +
+                                "SELECT ?, r.role_id FROM roles r WHERE r.role_name = N'Chủ cửa hàng' " +
+                                "AND NOT EXISTS (SELECT 1 FROM account_roles ar WHERE ar.account_id = ? AND ar.role_id = r.role_id)")) {
+                    assign.setString(1, accountId);
+                    assign.setString(2, accountId);
+                    assign.executeUpdate();
+                }
+            }
+        } finally {
+            if (previousTenant != null) {
+                TenantContext.setCurrentTenant(previousTenant);
+            } else {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    private static String findAccountId(Connection conn, String username) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT account_id FROM accounts WHERE username = ?")) {
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("account_id") : null;
+            }
+        }
+    }
+
+    private static TenantProvisioningResponse toResponse(TenantProvisioningJob job, Tenant tenant) {
+        return TenantProvisioningResponse.builder()
+                .jobId(job.getJobId().toString())
+                .tenantId(job.getTenantId().toString())
+                .tenantCode(tenant != null ? tenant.getTenantCode() : null)
+                .stage(job.getStage().name())
+                .status(job.getStatus().name())
+                .attempts(job.getAttempts())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -1,6 +1,12 @@
 package com.g127.snapbuy.tenant.service.impl;
 
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
 import com.g127.snapbuy.admin.service.MasterRoleService;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.utils.VietnameseUtils;
+import com.g127.snapbuy.product.service.ProductSearchIndexService;
+import com.g127.snapbuy.promotion.service.PromotionIndexService;
+import com.g127.snapbuy.tenant.config.TenantDataSourceFactory;
 import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
 import com.g127.snapbuy.tenant.config.TenantRoutingDataSource;
 import com.g127.snapbuy.tenant.context.TenantContext;
@@ -12,12 +18,15 @@ import com.g127.snapbuy.tenant.entity.TenantOwner;
 import com.g127.snapbuy.tenant.repository.TenantOwnerRepository;
 import com.g127.snapbuy.tenant.repository.TenantRepository;
 import com.g127.snapbuy.tenant.service.TenantService;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
+import com.g127.snapbuy.tenant.service.TenantSparePoolService;
+import com.g127.snapbuy.tenant.service.TenantStatisticsService;
+import com.g127.snapbuy.tenant.service.TenantStatisticsService.TenantStats;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,8 +40,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -45,8 +56,18 @@ public class TenantServiceImpl implements TenantService {
     private final DataSource tenantDataSource;
     private final TenantFlywayRunner flywayRunner;
     private final MasterRoleService masterRoleService;
+    private final AccountPrincipalCacheService principalCacheService;
+    private final ProductSearchIndexService productSearchIndexService;
+    private final PromotionIndexService promotionIndexService;
+    private final TenantDataSourceFactory dataSourceFactory;
+    private final TenantStatisticsService tenantStatisticsService;
+    private final TenantSparePoolService sparePoolService;
+    private final ReferenceDataCacheService referenceDataCacheService;
     
     private TenantRoutingDataSource tenantRoutingDataSource;
+
+    @Value("${tenant.datasource.idle-evict-ms:1800000}")
+    private long dataSourceIdleEvictMs = 1800000;
     
     public TenantServiceImpl(
             TenantRepository tenantRepository,
@@ -54,83 +75,73 @@ public class TenantServiceImpl implements TenantService {
             PasswordEncoder passwordEncoder,
             @Qualifier("tenantDataSource") DataSource tenantDataSource,
             TenantFlywayRunner flywayRunner,
-            MasterRoleService masterRoleService) {
+            MasterRoleService masterRoleService,
+            AccountPrincipalCacheService principalCacheService,
+            ProductSearchIndexService productSearchIndexService,
+            PromotionIndexService promotionIndexService,
+            TenantDataSourceFactory dataSourceFactory,
+            TenantStatisticsService tenantStatisticsService,
+            TenantSparePoolService sparePoolService,
+            ReferenceDataCacheService referenceDataCacheService) {
         this.tenantRepository = tenantRepository;
         this.tenantOwnerRepository = tenantOwnerRepository;
         this.passwordEncoder = passwordEncoder;
         this.tenantDataSource = tenantDataSource;
         this.masterRoleService = masterRoleService;
         this.flywayRunner = flywayRunner;
+        this.principalCacheService = principalCacheService;
+        this.productSearchIndexService = productSearchIndexService;
+        this.promotionIndexService = promotionIndexService;
+        this.dataSourceFactory = dataSourceFactory;
+        this.tenantStatisticsService = tenantStatisticsService;
+        this.sparePoolService = sparePoolService;
+        this.referenceDataCacheService = referenceDataCacheService;
     }
 
     @PostConstruct
     public void loadAllTenantDataSources() {
         // Chuyển đổi DataSource thành TenantRoutingDataSource
         this.tenantRoutingDataSource = (TenantRoutingDataSource) tenantDataSource;
-        
-        List<Tenant> tenants = tenantRepository.findAll();
-        int successCount = 0;
-        
-        for (Tenant tenant : tenants) {
-            if (tenant.getIsActive()) {
-                try {
-                    HikariDataSource dataSource = createDataSource(tenant);
-                    String tenantIdStr = tenant.getTenantId().toString();
-                    tenantRoutingDataSource.addTenantDataSource(tenantIdStr, dataSource);
-                    successCount++;
-                } catch (Exception e) {
-                    log.error("Failed to load datasource for tenant: {} (dbName={}) - {}", 
-                            tenant.getTenantCode(), tenant.getDbName(), e.getMessage(), e);
-                }
-            }
+
+        // Không mở pool cho mọi tenant khi khởi động: pool được tạo ở request đầu tiên của tenant
+        tenantRoutingDataSource.setDataSourceFactory(this::createDataSourceForTenantId);
+        log.info("Tenant datasources will be opened on first use (idle pools closed after {} ms)", dataSourceIdleEvictMs);
+    }
+
+    /**
+     * Đóng pool của các tenant không có request trong khoảng tenant.datasource.idle-evict-ms
+     */
+    @Scheduled(fixedDelayString = "${tenant.datasource.evict-interval-ms:60000}")
+    public void evictIdleTenantDataSources() {
+        if (tenantRoutingDataSource == null) return;
+        int evicted = tenantRoutingDataSource.evictIdle(dataSourceIdleEvictMs);
+        if (evicted > 0) {
+            log.info("Closed {} idle tenant datasources, {} still open",
+                    evicted, tenantRoutingDataSource.getOpenDataSourceCount());
         }
-        
-        log.info("Loaded {} tenant datasources", successCount);
     }
-    
-    private HikariDataSource createDataSource(Tenant tenant) {
-        String jdbcUrl = String.format(
-                "jdbc:sqlserver://%s:%d;databaseName=%s;encrypt=false;trustServerCertificate=true",
-                tenant.getDbHost(), tenant.getDbPort(), tenant.getDbName()
-        );
-        
-        HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(jdbcUrl);
-        config.setUsername(tenant.getDbUsername());
-        config.setPassword(tenant.getDbPassword());
-        config.setDriverClassName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
-        config.setConnectionTimeout(30000);
-        
-        return new HikariDataSource(config);
+
+    private DataSource createDataSourceForTenantId(String tenantId) {
+        UUID id;
+        try {
+            id = UUID.fromString(tenantId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return tenantRepository.findById(id)
+                .filter(t -> Boolean.TRUE.equals(t.getIsActive()))
+                .map(this::createDataSource)
+                .orElse(null);
+    }
+
+    private DataSource createDataSource(Tenant tenant) {
+        return dataSourceFactory.create(tenant);
     }
 
     @Override
     @Transactional("masterTransactionManager")
     public TenantResponse createTenant(TenantCreateRequest request) {
-
-        // Kiểm tra mã cửa hàng có bị trùng không
-        if (tenantRepository.existsByTenantCode(request.getTenantCode())) {
-            throw new IllegalArgumentException("Mã cửa hàng '" + request.getTenantCode() + "' đã được sử dụng. Vui lòng chọn mã khác.");
-        }
-        
-        // Kiểm tra tên đăng nhập chủ cửa hàng có bị trùng không
-        if (tenantOwnerRepository.existsByUsername(request.getOwnerUsername())) {
-            throw new IllegalArgumentException("Tên đăng nhập '" + request.getOwnerUsername() + "' đã tồn tại. Vui lòng chọn tên khác.");
-        }
-        
-        // Kiểm tra email chủ cửa hàng có bị trùng không
-        if (tenantOwnerRepository.existsByEmail(request.getOwnerEmail())) {
-            throw new IllegalArgumentException("Email '" + request.getOwnerEmail() + "' đã được đăng ký. Vui lòng sử dụng email khác.");
-        }
-        
-        // Kiểm tra số điện thoại chủ cửa hàng có bị trùng không (nếu có)
-        if (request.getOwnerPhone() != null && !request.getOwnerPhone().isEmpty()) {
-            if (tenantOwnerRepository.existsByPhone(request.getOwnerPhone())) {
-                throw new IllegalArgumentException("Số điện thoại '" + request.getOwnerPhone() + "' đã được đăng ký. Vui lòng sử dụng số khác.");
-            }
-        }
+        validateNewTenant(request);
 
         // Tạo tenant với dbName tự động nếu không được cung cấp
         String dbName = (request.getDbName() != null && !request.getDbName().isBlank()) 
@@ -152,17 +163,24 @@ public class TenantServiceImpl implements TenantService {
                 .build();
 
         tenant = tenantRepository.save(tenant);
+
+        // Nhận database dựng sẵn nếu có (dùng luôn tên database đó khi không chỉ định dbName)
+        boolean spareClaimed = sparePoolService.claim(tenant);
         
         // Auto-generate dbName from tenantId if not provided
         if (dbName == null) {
-            String generatedDbName = "SnapBuy_" + tenant.getTenantId().toString().replace("-", "");
-            tenant.setDbName(generatedDbName);
+            if (tenant.getDbName() == null) {
+                String generatedDbName = "SnapBuy_" + tenant.getTenantId().toString().replace("-", "");
+                tenant.setDbName(generatedDbName);
+            }
             tenant = tenantRepository.save(tenant);
         }
 
         // Tạo database cho tenant và thiết lập datasource
         try {
-            createTenantDatabase(tenant);
+            if (!spareClaimed || !attachSpareDatabase(tenant)) {
+                createTenantDatabase(tenant);
+            }
             setupTenantDataSource(tenant);
             
             // Chạy Flyway migrations cho database tenant
@@ -211,6 +229,32 @@ public class TenantServiceImpl implements TenantService {
         return toResponse(tenant, owner);
     }
 
+    @Override
+    @Transactional(value = "masterTransactionManager", readOnly = true)
+    public void validateNewTenant(TenantCreateRequest request) {
+        // Kiểm tra mã cửa hàng có bị trùng không
+        if (tenantRepository.existsByTenantCode(request.getTenantCode())) {
+            throw new IllegalArgumentException("Mã cửa hàng '" + request.getTenantCode() + "' đã được sử dụng. Vui lòng chọn mã khác.");
+        }
+        
+        // Kiểm tra tên đăng nhập chủ cửa hàng có bị trùng không
+        if (tenantOwnerRepository.existsByUsername(request.getOwnerUsername())) {
+            throw new IllegalArgumentException("Tên đăng nhập '" + request.getOwnerUsername() + "' đã tồn tại. Vui lòng chọn tên khác.");
+        }
+        
+        // Kiểm tra email chủ cửa hàng có bị trùng không
+        if (tenantOwnerRepository.existsByEmail(request.getOwnerEmail())) {
+            throw new IllegalArgumentException("Email '" + request.getOwnerEmail() + "' đã được đăng ký. Vui lòng sử dụng email khác.");
+        }
+        
+        // Kiểm tra số điện thoại chủ cửa hàng có bị trùng không (nếu có)
+        if (request.getOwnerPhone() != null && !request.getOwnerPhone().isEmpty()) {
+            if (tenantOwnerRepository.existsByPhone(request.getOwnerPhone())) {
+                throw new IllegalArgumentException("Số điện thoại '" + request.getOwnerPhone() + "' đã được đăng ký. Vui lòng sử dụng số khác.");
+            }
+        }
+    }
+
     @Override
     @Transactional(value = "masterTransactionManager", readOnly = true)
     public TenantResponse getTenant(UUID tenantId) {
@@ -228,12 +272,16 @@ public class TenantServiceImpl implements TenantService {
     @Transactional(value = "masterTransactionManager", readOnly = true)
     public List<TenantResponse> getAllTenants() {
         List<Tenant> tenants = tenantRepository.findAll();
+        List<UUID> tenantIds = tenants.stream().map(Tenant::getTenantId).toList();
+
+        // Chủ cửa hàng nạp một lần cho cả danh sách, thống kê các tenant đọc song song (có cache)
+        Map<UUID, TenantOwner> owners = tenantOwnerRepository.findByTenantIdIn(tenantIds).stream()
+                .collect(Collectors.toMap(TenantOwner::getTenantId, Function.identity(), (first, second) -> first));
+        Map<UUID, TenantStats> stats = tenantStatisticsService.getStats(tenantIds);
+
         return tenants.stream()
-                .map(tenant -> {
-                    TenantOwner owner = tenantOwnerRepository.findByTenantId(tenant.getTenantId())
-                            .stream().findFirst().orElse(null);
-                    return toResponse(tenant, owner);
-                })
+                .map(tenant -> toResponse(tenant, owners.get(tenant.getTenantId()),
+                        stats.getOrDefault(tenant.getTenantId(), TenantStats.EMPTY)))
                 .collect(Collectors.toList());
     }
 
@@ -245,6 +293,16 @@ public class TenantServiceImpl implements TenantService {
         
         tenant.setIsActive(isActive);
         tenant = tenantRepository.save(tenant);
+
+        if (!Boolean.TRUE.equals(isActive) && tenantRoutingDataSource != null) {
+            // Cửa hàng bị khóa: đóng pool để request sau không còn dùng được kết nối cũ
+            String tenantIdStr = tenantId.toString();
+            tenantRoutingDataSource.removeTenantDataSource(tenantIdStr);
+            principalCacheService.evictTenant(tenantIdStr);
+            referenceDataCacheService.evictTenant(tenantIdStr);
+            productSearchIndexService.evictTenant(tenantIdStr);
+            promotionIndexService.evictTenant(tenantIdStr);
+        }
         
         TenantOwner owner = tenantOwnerRepository.findByTenantId(tenantId).stream()
                 .findFirst()
@@ -262,7 +320,21 @@ public class TenantServiceImpl implements TenantService {
         
         // Cập nhật tên tenant
         tenant.setTenantName(request.getTenantName());
+        boolean poolChanged = false;
+        if (request.getDbPoolMaxSize() != null && !request.getDbPoolMaxSize().equals(tenant.getDbPoolMaxSize())) {
+            tenant.setDbPoolMaxSize(request.getDbPoolMaxSize());
+            poolChanged = true;
+        }
+        if (request.getDbPoolMinIdle() != null && !request.getDbPoolMinIdle().equals(tenant.getDbPoolMinIdle())) {
+            tenant.setDbPoolMinIdle(request.getDbPoolMinIdle());
+            poolChanged = true;
+        }
         tenant = tenantRepository.save(tenant);
+
+        if (poolChanged && tenantRoutingDataSource != null) {
+            // Pool sẽ được mở lại với kích thước mới ở request kế tiếp
+            tenantRoutingDataSource.removeTenantDataSource(tenant.getTenantId().toString());
+        }
         
         // Lấy và cập nhật thông tin chủ cửa hàng trong master database
         TenantOwner owner = tenantOwnerRepository.findByTenantId(tenantId).stream()
@@ -279,7 +351,7 @@ public class TenantServiceImpl implements TenantService {
             String tenantIdStr = tenant.getTenantId().toString();
             TenantContext.setCurrentTenant(tenantIdStr);
             
-            DataSource tenantDataSource = tenantRoutingDataSource.getResolvedDataSources().get(tenantIdStr);
+            DataSource tenantDataSource = tenantRoutingDataSource.resolveTenantDataSource(tenantIdStr);
             if (tenantDataSource != null) {
                 try (Connection conn = tenantDataSource.getConnection();
                      PreparedStatement stmt = conn.prepareStatement(
@@ -318,6 +390,11 @@ public class TenantServiceImpl implements TenantService {
                 tenantRoutingDataSource.removeTenantDataSource(tenantIdStr);
                 log.info("Removed datasource for tenant: {}", tenantIdStr);
             }
+            principalCacheService.evictTenant(tenantIdStr);
+            referenceDataCacheService.evictTenant(tenantIdStr);
+            productSearchIndexService.evictTenant(tenantIdStr);
+            promotionIndexService.evictTenant(tenantIdStr);
+            tenantStatisticsService.evict(tenantId);
             
             // Bước 2: Xóa database tenant
             dropTenantDatabase(tenant);
@@ -383,6 +460,19 @@ public class TenantServiceImpl implements TenantService {
         return toResponse(tenant, owner);
     }
 
+    /**
+     * Gắn database dựng sẵn đã nhận; lỗi thì trả database về nhóm để tạo database mới
+     */
+    private boolean attachSpareDatabase(Tenant tenant) {
+        try {
+            return sparePoolService.attach(tenant);
+        } catch (RuntimeException e) {
+            log.warn("Could not attach spare database for tenant {}, creating a new one: {}", tenant.getTenantCode(), e.getMessage());
+            sparePoolService.release(tenant);
+            return false;
+        }
+    }
+
     /**
      * Create tenant database
      */
@@ -430,7 +520,7 @@ public class TenantServiceImpl implements TenantService {
      * Thiết lập datasource cho tenant và thêm vào routing datasource
      */
     private void setupTenantDataSource(Tenant tenant) {
-        HikariDataSource dataSource = createDataSource(tenant);
+        DataSource dataSource = createDataSource(tenant);
         tenantRoutingDataSource.addTenantDataSource(tenant.getTenantId().toString(), dataSource);
     }
 
@@ -465,9 +555,10 @@ public class TenantServiceImpl implements TenantService {
                 
                 // Chèn tài khoản chủ cửa hàng
                 String insertAccountSql = String.format(
-                    "INSERT INTO accounts (full_name, username, password_hash, email, phone, active) " +
-                    "VALUES (N'%s', '%s', '%s', '%s', '%s', 1)",
+                    "INSERT INTO accounts (full_name, full_name_search, username, password_hash, email, phone, active) " +
+                    "VALUES (N'%s', N'%s', '%s', '%s', '%s', '%s', 1)",
                     request.getOwnerFullName().replace("'", "''"),
+                    VietnameseUtils.normalizeForSearch(request.getOwnerFullName()).replace("'", "''"),
                     request.getOwnerUsername(),
                     hashedPassword.replace("'", "''"),
                     request.getOwnerEmail(),
@@ -520,11 +611,12 @@ public class TenantServiceImpl implements TenantService {
     }
 
     private TenantResponse toResponse(Tenant tenant, TenantOwner owner) {
-        // Tính toán thống kê từ database tenant
-        int userCount = countUsersInTenant(tenant.getTenantId().toString());
-        int productCount = countProductsInTenant(tenant.getTenantId().toString());
-        long revenue = calculateRevenueInTenant(tenant.getTenantId().toString());
-        
+        TenantStats stats = tenantStatisticsService.getStats(List.of(tenant.getTenantId()))
+                .getOrDefault(tenant.getTenantId(), TenantStats.EMPTY);
+        return toResponse(tenant, owner, stats);
+    }
+
+    private TenantResponse toResponse(Tenant tenant, TenantOwner owner, TenantStats stats) {
         return TenantResponse.builder()
                 .tenantId(tenant.getTenantId().toString())
                 .tenantName(tenant.getTenantName())
@@ -537,113 +629,15 @@ public class TenantServiceImpl implements TenantService {
                 .subscriptionEnd(tenant.getSubscriptionEnd())
                 .maxUsers(tenant.getMaxUsers())
                 .maxProducts(tenant.getMaxProducts())
+                .dbPoolMaxSize(tenant.getDbPoolMaxSize())
+                .dbPoolMinIdle(tenant.getDbPoolMinIdle())
                 .ownerName(owner != null ? owner.getFullName() : null)
                 .ownerEmail(owner != null ? owner.getEmail() : null)
                 .ownerPhone(owner != null ? owner.getPhone() : null)
                 .storeName(tenant.getTenantName())
-                .userCount(userCount)
-                .productCount(productCount)
-                .revenue(revenue)
+                .userCount(stats.getUserCount())
+                .productCount(stats.getProductCount())
+                .revenue(stats.getRevenue())
                 .build();
     }
-    
-    /**
-     * Đếm số lượng người dùng trong database tenant
-     */
-    private int countUsersInTenant(String tenantId) {
-        String previousTenant = TenantContext.getCurrentTenant();
-        try {
-            TenantContext.setCurrentTenant(tenantId);
-            
-            javax.sql.DataSource dataSource = tenantRoutingDataSource.getCurrentDataSource();
-            try (Connection conn = dataSource.getConnection();
-                 Statement stmt = conn.createStatement()) {
-                
-                String query = "SELECT COUNT(*) as count FROM accounts WHERE active = 1";
-                ResultSet rs = stmt.executeQuery(query);
-                
-                if (rs.next()) {
-                    int count = rs.getInt("count");
-                    return count;
-                }
-                return 0;
-            }
-        } catch (Exception e) {
-            log.error("Error counting users for tenant {}: {}", tenantId, e.getMessage(), e);
-            return 0;
-        } finally {
-            if (previousTenant != null) {
-                com.g127.snapbuy.tenant.context.TenantContext.setCurrentTenant(previousTenant);
-            } else {
-                com.g127.snapbuy.tenant.context.TenantContext.clear();
-            }
-        }
-    }
-    
-    /**
-     * Đếm số lượng sản phẩm trong database tenant
-     */
-    private int countProductsInTenant(String tenantId) {
-        String previousTenant = TenantContext.getCurrentTenant();
-        try {
-            TenantContext.setCurrentTenant(tenantId);
-            
-            javax.sql.DataSource dataSource = tenantRoutingDataSource.getCurrentDataSource();
-            try (Connection conn = dataSource.getConnection();
-                 Statement stmt = conn.createStatement()) {
-                
-                String query = "SELECT COUNT(*) as count FROM products";
-                ResultSet rs = stmt.executeQuery(query);
-                
-                if (rs.next()) {
-                    int count = rs.getInt("count");
-                    return count;
-                }
-                return 0;
-            }
-        } catch (Exception e) {
-            log.error("Error counting products for tenant {}: {}", tenantId, e.getMessage(), e);
-            return 0;
-        } finally {
-            if (previousTenant != null) {
-                com.g127.snapbuy.tenant.context.TenantContext.setCurrentTenant(previousTenant);
-            } else {
-                com.g127.snapbuy.tenant.context.TenantContext.clear();
-            }
-        }
-    }
-    
-    /**
-     * Tính tổng doanh thu trong database tenant
-     */
-    private long calculateRevenueInTenant(String tenantId) {
-        String previousTenant = TenantContext.getCurrentTenant();
-        try {
-            TenantContext.setCurrentTenant(tenantId);
-            
-            javax.sql.DataSource dataSource = tenantRoutingDataSource.getCurrentDataSource();
-            try (Connection conn = dataSource.getConnection();
-                 Statement stmt = conn.createStatement()) {
-                
-                // Tính tổng từ tất cả đơn hàng (sử dụng cột order_status)
-                String query = "SELECT ISNULL(SUM(total_amount), 0) as total FROM orders";
-                ResultSet rs = stmt.executeQuery(query);
-                
-                if (rs.next()) {
-                    long revenue = rs.getLong("total");
-                    return revenue;
-                }
-                return 0L;
-            }
-        } catch (Exception e) {
-            log.error("Error calculating revenue for tenant {}: {}", tenantId, e.getMessage(), e);
-            return 0L;
-        } finally {
-            if (previousTenant != null) {
-                TenantContext.setCurrentTenant(previousTenant);
-            } else {
-                TenantContext.clear();
-            }
-        }
-    }
 }
@@ -0,0 +1,289 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.admin.service.MasterRoleService;
+import com.g127.snapbuy.tenant.config.TenantDataSourceFactory;
+import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
+import com.g127.snapbuy.tenant.config.TenantRoutingDataSource;
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.entity.TenantSpareDatabase;
+import com.g127.snapbuy.tenant.entity.TenantSpareDatabase.Status;
+import com.g127.snapbuy.tenant.repository.TenantSpareDatabaseRepository;
+import com.g127.snapbuy.tenant.service.TenantSparePoolService;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Database dựng sẵn được tạo trên máy chủ database mặc định (tenant.db.*), chạy migrations và đồng bộ vai trò
+ * qua routing data source với khóa tạm "spare-{id}", rồi đóng pool. Khi cửa hàng nhận, dòng trong
+ * tenant_spare_databases được đánh dấu CLAIMED trong cùng transaction tạo tenant; database được đổi tên theo
+ * tên cửa hàng yêu cầu (hoặc giữ tên sẵn có). Database PREPARING quá stale-after-ms (node chết khi đang dựng) bị xóa.
+ * Mỗi lượt kiểm tra dựng tối đa một database trên tenantSparePoolExecutor, không chạy trên luồng @Scheduled.
+ */
+@Service
+@Slf4j
+public class TenantSparePoolServiceImpl implements TenantSparePoolService {
+
+    private static final String SPARE_KEY_PREFIX = "spare-";
+
+    private final TenantSpareDatabaseRepository spareRepository;
+    private final TenantRoutingDataSource tenantRoutingDataSource;
+    private final TenantDataSourceFactory dataSourceFactory;
+    private final TenantFlywayRunner flywayRunner;
+    private final MasterRoleService masterRoleService;
+    private final TaskExecutor sparePoolExecutor;
+    private final int size;
+    private final long staleAfterMs;
+    private final String dbHost;
+    private final int dbPort;
+    private final String dbUsername;
+    private final String dbPassword;
+
+    public TenantSparePoolServiceImpl(TenantSpareDatabaseRepository spareRepository,
+                                      @Qualifier("tenantDataSource") DataSource tenantDataSource,
+                                      TenantDataSourceFactory dataSourceFactory,
+                                      TenantFlywayRunner flywayRunner,
+                                      MasterRoleService masterRoleService,
+                                      @Qualifier("tenantSparePoolExecutor") TaskExecutor sparePoolExecutor,
+                                      @Value("${tenant.spare-pool.size:0}") int size,
+                                      @Value("${tenant.spare-pool.stale-after-ms:3600000}") long staleAfterMs,
+                                      @Value("${tenant.db.host:localhost}") String dbHost,
+                                      @Value("${tenant.db.port:1433}") int dbPort,
+                                      @Value("${tenant.db.username:sa}") String dbUsername,
+                                      @Value("${tenant.db.password:}") String dbPassword) {
+        this.spareRepository = spareRepository;
+        this.tenantRoutingDataSource = (TenantRoutingDataSource) tenantDataSource;
+        this.dataSourceFactory = dataSourceFactory;
+        this.flywayRunner = flywayRunner;
+        this.masterRoleService = masterRoleService;
+        this.sparePoolExecutor = sparePoolExecutor;
+        this.size = Math.max(0, size);
+        this.staleAfterMs = staleAfterMs;
+        this.dbHost = dbHost;
+        this.dbPort = dbPort;
+        this.dbUsername = dbUsername;
+        this.dbPassword = dbPassword;
+    }
+
+    @Override
+    public boolean claim(Tenant tenant) {
+        if (size == 0 || !onDefaultServer(tenant)) {
+            return false;
+        }
+        if (spareRepository.claim(tenant.getTenantId(), dbHost, dbPort, LocalDateTime.now()) == 0) {
+            log.info("No spare tenant database available for {}", tenant.getTenantCode());
+            return false;
+        }
+        TenantSpareDatabase spare = spareRepository.findByTenantId(tenant.getTenantId())
+                .orElseThrow(() -> new NoSuchElementException("Không tìm thấy database dựng sẵn vừa nhận"));
+        if (tenant.getDbName() == null) {
+            tenant.setDbName(spare.getDbName());
+        }
+        log.info("Tenant {} claimed spare database {} (schema {})", tenant.getTenantCode(), spare.getDbName(), spare.getSchemaVersion());
+        return true;
+    }
+
+    @Override
+    public boolean attach(Tenant tenant) {
+        TenantSpareDatabase spare = spareRepository.findByTenantId(tenant.getTenantId()).orElse(null);
+        if (spare == null) {
+            return false;
+        }
+        if (!spare.getDbName().equals(tenant.getDbName())) {
+            try {
+                if (databaseExists(spare.getDbName())) {
+                    renameDatabase(spare.getDbName(), tenant.getDbName());
+                } else if (!databaseExists(tenant.getDbName())) {
+                    throw new IllegalStateException("Database dựng sẵn '" + spare.getDbName() + "' không còn tồn tại");
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Không thể đổi tên database dựng sẵn: " + e.getMessage(), e);
+            }
+            // Lần chạy lại sau khi đã đổi tên nhưng chưa ghi lại sẽ đi vào nhánh database đích đã tồn tại
+            spare.setDbName(tenant.getDbName());
+            spareRepository.save(spare);
+        }
+        return true;
+    }
+
+    @Override
+    public void release(Tenant tenant) {
+        spareRepository.findByTenantId(tenant.getTenantId()).ifPresent(spare -> {
+            boolean exists;
+            try {
+                exists = databaseExists(spare.getDbName());
+            } catch (SQLException e) {
+                exists = false;
+            }
+            if (!exists) {
+                // Database đã mất hoặc đã đổi tên: bỏ khỏi pool thay vì trả lại cho cửa hàng khác
+                log.warn("Spare database {} claimed by tenant {} no longer exists, removing it from the pool",
+                        spare.getDbName(), tenant.getTenantCode());
+                spareRepository.delete(spare);
+                return;
+            }
+            spare.setStatus(Status.READY);
+            spare.setTenantId(null);
+            spare.setClaimedAt(null);
+            spareRepository.save(spare);
+            log.warn("Released spare database {} claimed by tenant {}", spare.getDbName(), tenant.getTenantCode());
+        });
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${tenant.spare-pool.check-interval-ms:60000}",
+            fixedDelayString = "${tenant.spare-pool.check-interval-ms:60000}")
+    public boolean topUp() {
+        if (size == 0) {
+            return false;
+        }
+        try {
+            sparePoolExecutor.execute(this::prepareNext);
+            return true;
+        } catch (TaskRejectedException e) {
+            // Lần dựng trước vẫn đang chạy: bỏ qua lượt này
+            log.debug("Spare tenant database still being prepared, skipping this check");
+            return false;
+        }
+    }
+
+    boolean prepareNext() {
+        try {
+            removeStale();
+
+            long available = spareRepository.countByDbHostAndDbPortAndStatusIn(dbHost, dbPort,
+                    List.of(Status.PREPARING, Status.READY));
+            if (available >= size || !prepareSpare()) {
+                return false;
+            }
+            log.info("Prepared spare tenant database ({} available, target {})", available + 1, size);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to top up spare tenant databases: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private boolean prepareSpare() {
+        // Ghi PREPARING trước để node khác đếm cả database đang dựng
+        TenantSpareDatabase spare = spareRepository.save(TenantSpareDatabase.builder()
+                .dbHost(dbHost)
+                .dbPort(dbPort)
+                .dbName("SnapBuy_spare_" + UUID.randomUUID().toString().replace("-", ""))
+                .status(Status.PREPARING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        String key = SPARE_KEY_PREFIX + spare.getSpareId();
+        long start = System.currentTimeMillis();
+        try {
+            createDatabase(spare.getDbName());
+            tenantRoutingDataSource.addTenantDataSource(key, dataSourceFactory.create(toTenant(spare)));
+            MigrateResult result = flywayRunner.runMigrations(key);
+            masterRoleService.syncRolesToTenant(key);
+
+            spare.setSchemaVersion(result.targetSchemaVersion != null ? result.targetSchemaVersion : result.initialSchemaVersion);
+            spare.setStatus(Status.READY);
+            spare.setReadyAt(LocalDateTime.now());
+            spareRepository.save(spare);
+            log.debug("Spare database {} ready in {} ms", spare.getDbName(), System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to prepare spare database {}: {}", spare.getDbName(), e.getMessage(), e);
+            discard(spare);
+            return false;
+        } finally {
+            tenantRoutingDataSource.removeTenantDataSource(key);
+        }
+    }
+
+    private void removeStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000);
+        for (TenantSpareDatabase spare : spareRepository.findByStatusAndCreatedAtBefore(Status.PREPARING, cutoff)) {
+            log.warn("Removing spare database {} stuck in PREPARING since {}", spare.getDbName(), spare.getCreatedAt());
+            discard(spare);
+        }
+    }
+
+    private void discard(TenantSpareDatabase spare) {
+        try {
+            dropDatabase(spare.getDbName());
+            spareRepository.delete(spare);
+        } catch (Exception e) {
+            // Giữ dòng PREPARING để lần kiểm tra sau xóa lại
+            log.warn("Could not drop spare database {}: {}", spare.getDbName(), e.getMessage());
+        }
+    }
+
+    private boolean onDefaultServer(Tenant tenant) {
+        return dbHost.equalsIgnoreCase(tenant.getDbHost())
+                && tenant.getDbPort() != null && tenant.getDbPort() == dbPort
+                && dbUsername.equals(tenant.getDbUsername());
+    }
+
+    private Tenant toTenant(TenantSpareDatabase spare) {
+        return Tenant.builder()
+                .tenantCode("spare")
+                .dbHost(spare.getDbHost())
+                .dbPort(spare.getDbPort())
+                .dbName(spare.getDbName())
+                .dbUsername(dbUsername)
+                .dbPassword(dbPassword)
+                .dbPoolMaxSize(2)
+                .dbPoolMinIdle(0)
+                .build();
+    }
+
+    private Connection serverConnection() throws SQLException {
+        String url = String.format("jdbc:sqlserver://%s:%d;databaseName=master;encrypt=false;trustServerCertificate=true",
+                dbHost, dbPort);
+        return DriverManager.getConnection(url, dbUsername, dbPassword);
+    }
+
+    boolean databaseExists(String dbName) throws SQLException {
+        try (Connection conn = serverConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT database_id FROM sys.databases WHERE name = ?")) {
+            stmt.setString(1, dbName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    void createDatabase(String dbName) throws SQLException {
+        try (Connection conn = serverConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE DATABASE [" + dbName + "]");
+        }
+    }
+
+    void renameDatabase(String from, String to) throws SQLException {
+        try (Connection conn = serverConnection(); Statement stmt = conn.createStatement()) {
+            // Ngắt các kết nối còn mở (pool dùng chung có thể còn giữ catalog cũ) trước khi đổi tên
+            stmt.executeUpdate("ALTER DATABASE [" + from + "] SET SINGLE_USER WITH ROLLBACK IMMEDIATE");
+            stmt.executeUpdate("ALTER DATABASE [" + from + "] MODIFY NAME = [" + to + "]");
+            stmt.executeUpdate("ALTER DATABASE [" + to + "] SET MULTI_USER");
+        }
+    }
+
+    void dropDatabase(String dbName) throws SQLException {
+        try (Connection conn = serverConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP DATABASE IF EXISTS [" + dbName + "]");
+        }
+    }
+}
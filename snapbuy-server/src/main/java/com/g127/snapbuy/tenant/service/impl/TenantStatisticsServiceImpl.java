@@ -0,0 +1,116 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
+import com.g127.snapbuy.tenant.service.TenantStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache thống kê theo tenant với TTL; các tenant chưa có hoặc đã hết hạn được nạp lại cùng lúc qua TenantJobRunner
+ * (song song, mỗi tenant có thời gian chờ riêng) nên một DB tenant chậm không giữ cả trang danh sách.
+ */
+@Service
+@Slf4j
+public class TenantStatisticsServiceImpl implements TenantStatisticsService {
+
+    private static final String JOB_NAME = "tenant-statistics";
+
+    // Một lượt đọc cho cả ba số liệu thay vì ba kết nối riêng
+    private static final String STATS_QUERY = """
+            SELECT (SELECT COUNT(*) FROM accounts WHERE active = 1) AS user_count,
+                   (SELECT COUNT(*) FROM products) AS product_count,
+                   (SELECT ISNULL(SUM(total_amount), 0) FROM orders) AS revenue
+            """;
+
+    private final DataSource tenantDataSource;
+    private final TenantJobRunner tenantJobRunner;
+    private final long ttlMs;
+    private final int parallelism;
+    private final long tenantTimeoutMs;
+    private final Map<UUID, Entry> cache = new ConcurrentHashMap<>();
+
+    public TenantStatisticsServiceImpl(@Qualifier("tenantDataSource") DataSource tenantDataSource,
+                                       TenantJobRunner tenantJobRunner,
+                                       @Value("${tenant.stats.ttl-ms:60000}") long ttlMs,
+                                       @Value("${tenant.stats.parallelism:8}") int parallelism,
+                                       @Value("${tenant.stats.tenant-timeout-ms:10000}") long tenantTimeoutMs) {
+        this.tenantDataSource = tenantDataSource;
+        this.tenantJobRunner = tenantJobRunner;
+        this.ttlMs = ttlMs;
+        this.parallelism = Math.max(1, parallelism);
+        this.tenantTimeoutMs = tenantTimeoutMs;
+    }
+
+    private static final class Entry {
+        private final TenantStats stats;
+        private final long expiresAt;
+
+        private Entry(TenantStats stats, long expiresAt) {
+            this.stats = stats;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Override
+    public Map<UUID, TenantStats> getStats(Collection<UUID> tenantIds) {
+        long now = System.currentTimeMillis();
+        Map<UUID, TenantStats> result = new HashMap<>();
+        List<String> missing = tenantIds.stream()
+                .filter(tenantId -> {
+                    Entry entry = cache.get(tenantId);
+                    if (entry != null && entry.expiresAt > now) {
+                        result.put(tenantId, entry.stats);
+                        return false;
+                    }
+                    return true;
+                })
+                .map(UUID::toString)
+                .toList();
+
+        if (!missing.isEmpty()) {
+            Map<UUID, TenantStats> loaded = new ConcurrentHashMap<>();
+            tenantJobRunner.run(JOB_NAME, missing, parallelism, tenantTimeoutMs, () -> {
+                UUID tenantId = UUID.fromString(TenantContext.getCurrentTenant());
+                loaded.put(tenantId, load());
+            });
+            long expiresAt = System.currentTimeMillis() + ttlMs;
+            loaded.forEach((tenantId, stats) -> cache.put(tenantId, new Entry(stats, expiresAt)));
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(UUID tenantId) {
+        cache.remove(tenantId);
+    }
+
+    // Chạy với TenantContext của tenant cần đọc: routing data source chọn đúng database
+    private TenantStats load() {
+        try (Connection conn = tenantDataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(STATS_QUERY)) {
+            if (!rs.next()) {
+                return TenantStats.EMPTY;
+            }
+            return new TenantStats(rs.getInt("user_count"), rs.getInt("product_count"), rs.getLong("revenue"));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Không thể đọc thống kê tenant: " + e.getMessage(), e);
+        }
+    }
+}
@@ -352,3 +352,16 @@ VALUES
 -- Nov 2025
 ((SELECT order_id FROM orders WHERE order_number = 'ORD202511001'), N'Tiền mặt', 4690000, N'Đã thanh toán', '2025-11-05 09:15:00', '2025-11-05 09:15:00'),
 ((SELECT order_id FROM orders WHERE order_number = 'ORD202511002'), N'Chuyển khoản', 6180000, N'Đã thanh toán', '2025-11-20 16:45:00', '2025-11-20 16:45:00');
+
+-- Cột tìm kiếm chuẩn hóa cho dữ liệu mẫu chèn thẳng bằng SQL (cùng công thức với V8__add_search_columns)
+UPDATE accounts
+SET full_name_search = LOWER(TRANSLATE(full_name,
+        N'ÀÁẢÃẠĂẰẮẲẴẶÂẦẤẨẪẬÈÉẺẼẸÊỀẾỂỄỆÌÍỈĨỊÒÓỎÕỌÔỒỐỔỖỘƠỜỚỞỠỢÙÚỦŨỤƯỪỨỬỮỰỲÝỶỸỴĐàáảãạăằắẳẵặâầấẩẫậèéẻẽẹêềếểễệìíỉĩịòóỏõọôồốổỗộơờớởỡợùúủũụưừứửữựỳýỷỹỵđ',
+        N'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyydaaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd'))
+WHERE full_name_search IS NULL;
+
+UPDATE categories
+SET category_name_search = LOWER(TRANSLATE(category_name,
+        N'ÀÁẢÃẠĂẰẮẲẴẶÂẦẤẨẪẬÈÉẺẼẸÊỀẾỂỄỆÌÍỈĨỊÒÓỎÕỌÔỒỐỔỖỘƠỜỚỞỠỢÙÚỦŨỤƯỪỨỬỮỰỲÝỶỸỴĐàáảãạăằắẳẵặâầấẩẫậèéẻẽẹêềếểễệìíỉĩịòóỏõọôồốổỗộơờớởỡợùúủũụưừứửữựỳýỷỹỵđ',
+        N'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyydaaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd'))
+WHERE category_name_search IS NULL;
@@ -0,0 +1,3 @@
+-- Kích thước connection pool riêng cho từng tenant (NULL = dùng cấu hình mặc định)
+ALTER TABLE tenants ADD db_pool_max_size INT NULL;
+ALTER TABLE tenants ADD db_pool_min_idle INT NULL;
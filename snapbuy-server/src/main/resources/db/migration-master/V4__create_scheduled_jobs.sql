@@ -0,0 +1,18 @@
+-- Hàng đợi công việc hẹn giờ của các tenant (thông báo / hết hạn khuyến mãi...)
+-- Mỗi (tenant, loại, đối tượng) có tối đa một lịch; node nào giữ lease (locked_by, locked_until) mới được chạy job
+CREATE TABLE scheduled_jobs (
+    job_id UNIQUEIDENTIFIER PRIMARY KEY DEFAULT NEWID(),
+    tenant_id UNIQUEIDENTIFIER NOT NULL,
+    job_type VARCHAR(50) NOT NULL,
+    reference_id UNIQUEIDENTIFIER NULL,
+    run_at DATETIME2 NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    locked_by VARCHAR(100) NULL,
+    locked_until DATETIME2 NULL,
+    last_error NVARCHAR(1000) NULL,
+    created_at DATETIME NOT NULL DEFAULT GETDATE(),
+    CONSTRAINT UQ_scheduled_jobs_key UNIQUE(tenant_id, job_type, reference_id),
+    CONSTRAINT FK_scheduled_jobs_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(tenant_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IDX_scheduled_jobs_run_at ON scheduled_jobs(run_at);
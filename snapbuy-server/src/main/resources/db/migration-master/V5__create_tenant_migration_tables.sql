@@ -0,0 +1,29 @@
+-- Theo dõi các đợt chạy migration cho tất cả database tenant (chạy song song, có thể chạy tiếp khi bị gián đoạn)
+CREATE TABLE tenant_migration_runs (
+    run_id UNIQUEIDENTIFIER PRIMARY KEY DEFAULT NEWID(),
+    status VARCHAR(20) NOT NULL,
+    started_by VARCHAR(255) NULL,
+    total_tenants INT NOT NULL DEFAULT 0,
+    started_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+    finished_at DATETIME2 NULL
+);
+
+-- Kết quả migration của từng tenant trong một đợt
+CREATE TABLE tenant_migration_results (
+    result_id UNIQUEIDENTIFIER PRIMARY KEY DEFAULT NEWID(),
+    run_id UNIQUEIDENTIFIER NOT NULL,
+    tenant_id UNIQUEIDENTIFIER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    initial_version VARCHAR(50) NULL,
+    target_version VARCHAR(50) NULL,
+    migrations_executed INT NULL,
+    duration_ms BIGINT NULL,
+    error NVARCHAR(1000) NULL,
+    started_at DATETIME2 NULL,
+    finished_at DATETIME2 NULL,
+    CONSTRAINT UQ_tenant_migration_results UNIQUE(run_id, tenant_id),
+    CONSTRAINT FK_tenant_migration_results_run FOREIGN KEY (run_id) REFERENCES tenant_migration_runs(run_id) ON DELETE CASCADE,
+    CONSTRAINT FK_tenant_migration_results_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(tenant_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IDX_tenant_migration_runs_status ON tenant_migration_runs(status);
@@ -0,0 +1,15 @@
+-- Tiến trình tạo cửa hàng chạy nền: mỗi bước hoàn tất được ghi lại để chạy tiếp từ bước lỗi
+CREATE TABLE tenant_provisioning_jobs (
+    job_id UNIQUEIDENTIFIER PRIMARY KEY DEFAULT NEWID(),
+    tenant_id UNIQUEIDENTIFIER NOT NULL,
+    stage VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    error NVARCHAR(1000) NULL,
+    requested_by VARCHAR(255) NULL,
+    created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+    updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+    finished_at DATETIME2 NULL,
+    CONSTRAINT UQ_tenant_provisioning_jobs_tenant UNIQUE(tenant_id),
+    CONSTRAINT FK_tenant_provisioning_jobs_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(tenant_id) ON DELETE CASCADE
+);
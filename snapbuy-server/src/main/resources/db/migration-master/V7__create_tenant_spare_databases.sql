@@ -0,0 +1,17 @@
+-- Database tenant dựng sẵn (đã migrate và có vai trò) để cửa hàng mới nhận ngay thay vì tạo database từ đầu
+CREATE TABLE tenant_spare_databases (
+    spare_id UNIQUEIDENTIFIER PRIMARY KEY DEFAULT NEWID(),
+    db_host VARCHAR(255) NOT NULL,
+    db_port INT NOT NULL,
+    db_name VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    schema_version VARCHAR(50) NULL,
+    tenant_id UNIQUEIDENTIFIER NULL,
+    created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+    ready_at DATETIME2 NULL,
+    claimed_at DATETIME2 NULL,
+    CONSTRAINT UQ_tenant_spare_databases_name UNIQUE(db_host, db_port, db_name),
+    CONSTRAINT FK_tenant_spare_databases_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(tenant_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IDX_tenant_spare_databases_status ON tenant_spare_databases(status, db_host, db_port);
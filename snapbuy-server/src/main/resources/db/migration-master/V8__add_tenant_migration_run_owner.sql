@@ -0,0 +1,4 @@
+-- Node đang chạy đợt migration và lần cập nhật gần nhất: chạy tiếp chỉ nhận được đợt đã lỗi
+-- hoặc đợt mà node chạy đã ngừng cập nhật quá lâu (node chết giữa chừng)
+ALTER TABLE tenant_migration_runs ADD owned_by VARCHAR(100) NULL;
+ALTER TABLE tenant_migration_runs ADD heartbeat_at DATETIME2 NULL;
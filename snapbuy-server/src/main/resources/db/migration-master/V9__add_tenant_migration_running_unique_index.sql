@@ -0,0 +1,9 @@
+-- Mỗi lúc chỉ một đợt migration RUNNING: hai admin bấm chạy cùng lúc (hoặc chạy tiếp một đợt khi đợt khác
+-- đang chạy) thì câu INSERT/UPDATE thứ hai bị từ chối trong database thay vì cả hai cùng chạy
+-- Đợt RUNNING thừa từ trước (nếu có) được đánh dấu FAILED, giữ lại đợt mới nhất để có thể chạy tiếp
+UPDATE tenant_migration_runs
+SET status = 'FAILED', finished_at = GETDATE()
+WHERE status = 'RUNNING'
+  AND run_id NOT IN (SELECT TOP 1 run_id FROM tenant_migration_runs WHERE status = 'RUNNING' ORDER BY started_at DESC);
+
+CREATE UNIQUE INDEX UQ_tenant_migration_runs_running ON tenant_migration_runs(status) WHERE status = 'RUNNING';
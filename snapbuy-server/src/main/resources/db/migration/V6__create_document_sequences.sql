@@ -0,0 +1,7 @@
+-- Bảng cấp số chứng từ theo khối (hi/lo) cho mã đơn hàng, phiếu nhập...
+-- Mỗi dòng là một chuỗi số theo khóa, ví dụ 'ORD251018' hoặc 'PO251018'
+CREATE TABLE document_sequences (
+    sequence_key NVARCHAR(50) NOT NULL PRIMARY KEY,
+    next_value BIGINT NOT NULL,
+    updated_date DATETIME2 NOT NULL DEFAULT GETDATE()
+);
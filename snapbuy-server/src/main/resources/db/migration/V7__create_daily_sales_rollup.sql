@@ -0,0 +1,59 @@
+-- Bảng tổng hợp doanh số theo ngày x nhân viên x sản phẩm cho các báo cáo doanh thu / sản phẩm
+-- sales_date lấy theo ngày tạo đơn (orders.created_date), chỉ tính đơn "Đã thanh toán".
+-- Dòng có product_id = NULL là dòng tổng cấp đơn hàng: revenue = tổng total_amount của đơn,
+-- order_count = số đơn; các dòng còn lại là theo sản phẩm (revenue = tổng thành tiền dòng hàng,
+-- order_count = số đơn có sản phẩm đó).
+CREATE TABLE daily_sales_rollup (
+    rollup_id BIGINT IDENTITY(1, 1) PRIMARY KEY,
+    sales_date DATE NOT NULL,
+    account_id UNIQUEIDENTIFIER NOT NULL,
+    product_id UNIQUEIDENTIFIER NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    cost DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    updated_date DATETIME2 NOT NULL DEFAULT GETDATE()
+);
+
+-- Unique index coi NULL là một giá trị: mỗi (ngày, nhân viên) chỉ có một dòng tổng cấp đơn hàng
+CREATE UNIQUE INDEX ux_daily_sales_rollup_key ON daily_sales_rollup (sales_date, account_id, product_id);
+CREATE INDEX ix_daily_sales_rollup_product ON daily_sales_rollup (product_id, sales_date)
+    INCLUDE (quantity, revenue, cost, order_count);
+
+-- Nạp dữ liệu lịch sử từ các đơn đã thanh toán (cùng công thức với DailySalesRollupRepository.insertRange)
+WITH lines AS (
+    SELECT o.order_id,
+           CAST(o.created_date AS DATE) AS sales_date,
+           o.account_id,
+           od.product_id,
+           od.quantity,
+           od.total_price AS revenue,
+           od.quantity * ISNULL(pc.cost_price, 0) AS cost
+    FROM orders o
+    INNER JOIN order_detail od ON od.order_id = o.order_id
+    OUTER APPLY (
+        SELECT TOP 1 pp.cost_price
+        FROM product_price pp
+        WHERE pp.product_id = od.product_id
+          AND pp.valid_from <= o.created_date
+        ORDER BY pp.valid_from DESC
+    ) pc
+    WHERE o.payment_status = N'Đã thanh toán'
+      AND o.created_date IS NOT NULL
+), order_totals AS (
+    SELECT order_id, SUM(quantity) AS quantity, SUM(cost) AS cost
+    FROM lines
+    GROUP BY order_id
+)
+INSERT INTO daily_sales_rollup (sales_date, account_id, product_id, quantity, revenue, cost, order_count, updated_date)
+SELECT sales_date, account_id, product_id, SUM(quantity), SUM(revenue), SUM(cost), COUNT(DISTINCT order_id), GETDATE()
+FROM lines
+GROUP BY sales_date, account_id, product_id
+UNION ALL
+SELECT CAST(o.created_date AS DATE), o.account_id, NULL,
+       ISNULL(SUM(ot.quantity), 0), SUM(o.total_amount), ISNULL(SUM(ot.cost), 0), COUNT(*), GETDATE()
+FROM orders o
+LEFT JOIN order_totals ot ON ot.order_id = o.order_id
+WHERE o.payment_status = N'Đã thanh toán'
+  AND o.created_date IS NOT NULL
+GROUP BY CAST(o.created_date AS DATE), o.account_id;
@@ -0,0 +1,31 @@
+-- Cột tìm kiếm đã chuẩn hóa (chữ thường, bỏ dấu) để lọc keyword và phân trang ngay trong SQL Server.
+-- Ứng dụng ghi các cột này qua @PrePersist/@PreUpdate của entity (VietnameseUtils.normalizeForSearch);
+-- phần nạp dữ liệu cũ bên dưới dùng TRANSLATE với bảng chữ cái tiếng Việt cho cùng kết quả.
+ALTER TABLE accounts ADD full_name_search NVARCHAR(100) NULL;
+ALTER TABLE customers ADD full_name_search NVARCHAR(50) NULL;
+ALTER TABLE categories ADD category_name_search NVARCHAR(100) NULL;
+
+UPDATE accounts
+SET full_name_search = LOWER(TRANSLATE(full_name,
+        N'ÀÁẢÃẠĂẰẮẲẴẶÂẦẤẨẪẬÈÉẺẼẸÊỀẾỂỄỆÌÍỈĨỊÒÓỎÕỌÔỒỐỔỖỘƠỜỚỞỠỢÙÚỦŨỤƯỪỨỬỮỰỲÝỶỸỴĐàáảãạăằắẳẵặâầấẩẫậèéẻẽẹêềếểễệìíỉĩịòóỏõọôồốổỗộơờớởỡợùúủũụưừứửữựỳýỷỹỵđ',
+        N'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyydaaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd'));
+
+UPDATE customers
+SET full_name_search = LOWER(TRANSLATE(full_name,
+        N'ÀÁẢÃẠĂẰẮẲẴẶÂẦẤẨẪẬÈÉẺẼẸÊỀẾỂỄỆÌÍỈĨỊÒÓỎÕỌÔỒỐỔỖỘƠỜỚỞỠỢÙÚỦŨỤƯỪỨỬỮỰỲÝỶỸỴĐàáảãạăằắẳẵặâầấẩẫậèéẻẽẹêềếểễệìíỉĩịòóỏõọôồốổỗộơờớởỡợùúủũụưừứửữựỳýỷỹỵđ',
+        N'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyydaaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd'))
+WHERE full_name IS NOT NULL;
+
+UPDATE categories
+SET category_name_search = LOWER(TRANSLATE(category_name,
+        N'ÀÁẢÃẠĂẰẮẲẴẶÂẦẤẨẪẬÈÉẺẼẸÊỀẾỂỄỆÌÍỈĨỊÒÓỎÕỌÔỒỐỔỖỘƠỜỚỞỠỢÙÚỦŨỤƯỪỨỬỮỰỲÝỶỸỴĐàáảãạăằắẳẵặâầấẩẫậèéẻẽẹêềếểễệìíỉĩịòóỏõọôồốổỗộơờớởỡợùúủũụưừứửữựỳýỷỹỵđ',
+        N'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyydaaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd'));
+
+-- Keyword dạng "chứa" không seek được index, nhưng quét index hẹp thay vì cả bảng
+CREATE INDEX ix_accounts_full_name_search ON accounts (full_name_search);
+CREATE INDEX ix_customers_full_name_search ON customers (full_name_search);
+CREATE INDEX ix_categories_parent_name_search ON categories (parent_category_id, created_date DESC)
+    INCLUDE (category_name_search);
+
+-- Tìm đơn hoàn hàng sắp xếp và phân trang theo updated_date
+CREATE INDEX ix_orders_updated_date ON orders (updated_date DESC);
@@ -0,0 +1,137 @@
+package com.g127.snapbuy.account.service.impl;
+
+import com.g127.snapbuy.account.entity.Account;
+import com.g127.snapbuy.account.entity.Role;
+import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService.CachedPrincipal;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountPrincipalCacheServiceImplTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private AccountPrincipalCacheServiceImpl principalCacheService;
+
+    private Account testAccount;
+
+    @BeforeEach
+    void setUp() {
+        principalCacheService = new AccountPrincipalCacheServiceImpl(accountRepository, 60000, 100);
+        TenantContext.setCurrentTenant("tenant-1");
+
+        Role role = new Role();
+        role.setRoleId(UUID.randomUUID());
+        role.setRoleName("Nhân viên bán hàng");
+
+        testAccount = new Account();
+        testAccount.setAccountId(UUID.randomUUID());
+        testAccount.setUsername("staff01");
+        testAccount.setPasswordHash("hashed");
+        testAccount.setActive(true);
+        testAccount.setTokenVersion(3);
+        testAccount.setRoles(new LinkedHashSet<>());
+        testAccount.getRoles().add(role);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void getPrincipal_CachedAfterFirstLoad_Success() {
+        // Given
+        when(accountRepository.findByUsernameWithRolesAndPermissionsIgnoreCase("staff01"))
+                .thenReturn(Optional.of(testAccount));
+
+        // When
+        CachedPrincipal first = principalCacheService.getPrincipal("staff01");
+        CachedPrincipal second = principalCacheService.getPrincipal("Staff01 ");
+
+        // Then
+        assertSame(first, second);
+        assertEquals(3, first.getTokenVersion());
+        assertEquals("staff01", first.getUserDetails().getUsername());
+        assertTrue(first.getUserDetails().getAuthorities().stream()
+                .anyMatch(a -> "ROLE_Nhân viên bán hàng".equals(a.getAuthority())));
+        verify(accountRepository, times(1)).findByUsernameWithRolesAndPermissionsIgnoreCase(anyString());
+    }
+
+    @Test
+    void getPrincipal_SameUsernameOtherTenant_LoadsSeparately() {
+        // Given
+        when(accountRepository.findByUsernameWithRolesAndPermissionsIgnoreCase("staff01"))
+                .thenReturn(Optional.of(testAccount));
+
+        // When
+        principalCacheService.getPrincipal("staff01");
+        TenantContext.setCurrentTenant("tenant-2");
+        principalCacheService.getPrincipal("staff01");
+
+        // Then
+        verify(accountRepository, times(2)).findByUsernameWithRolesAndPermissionsIgnoreCase("staff01");
+    }
+
+    @Test
+    void evict_ReloadsTokenVersion() {
+        // Given
+        when(accountRepository.findByUsernameWithRolesAndPermissionsIgnoreCase("staff01"))
+                .thenReturn(Optional.of(testAccount));
+        principalCacheService.getPrincipal("staff01");
+        testAccount.setTokenVersion(4);
+
+        // When
+        principalCacheService.evict("staff01");
+        CachedPrincipal reloaded = principalCacheService.getPrincipal("staff01");
+
+        // Then
+        assertEquals(4, reloaded.getTokenVersion());
+        verify(accountRepository, times(2)).findByUsernameWithRolesAndPermissionsIgnoreCase("staff01");
+    }
+
+    @Test
+    void evictTenant_OnlyClearsThatTenant() {
+        // Given
+        when(accountRepository.findByUsernameWithRolesAndPermissionsIgnoreCase("staff01"))
+                .thenReturn(Optional.of(testAccount));
+        principalCacheService.getPrincipal("staff01");
+        TenantContext.setCurrentTenant("tenant-2");
+        principalCacheService.getPrincipal("staff01");
+
+        // When
+        principalCacheService.evictTenant("tenant-1");
+        principalCacheService.getPrincipal("staff01");
+        TenantContext.setCurrentTenant("tenant-1");
+        principalCacheService.getPrincipal("staff01");
+
+        // Then
+        verify(accountRepository, times(3)).findByUsernameWithRolesAndPermissionsIgnoreCase("staff01");
+    }
+
+    @Test
+    void getPrincipal_UnknownUser_ThrowsException() {
+        // Given
+        when(accountRepository.findByUsernameWithRolesAndPermissionsIgnoreCase("ghost"))
+                .thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UsernameNotFoundException.class, () -> principalCacheService.getPrincipal("ghost"));
+    }
+}
@@ -8,12 +8,20 @@ import com.g127.snapbuy.account.entity.Role;
 import com.g127.snapbuy.account.mapper.AccountMapper;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.account.repository.RoleRepository;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -49,6 +57,12 @@ class AccountServiceImplTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private AccountPrincipalCacheService principalCacheService;
+
+    @Spy
+    private ReferenceDataCacheService referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -210,6 +224,7 @@ class AccountServiceImplTest {
         assertNotNull(result);
         verify(passwordEncoder).encode("newPassword");
         verify(accountRepository).save(any(Account.class));
+        verify(principalCacheService).evict(testAccount.getUsername());
     }
 
     @Test
@@ -367,6 +382,7 @@ class AccountServiceImplTest {
         // Then
         assertNotNull(result);
         verify(accountRepository).save(argThat(account -> !account.getActive()));
+        verify(principalCacheService).evict(testAccount.getUsername());
     }
 
     @Test
@@ -504,4 +520,22 @@ class AccountServiceImplTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
     }
+
+    @Test
+    void searchAccountsPaged_MapsSortColumnAndFiltersInDatabase() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "username"));
+        when(accountRepository.searchAccounts(eq("%nguyen%"), eq(true), eq("Chủ cửa hàng"), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(testAccount), PageRequest.of(0, 10), 1));
+        when(accountMapper.toResponse(testAccount)).thenReturn(accountResponse);
+
+        // When
+        PageResponse<AccountResponse> result = accountService.searchAccountsPaged("Nguyễn", true, " Chủ cửa hàng ", pageable);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getTotalElements());
+        verify(accountRepository).searchAccounts(eq("%nguyen%"), eq(true), eq("Chủ cửa hàng"), argThat(p ->
+            p.getSort().equals(Sort.by(Sort.Direction.DESC, "username").and(Sort.by("accountId")))));
+    }
 }
@@ -9,11 +9,15 @@ import com.g127.snapbuy.account.repository.RoleRepository;
 import com.g127.snapbuy.common.exception.AppException;
 import com.g127.snapbuy.common.exception.ErrorCode;
 import com.g127.snapbuy.common.response.PageResponse;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -44,6 +48,12 @@ class RoleServiceImplTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private AccountPrincipalCacheService principalCacheService;
+
+    @Spy
+    private ReferenceDataCacheService referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+
     @InjectMocks
     private RoleServiceImpl roleService;
 
@@ -235,6 +245,7 @@ class RoleServiceImplTest {
         // Then
         assertNotNull(response);
         verify(roleRepository).save(any(Role.class));
+        verify(principalCacheService).evictTenant(any());
     }
 
     @Test
@@ -356,6 +367,7 @@ class RoleServiceImplTest {
 
         // Then
         verify(roleRepository).deleteById(roleId);
+        verify(principalCacheService).evictTenant(any());
     }
 
     @Test
@@ -462,6 +474,7 @@ class RoleServiceImplTest {
 
         // Then
         assertFalse(response.getActive());
+        verify(principalCacheService).evictTenant(any());
         verify(roleRepository).save(argThat(role -> role.getActive() == false));
     }
 
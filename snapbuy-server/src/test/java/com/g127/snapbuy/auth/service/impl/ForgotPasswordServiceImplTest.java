@@ -7,6 +7,7 @@ import com.g127.snapbuy.auth.dto.request.VerifyOtpRequest;
 import com.g127.snapbuy.account.entity.Account;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.auth.service.MailService;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,6 +40,9 @@ class ForgotPasswordServiceImplTest {
     @Mock
     private OtpStore otpStore;
 
+    @Mock
+    private AccountPrincipalCacheService principalCacheService;
+
     @InjectMocks
     private ForgotPasswordServiceImpl forgotPasswordService;
 
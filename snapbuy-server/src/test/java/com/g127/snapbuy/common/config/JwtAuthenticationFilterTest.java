@@ -0,0 +1,108 @@
+package com.g127.snapbuy.common.config;
+
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService.CachedPrincipal;
+import com.g127.snapbuy.admin.service.AdminUserDetailsService;
+import com.g127.snapbuy.auth.service.TokenBlacklistService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private AdminUserDetailsService adminUserDetailsService;
+
+    @Mock
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Mock
+    private AccountPrincipalCacheService principalCacheService;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 3600000L);
+        filter = new JwtAuthenticationFilter(jwtUtil, adminUserDetailsService, tokenBlacklistService, principalCacheService);
+        userDetails = User.withUsername("testuser").password("x").authorities(List.of()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        TenantContext.clear();
+    }
+
+    @Test
+    void doFilter_BlacklistedTokenWithCachedClaims_Rejected() throws Exception {
+        // Given - token đã được xác thực một lần nên claims nằm trong cache
+        String token = jwtUtil.generateToken(userDetails, Map.of("tenantId", "tenant-1", "ver", 1));
+        String jti = jwtUtil.parseClaims(token).getJti();
+        when(tokenBlacklistService.isBlacklisted(jti)).thenReturn(true);
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(bearerRequest(token), response, filterChain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentAsString()).contains("TOKEN_REVOKED");
+        verify(filterChain, never()).doFilter(any(), any());
+        verifyNoInteractions(principalCacheService);
+    }
+
+    @Test
+    void doFilter_TokenVersionBumpedAfterClaimsCached_Rejected() throws Exception {
+        // Given - lần đầu token hợp lệ, sau đó tài khoản bị tăng token version
+        String token = jwtUtil.generateToken(userDetails, Map.of("tenantId", "tenant-1", "ver", 1));
+        when(principalCacheService.getPrincipal("testuser"))
+                .thenReturn(new CachedPrincipal(userDetails, 1))
+                .thenReturn(new CachedPrincipal(userDetails, 2));
+
+        filter.doFilter(bearerRequest(token), new MockHttpServletResponse(), filterChain);
+        verify(filterChain).doFilter(any(), any());
+        SecurityContextHolder.clearContext();
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(bearerRequest(token), response, filterChain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentAsString()).contains("TOKEN_REVOKED");
+        verify(filterChain, times(1)).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest bearerRequest(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setServletPath("/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
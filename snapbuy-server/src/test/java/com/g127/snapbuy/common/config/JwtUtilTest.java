@@ -0,0 +1,98 @@
+package com.g127.snapbuy.common.config;
+
+import com.g127.snapbuy.common.utils.BoundedTtlCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 3600000L);
+        userDetails = User.withUsername("testuser").password("x").authorities(List.of()).build();
+    }
+
+    @Test
+    void parseClaims_SameToken_ReturnsCachedClaims() {
+        // Given
+        String token = jwtUtil.generateToken(userDetails, Map.of("tenantId", "tenant-1", "ver", 3));
+
+        // When
+        JwtUtil.JwtClaims first = jwtUtil.parseClaims(token);
+        JwtUtil.JwtClaims second = jwtUtil.parseClaims(token);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(second.getUsername()).isEqualTo("testuser");
+        assertThat(second.getTenantId()).isEqualTo("tenant-1");
+        assertThat(second.getVersion()).isEqualTo(3);
+        assertThat(claimsCache().size()).isEqualTo(1);
+    }
+
+    @Test
+    void parseClaims_CacheEntryExpiresAtTokenExp_EvenWhenTtlIsLonger() throws InterruptedException {
+        // Given - TTL cache dài hơn nhiều so với thời hạn token
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheTtlMs", 3600000L);
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 1500L);
+        String token = jwtUtil.generateToken(userDetails, Map.of());
+        JwtUtil.JwtClaims claims = jwtUtil.parseClaims(token);
+
+        // When - chờ qua thời điểm exp (exp được làm tròn xuống theo giây)
+        long waitMs = claims.getExpiration().getTime() - System.currentTimeMillis() + 100;
+        if (waitMs > 0) {
+            Thread.sleep(waitMs);
+        }
+
+        // Then - không trả claims cũ từ cache mà xác thực lại và báo hết hạn
+        assertThatThrownBy(() -> jwtUtil.parseClaims(token))
+                .isInstanceOf(ExpiredJwtException.class);
+        assertThat(claimsCache().size()).isZero();
+    }
+
+    @Test
+    void parseClaims_CacheFull_EvictsToStayWithinBound() {
+        // Given
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 3);
+        jwtUtil.initClaimsCache();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            jwtUtil.parseClaims(jwtUtil.generateToken(userDetails, Map.of("n", i)));
+        }
+
+        // Then
+        assertThat(claimsCache().size()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void parseClaims_CacheKeyedByDigest_NotByToken() {
+        // Given
+        String token = jwtUtil.generateToken(userDetails, Map.of());
+
+        // When
+        JwtUtil.JwtClaims claims = jwtUtil.parseClaims(token);
+
+        // Then - bộ nhớ cache không giữ bearer token
+        assertThat(claimsCache().get(token)).isNull();
+        assertThat(claimsCache().get(JwtUtil.cacheKey(token))).isSameAs(claims);
+        assertThat(JwtUtil.cacheKey(token)).isNotEqualTo(token).hasSize(44);
+    }
+
+    @SuppressWarnings("unchecked")
+    private BoundedTtlCache<String, JwtUtil.JwtClaims> claimsCache() {
+        return (BoundedTtlCache<String, JwtUtil.JwtClaims>) ReflectionTestUtils.getField(jwtUtil, "claimsCache");
+    }
+}
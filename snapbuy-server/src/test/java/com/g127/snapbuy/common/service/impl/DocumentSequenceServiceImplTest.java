@@ -0,0 +1,131 @@
+package com.g127.snapbuy.common.service.impl;
+
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentSequenceServiceImplTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement reserveStatement;
+
+    @Mock
+    private PreparedStatement insertStatement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private DocumentSequenceServiceImpl sequenceService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        sequenceService = new DocumentSequenceServiceImpl(dataSource, 3);
+        TenantContext.setCurrentTenant("tenant-1");
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(startsWith("UPDATE"))).thenReturn(reserveStatement);
+        when(reserveStatement.executeQuery()).thenReturn(resultSet);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void nextValue_ExistingSequence_ServesBlockFromMemory() throws SQLException {
+        // Given
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(10L, 13L);
+
+        // When
+        long first = sequenceService.nextValue("ORD251018", () -> fail("Không được đếm lại khi chuỗi đã tồn tại"));
+        long second = sequenceService.nextValue("ORD251018", () -> 0L);
+        long third = sequenceService.nextValue("ORD251018", () -> 0L);
+        long fourth = sequenceService.nextValue("ORD251018", () -> 0L);
+
+        // Then
+        assertEquals(10L, first);
+        assertEquals(11L, second);
+        assertEquals(12L, third);
+        assertEquals(13L, fourth);
+        verify(dataSource, times(2)).getConnection();
+        verify(reserveStatement, times(2)).setLong(1, 3L);
+    }
+
+    @Test
+    void nextValue_NewSequence_SeedsFromInitialValue() throws SQLException {
+        // Given
+        when(resultSet.next()).thenReturn(false);
+        when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insertStatement);
+        AtomicInteger seedCalls = new AtomicInteger();
+
+        // When
+        long first = sequenceService.nextValue("PO251018", () -> {
+            seedCalls.incrementAndGet();
+            return 5L;
+        });
+        long second = sequenceService.nextValue("PO251018", () -> 0L);
+
+        // Then
+        assertEquals(5L, first);
+        assertEquals(6L, second);
+        assertEquals(1, seedCalls.get());
+        verify(insertStatement).setString(1, "PO251018");
+        verify(insertStatement).setLong(2, 8L);
+    }
+
+    @Test
+    void nextValue_ConcurrentInsert_RetriesReservation() throws SQLException {
+        // Given
+        when(resultSet.next()).thenReturn(false, true);
+        when(resultSet.getLong(1)).thenReturn(4L);
+        when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insertStatement);
+        when(insertStatement.executeUpdate()).thenThrow(new SQLException("duplicate", "23000", 2627));
+
+        // When
+        long value = sequenceService.nextValue("ORD251018", () -> 1L);
+
+        // Then
+        assertEquals(4L, value);
+        verify(reserveStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    void nextValue_DifferentTenants_UseSeparateBlocks() throws SQLException {
+        // Given
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(1L, 1L);
+
+        // When
+        long tenant1 = sequenceService.nextValue("ORD251018", () -> 0L);
+        TenantContext.setCurrentTenant("tenant-2");
+        long tenant2 = sequenceService.nextValue("ORD251018", () -> 0L);
+
+        // Then
+        assertEquals(1L, tenant1);
+        assertEquals(1L, tenant2);
+        verify(dataSource, times(2)).getConnection();
+    }
+}
@@ -0,0 +1,190 @@
+package com.g127.snapbuy.common.service.impl;
+
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService.RegionStats;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceDataCacheServiceImplTest {
+
+    private ReferenceDataCacheServiceImpl cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ReferenceDataCacheServiceImpl(60000, 100);
+        loads = new AtomicInteger();
+        TenantContext.setCurrentTenant("tenant-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    private List<String> load(String value) {
+        loads.incrementAndGet();
+        return List.of(value);
+    }
+
+    @Test
+    void get_SecondCall_ServedFromCache() {
+        // When
+        List<String> first = cache.get(ReferenceDataCacheService.CATEGORIES, "all", () -> load("Đồ uống"));
+        List<String> second = cache.get(ReferenceDataCacheService.CATEGORIES, "all", () -> load("Khác"));
+
+        // Then
+        assertEquals(List.of("Đồ uống"), first);
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_DifferentTenants_DoNotShareValues() {
+        // Given
+        cache.get(ReferenceDataCacheService.SUPPLIERS, "all", () -> load("NCC tenant A"));
+
+        // When
+        TenantContext.setCurrentTenant("tenant-b");
+        List<String> tenantB = cache.get(ReferenceDataCacheService.SUPPLIERS, "all", () -> load("NCC tenant B"));
+
+        // Then
+        assertEquals(List.of("NCC tenant B"), tenantB);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_NoTenantContext_NotCached() {
+        // Given
+        TenantContext.clear();
+
+        // When
+        cache.get(ReferenceDataCacheService.ROLES, "all", () -> load("Thu ngân"));
+        cache.get(ReferenceDataCacheService.ROLES, "all", () -> load("Thu ngân"));
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(0, stats(ReferenceDataCacheService.ROLES).getEntries());
+    }
+
+    @Test
+    void get_ExpiredEntry_ReloadedAndCountedAsEviction() {
+        // Given
+        cache = new ReferenceDataCacheServiceImpl(0, 100);
+
+        // When
+        cache.get(ReferenceDataCacheService.POS_SETTINGS, "current", () -> load("10%"));
+        cache.get(ReferenceDataCacheService.POS_SETTINGS, "current", () -> load("10%"));
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(1, stats(ReferenceDataCacheService.POS_SETTINGS).getEvictions());
+    }
+
+    @Test
+    void get_NullValue_NotCached() {
+        // When
+        cache.get(ReferenceDataCacheService.POS_SETTINGS, "current", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        cache.get(ReferenceDataCacheService.POS_SETTINGS, "current", () -> load("5%"));
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_RemovesOnlyRegionOfCurrentTenant() {
+        // Given
+        cache.get(ReferenceDataCacheService.CATEGORIES, "all", () -> load("A"));
+        cache.get(ReferenceDataCacheService.SUPPLIERS, "all", () -> load("B"));
+        TenantContext.setCurrentTenant("tenant-b");
+        cache.get(ReferenceDataCacheService.CATEGORIES, "all", () -> load("C"));
+        TenantContext.setCurrentTenant("tenant-a");
+
+        // When
+        cache.evict(ReferenceDataCacheService.CATEGORIES);
+
+        // Then
+        assertEquals(1, stats(ReferenceDataCacheService.CATEGORIES).getEntries());
+        assertEquals(1, stats(ReferenceDataCacheService.CATEGORIES).getInvalidations());
+        assertEquals(1, stats(ReferenceDataCacheService.SUPPLIERS).getEntries());
+        cache.get(ReferenceDataCacheService.CATEGORIES, "all", () -> load("A2"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void evict_DuringLoad_LoadedValueNotCached() {
+        // When
+        List<String> value = cache.get(ReferenceDataCacheService.CATEGORIES, "all", () -> {
+            // Thao tác ghi xảy ra trong lúc đang nạp
+            cache.evict(ReferenceDataCacheService.CATEGORIES);
+            return load("cũ");
+        });
+
+        // Then
+        assertEquals(List.of("cũ"), value);
+        assertEquals(0, stats(ReferenceDataCacheService.CATEGORIES).getEntries());
+    }
+
+    @Test
+    void evictTenant_RemovesAllRegionsOfTenant() {
+        // Given
+        cache.get(ReferenceDataCacheService.CATEGORIES, "all", () -> load("A"));
+        cache.get(ReferenceDataCacheService.ROLES, "all", () -> load("B"));
+
+        // When
+        cache.evictTenant("tenant-a");
+
+        // Then
+        assertEquals(0, stats(ReferenceDataCacheService.CATEGORIES).getEntries());
+        assertEquals(0, stats(ReferenceDataCacheService.ROLES).getEntries());
+    }
+
+    @Test
+    void get_MaxSizeReached_EvictsEntries() {
+        // Given
+        cache = new ReferenceDataCacheServiceImpl(60000, 10);
+
+        // When
+        for (int i = 0; i < 25; i++) {
+            String key = "k" + i;
+            cache.get(ReferenceDataCacheService.SHOP_OWNERS, key, () -> load(key));
+        }
+
+        // Then
+        RegionStats stats = stats(ReferenceDataCacheService.SHOP_OWNERS);
+        assertTrue(stats.getEntries() <= 10);
+        assertEquals(25 - stats.getEntries(), stats.getEvictions());
+        assertEquals(25, stats.getMisses());
+    }
+
+    @Test
+    void getStats_CountsHitsAndMisses() {
+        // When
+        cache.get(ReferenceDataCacheService.ROLES, "all", () -> load("A"));
+        cache.get(ReferenceDataCacheService.ROLES, "all", () -> load("A"));
+        cache.get(ReferenceDataCacheService.ROLES, "all", () -> load("A"));
+
+        // Then
+        RegionStats stats = stats(ReferenceDataCacheService.ROLES);
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+    }
+
+    private RegionStats stats(String region) {
+        return cache.getStats().stream()
+                .filter(s -> s.getRegion().equals(region))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.g127.snapbuy.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedTtlCacheTest {
+
+    private static final long LATER = Long.MAX_VALUE;
+
+    @Test
+    void get_ExpiredEntry_ReturnsNullAndEvicts() {
+        // Given
+        List<String> evicted = new ArrayList<>();
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, evicted::add);
+        cache.put("a", "A", System.currentTimeMillis() - 1);
+        cache.put("b", "B", LATER);
+
+        // When & Then
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo("B");
+        assertThat(evicted).containsExactly("A");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void put_Full_RemovesExpiredEntriesFirst() {
+        // Given
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(3);
+        cache.put("old", "1", LATER);
+        cache.put("expired", "2", System.currentTimeMillis() - 1);
+        cache.put("new", "3", LATER);
+
+        // When
+        cache.put("next", "4", LATER);
+
+        // Then - mục hết hạn bị bỏ, mục cũ nhất còn hạn được giữ
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("old")).isEqualTo("1");
+        assertThat(cache.get("next")).isEqualTo("4");
+    }
+
+    @Test
+    void put_FullWithNothingExpired_DropsOldestTenthByInsertionOrder() {
+        // Given
+        List<String> evicted = new ArrayList<>();
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(20, evicted::add);
+        for (int i = 0; i < 19; i++) {
+            cache.put("k" + i, "v" + i, LATER);
+        }
+        // Ghi lại k0 nên k0 trở thành mục mới nhất
+        cache.put("k0", "v0b", LATER);
+        cache.put("k19", "v19", LATER);
+
+        // When
+        cache.put("k20", "v20", LATER);
+
+        // Then
+        assertThat(evicted).containsExactlyInAnyOrder("v1", "v2");
+        assertThat(cache.get("k0")).isEqualTo("v0b");
+        assertThat(cache.get("k19")).isEqualTo("v19");
+        assertThat(cache.size()).isEqualTo(19);
+    }
+
+    @Test
+    void removeKeysIf_RemovesMatchingKeysWithoutEvictionCallback() {
+        // Given
+        List<String> evicted = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, evicted::add);
+        cache.put("t1|a", "A", LATER);
+        cache.put("t1|b", "B", LATER);
+        cache.put("t2|a", "C", LATER);
+
+        // When
+        cache.removeKeysIf(k -> k.startsWith("t1|"), removed::add);
+
+        // Then
+        assertThat(removed).containsExactlyInAnyOrder("A", "B");
+        assertThat(evicted).isEmpty();
+        assertThat(cache.get("t2|a")).isEqualTo("C");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}
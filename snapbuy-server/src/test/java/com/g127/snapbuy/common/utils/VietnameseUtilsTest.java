@@ -0,0 +1,105 @@
+package com.g127.snapbuy.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VietnameseUtilsTest {
+
+    private static final List<String> SAMPLES = List.of(
+            "Nguyễn Văn Anh",
+            "NGUYỄN VĂN ĐỨC",
+            "Đặng Thị Ấu",
+            "đường Phố Huế",
+            "Sữa tươi Vinamilk 180ml",
+            "Bánh mì Ổ Lớn",
+            "ỦY BAN NHÂN DÂN",
+            "Cà phê sữa đá",
+            "Nước mắm Phú Quốc",
+            "Kẹo dừa Bến Tre",
+            // Dạng NFD: chữ cái + dấu kết hợp rời
+            Normalizer.normalize("Nguyễn Thị Hồng Nhung", Normalizer.Form.NFD),
+            Normalizer.normalize("ĐẶNG TIẾN DŨNG", Normalizer.Form.NFD),
+            "àáảãạăằắẳẵặâầấẩẫậèéẻẽẹêềếểễệìíỉĩịòóỏõọôồốổỗộơờớởỡợùúủũụưừứửữựỳýỷỹỵđ",
+            "ÀÁẢÃẠĂẰẮẲẴẶÂẦẤẨẪẬÈÉẺẼẸÊỀẾỂỄỆÌÍỈĨỊÒÓỎÕỌÔỒỐỔỖỘƠỜỚỞỠỢÙÚỦŨỤƯỪỨỬỮỰỲÝỶỸỴĐ",
+            "Mã SP_01 [50%] !",
+            "",
+            "plain ascii text");
+
+    /**
+     * Cách chuẩn hóa trước khi chuyển sang bảng tra: lower-case, NFD rồi bỏ dấu kết hợp, thay đ/Đ
+     */
+    private static String legacyNormalizeForSearch(String text) {
+        if (text == null) return null;
+        return Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
+                .replace("đ", "d")
+                .replace("Đ", "D");
+    }
+
+    @Test
+    void normalizeForSearch_MatchesLegacyOutput() {
+        for (String sample : SAMPLES) {
+            assertThat(VietnameseUtils.normalizeForSearch(sample))
+                    .as("normalizeForSearch(%s)", sample)
+                    .isEqualTo(legacyNormalizeForSearch(sample));
+        }
+    }
+
+    @Test
+    void normalizeForSearch_RepresentativeValues() {
+        assertThat(VietnameseUtils.normalizeForSearch("Nguyễn Văn Anh")).isEqualTo("nguyen van anh");
+        assertThat(VietnameseUtils.normalizeForSearch("NGUYỄN VĂN ĐỨC")).isEqualTo("nguyen van duc");
+        assertThat(VietnameseUtils.normalizeForSearch("Đặng Thị Ấu")).isEqualTo("dang thi au");
+        assertThat(VietnameseUtils.normalizeForSearch("ỦY BAN")).isEqualTo("uy ban");
+        assertThat(VietnameseUtils.normalizeForSearch(
+                Normalizer.normalize("Hồng Nhung", Normalizer.Form.NFD))).isEqualTo("hong nhung");
+        assertThat(VietnameseUtils.normalizeForSearch("plain")).isEqualTo("plain");
+        assertThat(VietnameseUtils.normalizeForSearch(null)).isNull();
+    }
+
+    @Test
+    void removeDiacritics_PreservesCase() {
+        assertThat(VietnameseUtils.removeDiacritics("Nguyễn Văn Anh")).isEqualTo("Nguyen Van Anh");
+        assertThat(VietnameseUtils.removeDiacritics("ĐẶNG đường")).isEqualTo("DANG duong");
+        assertThat(VietnameseUtils.removeDiacritics(
+                Normalizer.normalize("Ễ", Normalizer.Form.NFD))).isEqualTo("E");
+    }
+
+    @Test
+    void containsFolded_AgreesWithNormalizeForSearch() {
+        List<String> keywords = List.of("nguyen", "NGUYỄN", "văn", "duc", "Đức", "đ", "d", "ấu", "sua",
+                "SỮA TƯƠI", "hue", "mi o", "uy", "_01", "xyz", "e", "ong nh", "tien dung");
+        for (String text : SAMPLES) {
+            String normalizedText = VietnameseUtils.normalizeForSearch(text);
+            for (String keyword : keywords) {
+                boolean expected = normalizedText.contains(VietnameseUtils.normalizeForSearch(keyword));
+                assertThat(VietnameseUtils.containsFolded(text, VietnameseUtils.fold(keyword)))
+                        .as("containsFolded(%s, %s)", text, keyword)
+                        .isEqualTo(expected);
+                assertThat(VietnameseUtils.containsIgnoreDiacritics(text, keyword))
+                        .as("containsIgnoreDiacritics(%s, %s)", text, keyword)
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void matchesAnyFolded_ChecksEveryField() {
+        String keyword = VietnameseUtils.fold("đức");
+        assertThat(VietnameseUtils.matchesAnyFolded(keyword, null, "Trần Văn An", "NGUYỄN VĂN ĐỨC")).isTrue();
+        assertThat(VietnameseUtils.matchesAnyFolded(keyword, "Trần Văn An", null)).isFalse();
+        assertThat(VietnameseUtils.matchesAnyFolded("", "anything")).isTrue();
+        assertThat(VietnameseUtils.matchesAny("Ấu", "Đặng Thị Ấu")).isTrue();
+    }
+
+    @Test
+    void toContainsPattern_EscapesLikeWildcards() {
+        assertThat(VietnameseUtils.toContainsPattern("Sữa_1")).isEqualTo("%sua!_1%");
+        assertThat(VietnameseUtils.toContainsPattern(" 50% ")).isEqualTo("%50!%%");
+        assertThat(VietnameseUtils.toContainsPattern("   ")).isNull();
+    }
+}
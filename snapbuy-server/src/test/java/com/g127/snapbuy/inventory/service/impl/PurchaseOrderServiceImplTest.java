@@ -9,6 +9,7 @@ import com.g127.snapbuy.inventory.repository.*;
 import com.g127.snapbuy.product.repository.ProductRepository;
 import com.g127.snapbuy.supplier.repository.SupplierRepository;
 import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.common.service.DocumentSequenceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -50,6 +51,9 @@ class PurchaseOrderServiceImplTest {
     @Mock
     private PurchaseOrderMapper purchaseOrderMapper;
 
+    @Mock
+    private DocumentSequenceService documentSequenceService;
+
     @InjectMocks
     private PurchaseOrderServiceImpl purchaseOrderService;
 
@@ -0,0 +1,196 @@
+package com.g127.snapbuy.notification.service.impl;
+
+import com.g127.snapbuy.account.entity.Account;
+import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.inventory.repository.InventoryRepository;
+import com.g127.snapbuy.notification.entity.Notification;
+import com.g127.snapbuy.notification.entity.Notification.NotificationType;
+import com.g127.snapbuy.notification.repository.NotificationRepository;
+import com.g127.snapbuy.notification.service.NotificationSettingsService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockAlertServiceImplTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private NotificationSettingsService notificationSettingsService;
+
+    private final List<Runnable> submitted = new ArrayList<>();
+    private LowStockAlertServiceImpl lowStockAlertService;
+
+    private final UUID ownerId = UUID.randomUUID();
+    private final UUID milkId = UUID.randomUUID();
+    private final UUID coffeeId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        TaskExecutor executor = submitted::add;
+        lowStockAlertService = new LowStockAlertServiceImpl(inventoryRepository, notificationRepository,
+                accountRepository, notificationSettingsService, executor, new ReferenceDataCacheServiceImpl(60000, 100));
+        TenantContext.setCurrentTenant("tenant-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(lowStockAlertService);
+        TenantContext.clear();
+    }
+
+    private void givenOwner(boolean lowStockEnabled) {
+        Account owner = new Account();
+        owner.setAccountId(ownerId);
+        when(accountRepository.findByRoleName("Chủ cửa hàng")).thenReturn(List.of(owner));
+        when(notificationSettingsService.isNotificationEnabledForAccount(ownerId, "low_stock")).thenReturn(lowStockEnabled);
+    }
+
+    private void runSubmitted() {
+        List<Runnable> tasks = new ArrayList<>(submitted);
+        submitted.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Notification> savedNotifications() {
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void stockChanged_InTransaction_DispatchesOneBatchAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        givenOwner(true);
+        when(inventoryRepository.findLowStockRowsByProductIdIn(anyCollection())).thenReturn(List.of(
+                new Object[]{milkId, "Sữa tươi", true, 3, 10},
+                new Object[]{coffeeId, "Cà phê", true, 50, 10}));
+
+        // When
+        lowStockAlertService.stockChanged(milkId, 12, 8);
+        lowStockAlertService.stockChanged(milkId, 8, 3);
+        lowStockAlertService.stockChanged(coffeeId, 52, 50);
+        assertTrue(submitted.isEmpty());
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        runSubmitted();
+
+        // Then
+        verify(inventoryRepository).findLowStockRowsByProductIdIn(List.of(milkId, coffeeId));
+        List<Notification> notifications = savedNotifications();
+        assertEquals(1, notifications.size());
+        assertEquals(ownerId, notifications.get(0).getShopId());
+        assertEquals(NotificationType.TON_KHO_THAP, notifications.get(0).getType());
+        assertEquals(milkId, notifications.get(0).getReferenceId());
+        assertEquals("Cần đặt hàng lại: Sữa tươi", notifications.get(0).getMessage());
+        assertNull(TransactionSynchronizationManager.getResource(lowStockAlertService));
+        assertEquals("tenant-a", TenantContext.getCurrentTenant());
+    }
+
+    @Test
+    void stockChanged_RolledBack_DispatchesNothing() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        lowStockAlertService.stockChanged(milkId, 12, 3);
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        // Then
+        assertTrue(submitted.isEmpty());
+        verifyNoInteractions(inventoryRepository, notificationRepository);
+    }
+
+    @Test
+    void stockChanged_IncreaseIsIgnored() {
+        // When
+        lowStockAlertService.stockChanged(milkId, 3, 20);
+
+        // Then
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    void process_NotifiesAgainOnlyWhenQuantityDropsFurther() {
+        // Given
+        givenOwner(true);
+        when(inventoryRepository.findLowStockRowsByProductIdIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{milkId, "Sữa tươi", true, 5, 10}))
+                .thenReturn(List.<Object[]>of(new Object[]{milkId, "Sữa tươi", true, 5, 10}))
+                .thenReturn(List.<Object[]>of(new Object[]{milkId, "Sữa tươi", true, 0, 10}));
+
+        // When
+        lowStockAlertService.stockChanged(milkId, 6, 5);
+        lowStockAlertService.stockChanged(milkId, 6, 5);
+        lowStockAlertService.stockChanged(milkId, 5, 0);
+        runSubmitted();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository, times(2)).saveAll(captor.capture());
+        assertEquals("Cần đặt hàng lại: Sữa tươi", captor.getAllValues().get(0).get(0).getMessage());
+        assertEquals("Hết hàng: Sữa tươi", captor.getAllValues().get(1).get(0).getMessage());
+    }
+
+    @Test
+    void process_SkipsInactiveProductsAndDisabledOwners() {
+        // Given
+        givenOwner(false);
+
+        // When
+        lowStockAlertService.stockChanged(milkId, 6, 5);
+        runSubmitted();
+
+        // Then
+        verifyNoInteractions(inventoryRepository);
+        verify(notificationRepository, never()).saveAll(any());
+
+        // Given
+        reset(notificationSettingsService);
+        when(notificationSettingsService.isNotificationEnabledForAccount(ownerId, "low_stock")).thenReturn(true);
+        when(inventoryRepository.findLowStockRowsByProductIdIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{coffeeId, "Cà phê", false, 1, 10}));
+
+        // When
+        lowStockAlertService.stockChanged(coffeeId, 2, 1);
+        runSubmitted();
+
+        // Then
+        verify(notificationRepository, never()).saveAll(any());
+    }
+}
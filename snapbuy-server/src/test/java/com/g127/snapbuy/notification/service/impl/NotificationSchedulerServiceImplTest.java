@@ -10,15 +10,26 @@ import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.inventory.repository.InventoryRepository;
 import com.g127.snapbuy.notification.repository.NotificationRepository;
 import com.g127.snapbuy.promotion.repository.PromotionRepository;
+import com.g127.snapbuy.notification.entity.Notification.NotificationType;
+import com.g127.snapbuy.tenant.entity.ScheduledJob;
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+import com.g127.snapbuy.tenant.service.ScheduledJobService;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -43,7 +54,14 @@ class NotificationSchedulerServiceImplTest {
     @Mock
     private NotificationSettingsService notificationSettingsService;
 
+    @Mock
+    private ScheduledJobService scheduledJobService;
+
+    @Mock
+    private TenantJobRunner tenantJobRunner;
+
     private NotificationSchedulerServiceImpl notificationSchedulerService;
+    private LowStockAlertServiceImpl lowStockAlertService;
 
     private Account testAccount;
     private Inventory testInventory;
@@ -79,16 +97,31 @@ class NotificationSchedulerServiceImplTest {
         testPromotion.setActive(true);
         testPromotion.setEndDate(LocalDateTime.now().plusDays(2));
 
+        ReferenceDataCacheServiceImpl referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+        TaskExecutor executor = Runnable::run;
+        lowStockAlertService = new LowStockAlertServiceImpl(inventoryRepository, notificationRepository,
+            accountRepository, notificationSettingsService, executor, referenceDataCacheService);
+        TenantContext.setCurrentTenant("tenant-1");
+
         notificationSchedulerService = new NotificationSchedulerServiceImpl(
             notificationService,
             notificationRepository,
             inventoryRepository,
             promotionRepository,
             accountRepository,
-            notificationSettingsService
+            notificationSettingsService,
+            scheduledJobService,
+            tenantJobRunner,
+            referenceDataCacheService,
+            lowStockAlertService
         );
     }
 
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
     @Test
     void checkLowStock_WithLowStockItems_CreatesNotifications() {
         // Given
@@ -112,6 +145,66 @@ class NotificationSchedulerServiceImplTest {
         );
     }
 
+    @Test
+    void checkLowStock_LevelAlreadyReportedByStockChange_NotifiesOnce() {
+        // Given - checkout làm tồn kho giảm xuống 5, cảnh báo theo sự kiện đã báo mức này
+        when(accountRepository.findByRoleName("Chủ cửa hàng"))
+            .thenReturn(Arrays.asList(testAccount));
+        when(notificationSettingsService.isNotificationEnabledForAccount(accountId, "low_stock"))
+            .thenReturn(true);
+        List<Object[]> lowStockRows = new ArrayList<>();
+        lowStockRows.add(new Object[]{productId, "Test Product", true, 5, 10});
+        when(inventoryRepository.findLowStockRowsByProductIdIn(List.of(productId)))
+            .thenReturn(lowStockRows);
+        when(inventoryRepository.findAll())
+            .thenReturn(Arrays.asList(testInventory));
+        lowStockAlertService.stockChanged(productId, 12, 5);
+
+        // When
+        notificationSchedulerService.checkLowStock();
+
+        // Then
+        verify(notificationRepository, times(1)).saveAll(anyList());
+        verify(notificationService, never()).createNotification(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void checkLowStock_StockChangeAlertNotSaved_ScanStillNotifies() {
+        // Given - cảnh báo theo sự kiện ghi nhận mức 5 nhưng lưu thông báo thất bại
+        when(accountRepository.findByRoleName("Chủ cửa hàng"))
+            .thenReturn(Arrays.asList(testAccount));
+        when(notificationSettingsService.isNotificationEnabledForAccount(accountId, "low_stock"))
+            .thenReturn(true);
+        List<Object[]> lowStockRows = new ArrayList<>();
+        lowStockRows.add(new Object[]{productId, "Test Product", true, 5, 10});
+        when(inventoryRepository.findLowStockRowsByProductIdIn(List.of(productId)))
+            .thenReturn(lowStockRows);
+        when(notificationRepository.saveAll(anyList()))
+            .thenThrow(new RuntimeException("deadlock victim"));
+        when(inventoryRepository.findAll())
+            .thenReturn(Arrays.asList(testInventory));
+        lowStockAlertService.stockChanged(productId, 12, 5);
+
+        // When
+        notificationSchedulerService.checkLowStock();
+
+        // Then - mức 5 chưa được báo nên lần quét vẫn thông báo
+        verify(notificationService).createNotification(
+            eq(accountId), eq(NotificationType.TON_KHO_THAP), anyString(), anyString(), eq(productId));
+    }
+
+    @Test
+    void checkLowStock_RepositoryFailure_Propagates() {
+        // Given
+        when(accountRepository.findByRoleName("Chủ cửa hàng"))
+            .thenReturn(Arrays.asList(testAccount));
+        when(inventoryRepository.findAll())
+            .thenThrow(new RuntimeException("connection reset"));
+
+        // When / Then - lỗi không bị nuốt, TenantJobRunner ghi nhận tenant thất bại
+        assertThrows(RuntimeException.class, () -> notificationSchedulerService.checkLowStock());
+    }
+
     @Test
     void checkLowStock_WithInactiveProduct_SkipsNotification() {
         // Given
@@ -157,13 +250,86 @@ class NotificationSchedulerServiceImplTest {
         verify(notificationService, never()).createNotification(any(), any(), any(), any(), any());
     }
 
+    @Test
+    void scheduledCheckLowStock_FansOutOverActiveTenants() {
+        // When
+        notificationSchedulerService.scheduledCheckLowStock();
+
+        // Then
+        verify(tenantJobRunner).runForActiveTenants(eq("low-stock-check"), any(Runnable.class));
+        verifyNoInteractions(inventoryRepository);
+    }
+
     @Test
     void cancelPromotionNotifications_Success() {
         // When
         notificationSchedulerService.cancelPromotionNotifications(promotionId);
 
-        // Then - No exception should be thrown
-        // This is a simple test to ensure the method doesn't fail
+        // Then
+        verify(scheduledJobService).cancel(JobType.PROMOTION_EXPIRING, promotionId);
+        verify(scheduledJobService).cancel(JobType.PROMOTION_EXPIRED, promotionId);
+    }
+
+    @Test
+    void schedulePromotionNotifications_PersistsExpiringAndExpiredJobs() {
+        // Given
+        when(promotionRepository.findById(promotionId)).thenReturn(Optional.of(testPromotion));
+        when(notificationRepository.findByReferenceIdAndType(eq(promotionId), any())).thenReturn(List.of());
+
+        // When
+        notificationSchedulerService.schedulePromotionNotifications(promotionId);
+
+        // Then
+        verify(scheduledJobService).schedule(JobType.PROMOTION_EXPIRING, promotionId, testPromotion.getEndDate().minusDays(1));
+        verify(scheduledJobService).schedule(JobType.PROMOTION_EXPIRED, promotionId, testPromotion.getEndDate());
+    }
+
+    @Test
+    void schedulePromotionNotifications_InactivePromotion_OnlyCancels() {
+        // Given
+        testPromotion.setActive(false);
+        when(promotionRepository.findById(promotionId)).thenReturn(Optional.of(testPromotion));
+        when(notificationRepository.findByReferenceIdAndType(eq(promotionId), any())).thenReturn(List.of());
+
+        // When
+        notificationSchedulerService.schedulePromotionNotifications(promotionId);
+
+        // Then
+        verify(scheduledJobService).cancel(JobType.PROMOTION_EXPIRED, promotionId);
+        verify(scheduledJobService, never()).schedule(any(), any(), any());
+    }
+
+    @Test
+    void handle_ExpiredJob_NotifiesEvenIfPromotionAlreadyDeactivated() {
+        // Given
+        testPromotion.setActive(false);
+        testPromotion.setEndDate(LocalDateTime.now().minusMinutes(1));
+        when(promotionRepository.findById(promotionId)).thenReturn(Optional.of(testPromotion));
+        when(accountRepository.findByRoleName("Chủ cửa hàng")).thenReturn(List.of(testAccount));
+        when(notificationSettingsService.isNotificationEnabledForAccount(accountId, "promotion")).thenReturn(true);
+        ScheduledJob job = ScheduledJob.builder().jobType(JobType.PROMOTION_EXPIRED).referenceId(promotionId).build();
+
+        // When
+        LocalDateTime nextRunAt = notificationSchedulerService.handle(job);
+
+        // Then
+        assertNull(nextRunAt);
+        verify(notificationService).createNotification(eq(accountId), eq(NotificationType.KHUYEN_MAI_HET_HAN),
+            anyString(), anyString(), eq(promotionId));
+    }
+
+    @Test
+    void handle_ExpiringJob_SkipsInactivePromotion() {
+        // Given
+        testPromotion.setActive(false);
+        when(promotionRepository.findById(promotionId)).thenReturn(Optional.of(testPromotion));
+        ScheduledJob job = ScheduledJob.builder().jobType(JobType.PROMOTION_EXPIRING).referenceId(promotionId).build();
+
+        // When
+        notificationSchedulerService.handle(job);
+
+        // Then
+        verify(notificationService, never()).createNotification(any(), any(), any(), any(), any());
     }
 
     @Test
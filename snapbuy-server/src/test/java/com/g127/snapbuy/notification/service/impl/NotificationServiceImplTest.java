@@ -8,11 +8,14 @@ import com.g127.snapbuy.notification.dto.response.NotificationResponse;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.notification.repository.NotificationRepository;
 import com.g127.snapbuy.common.response.PageResponse;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -47,6 +50,9 @@ class NotificationServiceImplTest {
     @Mock
     private Authentication authentication;
 
+    @Spy
+    private ReferenceDataCacheService referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+
     @InjectMocks
     private NotificationServiceImpl notificationService;
 
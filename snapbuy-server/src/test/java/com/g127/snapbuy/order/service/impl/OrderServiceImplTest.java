@@ -10,11 +10,13 @@ import com.g127.snapbuy.inventory.entity.Inventory;
 import com.g127.snapbuy.payment.entity.Payment;
 import com.g127.snapbuy.account.mapper.AccountMapper;
 import com.g127.snapbuy.order.mapper.OrderMapper;
-import com.g127.snapbuy.notification.service.NotificationSchedulerService;
+import com.g127.snapbuy.notification.service.LowStockAlertService;
+import com.g127.snapbuy.order.dto.request.OrderCreateRequest;
+import com.g127.snapbuy.order.dto.request.OrderDetailRequest;
 import com.g127.snapbuy.order.dto.response.OrderResponse;
 import com.g127.snapbuy.order.repository.OrderDetailRepository;
 import com.g127.snapbuy.order.repository.OrderRepository;
-import com.g127.snapbuy.payment.service.MoMoService;
+import com.g127.snapbuy.payment.service.MoMoPaymentIntentService;
 import com.g127.snapbuy.promotion.service.PromotionService;
 import com.g127.snapbuy.payment.repository.PaymentRepository;
 import com.g127.snapbuy.product.repository.ProductRepository;
@@ -23,13 +25,21 @@ import com.g127.snapbuy.inventory.repository.InventoryRepository;
 import com.g127.snapbuy.inventory.repository.InventoryTransactionRepository;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.customer.repository.CustomerRepository;
-import com.g127.snapbuy.settings.repository.PosSettingsRepository;
+import com.g127.snapbuy.settings.service.LoyaltyPolicyService;
+import com.g127.snapbuy.settings.service.LoyaltyPolicyService.LoyaltyPolicy;
+import com.g127.snapbuy.common.service.DocumentSequenceService;
+import com.g127.snapbuy.common.response.PageResponse;
+import com.g127.snapbuy.report.service.SalesRollupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -79,16 +89,22 @@ class OrderServiceImplTest {
     private AccountMapper accountMapper;
 
     @Mock
-    private MoMoService moMoService;
+    private MoMoPaymentIntentService moMoPaymentIntentService;
 
     @Mock
     private PromotionService promotionService;
 
     @Mock
-    private PosSettingsRepository posSettingsRepository;
+    private LoyaltyPolicyService loyaltyPolicyService;
 
     @Mock
-    private NotificationSchedulerService notificationSchedulerService;
+    private LowStockAlertService lowStockAlertService;
+
+    @Mock
+    private DocumentSequenceService documentSequenceService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
 
     @Mock
     private SecurityContext securityContext;
@@ -233,6 +249,185 @@ class OrderServiceImplTest {
         verify(orderRepository).findAll();
     }
 
+    @Test
+    void searchOrdersPaged_FiltersAndPagesInDatabase() {
+        // Given
+        Pageable pageable = PageRequest.of(2, 20);
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 15, 30);
+        LocalDateTime to = LocalDateTime.of(2025, 3, 31, 8, 0);
+        when(orderRepository.searchOrders("%tran van b%", "Hoàn tất",
+                LocalDateTime.of(2025, 3, 1, 0, 0),
+                LocalDateTime.of(2025, 3, 31, 23, 59, 59, 999999999), pageable))
+                .thenReturn(new PageImpl<>(List.of(testOrder), pageable, 41));
+        when(orderDetailRepository.findByOrderIdIn(List.of(orderId))).thenReturn(List.of(testOrderDetail));
+        when(paymentRepository.findByOrderIdIn(List.of(orderId))).thenReturn(List.of(testPayment));
+        when(orderMapper.toResponse(any(Order.class), anyList(), any(Payment.class), any(AccountMapper.class)))
+                .thenReturn(testOrderResponse);
+
+        // When
+        PageResponse<OrderResponse> result = orderService.searchOrdersPaged("Trần Văn B", " Hoàn tất ", from, to, pageable);
+
+        // Then
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(41);
+        assertThat(result.getTotalPages()).isEqualTo(3);
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void searchReturnOrders_WithoutKeyword_ReturnsWholeFilteredList() {
+        // Given
+        when(orderRepository.searchReturnOrders(isNull(), isNull(), isNull(), isNull(), eq(Pageable.unpaged())))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        // When
+        List<OrderResponse> result = orderService.searchReturnOrders("  ", null, null, null);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(orderDetailRepository, paymentRepository);
+    }
+
+    @Test
+    void createOrder_LoadsWholeBasketInBatch_Success() {
+        // Given
+        Product secondProduct = new Product();
+        secondProduct.setProductId(UUID.randomUUID());
+        secondProduct.setProductName("Second Product");
+        Inventory secondInventory = new Inventory();
+        secondInventory.setProduct(secondProduct);
+        secondInventory.setQuantityInStock(5);
+        ProductPrice secondPrice = new ProductPrice();
+        secondPrice.setProduct(secondProduct);
+        secondPrice.setUnitPrice(BigDecimal.valueOf(50000));
+        secondPrice.setValidFrom(LocalDateTime.now().minusDays(1));
+        testProductPrice.setValidFrom(LocalDateTime.now().minusDays(1));
+
+        OrderDetailRequest line1 = new OrderDetailRequest();
+        line1.setProductId(productId);
+        line1.setQuantity(2);
+        OrderDetailRequest line2 = new OrderDetailRequest();
+        line2.setProductId(secondProduct.getProductId());
+        line2.setQuantity(1);
+        OrderDetailRequest line3 = new OrderDetailRequest();
+        line3.setProductId(productId);
+        line3.setQuantity(3);
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setItems(Arrays.asList(line1, line2, line3));
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(accountRepository.findByUsername("testuser")).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(testAccount));
+        when(customerRepository.findById(guestCustomerId)).thenReturn(Optional.of(guestCustomer));
+        when(productRepository.findAllWithCategoryAndSupplierByIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testProduct, secondProduct));
+        when(inventoryRepository.lockByProductIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testInventory, secondInventory));
+        when(productPriceRepository.findCurrentPricesByProductIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testProductPrice, secondPrice));
+        when(promotionService.computeBestDiscountPercents(anyMap(), any(LocalDateTime.class)))
+                .thenReturn(Map.of(productId, BigDecimal.TEN));
+        when(orderMapper.toResponse(any(Order.class), anyList(), any(Payment.class), any(AccountMapper.class)))
+                .thenReturn(testOrderResponse);
+        when(documentSequenceService.nextValue(startsWith("ORD"), any())).thenReturn(7L);
+
+        // When
+        OrderResponse result = orderService.createOrder(request);
+
+        // Then
+        ArgumentCaptor<Order> savedOrder = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, atLeastOnce()).save(savedOrder.capture());
+        assertThat(savedOrder.getAllValues().get(0).getOrderNumber()).matches("ORD\\d{6}007");
+        verify(orderRepository, never()).countByCreatedDateBetween(any(), any());
+        assertThat(result.getSubtotal()).isEqualByComparingTo(BigDecimal.valueOf(550000));
+        assertThat(testInventory.getQuantityInStock()).isEqualTo(95);
+        assertThat(secondInventory.getQuantityInStock()).isEqualTo(4);
+        verify(inventoryRepository).saveAll(anyCollection());
+        verify(productRepository, never()).findById(any());
+        verify(inventoryRepository, never()).findByProduct(any());
+        verify(productPriceRepository, never()).findCurrentPriceByProductId(any());
+        verify(promotionService, never()).computeBestDiscountPercent(any(), any(), any());
+        verify(lowStockAlertService).stockChanged(productId, 100, 95);
+        verify(lowStockAlertService).stockChanged(secondProduct.getProductId(), 5, 4);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOrder_PromotionPricedFromCurrentPrice_NotFirstLine() {
+        // Given
+        testProductPrice.setValidFrom(LocalDateTime.now().minusDays(1));
+
+        OrderDetailRequest line1 = new OrderDetailRequest();
+        line1.setProductId(productId);
+        line1.setQuantity(1);
+        line1.setUnitPrice(BigDecimal.valueOf(20000));
+        OrderDetailRequest line2 = new OrderDetailRequest();
+        line2.setProductId(productId);
+        line2.setQuantity(1);
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setItems(Arrays.asList(line1, line2));
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(accountRepository.findByUsername("testuser")).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(testAccount));
+        when(customerRepository.findById(guestCustomerId)).thenReturn(Optional.of(guestCustomer));
+        when(productRepository.findAllWithCategoryAndSupplierByIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testProduct));
+        when(inventoryRepository.lockByProductIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testInventory));
+        when(productPriceRepository.findCurrentPricesByProductIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testProductPrice));
+        when(promotionService.computeBestDiscountPercents(anyMap(), any(LocalDateTime.class)))
+                .thenReturn(Map.of());
+        when(orderMapper.toResponse(any(Order.class), anyList(), any(Payment.class), any(AccountMapper.class)))
+                .thenReturn(testOrderResponse);
+        when(documentSequenceService.nextValue(startsWith("ORD"), any())).thenReturn(1L);
+
+        // When
+        orderService.createOrder(request);
+
+        // Then
+        ArgumentCaptor<Map<UUID, BigDecimal>> prices = ArgumentCaptor.forClass(Map.class);
+        verify(promotionService).computeBestDiscountPercents(prices.capture(), any(LocalDateTime.class));
+        assertThat(prices.getValue().get(productId)).isEqualByComparingTo(BigDecimal.valueOf(100000));
+    }
+
+    @Test
+    void createOrder_InsufficientStockAcrossLines_ThrowsException() {
+        // Given
+        testInventory.setQuantityInStock(4);
+        testProductPrice.setValidFrom(LocalDateTime.now().minusDays(1));
+
+        OrderDetailRequest line1 = new OrderDetailRequest();
+        line1.setProductId(productId);
+        line1.setQuantity(3);
+        OrderDetailRequest line2 = new OrderDetailRequest();
+        line2.setProductId(productId);
+        line2.setQuantity(2);
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setItems(Arrays.asList(line1, line2));
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(accountRepository.findByUsername("testuser")).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(testAccount));
+        when(customerRepository.findById(guestCustomerId)).thenReturn(Optional.of(guestCustomer));
+        when(productRepository.findAllWithCategoryAndSupplierByIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testProduct));
+        when(inventoryRepository.lockByProductIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testInventory));
+        when(productPriceRepository.findCurrentPricesByProductIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(testProductPrice));
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.createOrder(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Không đủ tồn kho");
+        verify(inventoryRepository, never()).saveAll(anyCollection());
+    }
+
     @Test
     void cancelOrder_UnpaidOrder_Success() {
         // Given
@@ -253,6 +448,28 @@ class OrderServiceImplTest {
         verify(orderRepository).save(testOrder);
         verify(paymentRepository).save(testPayment);
         verify(inventoryRepository).save(testInventory);
+        verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    void cancelOrder_PaidOrder_RefundsAndRemovesFromSalesRollup() {
+        // Given
+        testOrder.setPaymentStatus("Đã thanh toán");
+        testOrder.setOrderStatus("Hoàn tất");
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(paymentRepository.findByOrder_OrderId(orderId)).thenReturn(Arrays.asList(testPayment));
+        when(orderDetailRepository.findByOrder(testOrder)).thenReturn(Arrays.asList(testOrderDetail));
+        when(inventoryRepository.findByProduct(testProduct)).thenReturn(Optional.of(testInventory));
+        when(orderMapper.toResponse(any(Order.class), anyList(), any(Payment.class), any(AccountMapper.class)))
+                .thenReturn(testOrderResponse);
+
+        // When
+        orderService.cancelOrder(orderId);
+
+        // Then
+        assertThat(testOrder.getPaymentStatus()).isEqualTo("Đã hoàn tiền");
+        verify(salesRollupService).recordRefundedOrder(orderId);
+        verify(salesRollupService, never()).recordPaidOrder(any());
     }
 
     @Test
@@ -274,7 +491,7 @@ class OrderServiceImplTest {
         when(paymentRepository.findByOrder_OrderId(orderId)).thenReturn(Arrays.asList(testPayment));
         when(orderDetailRepository.findByOrder(testOrder)).thenReturn(Arrays.asList(testOrderDetail));
         when(customerRepository.save(any(Customer.class))).thenReturn(testCustomer);
-        when(accountRepository.findByRoleName("Chủ cửa hàng")).thenReturn(new ArrayList<>());
+        when(loyaltyPolicyService.getPolicy()).thenReturn(LoyaltyPolicy.NONE);
         when(orderMapper.toResponse(any(Order.class), anyList(), any(Payment.class), any(AccountMapper.class)))
                 .thenReturn(testOrderResponse);
 
@@ -285,6 +502,48 @@ class OrderServiceImplTest {
         assertThat(result).isNotNull();
         verify(orderRepository, atLeastOnce()).findById(orderId);
         verify(orderRepository).save(any(Order.class));
+        verify(salesRollupService).recordPaidOrder(orderId);
+    }
+
+    @Test
+    void completeOrder_NoPointsEarnedYet_UsesLoyaltyPolicy() {
+        // Given
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(paymentRepository.findByOrder_OrderId(orderId)).thenReturn(Arrays.asList(testPayment));
+        when(orderDetailRepository.findByOrder(testOrder)).thenReturn(Arrays.asList(testOrderDetail));
+        when(customerRepository.save(any(Customer.class))).thenReturn(testCustomer);
+        when(loyaltyPolicyService.getPolicy()).thenReturn(new LoyaltyPolicy(BigDecimal.valueOf(2)));
+        when(orderMapper.toResponse(any(Order.class), anyList(), any(Payment.class), any(AccountMapper.class)))
+                .thenReturn(testOrderResponse);
+
+        // When
+        orderService.completeOrder(orderId);
+
+        // Then
+        assertThat(testOrder.getPointsEarned()).isEqualTo(2000);
+        assertThat(testCustomer.getPoints()).isEqualTo(2100);
+        verify(accountRepository, never()).findByRoleName(any());
+    }
+
+    @Test
+    void completeOrder_SalesRollupFails_PaymentStillFinalized() {
+        // Given
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(paymentRepository.findByOrder_OrderId(orderId)).thenReturn(Arrays.asList(testPayment));
+        when(orderDetailRepository.findByOrder(testOrder)).thenReturn(Arrays.asList(testOrderDetail));
+        when(customerRepository.save(any(Customer.class))).thenReturn(testCustomer);
+        when(loyaltyPolicyService.getPolicy()).thenReturn(LoyaltyPolicy.NONE);
+        when(orderMapper.toResponse(any(Order.class), anyList(), any(Payment.class), any(AccountMapper.class)))
+                .thenReturn(testOrderResponse);
+        doThrow(new RuntimeException("Deadlock")).when(salesRollupService).recordPaidOrder(orderId);
+
+        // When
+        OrderResponse result = orderService.completeOrder(orderId);
+
+        // Then
+        assertThat(result).isNotNull();
+        assertThat(testOrder.getPaymentStatus()).isEqualTo("Đã thanh toán");
+        verify(paymentRepository).save(testPayment);
     }
 
     @Test
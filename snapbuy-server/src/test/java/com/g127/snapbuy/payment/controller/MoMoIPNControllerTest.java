@@ -0,0 +1,137 @@
+package com.g127.snapbuy.payment.controller;
+
+import com.g127.snapbuy.order.entity.Order;
+import com.g127.snapbuy.order.repository.OrderRepository;
+import com.g127.snapbuy.payment.entity.Payment;
+import com.g127.snapbuy.payment.repository.PaymentRepository;
+import com.g127.snapbuy.payment.service.PaymentService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MoMoIPNControllerTest {
+
+    private static final String SECRET_KEY = "test-secret";
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @InjectMocks
+    private MoMoIPNController controller;
+
+    private Order testOrder;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "devSecretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(controller, "momoTarget", "dev");
+
+        testOrder = new Order();
+        testOrder.setOrderId(UUID.randomUUID());
+        testOrder.setOrderNumber("ORD251018001");
+        testOrder.setPaymentStatus("Chưa thanh toán");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void handleNotify_Success_MarksPaidThroughPaymentService() throws Exception {
+        // Given
+        when(orderRepository.findByOrderNumber("ORD251018001")).thenReturn(Optional.of(testOrder));
+        when(paymentRepository.findByOrder(testOrder)).thenReturn(new Payment());
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.handleNotify("tenant-1", signedPayload(0));
+
+        // Then
+        assertEquals(0, response.getBody().get("resultCode"));
+        verify(paymentService).markMoMoPaid(testOrder.getOrderId(), "TRANS-1");
+        verify(orderRepository, never()).save(any());
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    void handleNotify_Failure_MarksPaymentFailedWithoutCancellingOrder() throws Exception {
+        // Given
+        when(orderRepository.findByOrderNumber("ORD251018001")).thenReturn(Optional.of(testOrder));
+        when(paymentRepository.findByOrder(testOrder)).thenReturn(new Payment());
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.handleNotify("tenant-1", signedPayload(1006));
+
+        // Then
+        assertEquals(1006, response.getBody().get("resultCode"));
+        verify(paymentService).markMoMoFailed(testOrder.getOrderId(), false);
+        verify(paymentService, never()).markMoMoPaid(any(), any());
+    }
+
+    @Test
+    void handleNotify_InvalidSignature_Unauthorized() throws Exception {
+        // Given
+        Map<String, Object> payload = signedPayload(0);
+        payload.put("signature", "invalid");
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.handleNotify("tenant-1", payload);
+
+        // Then
+        assertEquals(401, response.getStatusCode().value());
+        verifyNoInteractions(paymentService, orderRepository);
+    }
+
+    private Map<String, Object> signedPayload(int resultCode) throws Exception {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("accessKey", "access");
+        payload.put("partnerCode", "MOMO");
+        payload.put("orderId", "ORD251018001-1700000000000");
+        payload.put("requestId", "REQ-1");
+        payload.put("amount", 100000L);
+        payload.put("orderInfo", "Thanh toan");
+        payload.put("orderType", "momo_wallet");
+        payload.put("transId", "TRANS-1");
+        payload.put("resultCode", resultCode);
+        payload.put("message", "ok");
+        payload.put("payType", "qr");
+        payload.put("responseTime", 1700000000000L);
+        payload.put("extraData", "");
+
+        String rawHash = "accessKey=access&amount=100000&extraData=&message=ok"
+                + "&orderId=ORD251018001-1700000000000&orderInfo=Thanh toan&orderType=momo_wallet"
+                + "&partnerCode=MOMO&payType=qr&requestId=REQ-1&responseTime=1700000000000"
+                + "&resultCode=" + resultCode + "&transId=TRANS-1";
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        payload.put("signature", HexFormat.of().formatHex(mac.doFinal(rawHash.getBytes(StandardCharsets.UTF_8))));
+        return payload;
+    }
+}
@@ -0,0 +1,144 @@
+package com.g127.snapbuy.payment.service.impl;
+
+import com.g127.snapbuy.payment.dto.response.MomoPaymentIntentResponse;
+import com.g127.snapbuy.payment.dto.response.MomoPaymentResponse;
+import com.g127.snapbuy.payment.entity.Payment;
+import com.g127.snapbuy.payment.repository.PaymentRepository;
+import com.g127.snapbuy.payment.service.MoMoPaymentIntentService;
+import com.g127.snapbuy.payment.service.MoMoService;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MoMoPaymentIntentServiceImplTest {
+
+    @Mock
+    private MoMoService moMoService;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private MoMoPaymentIntentServiceImpl intentService;
+
+    private UUID orderId;
+    private UUID paymentId;
+
+    @BeforeEach
+    void setUp() {
+        orderId = UUID.randomUUID();
+        paymentId = UUID.randomUUID();
+        intentService = new MoMoPaymentIntentServiceImpl(moMoService, paymentRepository, new SyncTaskExecutor());
+        TenantContext.setCurrentTenant("tenant-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void submitAfterCommit_NoTransaction_StoresPayUrl() {
+        // Given
+        MomoPaymentResponse resp = MomoPaymentResponse.builder()
+                .requestId("req-1")
+                .payUrl("https://stub.momo/pay/1")
+                .build();
+        when(moMoService.createPayment(orderId)).thenReturn(resp);
+
+        // When
+        intentService.submitAfterCommit(orderId, paymentId);
+
+        // Then
+        verify(paymentRepository).updateReferenceAndNotes(paymentId, "req-1", "PAYURL:https://stub.momo/pay/1");
+    }
+
+    @Test
+    void submitAfterCommit_InTransaction_WaitsForCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        when(moMoService.createPayment(orderId)).thenReturn(MomoPaymentResponse.builder()
+                .requestId("req-1")
+                .payUrl("https://stub.momo/pay/1")
+                .build());
+
+        // When
+        intentService.submitAfterCommit(orderId, paymentId);
+
+        // Then
+        verifyNoInteractions(moMoService);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+
+        synchronizations.get(0).afterCommit();
+        verify(moMoService).createPayment(orderId);
+        verify(paymentRepository).updateReferenceAndNotes(eq(paymentId), eq("req-1"), startsWith("PAYURL:"));
+    }
+
+    @Test
+    void submitAfterCommit_GatewayError_MarksFailed() {
+        // Given
+        when(moMoService.createPayment(orderId)).thenThrow(new RuntimeException("Read timed out"));
+
+        // When
+        intentService.submitAfterCommit(orderId, paymentId);
+
+        // Then
+        verify(paymentRepository).updateReferenceAndNotes(paymentId, null, "PAYURL_FAILED:Read timed out");
+        assertEquals("tenant-1", TenantContext.getCurrentTenant());
+    }
+
+    @Test
+    void submitAfterCommit_ExecutorFull_MarksFailed() {
+        // Given
+        TaskExecutor rejecting = task -> {
+            throw new TaskRejectedException("queue full");
+        };
+        intentService = new MoMoPaymentIntentServiceImpl(moMoService, paymentRepository, rejecting);
+
+        // When
+        intentService.submitAfterCommit(orderId, paymentId);
+
+        // Then
+        verifyNoInteractions(moMoService);
+        verify(paymentRepository).updateReferenceAndNotes(eq(paymentId), isNull(), startsWith("PAYURL_FAILED:"));
+    }
+
+    @Test
+    void getIntent_ReadyPending() {
+        // Given
+        Payment payment = new Payment();
+        payment.setNotes("PAYURL:https://stub.momo/pay/1");
+        when(paymentRepository.findByOrder_OrderId(orderId)).thenReturn(List.of(payment));
+
+        // When
+        MomoPaymentIntentResponse ready = intentService.getIntent(orderId);
+        payment.setNotes(MoMoPaymentIntentService.PENDING_NOTE);
+        MomoPaymentIntentResponse pending = intentService.getIntent(orderId);
+
+        // Then
+        assertEquals(MoMoPaymentIntentService.STATUS_READY, ready.getStatus());
+        assertEquals("https://stub.momo/pay/1", ready.getPayUrl());
+        assertEquals(MoMoPaymentIntentService.STATUS_PENDING, pending.getStatus());
+        assertNull(pending.getPayUrl());
+    }
+}
@@ -2,6 +2,9 @@ package com.g127.snapbuy.payment.service.impl;
 
 import com.g127.snapbuy.order.entity.Order;
 import com.g127.snapbuy.order.repository.OrderRepository;
+import com.g127.snapbuy.payment.dto.response.MomoPaymentResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,7 +13,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,6 +34,7 @@ class MoMoServiceImplTest {
 
     private Order testOrder;
     private UUID orderId;
+    private HttpServer stubMoMoServer;
 
     @BeforeEach
     void setUp() {
@@ -45,6 +52,38 @@ class MoMoServiceImplTest {
         ReflectionTestUtils.setField(moMoService, "partnerCode", "test-partner");
         ReflectionTestUtils.setField(moMoService, "secretKey", "test-secret-key");
         ReflectionTestUtils.setField(moMoService, "createUrl", "/v2/gateway/api/create");
+        ReflectionTestUtils.setField(moMoService, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(moMoService, "readTimeoutMs", 500);
+        moMoService.initRestTemplate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (stubMoMoServer != null) {
+            stubMoMoServer.stop(0);
+        }
+    }
+
+    private void startStubMoMoServer(long delayMs) throws Exception {
+        stubMoMoServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubMoMoServer.createContext("/create", exchange -> {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"requestId\":\"req-1\",\"payUrl\":\"https://stub.momo/pay/1\",\"resultCode\":\"0\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        stubMoMoServer.start();
+        ReflectionTestUtils.setField(moMoService, "momoEndpoint",
+                "http://127.0.0.1:" + stubMoMoServer.getAddress().getPort());
+        ReflectionTestUtils.setField(moMoService, "createUrl", "/create");
     }
 
     @Test
@@ -70,4 +109,30 @@ class MoMoServiceImplTest {
         
         verify(orderRepository).findById(orderId);
     }
+
+    @Test
+    void createPayment_StubGateway_ReturnsPayUrl() throws Exception {
+        // Given
+        startStubMoMoServer(0);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+
+        // When
+        MomoPaymentResponse result = moMoService.createPayment(orderId);
+
+        // Then
+        assertEquals("https://stub.momo/pay/1", result.getPayUrl());
+        assertEquals("req-1", result.getRequestId());
+    }
+
+    @Test
+    void createPayment_SlowGateway_TimesOut() throws Exception {
+        // Given
+        startStubMoMoServer(2000);
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+
+        // When & Then
+        long start = System.currentTimeMillis();
+        assertThrows(RuntimeException.class, () -> moMoService.createPayment(orderId));
+        assertTrue(System.currentTimeMillis() - start < 1900);
+    }
 }
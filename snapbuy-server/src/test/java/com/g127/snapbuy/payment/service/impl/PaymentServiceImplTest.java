@@ -8,6 +8,7 @@ import com.g127.snapbuy.payment.entity.Payment;
 import com.g127.snapbuy.payment.service.MoMoService;
 import com.g127.snapbuy.order.repository.OrderRepository;
 import com.g127.snapbuy.payment.repository.PaymentRepository;
+import com.g127.snapbuy.report.service.SalesRollupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,6 +35,9 @@ class PaymentServiceImplTest {
     @Mock
     private MoMoService moMoService;
 
+    @Mock
+    private SalesRollupService salesRollupService;
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -172,6 +176,20 @@ class PaymentServiceImplTest {
             "Đã thanh toán".equals(order.getPaymentStatus()) &&
             "Hoàn tất".equals(order.getOrderStatus())
         ));
+        verify(salesRollupService).recordPaidOrder(orderId);
+    }
+
+    @Test
+    void finalizePayment_AlreadyPaid_DoesNotCountTwice() {
+        // Given
+        testOrder.setPaymentStatus("Đã thanh toán");
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+
+        // When
+        paymentService.finalizePayment(paymentId);
+
+        // Then
+        verifyNoInteractions(salesRollupService);
     }
 
     @Test
@@ -203,6 +221,23 @@ class PaymentServiceImplTest {
         verify(orderRepository).save(argThat(order ->
             "Đã hoàn tiền".equals(order.getPaymentStatus())
         ));
+        // Đơn chưa từng được tính vào doanh số thì không trừ
+        verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    void refundPayment_PaidOrder_RemovesFromRollup() {
+        // Given
+        testOrder.setPaymentStatus("Đã thanh toán");
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+
+        // When
+        paymentService.refundPayment(paymentId);
+
+        // Then
+        assertEquals("Đã hoàn tiền", testOrder.getPaymentStatus());
+        verify(salesRollupService).recordRefundedOrder(orderId);
+        verify(salesRollupService, never()).recordPaidOrder(any());
     }
 
     @Test
@@ -265,6 +300,39 @@ class PaymentServiceImplTest {
         verify(orderRepository).save(argThat(order ->
             "Đã thanh toán".equals(order.getPaymentStatus())
         ));
+        verify(salesRollupService).recordPaidOrder(orderId);
+    }
+
+    @Test
+    void markMoMoPaid_RecordsRollup() {
+        // Given
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(paymentRepository.findByOrder(testOrder)).thenReturn(testPayment);
+
+        // When
+        Order result = paymentService.markMoMoPaid(orderId, "TRANS-1");
+
+        // Then
+        assertEquals("Đã thanh toán", result.getPaymentStatus());
+        assertEquals("Hoàn tất", result.getOrderStatus());
+        assertEquals("Đã thanh toán", testPayment.getPaymentStatus());
+        assertEquals("TRANS-1", testPayment.getTransactionReference());
+        verify(salesRollupService).recordPaidOrder(orderId);
+    }
+
+    @Test
+    void markMoMoFailed_CancelUnpaidOrder_NoRollupChange() {
+        // Given
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(paymentRepository.findByOrder(testOrder)).thenReturn(testPayment);
+
+        // When
+        Order result = paymentService.markMoMoFailed(orderId, true);
+
+        // Then
+        assertEquals("Đã hủy", result.getOrderStatus());
+        assertEquals("Thất bại", testPayment.getPaymentStatus());
+        verifyNoInteractions(salesRollupService);
     }
 
     @Test
@@ -8,12 +8,20 @@ import com.g127.snapbuy.common.exception.AppException;
 import com.g127.snapbuy.common.exception.ErrorCode;
 import com.g127.snapbuy.product.mapper.CategoryMapper;
 import com.g127.snapbuy.product.repository.CategoryRepository;
+import com.g127.snapbuy.common.response.PageResponse;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
+import com.g127.snapbuy.tenant.context.TenantContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.util.*;
 
@@ -30,6 +38,9 @@ class CategoryServiceImplTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Spy
+    private ReferenceDataCacheService referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -75,6 +86,7 @@ class CategoryServiceImplTest {
         assertNotNull(result);
         assertEquals(categoryResponse.getCategoryName(), result.getCategoryName());
         verify(categoryRepository).save(any(Category.class));
+        verify(referenceDataCacheService).evict(ReferenceDataCacheService.CATEGORIES);
     }
 
     @Test
@@ -140,6 +152,30 @@ class CategoryServiceImplTest {
         verify(categoryRepository).findAll();
     }
 
+    @Test
+    void getAllCategories_WithinTenant_CachedUntilCategoryChanges() {
+        // Given
+        UUID categoryId = testCategory.getCategoryId();
+        TenantContext.setCurrentTenant("tenant-a");
+        when(categoryRepository.findAll()).thenReturn(Arrays.asList(testCategory));
+        when(categoryMapper.toResponse(any(Category.class))).thenReturn(categoryResponse);
+        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
+        when(categoryRepository.findByParentCategoryId(categoryId)).thenReturn(List.of());
+
+        try {
+            // When
+            categoryService.getAllCategories();
+            categoryService.getAllCategories();
+            categoryService.deleteCategory(categoryId);
+            categoryService.getAllCategories();
+
+            // Then
+            verify(categoryRepository, times(2)).findAll();
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
     @Test
     void getAllCategories_EmptyList_ReturnsEmptyList() {
         // Given
@@ -403,4 +439,22 @@ class CategoryServiceImplTest {
         verify(categoryRepository, atLeastOnce()).save(any(Category.class));
     }
 
+
+    @Test
+    void searchParentCategoriesByKeyword_PagesInDatabaseWithNormalizedKeyword() {
+        // Given
+        Pageable pageable = PageRequest.of(1, 10);
+        when(categoryRepository.searchParentCategories("%do uong%", pageable))
+            .thenReturn(new PageImpl<>(List.of(testCategory), pageable, 11));
+        when(categoryMapper.toResponse(testCategory)).thenReturn(categoryResponse);
+
+        // When
+        PageResponse<CategoryResponse> result = categoryService.searchParentCategoriesByKeyword(" Đồ Uống ", pageable);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals(11, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        assertTrue(result.isLast());
+    }
 }
@@ -0,0 +1,144 @@
+package com.g127.snapbuy.product.service.impl;
+
+import com.g127.snapbuy.product.entity.Category;
+import com.g127.snapbuy.product.entity.Product;
+import com.g127.snapbuy.product.repository.ProductRepository;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndexServiceImpl searchIndexService;
+
+    private final UUID milkCategoryId = UUID.randomUUID();
+    private final UUID drinkCategoryId = UUID.randomUUID();
+    private final UUID milkId = UUID.randomUUID();
+    private final UUID coffeeId = UUID.randomUUID();
+    private final UUID yogurtId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        searchIndexService = new ProductSearchIndexServiceImpl(productRepository, 600000);
+        TenantContext.setCurrentTenant("tenant-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    private void givenRows() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{milkId, "SP001", "Sữa tươi Vinamilk", "8934673000001", true, milkCategoryId, now.minusDays(2)});
+        rows.add(new Object[]{coffeeId, "SP002", "Cà phê đen đá", null, true, drinkCategoryId, now.minusDays(1)});
+        rows.add(new Object[]{yogurtId, "SP003", "Sữa chua Đà Lạt", "8934673000002", false, milkCategoryId, now});
+        when(productRepository.findSearchIndexRows()).thenReturn(rows);
+    }
+
+    @Test
+    void search_IgnoresDiacriticsAndOrdersNewestFirst() {
+        // Given
+        givenRows();
+
+        // When
+        Page<UUID> result = searchIndexService.search("SUA", null, null, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of(yogurtId, milkId), result.getContent());
+        assertEquals(2, result.getTotalElements());
+    }
+
+    @Test
+    void search_MatchesBarcodeAndShortKeyword() {
+        // Given
+        givenRows();
+
+        // When
+        Page<UUID> byBarcode = searchIndexService.search("73000001", null, null, PageRequest.of(0, 10));
+        Page<UUID> shortKeyword = searchIndexService.search("đa", null, null, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of(milkId), byBarcode.getContent());
+        assertEquals(List.of(yogurtId, coffeeId), shortKeyword.getContent());
+    }
+
+    @Test
+    void search_FiltersByActiveAndCategoryAndPaginates() {
+        // Given
+        givenRows();
+
+        // When
+        Page<UUID> activeMilk = searchIndexService.search(null, true, Set.of(milkCategoryId), PageRequest.of(0, 10));
+        Page<UUID> secondPage = searchIndexService.search(null, null, null, PageRequest.of(1, 2));
+
+        // Then
+        assertEquals(List.of(milkId), activeMilk.getContent());
+        assertEquals(List.of(milkId), secondPage.getContent());
+        assertEquals(3, secondPage.getTotalElements());
+        verify(productRepository, times(1)).findSearchIndexRows();
+    }
+
+    @Test
+    void upsert_ReindexesChangedNameAndRemoveDropsProduct() {
+        // Given
+        givenRows();
+        searchIndexService.search(null, null, null, PageRequest.of(0, 10));
+
+        Category category = new Category();
+        category.setCategoryId(drinkCategoryId);
+        Product coffee = new Product();
+        coffee.setProductId(coffeeId);
+        coffee.setProductCode("SP002");
+        coffee.setProductName("Trà đào");
+        coffee.setCategory(category);
+        coffee.setActive(true);
+        coffee.setCreatedDate(now.minusDays(1));
+
+        // When
+        searchIndexService.upsert(coffee);
+        searchIndexService.remove(milkId);
+
+        // Then
+        assertTrue(searchIndexService.search("ca phe", null, null, PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of(coffeeId), searchIndexService.search("tra dao", null, null, PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(yogurtId), searchIndexService.search("sua", null, null, PageRequest.of(0, 10)).getContent());
+        verify(productRepository, times(1)).findSearchIndexRows();
+    }
+
+    @Test
+    void search_KeepsIndexesSeparatePerTenant() {
+        // Given
+        givenRows();
+        searchIndexService.search("sua", null, null, PageRequest.of(0, 10));
+
+        // When
+        TenantContext.setCurrentTenant("tenant-b");
+        when(productRepository.findSearchIndexRows()).thenReturn(List.of());
+        Page<UUID> result = searchIndexService.search("sua", null, null, PageRequest.of(0, 10));
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(productRepository, times(2)).findSearchIndexRows();
+    }
+}
@@ -1,5 +1,6 @@
 package com.g127.snapbuy.product.service.impl;
 
+import com.g127.snapbuy.common.response.PageResponse;
 import com.g127.snapbuy.product.dto.response.ProductResponse;
 import com.g127.snapbuy.product.entity.Category;
 import com.g127.snapbuy.product.entity.Product;
@@ -8,14 +9,21 @@ import com.g127.snapbuy.common.exception.AppException;
 import com.g127.snapbuy.common.exception.ErrorCode;
 import com.g127.snapbuy.product.mapper.ProductMapper;
 import com.g127.snapbuy.product.repository.*;
+import com.g127.snapbuy.product.service.ProductSearchIndexService;
 import com.g127.snapbuy.inventory.repository.InventoryRepository;
 import com.g127.snapbuy.supplier.repository.SupplierRepository;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -45,6 +53,12 @@ class ProductServiceImplTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ProductSearchIndexService productSearchIndexService;
+
+    @Spy
+    private ReferenceDataCacheService referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -256,6 +270,7 @@ class ProductServiceImplTest {
         verify(productRepository).save(argThat(product -> 
             product.getActive() != null && product.getActive()
         ));
+        verify(productSearchIndexService).upsert(testProduct);
     }
 
     @Test
@@ -300,4 +315,43 @@ class ProductServiceImplTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void searchProductsPaged_HydratesOnlyReturnedPage() {
+        // Given
+        Pageable pageable = PageRequest.of(1, 1);
+        when(categoryRepository.findByParentCategoryId(parentCategoryId)).thenReturn(List.of(testCategory));
+        when(productSearchIndexService.search(eq("sua"), eq(true), eq(Set.of(parentCategoryId, categoryId)), eq(pageable)))
+            .thenReturn(new PageImpl<>(List.of(productId), pageable, 3));
+        when(productRepository.findAllById(List.of(productId))).thenReturn(List.of(testProduct));
+        when(productMapper.toResponse(testProduct)).thenReturn(productResponse);
+        when(categoryRepository.findById(parentCategoryId)).thenReturn(Optional.of(parentCategory));
+
+        // When
+        PageResponse<ProductResponse> result = productService.searchProductsPaged("sua", true, parentCategoryId, null, pageable);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals(3, result.getTotalElements());
+        assertEquals("Parent Category", result.getContent().get(0).getParentCategoryName());
+        assertEquals("Test Category", result.getContent().get(0).getSubCategoryName());
+        verify(productRepository).findAllById(List.of(productId));
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void searchProductsPaged_SubCategoryWithoutParent_SearchesEmptyCategorySet() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 20);
+        when(categoryRepository.findById(parentCategoryId)).thenReturn(Optional.of(parentCategory));
+        when(productSearchIndexService.search(null, null, Set.of(), pageable))
+            .thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+        // When
+        PageResponse<ProductResponse> result = productService.searchProductsPaged(null, null, null, parentCategoryId, pageable);
+
+        // Then
+        assertTrue(result.getContent().isEmpty());
+        verify(productRepository, never()).findAllById(any());
+    }
 }
@@ -0,0 +1,181 @@
+package com.g127.snapbuy.promotion.service.impl;
+
+import com.g127.snapbuy.product.entity.Product;
+import com.g127.snapbuy.promotion.entity.Promotion;
+import com.g127.snapbuy.promotion.entity.Promotion.DiscountType;
+import com.g127.snapbuy.promotion.repository.PromotionRepository;
+import com.g127.snapbuy.promotion.service.PromotionIndexService.ActivePromotion;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PromotionIndexServiceImplTest {
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    private PromotionIndexServiceImpl promotionIndexService;
+
+    private final UUID milkId = UUID.randomUUID();
+    private final UUID coffeeId = UUID.randomUUID();
+    private final UUID summerSaleId = UUID.randomUUID();
+    private final UUID flashSaleId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 15, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        promotionIndexService = new PromotionIndexServiceImpl(promotionRepository, 600000);
+        TenantContext.setCurrentTenant("tenant-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    private void givenRows() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{summerSaleId, DiscountType.PERCENT, BigDecimal.valueOf(10),
+                now.minusDays(5), now.plusDays(5), milkId});
+        rows.add(new Object[]{summerSaleId, DiscountType.PERCENT, BigDecimal.valueOf(10),
+                now.minusDays(5), now.plusDays(5), coffeeId});
+        rows.add(new Object[]{flashSaleId, DiscountType.FIXED, BigDecimal.valueOf(5000),
+                now.plusHours(1), now.plusHours(3), milkId});
+        when(promotionRepository.findActivePromotionProductRows()).thenReturn(rows);
+    }
+
+    private Promotion promotion(UUID id, boolean active, LocalDateTime start, LocalDateTime end, UUID... productIds) {
+        Promotion promotion = new Promotion();
+        promotion.setPromotionId(id);
+        promotion.setDiscountType(DiscountType.PERCENT);
+        promotion.setDiscountValue(BigDecimal.valueOf(20));
+        promotion.setStartDate(start);
+        promotion.setEndDate(end);
+        promotion.setActive(active);
+        for (UUID productId : productIds) {
+            Product product = new Product();
+            product.setProductId(productId);
+            promotion.getProducts().add(product);
+        }
+        return promotion;
+    }
+
+    private static List<UUID> idsOf(List<ActivePromotion> promotions) {
+        return promotions == null ? List.of() : promotions.stream().map(ActivePromotion::getPromotionId).toList();
+    }
+
+    @Test
+    void findActive_FiltersByTimeWindowAndLoadsOnce() {
+        // Given
+        givenRows();
+
+        // When
+        Map<UUID, List<ActivePromotion>> atNow = promotionIndexService.findActive(List.of(milkId, coffeeId), now);
+        Map<UUID, List<ActivePromotion>> duringFlashSale =
+                promotionIndexService.findActive(List.of(milkId), now.plusHours(2));
+
+        // Then
+        assertEquals(List.of(summerSaleId), idsOf(atNow.get(milkId)));
+        assertEquals(List.of(summerSaleId), idsOf(atNow.get(coffeeId)));
+        assertEquals(Set.of(summerSaleId, flashSaleId), Set.copyOf(idsOf(duringFlashSale.get(milkId))));
+        verify(promotionRepository, times(1)).findActivePromotionProductRows();
+    }
+
+    @Test
+    void findActive_ProductWithoutPromotionIsAbsent() {
+        // Given
+        givenRows();
+        UUID breadId = UUID.randomUUID();
+
+        // When
+        Map<UUID, List<ActivePromotion>> result = promotionIndexService.findActive(List.of(breadId), now);
+
+        // Then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void upsert_MovesPromotionToNewProductsWithoutReload() {
+        // Given
+        givenRows();
+        promotionIndexService.findActive(List.of(milkId), now);
+        UUID breadId = UUID.randomUUID();
+
+        // When
+        promotionIndexService.upsert(promotion(summerSaleId, true, now.minusDays(1), now.plusDays(1), breadId));
+
+        // Then
+        Map<UUID, List<ActivePromotion>> result = promotionIndexService.findActive(List.of(milkId, coffeeId, breadId), now);
+        assertNull(result.get(milkId));
+        assertNull(result.get(coffeeId));
+        assertEquals(List.of(summerSaleId), idsOf(result.get(breadId)));
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(result.get(breadId).get(0).getDiscountValue()));
+        verify(promotionRepository, times(1)).findActivePromotionProductRows();
+    }
+
+    @Test
+    void upsert_InactivePromotionAndRemoveDropFromIndex() {
+        // Given
+        givenRows();
+        promotionIndexService.findActive(List.of(milkId), now);
+
+        // When
+        promotionIndexService.upsert(promotion(summerSaleId, false, now.minusDays(5), now.plusDays(5), milkId, coffeeId));
+        promotionIndexService.remove(flashSaleId);
+
+        // Then
+        assertTrue(promotionIndexService.findActive(List.of(milkId, coffeeId), now.plusHours(2)).isEmpty());
+        verify(promotionRepository, times(1)).findActivePromotionProductRows();
+    }
+
+    @Test
+    void upsert_BeforeIndexIsLoadedIsPickedUpByLoad() {
+        // Given
+        UUID newSaleId = UUID.randomUUID();
+        promotionIndexService.upsert(promotion(newSaleId, true, now.minusDays(1), now.plusDays(1), milkId));
+        when(promotionRepository.findActivePromotionProductRows()).thenReturn(List.<Object[]>of(
+                new Object[]{newSaleId, DiscountType.PERCENT, BigDecimal.valueOf(20), now.minusDays(1), now.plusDays(1), milkId}));
+
+        // When
+        Map<UUID, List<ActivePromotion>> result = promotionIndexService.findActive(List.of(milkId), now);
+
+        // Then
+        assertEquals(List.of(newSaleId), idsOf(result.get(milkId)));
+    }
+
+    @Test
+    void findActive_KeepsIndexesSeparatePerTenantAndEvictReloads() {
+        // Given
+        givenRows();
+        promotionIndexService.findActive(List.of(milkId), now);
+
+        // When
+        TenantContext.setCurrentTenant("tenant-b");
+        when(promotionRepository.findActivePromotionProductRows()).thenReturn(List.of());
+        Map<UUID, List<ActivePromotion>> otherTenant = promotionIndexService.findActive(List.of(milkId), now);
+        promotionIndexService.evictTenant("tenant-a");
+        TenantContext.setCurrentTenant("tenant-a");
+        Map<UUID, List<ActivePromotion>> reloaded = promotionIndexService.findActive(List.of(milkId), now);
+
+        // Then
+        assertTrue(otherTenant.isEmpty());
+        assertTrue(reloaded.isEmpty());
+        verify(promotionRepository, times(3)).findActivePromotionProductRows();
+    }
+}
@@ -12,6 +12,12 @@ import com.g127.snapbuy.common.exception.ErrorCode;
 import com.g127.snapbuy.promotion.mapper.PromotionMapper;
 import com.g127.snapbuy.product.repository.ProductRepository;
 import com.g127.snapbuy.promotion.repository.PromotionRepository;
+import com.g127.snapbuy.promotion.service.PromotionIndexService;
+import com.g127.snapbuy.promotion.service.PromotionIndexService.ActivePromotion;
+import com.g127.snapbuy.order.dto.response.DiscountInfoResponse;
+import com.g127.snapbuy.tenant.entity.ScheduledJob;
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+import com.g127.snapbuy.tenant.service.ScheduledJobService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,6 +48,12 @@ class PromotionServiceImplTest {
     @Mock
     private NotificationSchedulerService notificationSchedulerService;
 
+    @Mock
+    private PromotionIndexService promotionIndexService;
+
+    @Mock
+    private ScheduledJobService scheduledJobService;
+
     @InjectMocks
     private PromotionServiceImpl promotionService;
 
@@ -105,6 +117,8 @@ class PromotionServiceImplTest {
         assertNotNull(result);
         verify(promotionRepository).save(any(Promotion.class));
         verify(notificationSchedulerService).schedulePromotionNotifications(promotionId);
+        verify(promotionIndexService).upsert(testPromotion);
+        verify(scheduledJobService).schedule(JobType.PROMOTION_DEACTIVATE, promotionId, testPromotion.getEndDate());
     }
 
     @Test
@@ -161,6 +175,7 @@ class PromotionServiceImplTest {
         verify(promotionMapper).updateEntity(testPromotion, request);
         verify(promotionRepository).save(testPromotion);
         verify(notificationSchedulerService).schedulePromotionNotifications(promotionId);
+        verify(promotionIndexService).upsert(testPromotion);
     }
 
     @Test
@@ -245,6 +260,8 @@ class PromotionServiceImplTest {
         // Then
         assertNotNull(result);
         verify(promotionRepository).save(argThat(promo -> !promo.getActive()));
+        verify(promotionIndexService).upsert(testPromotion);
+        verify(scheduledJobService).cancel(JobType.PROMOTION_DEACTIVATE, promotionId);
     }
 
     @Test
@@ -257,6 +274,8 @@ class PromotionServiceImplTest {
 
         // Then
         verify(promotionRepository).delete(testPromotion);
+        verify(promotionIndexService).remove(promotionId);
+        verify(scheduledJobService).cancel(JobType.PROMOTION_DEACTIVATE, promotionId);
     }
 
     @Test
@@ -277,8 +296,8 @@ class PromotionServiceImplTest {
         BigDecimal unitPrice = BigDecimal.valueOf(100000);
         LocalDateTime now = LocalDateTime.now();
 
-        when(promotionRepository.findActivePromotionsForProductAt(productId, now))
-            .thenReturn(Arrays.asList(testPromotion));
+        when(promotionIndexService.findActive(List.of(productId), now))
+            .thenReturn(Map.of(productId, activeOf(testPromotion)));
 
         // When
         BigDecimal result = promotionService.computeBestDiscountPercent(productId, unitPrice, now);
@@ -296,8 +315,8 @@ class PromotionServiceImplTest {
         BigDecimal unitPrice = BigDecimal.valueOf(100000);
         LocalDateTime now = LocalDateTime.now();
 
-        when(promotionRepository.findActivePromotionsForProductAt(productId, now))
-            .thenReturn(Arrays.asList(testPromotion));
+        when(promotionIndexService.findActive(List.of(productId), now))
+            .thenReturn(Map.of(productId, activeOf(testPromotion)));
 
         // When
         BigDecimal result = promotionService.computeBestDiscountPercent(productId, unitPrice, now);
@@ -313,8 +332,8 @@ class PromotionServiceImplTest {
         BigDecimal unitPrice = BigDecimal.valueOf(100000);
         LocalDateTime now = LocalDateTime.now();
 
-        when(promotionRepository.findActivePromotionsForProductAt(productId, now))
-            .thenReturn(Arrays.asList());
+        when(promotionIndexService.findActive(List.of(productId), now))
+            .thenReturn(Map.of());
 
         // When
         BigDecimal result = promotionService.computeBestDiscountPercent(productId, unitPrice, now);
@@ -334,8 +353,8 @@ class PromotionServiceImplTest {
         BigDecimal unitPrice = BigDecimal.valueOf(100000);
         LocalDateTime now = LocalDateTime.now();
 
-        when(promotionRepository.findActivePromotionsForProductAt(productId, now))
-            .thenReturn(Arrays.asList(testPromotion, promo2));
+        when(promotionIndexService.findActive(List.of(productId), now))
+            .thenReturn(Map.of(productId, activeOf(testPromotion, promo2)));
 
         // When
         BigDecimal result = promotionService.computeBestDiscountPercent(productId, unitPrice, now);
@@ -344,6 +363,61 @@ class PromotionServiceImplTest {
         assertEquals(BigDecimal.valueOf(20.00).setScale(2), result);
     }
 
+    @Test
+    void computeBestDiscountPercents_BatchLookup_Success() {
+        // Given
+        UUID otherProductId = UUID.randomUUID();
+        Map<UUID, BigDecimal> priceMap = new HashMap<>();
+        priceMap.put(productId, BigDecimal.valueOf(100000));
+        priceMap.put(otherProductId, BigDecimal.valueOf(50000));
+        LocalDateTime now = LocalDateTime.now();
+
+        when(promotionIndexService.findActive(priceMap.keySet(), now))
+            .thenReturn(Map.of(productId, activeOf(testPromotion)));
+
+        // When
+        Map<UUID, BigDecimal> result = promotionService.computeBestDiscountPercents(priceMap, now);
+
+        // Then
+        assertEquals(BigDecimal.valueOf(10.00).setScale(2), result.get(productId));
+        assertEquals(BigDecimal.ZERO, result.get(otherProductId));
+        verifyNoInteractions(promotionRepository);
+    }
+
+    @Test
+    void computeBatchDiscountInfo_SumsPromotionsAndCapsAtUnitPrice() {
+        // Given
+        UUID cheapProductId = UUID.randomUUID();
+        UUID plainProductId = UUID.randomUUID();
+        Promotion fixed = new Promotion();
+        fixed.setPromotionId(UUID.randomUUID());
+        fixed.setDiscountType(DiscountType.FIXED);
+        fixed.setDiscountValue(BigDecimal.valueOf(5000));
+
+        List<UUID> productIds = List.of(productId, cheapProductId, plainProductId);
+        Map<UUID, BigDecimal> priceMap = Map.of(
+                productId, BigDecimal.valueOf(100000),
+                cheapProductId, BigDecimal.valueOf(4000),
+                plainProductId, BigDecimal.valueOf(20000));
+        LocalDateTime now = LocalDateTime.now();
+
+        when(promotionIndexService.findActive(productIds, now))
+            .thenReturn(Map.of(
+                    productId, activeOf(testPromotion, fixed),
+                    cheapProductId, activeOf(fixed)));
+
+        // When
+        Map<UUID, DiscountInfoResponse> result = promotionService.computeBatchDiscountInfo(productIds, priceMap, now);
+
+        // Then
+        assertEquals(0, BigDecimal.valueOf(15000).compareTo(result.get(productId).getDiscountValue()));
+        assertEquals(BigDecimal.valueOf(15.00).setScale(2), result.get(productId).getDiscountPercent());
+        assertEquals(0, BigDecimal.valueOf(4000).compareTo(result.get(cheapProductId).getDiscountValue()));
+        assertEquals(BigDecimal.valueOf(100.00).setScale(2), result.get(cheapProductId).getDiscountPercent());
+        assertEquals(BigDecimal.ZERO, result.get(plainProductId).getDiscountValue());
+        verifyNoInteractions(promotionRepository);
+    }
+
     @Test
     void deactivateExpired_Success() {
         // Given
@@ -356,5 +430,44 @@ class PromotionServiceImplTest {
 
         // Then
         verify(promotionRepository).saveAll(anyList());
+        verify(promotionIndexService).remove(promotionId);
+    }
+
+    @Test
+    void handle_DeactivateJob_DeactivatesExpiredAndFinishes() {
+        // Given
+        when(promotionRepository.findExpiredActive(any(LocalDateTime.class)))
+            .thenReturn(Arrays.asList(testPromotion));
+        ScheduledJob job = ScheduledJob.builder().jobType(JobType.PROMOTION_DEACTIVATE).referenceId(promotionId).build();
+
+        // When
+        LocalDateTime nextRunAt = promotionService.handle(job);
+
+        // Then
+        assertNull(nextRunAt);
+        assertFalse(testPromotion.getActive());
+        verify(promotionIndexService).remove(promotionId);
+    }
+
+    @Test
+    void handle_SweepJob_ReschedulesItself() {
+        // Given
+        when(promotionRepository.findExpiredActive(any(LocalDateTime.class))).thenReturn(List.of());
+        ScheduledJob job = ScheduledJob.builder().jobType(JobType.PROMOTION_EXPIRY_SWEEP).build();
+
+        // When
+        LocalDateTime nextRunAt = promotionService.handle(job);
+
+        // Then
+        assertNotNull(nextRunAt);
+        assertTrue(nextRunAt.isAfter(LocalDateTime.now()));
+        verify(promotionRepository, never()).saveAll(anyList());
+    }
+
+    private static List<ActivePromotion> activeOf(Promotion... promotions) {
+        return Arrays.stream(promotions)
+                .map(p -> new ActivePromotion(p.getPromotionId(), p.getDiscountType(), p.getDiscountValue(),
+                        p.getStartDate(), p.getEndDate()))
+                .toList();
     }
 }
@@ -1,7 +1,7 @@
 package com.g127.snapbuy.report.service.impl;
 
 import com.g127.snapbuy.report.dto.response.ProductReportResponse;
-import com.g127.snapbuy.order.repository.OrderDetailRepository;
+import com.g127.snapbuy.revenue.repository.DailySalesRollupRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,7 +11,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -23,13 +22,11 @@ import static org.mockito.Mockito.*;
 class ProductReportServiceImplTest {
 
     @Mock
-    private OrderDetailRepository orderDetailRepository;
+    private DailySalesRollupRepository dailySalesRollupRepository;
 
     @InjectMocks
     private ProductReportServiceImpl productReportService;
 
-    private static final String PAID_STATUS = "Đã thanh toán";
-
     @BeforeEach
     void setUp() {
         // Setup common mocks if needed
@@ -47,14 +44,14 @@ class ProductReportServiceImplTest {
             "Category 1", "Supplier 1", BigDecimal.valueOf(100000), BigDecimal.valueOf(80000)
         };
 
-        when(orderDetailRepository.sumTotalQuantitySold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumQuantityByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(totalSold);
-        when(orderDetailRepository.countUniqueProductsSold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.countSoldProductsByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(uniqueCount);
-        when(orderDetailRepository.getProductSalesByDateRange(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.getProductSalesByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Collections.singletonList(productData));
 
         // When
@@ -73,14 +70,14 @@ class ProductReportServiceImplTest {
         // Given
         LocalDate date = LocalDate.of(2025, 12, 9);
 
-        when(orderDetailRepository.sumTotalQuantitySold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumQuantityByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
-        when(orderDetailRepository.countUniqueProductsSold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.countSoldProductsByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
-        when(orderDetailRepository.getProductSalesByDateRange(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.getProductSalesByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Collections.emptyList());
 
         // When
@@ -106,14 +103,14 @@ class ProductReportServiceImplTest {
             "Category 1", "Supplier 1", BigDecimal.valueOf(100000), BigDecimal.valueOf(80000)
         };
 
-        when(orderDetailRepository.sumTotalQuantitySold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumQuantityByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(totalSold);
-        when(orderDetailRepository.countUniqueProductsSold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.countSoldProductsByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(uniqueCount);
-        when(orderDetailRepository.getProductSalesByDateRange(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.getProductSalesByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Collections.singletonList(productData));
 
         // When
@@ -132,14 +129,14 @@ class ProductReportServiceImplTest {
         int year = 2025;
         int month = 12;
 
-        when(orderDetailRepository.sumTotalQuantitySold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumQuantityByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
-        when(orderDetailRepository.countUniqueProductsSold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.countSoldProductsByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
-        when(orderDetailRepository.getProductSalesByDateRange(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.getProductSalesByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Collections.emptyList());
 
         // When
@@ -163,14 +160,14 @@ class ProductReportServiceImplTest {
             "Category 1", "Supplier 1", BigDecimal.valueOf(100000), BigDecimal.valueOf(80000)
         };
 
-        when(orderDetailRepository.sumTotalQuantitySold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumQuantityByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(totalSold);
-        when(orderDetailRepository.countUniqueProductsSold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.countSoldProductsByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(uniqueCount);
-        when(orderDetailRepository.getProductSalesByDateRange(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.getProductSalesByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Collections.singletonList(productData));
 
         // When
@@ -196,14 +193,14 @@ class ProductReportServiceImplTest {
             "Category 1", "Supplier 1", BigDecimal.valueOf(100000), BigDecimal.valueOf(80000)
         };
 
-        when(orderDetailRepository.sumTotalQuantitySold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumQuantityByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(totalSold);
-        when(orderDetailRepository.countUniqueProductsSold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.countSoldProductsByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(uniqueCount);
-        when(orderDetailRepository.getProductSalesByDateRange(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.getProductSalesByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Collections.singletonList(productData));
 
         // When
@@ -236,14 +233,14 @@ class ProductReportServiceImplTest {
             "Category 1", "Supplier 1", BigDecimal.valueOf(80000), BigDecimal.valueOf(60000)
         };
 
-        when(orderDetailRepository.sumTotalQuantitySold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumQuantityByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(totalSold);
-        when(orderDetailRepository.countUniqueProductsSold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.countSoldProductsByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(uniqueCount);
-        when(orderDetailRepository.getProductSalesByDateRange(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.getProductSalesByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Arrays.asList(new Object[][]{product1, product2, product3}));
 
         // When
@@ -266,14 +263,14 @@ class ProductReportServiceImplTest {
             null, null, null, null
         };
 
-        when(orderDetailRepository.sumTotalQuantitySold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumQuantityByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(50L);
-        when(orderDetailRepository.countUniqueProductsSold(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.countSoldProductsByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(1L);
-        when(orderDetailRepository.getProductSalesByDateRange(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.getProductSalesByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(Collections.singletonList(productDataWithNulls));
 
         // When
@@ -2,6 +2,7 @@ package com.g127.snapbuy.report.service.impl;
 
 import com.g127.snapbuy.report.dto.response.ProductRevenueReportResponse;
 import com.g127.snapbuy.order.repository.OrderDetailRepository;
+import com.g127.snapbuy.revenue.repository.DailySalesRollupRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,7 +11,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -26,6 +29,9 @@ class ReportServiceImplTest {
     @Mock
     private OrderDetailRepository orderDetailRepository;
 
+    @Mock
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
     @InjectMocks
     private ReportServiceImpl reportService;
 
@@ -290,4 +296,52 @@ class ReportServiceImplTest {
             isNull(), eq(50), eq("revenue"), eq("desc")
         );
     }
+
+    @Test
+    void getProductRevenue_WholeDays_ReadsRollup() {
+        // Given
+        LocalDateTime fromDate = LocalDate.of(2025, 1, 1).atStartOfDay();
+        LocalDateTime toDate = LocalDate.of(2025, 12, 31).atTime(LocalTime.MAX);
+
+        Object[] row = new Object[]{
+            productId, "Product 1", 300L, BigDecimal.valueOf(9000000),
+            categoryId, "Category 1", supplierId, "Supplier 1"
+        };
+
+        when(dailySalesRollupRepository.getProductRevenueReport(
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), accountId))
+            .thenReturn(Collections.singletonList(row));
+
+        // When
+        List<ProductRevenueReportResponse> result = reportService.getProductRevenue(fromDate, toDate, accountId);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(productId, result.get(0).getProductId());
+        assertEquals(300, result.get(0).getTotalSold());
+        verifyNoInteractions(orderDetailRepository);
+    }
+
+    @Test
+    void getProductRevenueFlexible_WholeDays_ReadsRollup() {
+        // Given
+        LocalDateTime from = LocalDate.of(2025, 6, 1).atStartOfDay();
+        LocalDateTime to = LocalDate.of(2025, 6, 30).atTime(23, 59, 59);
+
+        when(dailySalesRollupRepository.reportProductRevenueFlexible(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30),
+            null, categoryId, null, null, 10, "sold", "asc"))
+            .thenReturn(Collections.emptyList());
+
+        // When
+        List<ProductRevenueReportResponse> result = reportService.getProductRevenueFlexible(
+            from, to, null, categoryId, null, null, 10, "sold", "asc");
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(dailySalesRollupRepository).reportProductRevenueFlexible(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30),
+            null, categoryId, null, null, 10, "sold", "asc");
+        verifyNoInteractions(orderDetailRepository);
+    }
 }
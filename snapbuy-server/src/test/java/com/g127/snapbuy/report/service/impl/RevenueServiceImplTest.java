@@ -1,7 +1,13 @@
 package com.g127.snapbuy.report.service.impl;
 
+import com.g127.snapbuy.common.exception.AppException;
+import com.g127.snapbuy.common.exception.ErrorCode;
+import com.g127.snapbuy.report.dto.request.RevenueGranularity;
+import com.g127.snapbuy.report.dto.response.DailyRevenueItem;
+import com.g127.snapbuy.report.dto.response.RevenueBucketItem;
 import com.g127.snapbuy.report.dto.response.RevenueResponse;
 import com.g127.snapbuy.order.repository.OrderRepository;
+import com.g127.snapbuy.revenue.repository.DailySalesRollupRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,8 +16,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -23,6 +31,9 @@ class RevenueServiceImplTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
     @InjectMocks
     private RevenueServiceImpl revenueService;
 
@@ -40,11 +51,11 @@ class RevenueServiceImplTest {
         BigDecimal expectedRevenue = BigDecimal.valueOf(1000000);
         Long expectedCount = 10L;
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedRevenue);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedCount);
 
         // When
@@ -55,10 +66,11 @@ class RevenueServiceImplTest {
         assertEquals(expectedRevenue, result.getTotalRevenue());
         assertEquals(expectedCount, result.getOrderCount());
         assertEquals("NGÀY", result.getPeriod());
-        verify(orderRepository).sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS));
-        verify(orderRepository).countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS));
+        verify(dailySalesRollupRepository).sumRevenueByDateRange(
+            LocalDate.of(2025, 12, 9), LocalDate.of(2025, 12, 9));
+        verify(dailySalesRollupRepository).sumOrderCountByDateRange(
+            LocalDate.of(2025, 12, 9), LocalDate.of(2025, 12, 9));
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -66,11 +78,11 @@ class RevenueServiceImplTest {
         // Given
         LocalDate date = LocalDate.of(2025, 12, 9);
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
 
         // When
@@ -90,11 +102,11 @@ class RevenueServiceImplTest {
         BigDecimal expectedRevenue = BigDecimal.valueOf(30000000);
         Long expectedCount = 300L;
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedRevenue);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedCount);
 
         // When
@@ -113,11 +125,11 @@ class RevenueServiceImplTest {
         int year = 2025;
         int month = 12;
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
 
         // When
@@ -136,11 +148,11 @@ class RevenueServiceImplTest {
         BigDecimal expectedRevenue = BigDecimal.valueOf(360000000);
         Long expectedCount = 3600L;
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedRevenue);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedCount);
 
         // When
@@ -158,11 +170,11 @@ class RevenueServiceImplTest {
         // Given
         int year = 2025;
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
 
         // When
@@ -182,11 +194,11 @@ class RevenueServiceImplTest {
         BigDecimal expectedRevenue = BigDecimal.valueOf(50000000);
         Long expectedCount = 500L;
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedRevenue);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedCount);
 
         // When
@@ -205,11 +217,11 @@ class RevenueServiceImplTest {
         LocalDate startDate = LocalDate.of(2025, 12, 1);
         LocalDate endDate = LocalDate.of(2025, 12, 31);
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(null);
 
         // When
@@ -228,11 +240,11 @@ class RevenueServiceImplTest {
         BigDecimal expectedRevenue = BigDecimal.valueOf(1000000);
         Long expectedCount = 10L;
 
-        when(orderRepository.sumRevenueByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumRevenueByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedRevenue);
-        when(orderRepository.countOrdersByDateRangeAndPaymentStatus(
-            any(LocalDateTime.class), any(LocalDateTime.class), eq(PAID_STATUS)))
+        when(dailySalesRollupRepository.sumOrderCountByDateRange(
+            any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(expectedCount);
 
         // When
@@ -243,4 +255,93 @@ class RevenueServiceImplTest {
         assertEquals(expectedRevenue, result.getTotalRevenue());
         assertEquals(expectedCount, result.getOrderCount());
     }
+
+    @Test
+    void getMonthlyDailyRevenue_SingleRollupQuery_FillsEmptyDays() {
+        // Given
+        when(dailySalesRollupRepository.sumRevenueGroupedByBucket(
+            LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28), "DAY"))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{Timestamp.valueOf(LocalDateTime.of(2025, 2, 3, 0, 0)), BigDecimal.valueOf(500000), 4},
+                new Object[]{Timestamp.valueOf(LocalDateTime.of(2025, 2, 28, 0, 0)), BigDecimal.valueOf(120000), 1}));
+
+        // When
+        List<DailyRevenueItem> result = revenueService.getMonthlyDailyRevenue(2025, 2);
+
+        // Then
+        assertEquals(28, result.size());
+        assertEquals(LocalDate.of(2025, 2, 1), result.get(0).getDate());
+        assertEquals(BigDecimal.ZERO, result.get(0).getTotalRevenue());
+        assertEquals(0L, result.get(0).getOrderCount());
+        assertEquals(BigDecimal.valueOf(500000), result.get(2).getTotalRevenue());
+        assertEquals(4L, result.get(2).getOrderCount());
+        assertEquals(1L, result.get(27).getOrderCount());
+        verify(dailySalesRollupRepository, times(1)).sumRevenueGroupedByBucket(any(), any(), eq("DAY"));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getRevenueSeries_WeeklyWholeDays_ReadsRollup_BucketsStartOnMonday() {
+        // Given - 2025-12-03 là thứ Tư, tuần đầu bắt đầu từ thứ Hai 2025-12-01
+        LocalDateTime start = LocalDateTime.of(2025, 12, 3, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 12, 20, 23, 59, 59);
+        when(dailySalesRollupRepository.sumRevenueGroupedByBucket(
+            LocalDate.of(2025, 12, 3), LocalDate.of(2025, 12, 20), "WEEK"))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{LocalDateTime.of(2025, 12, 8, 0, 0), BigDecimal.valueOf(300000), 3L}));
+
+        // When
+        List<RevenueBucketItem> result = revenueService.getRevenueSeries(start, end, RevenueGranularity.WEEK);
+
+        // Then
+        assertEquals(3, result.size());
+        assertEquals(LocalDateTime.of(2025, 12, 1, 0, 0), result.get(0).getBucketStart());
+        assertEquals(LocalDateTime.of(2025, 12, 8, 0, 0), result.get(1).getBucketStart());
+        assertEquals(BigDecimal.valueOf(300000), result.get(1).getTotalRevenue());
+        assertEquals(3L, result.get(1).getOrderCount());
+        assertEquals(end, result.get(2).getBucketEnd());
+    }
+
+    @Test
+    void getRevenueSeries_Hourly_ReadsOrders_ReturnsOneBucketPerHour() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 12, 9, 8, 30);
+        LocalDateTime end = LocalDateTime.of(2025, 12, 9, 11, 15);
+        when(orderRepository.sumRevenueGroupedByBucket(start, end, PAID_STATUS, "HOUR"))
+            .thenReturn(List.of());
+
+        // When
+        List<RevenueBucketItem> result = revenueService.getRevenueSeries(start, end, RevenueGranularity.HOUR);
+
+        // Then
+        assertEquals(4, result.size());
+        assertEquals(LocalDateTime.of(2025, 12, 9, 8, 0), result.get(0).getBucketStart());
+        assertEquals(LocalDateTime.of(2025, 12, 9, 11, 0), result.get(3).getBucketStart());
+        verifyNoInteractions(dailySalesRollupRepository);
+    }
+
+    @Test
+    void getRevenueSeries_StartAfterEnd_ThrowsException() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 12, 10, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 12, 9, 0, 0);
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class,
+            () -> revenueService.getRevenueSeries(start, end, RevenueGranularity.DAY));
+        assertEquals(ErrorCode.INVALID_DATE_RANGE, exception.getErrorCode());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getRevenueSeries_TooManyBuckets_ThrowsException() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 12, 31, 23, 59);
+
+        // When & Then
+        assertThrows(AppException.class,
+            () -> revenueService.getRevenueSeries(start, end, RevenueGranularity.HOUR));
+        verifyNoInteractions(orderRepository);
+    }
 }
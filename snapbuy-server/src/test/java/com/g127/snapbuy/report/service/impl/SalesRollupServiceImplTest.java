@@ -0,0 +1,84 @@
+package com.g127.snapbuy.report.service.impl;
+
+import com.g127.snapbuy.common.exception.AppException;
+import com.g127.snapbuy.common.exception.ErrorCode;
+import com.g127.snapbuy.revenue.repository.DailySalesRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceImplTest {
+
+    @Mock
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @InjectMocks
+    private SalesRollupServiceImpl salesRollupService;
+
+    private static final String PAID_STATUS = "Đã thanh toán";
+
+    @Test
+    void recordPaidOrder_AddsOrderToRollup() {
+        // Given
+        UUID orderId = UUID.randomUUID();
+
+        // When
+        salesRollupService.recordPaidOrder(orderId);
+
+        // Then
+        verify(dailySalesRollupRepository).applyOrder(orderId, 1);
+    }
+
+    @Test
+    void recordRefundedOrder_SubtractsOrderFromRollup() {
+        // Given
+        UUID orderId = UUID.randomUUID();
+
+        // When
+        salesRollupService.recordRefundedOrder(orderId);
+
+        // Then
+        verify(dailySalesRollupRepository).applyOrder(orderId, -1);
+    }
+
+    @Test
+    void rebuild_ReplacesRangeFromOrders() {
+        // Given
+        LocalDate from = LocalDate.of(2025, 12, 1);
+        LocalDate to = LocalDate.of(2025, 12, 7);
+        when(dailySalesRollupRepository.insertRange(
+            from.atStartOfDay(), LocalDate.of(2025, 12, 8).atStartOfDay(), PAID_STATUS))
+            .thenReturn(42);
+
+        // When
+        int rows = salesRollupService.rebuild(from, to);
+
+        // Then
+        assertEquals(42, rows);
+        var inOrder = inOrder(dailySalesRollupRepository);
+        inOrder.verify(dailySalesRollupRepository).deleteRange(from, to);
+        inOrder.verify(dailySalesRollupRepository).insertRange(
+            from.atStartOfDay(), LocalDate.of(2025, 12, 8).atStartOfDay(), PAID_STATUS);
+    }
+
+    @Test
+    void rebuild_FromAfterTo_ThrowsException() {
+        // Given
+        LocalDate from = LocalDate.of(2025, 12, 8);
+        LocalDate to = LocalDate.of(2025, 12, 1);
+
+        // When & Then
+        AppException exception = assertThrows(AppException.class, () -> salesRollupService.rebuild(from, to));
+        assertEquals(ErrorCode.INVALID_DATE_RANGE, exception.getErrorCode());
+        verifyNoInteractions(dailySalesRollupRepository);
+    }
+}
@@ -0,0 +1,134 @@
+package com.g127.snapbuy.settings.service.impl;
+
+import com.g127.snapbuy.account.entity.Account;
+import com.g127.snapbuy.account.repository.AccountRepository;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
+import com.g127.snapbuy.settings.entity.PosSettings;
+import com.g127.snapbuy.settings.repository.PosSettingsRepository;
+import com.g127.snapbuy.settings.service.LoyaltyPolicyService.LoyaltyPolicy;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoyaltyPolicyServiceImplTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PosSettingsRepository posSettingsRepository;
+
+    private ReferenceDataCacheService referenceDataCacheService;
+    private LoyaltyPolicyServiceImpl loyaltyPolicyService;
+    private Account shopOwner;
+
+    @BeforeEach
+    void setUp() {
+        referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+        loyaltyPolicyService = new LoyaltyPolicyServiceImpl(accountRepository, posSettingsRepository,
+                referenceDataCacheService);
+        shopOwner = new Account();
+        shopOwner.setAccountId(UUID.randomUUID());
+        TenantContext.setCurrentTenant("tenant-a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    private void givenLoyaltyPercent(BigDecimal percent) {
+        PosSettings settings = PosSettings.builder()
+                .account(shopOwner)
+                .loyaltyPointsPercent(percent)
+                .build();
+        when(accountRepository.findByRoleName("Chủ cửa hàng")).thenReturn(List.of(shopOwner));
+        when(posSettingsRepository.findByAccount(shopOwner)).thenReturn(Optional.of(settings));
+    }
+
+    @Test
+    void getPolicy_SecondCall_NoQueries() {
+        // Given
+        givenLoyaltyPercent(BigDecimal.valueOf(2));
+
+        // When
+        LoyaltyPolicy first = loyaltyPolicyService.getPolicy();
+        LoyaltyPolicy second = loyaltyPolicyService.getPolicy();
+
+        // Then
+        assertSame(first, second);
+        assertEquals(0, BigDecimal.valueOf(2).compareTo(second.getPointsPercent()));
+        verify(accountRepository, times(1)).findByRoleName("Chủ cửa hàng");
+        verify(posSettingsRepository, times(1)).findByAccount(shopOwner);
+    }
+
+    @Test
+    void getPolicy_AfterPosSettingsEvicted_Reloaded() {
+        // Given
+        givenLoyaltyPercent(BigDecimal.valueOf(2));
+        loyaltyPolicyService.getPolicy();
+
+        // When
+        referenceDataCacheService.evict(ReferenceDataCacheService.POS_SETTINGS);
+        givenLoyaltyPercent(BigDecimal.valueOf(5));
+        LoyaltyPolicy policy = loyaltyPolicyService.getPolicy();
+
+        // Then
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(policy.getPointsPercent()));
+    }
+
+    @Test
+    void getPolicy_NoShopOwner_NoPoints() {
+        // Given
+        when(accountRepository.findByRoleName("Chủ cửa hàng")).thenReturn(Collections.emptyList());
+
+        // When
+        LoyaltyPolicy policy = loyaltyPolicyService.getPolicy();
+
+        // Then
+        assertEquals(0, policy.pointsFor(BigDecimal.valueOf(100000)));
+        verifyNoInteractions(posSettingsRepository);
+    }
+
+    @Test
+    void getPolicy_LoadFails_DefaultNotCached() {
+        // Given
+        when(accountRepository.findByRoleName("Chủ cửa hàng"))
+                .thenThrow(new RuntimeException("Timeout"))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        LoyaltyPolicy first = loyaltyPolicyService.getPolicy();
+        loyaltyPolicyService.getPolicy();
+
+        // Then
+        assertSame(LoyaltyPolicy.NONE, first);
+        verify(accountRepository, times(2)).findByRoleName("Chủ cửa hàng");
+    }
+
+    @Test
+    void pointsFor_RoundsDown() {
+        // Given
+        LoyaltyPolicy policy = new LoyaltyPolicy(BigDecimal.valueOf(1.5));
+
+        // When & Then
+        assertEquals(1504, policy.pointsFor(BigDecimal.valueOf(100299)));
+        assertEquals(0, policy.pointsFor(null));
+        assertEquals(0, policy.pointsFor(BigDecimal.valueOf(-1000)));
+    }
+}
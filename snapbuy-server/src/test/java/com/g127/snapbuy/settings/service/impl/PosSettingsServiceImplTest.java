@@ -6,11 +6,15 @@ import com.g127.snapbuy.account.entity.Account;
 import com.g127.snapbuy.settings.entity.PosSettings;
 import com.g127.snapbuy.account.repository.AccountRepository;
 import com.g127.snapbuy.settings.repository.PosSettingsRepository;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
+import com.g127.snapbuy.tenant.context.TenantContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
@@ -41,6 +45,9 @@ class PosSettingsServiceImplTest {
     @Mock
     private Authentication authentication;
 
+    @Spy
+    private ReferenceDataCacheService referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+
     @InjectMocks
     private PosSettingsServiceImpl posSettingsService;
 
@@ -138,6 +145,29 @@ class PosSettingsServiceImplTest {
         // Then
         assertNotNull(result);
         verify(posSettingsRepository).save(any(PosSettings.class));
+        verify(referenceDataCacheService).evict(ReferenceDataCacheService.POS_SETTINGS);
+    }
+
+    @Test
+    void getSettings_WithinTenant_SecondCallServedFromCache() {
+        // Given
+        TenantContext.setCurrentTenant("tenant-a");
+        when(accountRepository.findByRoleName("Chủ cửa hàng"))
+            .thenReturn(Arrays.asList(shopOwnerAccount));
+        when(posSettingsRepository.findByAccount(shopOwnerAccount))
+            .thenReturn(Optional.of(testSettings));
+
+        try {
+            // When
+            PosSettingsResponse first = posSettingsService.getSettings();
+            PosSettingsResponse second = posSettingsService.getSettings();
+
+            // Then
+            assertSame(first, second);
+            verify(posSettingsRepository, times(1)).findByAccount(shopOwnerAccount);
+        } finally {
+            TenantContext.clear();
+        }
     }
 
     @Test
@@ -0,0 +1,70 @@
+package com.g127.snapbuy.tenant.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TenantRoutingDataSourceTest {
+
+    private TenantRoutingDataSource routingDataSource;
+    private AtomicInteger created;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new TenantRoutingDataSource();
+        created = new AtomicInteger();
+        routingDataSource.setDataSourceFactory(tenantId -> {
+            created.incrementAndGet();
+            return mock(DataSource.class);
+        });
+    }
+
+    @Test
+    void evictIdle_RecentlyResolvedPool_Kept() {
+        // Given
+        DataSource first = routingDataSource.resolveTenantDataSource("tenant-1");
+
+        // When
+        int evicted = routingDataSource.evictIdle(60000);
+
+        // Then
+        assertThat(evicted).isZero();
+        assertThat(routingDataSource.resolveTenantDataSource("tenant-1")).isSameAs(first);
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void resolveTenantDataSource_AfterEviction_OpensNewPool() throws InterruptedException {
+        // Given
+        DataSource first = routingDataSource.resolveTenantDataSource("tenant-1");
+        Thread.sleep(5);
+
+        // When
+        int evicted = routingDataSource.evictIdle(1);
+        DataSource second = routingDataSource.resolveTenantDataSource("tenant-1");
+
+        // Then
+        assertThat(evicted).isEqualTo(1);
+        assertThat(second).isNotSameAs(first);
+        assertThat(created).hasValue(2);
+        assertThat(routingDataSource.getOpenDataSourceCount()).isEqualTo(1);
+    }
+
+    @Test
+    void resolveTenantDataSource_UnknownTenant_ReturnsNullAndLeavesNoEntry() {
+        // Given
+        routingDataSource.setDataSourceFactory(tenantId -> null);
+
+        // When
+        DataSource dataSource = routingDataSource.resolveTenantDataSource("missing");
+
+        // Then
+        assertThat(dataSource).isNull();
+        assertThat(routingDataSource.getOpenDataSourceCount()).isZero();
+    }
+}
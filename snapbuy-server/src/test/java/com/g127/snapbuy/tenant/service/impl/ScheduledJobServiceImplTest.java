@@ -0,0 +1,213 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.entity.ScheduledJob;
+import com.g127.snapbuy.tenant.entity.ScheduledJob.JobType;
+import com.g127.snapbuy.tenant.repository.ScheduledJobRepository;
+import com.g127.snapbuy.tenant.service.ScheduledJobHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduledJobServiceImplTest {
+
+    @Mock
+    private ScheduledJobRepository scheduledJobRepository;
+
+    @Mock
+    private ObjectProvider<ScheduledJobHandler> handlerProvider;
+
+    @Mock
+    private ScheduledJobHandler handler;
+
+    private ScheduledJobServiceImpl scheduledJobService;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final UUID promotionId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        scheduledJobService = new ScheduledJobServiceImpl(scheduledJobRepository, handlerProvider, 50, 300000, 3, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    private ScheduledJob givenClaimedJob(JobType jobType, int attempts) {
+        ScheduledJob job = ScheduledJob.builder()
+                .jobId(UUID.randomUUID())
+                .tenantId(tenantId)
+                .jobType(jobType)
+                .referenceId(promotionId)
+                .attempts(attempts)
+                .build();
+        when(scheduledJobRepository.claimDue(anyString(), any(LocalDateTime.class), any(LocalDateTime.class), eq(50)))
+                .thenReturn(1);
+        when(scheduledJobRepository.findByLockedByOrderByRunAtAsc(anyString())).thenReturn(List.of(job));
+        when(handlerProvider.orderedStream()).thenReturn(Stream.of(handler));
+        when(handler.getJobTypes()).thenReturn(Set.of(JobType.PROMOTION_EXPIRED, JobType.PROMOTION_EXPIRY_SWEEP));
+        return job;
+    }
+
+    @Test
+    void schedule_UpsertsJobOfCurrentTenant() {
+        // Given
+        TenantContext.setCurrentTenant(tenantId.toString());
+        LocalDateTime runAt = LocalDateTime.now().plusDays(1);
+
+        // When
+        scheduledJobService.schedule(JobType.PROMOTION_EXPIRED, promotionId, runAt);
+
+        // Then - tạo mới hoặc dời lịch trong một câu lệnh, không tìm trước rồi mới lưu
+        verify(scheduledJobRepository).upsertJob(tenantId, "PROMOTION_EXPIRED", promotionId, runAt);
+        verify(scheduledJobRepository, never()).save(any());
+    }
+
+    @Test
+    void schedule_WithoutTenant_DoesNothing() {
+        // When
+        scheduledJobService.schedule(JobType.PROMOTION_EXPIRED, promotionId, LocalDateTime.now());
+
+        // Then
+        verifyNoInteractions(scheduledJobRepository);
+    }
+
+    @Test
+    void cancel_DeletesJobOfCurrentTenant() {
+        // Given
+        TenantContext.setCurrentTenant(tenantId.toString());
+
+        // When
+        scheduledJobService.cancel(JobType.PROMOTION_EXPIRING, promotionId);
+
+        // Then
+        verify(scheduledJobRepository).deleteByKey(tenantId, JobType.PROMOTION_EXPIRING, promotionId);
+    }
+
+    @Test
+    void runDueJobs_NothingDue_DoesNotLoadJobs() {
+        // Given
+        when(scheduledJobRepository.claimDue(anyString(), any(LocalDateTime.class), any(LocalDateTime.class), eq(50)))
+                .thenReturn(0);
+
+        // When
+        int claimed = scheduledJobService.runDueJobs();
+
+        // Then
+        assertEquals(0, claimed);
+        verify(scheduledJobRepository, never()).findByLockedByOrderByRunAtAsc(anyString());
+    }
+
+    @Test
+    void runDueJobs_RunsInJobTenantAndDeletesFinishedJob() {
+        // Given
+        TenantContext.setCurrentTenant("caller-tenant");
+        ScheduledJob job = givenClaimedJob(JobType.PROMOTION_EXPIRED, 0);
+        List<String> tenantsSeen = new ArrayList<>();
+        when(handler.handle(job)).thenAnswer(invocation -> {
+            tenantsSeen.add(TenantContext.getCurrentTenant());
+            return null;
+        });
+
+        // When
+        int claimed = scheduledJobService.runDueJobs();
+
+        // Then
+        assertEquals(1, claimed);
+        assertEquals(List.of(tenantId.toString()), tenantsSeen);
+        assertEquals("caller-tenant", TenantContext.getCurrentTenant());
+        ArgumentCaptor<String> lockedBy = ArgumentCaptor.forClass(String.class);
+        verify(scheduledJobRepository).claimDue(lockedBy.capture(), any(LocalDateTime.class), any(LocalDateTime.class), eq(50));
+        verify(scheduledJobRepository).deleteLeased(job.getJobId(), lockedBy.getValue());
+    }
+
+    @Test
+    void runDueJobs_RecurringJob_ReleasedWithNextRunAt() {
+        // Given
+        ScheduledJob job = givenClaimedJob(JobType.PROMOTION_EXPIRY_SWEEP, 0);
+        LocalDateTime nextRunAt = LocalDateTime.now().plusHours(1);
+        when(handler.handle(job)).thenReturn(nextRunAt);
+
+        // When
+        scheduledJobService.runDueJobs();
+
+        // Then
+        verify(scheduledJobRepository).releaseLeased(eq(job.getJobId()), anyString(), eq(nextRunAt), eq(0), isNull());
+        verify(scheduledJobRepository, never()).deleteLeased(any(), anyString());
+        assertNull(TenantContext.getCurrentTenant());
+    }
+
+    @Test
+    void runDueJobs_FailedJob_RetriedLaterWithError() {
+        // Given
+        ScheduledJob job = givenClaimedJob(JobType.PROMOTION_EXPIRED, 0);
+        when(handler.handle(job)).thenThrow(new IllegalStateException("tenant DB down"));
+
+        // When
+        scheduledJobService.runDueJobs();
+
+        // Then
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(scheduledJobRepository).releaseLeased(eq(job.getJobId()), anyString(), retryAt.capture(), eq(1),
+                contains("tenant DB down"));
+        assertTrue(retryAt.getValue().isAfter(LocalDateTime.now().plusSeconds(30)));
+        verify(scheduledJobRepository, never()).deleteLeased(any(), anyString());
+    }
+
+    @Test
+    void runDueJobs_FailedTooManyTimes_GivesUp() {
+        // Given
+        ScheduledJob job = givenClaimedJob(JobType.PROMOTION_EXPIRED, 2);
+        when(handler.handle(job)).thenThrow(new IllegalStateException("still failing"));
+
+        // When
+        scheduledJobService.runDueJobs();
+
+        // Then
+        verify(scheduledJobRepository).deleteLeased(eq(job.getJobId()), anyString());
+        verify(scheduledJobRepository, never()).releaseLeased(any(), anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    void runDueJobs_NoHandlerForType_RetriedLater() {
+        // Given
+        ScheduledJob job = givenClaimedJob(JobType.PROMOTION_DEACTIVATE, 0);
+
+        // When
+        scheduledJobService.runDueJobs();
+
+        // Then
+        verify(handler, never()).handle(any());
+        verify(scheduledJobRepository).releaseLeased(eq(job.getJobId()), anyString(), any(LocalDateTime.class), eq(1),
+                contains("PROMOTION_DEACTIVATE"));
+    }
+
+    @Test
+    void seedTenantJobs_InsertsMissingTenantWideJobsOnly() {
+        // When
+        scheduledJobService.seedTenantJobs();
+
+        // Then
+        verify(scheduledJobRepository).insertMissingTenantJobs(eq("PROMOTION_EXPIRY_SWEEP"), any(LocalDateTime.class));
+        verify(scheduledJobRepository, times(1)).insertMissingTenantJobs(anyString(), any(LocalDateTime.class));
+    }
+}
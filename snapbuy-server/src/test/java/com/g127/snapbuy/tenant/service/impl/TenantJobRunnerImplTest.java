@@ -0,0 +1,227 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.repository.TenantRepository;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.JobStats;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.Status;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.TenantJobReport;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.TenantRun;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TenantJobRunnerImplTest {
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    private TenantJobRunnerImpl tenantJobRunner;
+
+    @AfterEach
+    void tearDown() {
+        if (tenantJobRunner != null) {
+            tenantJobRunner.shutdown();
+        }
+        TenantContext.clear();
+    }
+
+    private static Tenant tenant(boolean active) {
+        return Tenant.builder().tenantId(UUID.randomUUID()).tenantCode("shop").isActive(active).build();
+    }
+
+    @Test
+    void runForActiveTenants_RunsEachActiveTenantInItsOwnContext() {
+        // Given
+        tenantJobRunner = new TenantJobRunnerImpl(tenantRepository, 4, 5000);
+        Tenant shopA = tenant(true);
+        Tenant shopB = tenant(true);
+        Tenant locked = tenant(false);
+        when(tenantRepository.findAll()).thenReturn(List.of(shopA, shopB, locked));
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+
+        // When
+        TenantJobReport report = tenantJobRunner.runForActiveTenants("test-job",
+                () -> seen.add(TenantContext.getCurrentTenant()));
+
+        // Then
+        assertEquals(Set.of(shopA.getTenantId().toString(), shopB.getTenantId().toString()), seen);
+        assertEquals(2, report.count(Status.SUCCEEDED));
+        assertEquals("test-job", report.getJobName());
+        assertNull(TenantContext.getCurrentTenant());
+    }
+
+    @Test
+    void run_FailureInOneTenantDoesNotStopOthers() {
+        // Given
+        tenantJobRunner = new TenantJobRunnerImpl(tenantRepository, 2, 5000);
+
+        // When
+        TenantJobReport report = tenantJobRunner.run("test-job", List.of("t1", "t2", "t3"), () -> {
+            if ("t2".equals(TenantContext.getCurrentTenant())) {
+                throw new IllegalStateException("DB của t2 lỗi");
+            }
+        });
+
+        // Then
+        Map<String, TenantRun> runs = report.getRuns().stream()
+                .collect(Collectors.toMap(TenantRun::getTenantId, r -> r));
+        assertEquals(Status.SUCCEEDED, runs.get("t1").getStatus());
+        assertEquals(Status.FAILED, runs.get("t2").getStatus());
+        assertTrue(runs.get("t2").getError().contains("DB của t2 lỗi"));
+        assertEquals(Status.SUCCEEDED, runs.get("t3").getStatus());
+    }
+
+    @Test
+    void run_SlowTenantTimesOutAndFreesItsSlot() throws InterruptedException {
+        // Given
+        tenantJobRunner = new TenantJobRunnerImpl(tenantRepository, 1, 200);
+        CountDownLatch never = new CountDownLatch(1);
+
+        // When
+        TenantJobReport report = tenantJobRunner.run("test-job", List.of("slow", "fast"), () -> {
+            if ("slow".equals(TenantContext.getCurrentTenant())) {
+                try {
+                    never.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        // Then
+        Map<String, TenantRun> runs = report.getRuns().stream()
+                .collect(Collectors.toMap(TenantRun::getTenantId, r -> r));
+        assertEquals(Status.TIMED_OUT, runs.get("slow").getStatus());
+        assertEquals(Status.SUCCEEDED, runs.get("fast").getStatus());
+        assertTrue(report.getDurationMs() < 5000);
+    }
+
+    @Test
+    void run_LimitsTenantsRunningAtOnce() {
+        // Given
+        tenantJobRunner = new TenantJobRunnerImpl(tenantRepository, 2, 5000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<String> tenantIds = List.of("t1", "t2", "t3", "t4", "t5", "t6");
+
+        // When
+        TenantJobReport report = tenantJobRunner.run("test-job", tenantIds, () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+
+        // Then
+        assertEquals(6, report.count(Status.SUCCEEDED));
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void run_TimedOutTenantIgnoringInterrupt_KeepsItsSlotUntilItExits() {
+        // Given - truy vấn không phản hồi việc ngắt chạy thêm 200 ms sau khi hết thời gian chờ
+        tenantJobRunner = new TenantJobRunnerImpl(tenantRepository, 1, 200);
+        AtomicLong slowExitedAt = new AtomicLong();
+        AtomicLong fastStartedAt = new AtomicLong();
+
+        // When
+        TenantJobReport report = tenantJobRunner.run("test-job", List.of("slow", "fast"), 1, 1000, () -> {
+            if ("slow".equals(TenantContext.getCurrentTenant())) {
+                busyFor(1200);
+                slowExitedAt.set(System.nanoTime());
+            } else {
+                fastStartedAt.set(System.nanoTime());
+            }
+        });
+
+        // Then
+        Map<String, TenantRun> runs = report.getRuns().stream()
+                .collect(Collectors.toMap(TenantRun::getTenantId, r -> r));
+        assertEquals(Status.TIMED_OUT, runs.get("slow").getStatus());
+        assertEquals(Status.SUCCEEDED, runs.get("fast").getStatus());
+        assertTrue(fastStartedAt.get() >= slowExitedAt.get());
+    }
+
+    @Test
+    void run_NoSlotFreedWithinTimeout_MarksRemainingTenantTimedOut() {
+        // Given
+        tenantJobRunner = new TenantJobRunnerImpl(tenantRepository, 1, 200);
+        AtomicInteger fastRuns = new AtomicInteger();
+
+        // When
+        TenantJobReport report = tenantJobRunner.run("test-job", List.of("slow", "fast"), () -> {
+            if ("slow".equals(TenantContext.getCurrentTenant())) {
+                busyFor(1500);
+            } else {
+                fastRuns.incrementAndGet();
+            }
+        });
+
+        // Then
+        assertEquals(2, report.count(Status.TIMED_OUT));
+        assertEquals(0, fastRuns.get());
+    }
+
+    @Test
+    void getStats_RecordsRunsFailuresAndDurationsPerJob() {
+        // Given
+        tenantJobRunner = new TenantJobRunnerImpl(tenantRepository, 2, 5000);
+        Runnable task = () -> {
+            if ("t2".equals(TenantContext.getCurrentTenant())) {
+                throw new IllegalStateException("lỗi");
+            }
+        };
+
+        // When
+        tenantJobRunner.run("job-a", List.of("t1", "t2"), task);
+        tenantJobRunner.run("job-a", List.of("t1"), task);
+        tenantJobRunner.run("job-b", List.of("t2"), task);
+
+        // Then
+        List<JobStats> stats = tenantJobRunner.getStats();
+        assertEquals(List.of("job-a", "job-b"), stats.stream().map(JobStats::getJobName).toList());
+        JobStats jobA = stats.get(0);
+        assertEquals(2, jobA.getRuns());
+        assertEquals(3, jobA.getTenantRuns());
+        assertEquals(1, jobA.getFailed());
+        assertEquals(0, jobA.getTimedOut());
+        assertTrue(jobA.getMaxTenantDurationMs() <= jobA.getTotalTenantDurationMs());
+        assertEquals(1, stats.get(1).getFailed());
+    }
+
+    /**
+     * Chạy đủ thời gian dù bị ngắt, như một lời gọi JDBC không phản hồi việc ngắt
+     */
+    private static void busyFor(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ignored) {
+                // Bỏ qua việc ngắt
+            }
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.dto.response.TenantMigrationRunResponse;
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.entity.TenantMigrationResult;
+import com.g127.snapbuy.tenant.entity.TenantMigrationResult.Status;
+import com.g127.snapbuy.tenant.entity.TenantMigrationRun;
+import com.g127.snapbuy.tenant.entity.TenantMigrationRun.RunStatus;
+import com.g127.snapbuy.tenant.repository.TenantMigrationResultRepository;
+import com.g127.snapbuy.tenant.repository.TenantMigrationRunRepository;
+import com.g127.snapbuy.tenant.repository.TenantRepository;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.TenantJobReport;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.TenantRun;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TenantMigrationServiceImplTest {
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private TenantMigrationRunRepository runRepository;
+
+    @Mock
+    private TenantMigrationResultRepository resultRepository;
+
+    @Mock
+    private TenantFlywayRunner flywayRunner;
+
+    @Mock
+    private TenantJobRunner tenantJobRunner;
+
+    private TaskExecutor executor = Runnable::run;
+
+    private TenantMigrationServiceImpl tenantMigrationService;
+
+    private final UUID tenantA = UUID.randomUUID();
+    private final UUID tenantB = UUID.randomUUID();
+    private final List<TenantMigrationResult> savedResults = new ArrayList<>();
+    // Người giữ đợt hiện tại trong bảng tenant_migration_runs giả
+    private final AtomicReference<String> runOwner = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        tenantMigrationService = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    private TenantMigrationServiceImpl newService() {
+        return new TenantMigrationServiceImpl(tenantRepository, runRepository, resultRepository,
+                flywayRunner, tenantJobRunner, task -> executor.execute(task), 4, 60000);
+    }
+
+    private static Tenant tenant(UUID tenantId, boolean active) {
+        Tenant tenant = new Tenant();
+        tenant.setTenantId(tenantId);
+        tenant.setIsActive(active);
+        return tenant;
+    }
+
+    private static MigrateResult migrateResult(String from, String to, int executed) {
+        MigrateResult result = new MigrateResult();
+        result.initialSchemaVersion = from;
+        result.targetSchemaVersion = to;
+        result.migrationsExecuted = executed;
+        return result;
+    }
+
+    private void givenRepositoriesStoreEntities() {
+        lenient().when(runRepository.saveAndFlush(any(TenantMigrationRun.class))).thenAnswer(invocation -> {
+            TenantMigrationRun run = invocation.getArgument(0);
+            if (run.getRunId() == null) {
+                run.setRunId(UUID.randomUUID());
+            }
+            runOwner.set(run.getOwnedBy());
+            return run;
+        });
+        lenient().when(runRepository.claim(any(UUID.class), anyString(), any(), any())).thenAnswer(invocation -> {
+            runOwner.set(invocation.getArgument(1));
+            return 1;
+        });
+        lenient().when(runRepository.finish(any(UUID.class), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> runOwner.get().equals(invocation.getArgument(1)) ? 1 : 0);
+        lenient().when(resultRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<TenantMigrationResult> results = invocation.getArgument(0);
+            results.stream().filter(r -> r.getResultId() == null).forEach(r -> r.setResultId(UUID.randomUUID()));
+            results.stream().filter(r -> !savedResults.contains(r)).forEach(savedResults::add);
+            return results;
+        });
+        lenient().when(resultRepository.findByRunIdAndStatusIn(any(UUID.class), anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<Status> statuses = invocation.getArgument(1);
+                    return savedResults.stream().filter(r -> statuses.contains(r.getStatus())).toList();
+                });
+        lenient().when(resultRepository.countByStatus(any(UUID.class))).thenAnswer(invocation -> savedResults.stream()
+                .collect(Collectors.groupingBy(TenantMigrationResult::getStatus, Collectors.counting()))
+                .entrySet().stream()
+                .map(e -> new Object[]{e.getKey(), e.getValue()})
+                .toList());
+
+        // Các bước chuyển trạng thái compare-and-set như câu UPDATE thật
+        lenient().when(resultRepository.markRunning(any(UUID.class), anyString(), any())).thenAnswer(invocation ->
+                transition(invocation.getArgument(0), invocation.getArgument(1), Set.of(Status.PENDING), result -> {
+                    result.setStatus(Status.RUNNING);
+                    result.setStartedAt(invocation.getArgument(2));
+                }));
+        lenient().when(resultRepository.markSucceeded(any(UUID.class), anyString(), any(), any(), any(), anyLong(), any()))
+                .thenAnswer(invocation -> transition(invocation.getArgument(0), invocation.getArgument(1),
+                        Set.of(Status.RUNNING), result -> {
+                            result.setStatus(Status.SUCCEEDED);
+                            result.setInitialVersion(invocation.getArgument(2));
+                            result.setTargetVersion(invocation.getArgument(3));
+                            result.setMigrationsExecuted(invocation.getArgument(4));
+                            result.setError(null);
+                            result.setDurationMs(invocation.getArgument(5));
+                            result.setFinishedAt(invocation.getArgument(6));
+                        }));
+        lenient().when(resultRepository.markFailed(any(UUID.class), anyString(), any(), anyLong(), any()))
+                .thenAnswer(invocation -> transition(invocation.getArgument(0), invocation.getArgument(1),
+                        Set.of(Status.PENDING, Status.RUNNING), result -> {
+                            result.setStatus(Status.FAILED);
+                            result.setError(invocation.getArgument(2));
+                            result.setDurationMs(invocation.getArgument(3));
+                            result.setFinishedAt(invocation.getArgument(4));
+                        }));
+    }
+
+    private synchronized int transition(UUID resultId, String owner, Set<Status> expected,
+                                        Consumer<TenantMigrationResult> update) {
+        TenantMigrationResult result = savedResults.stream()
+                .filter(r -> r.getResultId().equals(resultId)).findFirst().orElseThrow();
+        if (!owner.equals(runOwner.get()) || !expected.contains(result.getStatus())) {
+            return 0;
+        }
+        update.accept(result);
+        return 1;
+    }
+
+    // TenantJobRunner giả: chạy lần lượt từng tenant trên luồng hiện tại với TenantContext đã đặt
+    private void givenJobRunnerRunsTenantsInline() {
+        when(tenantJobRunner.run(eq("tenant-migration"), anyCollection(), eq(4), eq(60000L), any(Runnable.class)))
+                .thenAnswer(invocation -> {
+                    Collection<String> tenantIds = invocation.getArgument(1);
+                    Runnable task = invocation.getArgument(4);
+                    List<TenantRun> runs = new ArrayList<>();
+                    for (String tenantId : tenantIds) {
+                        TenantContext.setCurrentTenant(tenantId);
+                        try {
+                            task.run();
+                            runs.add(new TenantRun(tenantId, TenantJobRunner.Status.SUCCEEDED, 1, null));
+                        } catch (Exception e) {
+                            runs.add(new TenantRun(tenantId, TenantJobRunner.Status.FAILED, 1, String.valueOf(e)));
+                        } finally {
+                            TenantContext.clear();
+                        }
+                    }
+                    return new TenantJobReport("tenant-migration", 1, runs);
+                });
+    }
+
+    private TenantMigrationResult resultOf(UUID tenantId) {
+        return savedResults.stream().filter(r -> r.getTenantId().equals(tenantId)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void startMigration_MigratesActiveTenantsAndCompletesRun() {
+        // Given
+        givenRepositoriesStoreEntities();
+        givenJobRunnerRunsTenantsInline();
+        when(tenantRepository.findAll()).thenReturn(List.of(
+                tenant(tenantA, true), tenant(tenantB, true), tenant(UUID.randomUUID(), false)));
+        when(flywayRunner.runMigrations(anyString())).thenReturn(migrateResult("5", "6", 1));
+
+        // When
+        TenantMigrationRunResponse response = tenantMigrationService.startMigration("admin");
+
+        // Then
+        assertEquals(2, response.getTotalTenants());
+        assertEquals(2, savedResults.size());
+        verify(flywayRunner).runMigrations(tenantA.toString());
+        verify(flywayRunner).runMigrations(tenantB.toString());
+        TenantMigrationResult result = resultOf(tenantA);
+        assertEquals(Status.SUCCEEDED, result.getStatus());
+        assertEquals("5", result.getInitialVersion());
+        assertEquals("6", result.getTargetVersion());
+        assertEquals(1, result.getMigrationsExecuted());
+        assertNotNull(result.getFinishedAt());
+        verify(runRepository).finish(any(UUID.class), anyString(), eq("COMPLETED"), any(LocalDateTime.class));
+        assertEquals("COMPLETED", response.getStatus());
+    }
+
+    @Test
+    void startMigration_TenantFails_RecordsErrorAndFailsRun() {
+        // Given
+        givenRepositoriesStoreEntities();
+        givenJobRunnerRunsTenantsInline();
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant(tenantA, true), tenant(tenantB, true)));
+        when(flywayRunner.runMigrations(tenantA.toString())).thenReturn(migrateResult("5", "6", 1));
+        when(flywayRunner.runMigrations(tenantB.toString()))
+                .thenThrow(new RuntimeException("Không thể chạy migrations cho tenant database: timeout"));
+
+        // When
+        tenantMigrationService.startMigration("admin");
+
+        // Then
+        assertEquals(Status.SUCCEEDED, resultOf(tenantA).getStatus());
+        assertEquals(Status.FAILED, resultOf(tenantB).getStatus());
+        assertTrue(resultOf(tenantB).getError().contains("timeout"));
+        verify(runRepository).finish(any(UUID.class), anyString(), eq("FAILED"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void startMigration_TenantTimedOut_MarkedFailed() {
+        // Given
+        givenRepositoriesStoreEntities();
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant(tenantA, true)));
+        when(tenantJobRunner.run(anyString(), anyCollection(), anyInt(), anyLong(), any(Runnable.class)))
+                .thenReturn(new TenantJobReport("tenant-migration", 60000, List.of(
+                        new TenantRun(tenantA.toString(), TenantJobRunner.Status.TIMED_OUT, 60000, "Quá 60000 ms"))));
+
+        // When
+        tenantMigrationService.startMigration("admin");
+
+        // Then
+        assertEquals(Status.FAILED, resultOf(tenantA).getStatus());
+        assertEquals("Quá 60000 ms", resultOf(tenantA).getError());
+        verify(runRepository).finish(any(UUID.class), anyString(), eq("FAILED"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void startMigration_RunAlreadyInProgress_Throws() {
+        // Given
+        when(runRepository.existsByStatus(RunStatus.RUNNING)).thenReturn(true);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> tenantMigrationService.startMigration("admin"));
+        verify(runRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(tenantJobRunner);
+    }
+
+    @Test
+    void startMigration_ConcurrentStartWinsUniqueIndex_ThrowsWithoutResults() {
+        // Given - node khác ghi đợt RUNNING giữa lúc kiểm tra và lúc ghi
+        when(runRepository.existsByStatus(RunStatus.RUNNING)).thenReturn(false);
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant(tenantA, true)));
+        when(runRepository.saveAndFlush(any(TenantMigrationRun.class)))
+                .thenThrow(new DataIntegrityViolationException("UQ_tenant_migration_runs_running"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> tenantMigrationService.startMigration("admin"));
+        verify(resultRepository, never()).saveAll(anyList());
+        verifyNoInteractions(tenantJobRunner);
+    }
+
+    @Test
+    void startMigration_ExecutorRejects_FailsRun() {
+        // Given
+        givenRepositoriesStoreEntities();
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant(tenantA, true)));
+        executor = task -> {
+            throw new TaskRejectedException("busy");
+        };
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> tenantMigrationService.startMigration("admin"));
+        verify(runRepository).finish(any(UUID.class), anyString(), eq("FAILED"), any(LocalDateTime.class));
+        verifyNoInteractions(tenantJobRunner);
+    }
+
+    @Test
+    void resumeMigration_RetriesOnlyUnfinishedTenants() {
+        // Given
+        givenRepositoriesStoreEntities();
+        givenJobRunnerRunsTenantsInline();
+        UUID runId = UUID.randomUUID();
+        TenantMigrationRun run = TenantMigrationRun.builder()
+                .runId(runId)
+                .status(RunStatus.FAILED)
+                .totalTenants(2)
+                .startedAt(LocalDateTime.now().minusHours(1))
+                .finishedAt(LocalDateTime.now().minusMinutes(30))
+                .build();
+        when(runRepository.findById(runId)).thenReturn(Optional.of(run));
+        savedResults.add(TenantMigrationResult.builder().resultId(UUID.randomUUID())
+                .runId(runId).tenantId(tenantA).status(Status.SUCCEEDED).build());
+        savedResults.add(TenantMigrationResult.builder().resultId(UUID.randomUUID())
+                .runId(runId).tenantId(tenantB).status(Status.FAILED).error("timeout").build());
+        when(flywayRunner.runMigrations(tenantB.toString())).thenReturn(migrateResult("5", "6", 1));
+
+        // When
+        tenantMigrationService.resumeMigration(runId);
+
+        // Then
+        verify(flywayRunner, never()).runMigrations(tenantA.toString());
+        verify(flywayRunner).runMigrations(tenantB.toString());
+        assertEquals(Status.SUCCEEDED, resultOf(tenantB).getStatus());
+        assertNull(resultOf(tenantB).getError());
+        assertEquals(RunStatus.COMPLETED, run.getStatus());
+        assertNotNull(run.getFinishedAt());
+        verify(runRepository).claim(eq(runId), anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void resumeMigration_AnotherRunRunning_Throws() {
+        // Given - chỉ mục duy nhất trên đợt RUNNING từ chối câu UPDATE nhận đợt
+        UUID runId = UUID.randomUUID();
+        when(runRepository.findById(runId)).thenReturn(Optional.of(TenantMigrationRun.builder()
+                .runId(runId).status(RunStatus.FAILED).build()));
+        when(runRepository.claim(eq(runId), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenThrow(new DataIntegrityViolationException("UQ_tenant_migration_runs_running"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> tenantMigrationService.resumeMigration(runId));
+        verify(resultRepository, never()).saveAll(anyList());
+        verifyNoInteractions(tenantJobRunner);
+    }
+
+    @Test
+    void resumeMigration_RunClaimedByAnotherNode_Throws() {
+        // Given - node khác vừa nhận đợt này (câu UPDATE có điều kiện không cập nhật dòng nào)
+        UUID runId = UUID.randomUUID();
+        when(runRepository.findById(runId)).thenReturn(Optional.of(TenantMigrationRun.builder()
+                .runId(runId).status(RunStatus.FAILED).build()));
+        when(runRepository.claim(eq(runId), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> tenantMigrationService.resumeMigration(runId));
+        verify(resultRepository, never()).saveAll(anyList());
+        verifyNoInteractions(tenantJobRunner);
+    }
+
+    @Test
+    void startMigration_TimedOutTenantFinishingLate_StaysFailed() throws Exception {
+        // Given - tenant bắt đầu migrate, runner báo quá thời gian chờ trong khi luồng migrate vẫn chạy
+        givenRepositoriesStoreEntities();
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant(tenantA, true)));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(flywayRunner.runMigrations(tenantA.toString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return migrateResult("5", "6", 1);
+        });
+        Thread[] worker = new Thread[1];
+        when(tenantJobRunner.run(anyString(), anyCollection(), anyInt(), anyLong(), any(Runnable.class)))
+                .thenAnswer(invocation -> {
+                    Runnable task = invocation.getArgument(4);
+                    worker[0] = new Thread(() -> {
+                        TenantContext.setCurrentTenant(tenantA.toString());
+                        task.run();
+                    });
+                    worker[0].start();
+                    started.await();
+                    return new TenantJobReport("tenant-migration", 60000, List.of(
+                            new TenantRun(tenantA.toString(), TenantJobRunner.Status.TIMED_OUT, 60000, "Quá 60000 ms")));
+                });
+
+        // When - luồng migrate kết thúc sau khi đợt đã ghi kết quả quá thời gian chờ
+        tenantMigrationService.startMigration("admin");
+        release.countDown();
+        worker[0].join(5000);
+
+        // Then
+        assertEquals(Status.FAILED, resultOf(tenantA).getStatus());
+        assertEquals("Quá 60000 ms", resultOf(tenantA).getError());
+        verify(resultRepository).markSucceeded(any(UUID.class), anyString(), any(), any(), any(), anyLong(), any());
+        verify(runRepository).finish(any(UUID.class), anyString(), eq("FAILED"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void resumeMigration_CompletedRun_Throws() {
+        // Given
+        UUID runId = UUID.randomUUID();
+        when(runRepository.findById(runId)).thenReturn(Optional.of(TenantMigrationRun.builder()
+                .runId(runId).status(RunStatus.COMPLETED).build()));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> tenantMigrationService.resumeMigration(runId));
+        verifyNoInteractions(tenantJobRunner);
+    }
+
+    @Test
+    void getRun_NotFound_ThrowsNoSuchElement() {
+        // Given
+        UUID runId = UUID.randomUUID();
+        when(runRepository.findById(runId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(NoSuchElementException.class, () -> tenantMigrationService.getRun(runId));
+    }
+
+    @Test
+    void getRun_ReturnsCountsAndFailures() {
+        // Given
+        UUID runId = UUID.randomUUID();
+        when(runRepository.findById(runId)).thenReturn(Optional.of(TenantMigrationRun.builder()
+                .runId(runId).status(RunStatus.FAILED).totalTenants(3).build()));
+        when(resultRepository.countByStatus(runId)).thenReturn(List.of(
+                new Object[]{Status.SUCCEEDED, 2L}, new Object[]{Status.FAILED, 1L}));
+        when(resultRepository.findByRunIdAndStatusIn(runId, List.of(Status.FAILED))).thenReturn(List.of(
+                TenantMigrationResult.builder().runId(runId).tenantId(tenantB).status(Status.FAILED)
+                        .error("timeout").build()));
+
+        // When
+        TenantMigrationRunResponse response = tenantMigrationService.getRun(runId);
+
+        // Then
+        assertEquals("FAILED", response.getStatus());
+        assertEquals(2L, response.getSucceeded());
+        assertEquals(1L, response.getFailed());
+        assertEquals(0L, response.getPending());
+        assertEquals(1, response.getFailures().size());
+        assertEquals(tenantB.toString(), response.getFailures().get(0).getTenantId());
+    }
+}
@@ -0,0 +1,342 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.admin.service.MasterRoleService;
+import com.g127.snapbuy.tenant.config.TenantDataSourceFactory;
+import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
+import com.g127.snapbuy.tenant.config.TenantRoutingDataSource;
+import com.g127.snapbuy.tenant.dto.request.TenantCreateRequest;
+import com.g127.snapbuy.tenant.dto.response.TenantProvisioningResponse;
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.entity.TenantOwner;
+import com.g127.snapbuy.tenant.entity.TenantProvisioningJob;
+import com.g127.snapbuy.tenant.entity.TenantProvisioningJob.Stage;
+import com.g127.snapbuy.tenant.entity.TenantProvisioningJob.Status;
+import com.g127.snapbuy.tenant.repository.TenantOwnerRepository;
+import com.g127.snapbuy.tenant.repository.TenantProvisioningJobRepository;
+import com.g127.snapbuy.tenant.repository.TenantRepository;
+import com.g127.snapbuy.tenant.service.TenantService;
+import com.g127.snapbuy.tenant.service.TenantSparePoolService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TenantProvisioningServiceImplTest {
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private TenantOwnerRepository tenantOwnerRepository;
+
+    @Mock
+    private TenantProvisioningJobRepository jobRepository;
+
+    @Mock
+    private TenantService tenantService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private TenantRoutingDataSource tenantDataSource;
+
+    @Mock
+    private TenantDataSourceFactory dataSourceFactory;
+
+    @Mock
+    private TenantFlywayRunner flywayRunner;
+
+    @Mock
+    private MasterRoleService masterRoleService;
+
+    @Mock
+    private TenantSparePoolService sparePoolService;
+
+    private TaskExecutor executor = Runnable::run;
+
+    private TenantProvisioningServiceImpl provisioningService;
+
+    private TenantCreateRequest request;
+    private Tenant tenant;
+    private TenantOwner owner;
+    private TenantProvisioningJob storedJob;
+
+    @BeforeEach
+    void setUp() {
+        provisioningService = spy(new TenantProvisioningServiceImpl(tenantRepository, tenantOwnerRepository,
+                jobRepository, tenantService, passwordEncoder, tenantDataSource, dataSourceFactory, flywayRunner,
+                masterRoleService, task -> executor.execute(task), sparePoolService));
+
+        request = new TenantCreateRequest();
+        request.setTenantName("New Store");
+        request.setTenantCode("new-store");
+        request.setDbHost("db");
+        request.setDbPort(1433);
+        request.setDbName("SnapBuy_New");
+        request.setDbUsername("sa");
+        request.setDbPassword("password");
+        request.setOwnerUsername("newowner");
+        request.setOwnerPassword("secret123");
+        request.setOwnerFullName("Nguyễn Văn A");
+        request.setOwnerEmail("owner@new.com");
+        request.setOwnerPhone("0123456789");
+
+        tenant = Tenant.builder()
+                .tenantId(UUID.randomUUID())
+                .tenantCode("new-store")
+                .dbName("SnapBuy_New")
+                .isActive(false)
+                .build();
+        owner = TenantOwner.builder()
+                .tenantId(tenant.getTenantId())
+                .username("newowner")
+                .passwordHash("hashed")
+                .build();
+    }
+
+    private void givenJobRepositoryStoresJob() {
+        lenient().when(jobRepository.save(any(TenantProvisioningJob.class))).thenAnswer(invocation -> {
+            TenantProvisioningJob job = invocation.getArgument(0);
+            if (job.getJobId() == null) {
+                job.setJobId(UUID.randomUUID());
+            }
+            storedJob = job;
+            return job;
+        });
+        lenient().when(jobRepository.findById(any(UUID.class))).thenAnswer(invocation -> Optional.ofNullable(storedJob));
+    }
+
+    private void givenTenantStored() {
+        lenient().when(tenantRepository.findById(tenant.getTenantId())).thenReturn(Optional.of(tenant));
+        lenient().when(tenantOwnerRepository.findByTenantId(tenant.getTenantId())).thenReturn(List.of(owner));
+        lenient().when(dataSourceFactory.create(tenant)).thenReturn(mock(DataSource.class));
+    }
+
+    private TenantProvisioningJob existingJob(Stage stage, Status status) {
+        storedJob = TenantProvisioningJob.builder()
+                .jobId(UUID.randomUUID())
+                .tenantId(tenant.getTenantId())
+                .stage(stage)
+                .status(status)
+                .attempts(1)
+                .error("previous failure")
+                .createdAt(LocalDateTime.now().minusMinutes(5))
+                .updatedAt(LocalDateTime.now().minusMinutes(5))
+                .build();
+        return storedJob;
+    }
+
+    @Test
+    void startProvisioning_RunsAllStagesAndActivatesTenant() throws Exception {
+        // Given
+        givenJobRepositoryStoresJob();
+        givenTenantStored();
+        doReturn(false).when(provisioningService).databaseExists(any(Tenant.class));
+        doNothing().when(provisioningService).createDatabaseIfMissing(tenant);
+        doNothing().when(provisioningService).insertOwnerIfMissing(tenant.getTenantId().toString(), owner);
+        when(tenantRepository.save(any(Tenant.class))).thenAnswer(invocation -> {
+            Tenant saved = invocation.getArgument(0);
+            if (saved.getTenantId() == null) {
+                saved.setTenantId(tenant.getTenantId());
+            }
+            return saved.getIsActive() ? saved : tenant;
+        });
+        when(passwordEncoder.encode("secret123")).thenReturn("hashed");
+
+        // When
+        TenantProvisioningResponse response = provisioningService.startProvisioning(request, "admin");
+
+        // Then
+        assertEquals(tenant.getTenantId().toString(), response.getTenantId());
+        ArgumentCaptor<TenantOwner> ownerCaptor = ArgumentCaptor.forClass(TenantOwner.class);
+        verify(tenantOwnerRepository).save(ownerCaptor.capture());
+        assertEquals("hashed", ownerCaptor.getValue().getPasswordHash());
+        verify(tenantDataSource).addTenantDataSource(eq(tenant.getTenantId().toString()), any(DataSource.class));
+        verify(flywayRunner).runMigrations(tenant.getTenantId().toString());
+        verify(masterRoleService).syncRolesToTenant(tenant.getTenantId().toString());
+        assertTrue(tenant.getIsActive());
+        assertEquals(Stage.READY, storedJob.getStage());
+        assertEquals(Status.COMPLETED, storedJob.getStatus());
+        assertEquals(1, storedJob.getAttempts());
+        assertNotNull(storedJob.getFinishedAt());
+    }
+
+    @Test
+    void startProvisioning_SpareClaimed_UsesSpareDatabaseWithoutCreating() throws Exception {
+        // Given
+        request.setDbName(null);
+        tenant.setDbName(null);
+        givenJobRepositoryStoresJob();
+        givenTenantStored();
+        when(tenantRepository.save(any(Tenant.class))).thenAnswer(invocation -> {
+            Tenant saved = invocation.getArgument(0);
+            if (saved.getTenantId() == null) {
+                saved.setTenantId(tenant.getTenantId());
+            }
+            return saved.getIsActive() ? saved : tenant;
+        });
+        when(sparePoolService.claim(any(Tenant.class))).thenAnswer(invocation -> {
+            Tenant claiming = invocation.getArgument(0);
+            if (claiming.getDbName() == null) {
+                claiming.setDbName("SnapBuy_spare_1");
+            }
+            return true;
+        });
+        when(sparePoolService.attach(tenant)).thenReturn(true);
+        doNothing().when(provisioningService).insertOwnerIfMissing(tenant.getTenantId().toString(), owner);
+
+        // When
+        provisioningService.startProvisioning(request, "admin");
+
+        // Then
+        assertEquals("SnapBuy_spare_1", tenant.getDbName());
+        verify(provisioningService, never()).createDatabaseIfMissing(any());
+        verify(flywayRunner).runMigrations(tenant.getTenantId().toString());
+        assertEquals(Status.COMPLETED, storedJob.getStatus());
+    }
+
+    @Test
+    void run_SpareAttachFails_ReleasesAndCreatesDatabase() throws Exception {
+        // Given
+        givenJobRepositoryStoresJob();
+        givenTenantStored();
+        TenantProvisioningJob job = existingJob(Stage.REQUESTED, Status.RUNNING);
+        when(sparePoolService.attach(tenant)).thenThrow(new RuntimeException("rename failed"));
+        doNothing().when(provisioningService).createDatabaseIfMissing(tenant);
+        doNothing().when(provisioningService).insertOwnerIfMissing(tenant.getTenantId().toString(), owner);
+
+        // When
+        provisioningService.run(job.getJobId());
+
+        // Then
+        verify(sparePoolService).release(tenant);
+        verify(provisioningService).createDatabaseIfMissing(tenant);
+        assertEquals(Status.COMPLETED, storedJob.getStatus());
+    }
+
+    @Test
+    void startProvisioning_DatabaseAlreadyExists_ThrowsWithoutSaving() {
+        // Given
+        doReturn(true).when(provisioningService).databaseExists(any(Tenant.class));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> provisioningService.startProvisioning(request, "admin"));
+        assertTrue(exception.getMessage().contains("SnapBuy_New"));
+        verify(tenantRepository, never()).save(any());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void startProvisioning_InvalidDbName_Throws() {
+        // Given
+        request.setDbName("x]; DROP DATABASE master; --");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> provisioningService.startProvisioning(request, "admin"));
+        verify(tenantRepository, never()).save(any());
+    }
+
+    @Test
+    void startProvisioning_DuplicateTenantCode_Rejected() {
+        // Given
+        doThrow(new IllegalArgumentException("Mã cửa hàng 'new-store' đã được sử dụng."))
+                .when(tenantService).validateNewTenant(request);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> provisioningService.startProvisioning(request, "admin"));
+        verify(tenantRepository, never()).save(any());
+    }
+
+    @Test
+    void run_MigrationFails_StopsAtDbCreatedAndKeepsTenantInactive() throws Exception {
+        // Given
+        givenJobRepositoryStoresJob();
+        givenTenantStored();
+        TenantProvisioningJob job = existingJob(Stage.REQUESTED, Status.RUNNING);
+        doNothing().when(provisioningService).createDatabaseIfMissing(tenant);
+        when(flywayRunner.runMigrations(tenant.getTenantId().toString()))
+                .thenThrow(new RuntimeException("Không thể chạy migrations cho tenant database: timeout"));
+
+        // When
+        provisioningService.run(job.getJobId());
+
+        // Then
+        assertEquals(Stage.DB_CREATED, storedJob.getStage());
+        assertEquals(Status.FAILED, storedJob.getStatus());
+        assertTrue(storedJob.getError().contains("timeout"));
+        assertFalse(tenant.getIsActive());
+        verify(masterRoleService, never()).syncRolesToTenant(anyString());
+    }
+
+    @Test
+    void resumeProvisioning_ContinuesFromLastFinishedStage() throws Exception {
+        // Given
+        givenJobRepositoryStoresJob();
+        givenTenantStored();
+        TenantProvisioningJob job = existingJob(Stage.MIGRATED, Status.FAILED);
+        doNothing().when(provisioningService).insertOwnerIfMissing(tenant.getTenantId().toString(), owner);
+
+        // When
+        TenantProvisioningResponse response = provisioningService.resumeProvisioning(job.getJobId());
+
+        // Then
+        assertEquals("RUNNING", response.getStatus());
+        verify(provisioningService, never()).createDatabaseIfMissing(any());
+        verify(flywayRunner, never()).runMigrations(anyString());
+        verify(masterRoleService).syncRolesToTenant(tenant.getTenantId().toString());
+        assertTrue(tenant.getIsActive());
+        assertEquals(Stage.READY, storedJob.getStage());
+        assertEquals(Status.COMPLETED, storedJob.getStatus());
+        assertNull(storedJob.getError());
+        assertEquals(2, storedJob.getAttempts());
+    }
+
+    @Test
+    void resumeProvisioning_CompletedJob_Throws() {
+        // Given
+        givenJobRepositoryStoresJob();
+        TenantProvisioningJob job = existingJob(Stage.READY, Status.COMPLETED);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> provisioningService.resumeProvisioning(job.getJobId()));
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void resumeProvisioning_ExecutorRejects_JobMarkedFailed() {
+        // Given
+        givenJobRepositoryStoresJob();
+        givenTenantStored();
+        TenantProvisioningJob job = existingJob(Stage.DB_CREATED, Status.FAILED);
+        executor = task -> {
+            throw new TaskRejectedException("queue full");
+        };
+
+        // When
+        provisioningService.resumeProvisioning(job.getJobId());
+
+        // Then
+        assertEquals(Status.FAILED, storedJob.getStatus());
+        assertEquals(Stage.DB_CREATED, storedJob.getStage());
+        assertTrue(storedJob.getError().contains("queue full"));
+        verifyNoInteractions(flywayRunner);
+    }
+}
@@ -1,6 +1,7 @@
 package com.g127.snapbuy.tenant.service.impl;
 
 import com.g127.snapbuy.admin.service.MasterRoleService;
+import com.g127.snapbuy.tenant.config.TenantDataSourceFactory;
 import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
 import com.g127.snapbuy.tenant.config.TenantRoutingDataSource;
 import com.g127.snapbuy.tenant.dto.request.TenantCreateRequest;
@@ -9,18 +10,30 @@ import com.g127.snapbuy.tenant.entity.Tenant;
 import com.g127.snapbuy.tenant.entity.TenantOwner;
 import com.g127.snapbuy.tenant.repository.TenantOwnerRepository;
 import com.g127.snapbuy.tenant.repository.TenantRepository;
+import com.g127.snapbuy.tenant.service.TenantSparePoolService;
+import com.g127.snapbuy.tenant.service.TenantStatisticsService;
+import com.g127.snapbuy.tenant.service.TenantStatisticsService.TenantStats;
+import com.g127.snapbuy.account.service.AccountPrincipalCacheService;
+import com.g127.snapbuy.product.service.ProductSearchIndexService;
+import com.g127.snapbuy.promotion.service.PromotionIndexService;
+import com.g127.snapbuy.common.service.ReferenceDataCacheService;
+import com.g127.snapbuy.common.service.impl.ReferenceDataCacheServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -53,6 +66,27 @@ class TenantServiceImplTest {
     @Mock
     private Statement statement;
 
+    @Mock
+    private AccountPrincipalCacheService principalCacheService;
+
+    @Mock
+    private TenantDataSourceFactory dataSourceFactory;
+
+    @Mock
+    private ProductSearchIndexService productSearchIndexService;
+
+    @Mock
+    private PromotionIndexService promotionIndexService;
+
+    @Mock
+    private TenantStatisticsService tenantStatisticsService;
+
+    @Mock
+    private TenantSparePoolService sparePoolService;
+
+    @Spy
+    private ReferenceDataCacheService referenceDataCacheService = new ReferenceDataCacheServiceImpl(60000, 100);
+
     @InjectMocks
     private TenantServiceImpl tenantService;
 
@@ -107,33 +141,61 @@ class TenantServiceImplTest {
     }
 
     @Test
-    void loadAllTenantDataSources_Success() {
-        // Given
-        List<Tenant> tenants = Arrays.asList(testTenant);
-        when(tenantRepository.findAll()).thenReturn(tenants);
-
+    void loadAllTenantDataSources_RegistersLazyFactory_NoPoolsOpened() {
         // When
-        // Will attempt to create datasource, may fail but that's expected in unit test
-        // The important thing is repository.findAll() is called
         tenantService.loadAllTenantDataSources();
 
         // Then
-        verify(tenantRepository).findAll();
+        verify(tenantDataSource).setDataSourceFactory(any());
+        verify(tenantDataSource, never()).addTenantDataSource(anyString(), any());
+        verify(tenantRepository, never()).findAll();
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void loadAllTenantDataSources_SkipInactiveTenants() {
         // Given
         testTenant.setIsActive(false);
-        List<Tenant> tenants = Arrays.asList(testTenant);
-        when(tenantRepository.findAll()).thenReturn(tenants);
+        when(tenantRepository.findById(testTenant.getTenantId())).thenReturn(Optional.of(testTenant));
+        ArgumentCaptor<Function<String, DataSource>> factory = ArgumentCaptor.forClass(Function.class);
 
         // When
         tenantService.loadAllTenantDataSources();
+        verify(tenantDataSource).setDataSourceFactory(factory.capture());
 
         // Then
-        verify(tenantRepository).findAll();
-        // Inactive tenants are skipped, no data source added
+        assertNull(factory.getValue().apply(testTenant.getTenantId().toString()));
+        assertNull(factory.getValue().apply("not-a-tenant-id"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadAllTenantDataSources_ActiveTenant_CreatedThroughFactory() {
+        // Given
+        DataSource created = mock(DataSource.class);
+        when(tenantRepository.findById(testTenant.getTenantId())).thenReturn(Optional.of(testTenant));
+        when(dataSourceFactory.create(testTenant)).thenReturn(created);
+        ArgumentCaptor<Function<String, DataSource>> factory = ArgumentCaptor.forClass(Function.class);
+
+        // When
+        tenantService.loadAllTenantDataSources();
+        verify(tenantDataSource).setDataSourceFactory(factory.capture());
+
+        // Then
+        assertSame(created, factory.getValue().apply(testTenant.getTenantId().toString()));
+    }
+
+    @Test
+    void evictIdleTenantDataSources_DelegatesToRegistry() {
+        // Given
+        tenantService.loadAllTenantDataSources();
+        when(tenantDataSource.evictIdle(anyLong())).thenReturn(2);
+
+        // When
+        tenantService.evictIdleTenantDataSources();
+
+        // Then
+        verify(tenantDataSource).evictIdle(1800000L);
     }
 
 
@@ -345,7 +407,10 @@ class TenantServiceImplTest {
 
         List<Tenant> tenants = Arrays.asList(testTenant, tenant2);
         when(tenantRepository.findAll()).thenReturn(tenants);
-        when(tenantOwnerRepository.findByTenantId(any())).thenReturn(Collections.singletonList(testOwner));
+        when(tenantOwnerRepository.findByTenantIdIn(List.of(testTenant.getTenantId(), tenant2.getTenantId())))
+                .thenReturn(Collections.singletonList(testOwner));
+        when(tenantStatisticsService.getStats(List.of(testTenant.getTenantId(), tenant2.getTenantId())))
+                .thenReturn(Map.of(testTenant.getTenantId(), new TenantStats(3, 120, 5_000_000L)));
 
         // When
         List<TenantResponse> responses = tenantService.getAllTenants();
@@ -354,6 +419,13 @@ class TenantServiceImplTest {
         assertNotNull(responses);
         assertEquals(2, responses.size());
         verify(tenantRepository).findAll();
+        verify(tenantOwnerRepository, never()).findByTenantId(any());
+        assertEquals(testOwner.getFullName(), responses.get(0).getOwnerName());
+        assertEquals(3, responses.get(0).getUserCount());
+        assertEquals(120, responses.get(0).getProductCount());
+        assertEquals(5_000_000L, responses.get(0).getRevenue());
+        assertNull(responses.get(1).getOwnerName());
+        assertEquals(0, responses.get(1).getUserCount());
     }
 
     @Test
@@ -0,0 +1,399 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.admin.service.MasterRoleService;
+import com.g127.snapbuy.tenant.config.TenantDataSourceFactory;
+import com.g127.snapbuy.tenant.config.TenantFlywayRunner;
+import com.g127.snapbuy.tenant.config.TenantRoutingDataSource;
+import com.g127.snapbuy.tenant.entity.Tenant;
+import com.g127.snapbuy.tenant.entity.TenantSpareDatabase;
+import com.g127.snapbuy.tenant.entity.TenantSpareDatabase.Status;
+import com.g127.snapbuy.tenant.repository.TenantSpareDatabaseRepository;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TenantSparePoolServiceImplTest {
+
+    @Mock
+    private TenantSpareDatabaseRepository spareRepository;
+
+    @Mock
+    private TenantRoutingDataSource tenantDataSource;
+
+    @Mock
+    private TenantDataSourceFactory dataSourceFactory;
+
+    @Mock
+    private TenantFlywayRunner flywayRunner;
+
+    @Mock
+    private MasterRoleService masterRoleService;
+
+    private TenantSparePoolServiceImpl sparePoolService;
+
+    private Tenant tenant;
+    private TenantSpareDatabase spare;
+
+    @BeforeEach
+    void setUp() {
+        sparePoolService = spy(newService(2));
+
+        tenant = Tenant.builder()
+                .tenantId(UUID.randomUUID())
+                .tenantCode("new-store")
+                .dbHost("localhost")
+                .dbPort(1433)
+                .dbUsername("sa")
+                .build();
+        spare = TenantSpareDatabase.builder()
+                .spareId(UUID.randomUUID())
+                .dbHost("localhost")
+                .dbPort(1433)
+                .dbName("SnapBuy_spare_1")
+                .status(Status.CLAIMED)
+                .schemaVersion("12")
+                .tenantId(tenant.getTenantId())
+                .createdAt(LocalDateTime.now().minusMinutes(10))
+                .build();
+    }
+
+    private TenantSparePoolServiceImpl newService(int size) {
+        return newService(size, Runnable::run);
+    }
+
+    private TenantSparePoolServiceImpl newService(int size, TaskExecutor executor) {
+        return new TenantSparePoolServiceImpl(spareRepository, tenantDataSource, dataSourceFactory, flywayRunner,
+                masterRoleService, executor, size, 3600000, "localhost", 1433, "sa", "password");
+    }
+
+    @Test
+    void claim_PoolDisabled_ReturnsFalse() {
+        // Given
+        sparePoolService = newService(0);
+
+        // When
+        boolean claimed = sparePoolService.claim(tenant);
+
+        // Then
+        assertFalse(claimed);
+        verifyNoInteractions(spareRepository);
+    }
+
+    @Test
+    void claim_TenantOnOtherServer_ReturnsFalse() {
+        // Given
+        tenant.setDbHost("db-2");
+
+        // When
+        boolean claimed = sparePoolService.claim(tenant);
+
+        // Then
+        assertFalse(claimed);
+        verifyNoInteractions(spareRepository);
+    }
+
+    @Test
+    void claim_PoolEmpty_ReturnsFalse() {
+        // Given
+        when(spareRepository.claim(eq(tenant.getTenantId()), eq("localhost"), eq(1433), any(LocalDateTime.class)))
+                .thenReturn(0);
+
+        // When
+        boolean claimed = sparePoolService.claim(tenant);
+
+        // Then
+        assertFalse(claimed);
+        assertNull(tenant.getDbName());
+    }
+
+    @Test
+    void claim_Success_AssignsSpareNameWhenTenantHasNone() {
+        // Given
+        when(spareRepository.claim(eq(tenant.getTenantId()), eq("localhost"), eq(1433), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(spareRepository.findByTenantId(tenant.getTenantId())).thenReturn(Optional.of(spare));
+
+        // When
+        boolean claimed = sparePoolService.claim(tenant);
+
+        // Then
+        assertTrue(claimed);
+        assertEquals("SnapBuy_spare_1", tenant.getDbName());
+    }
+
+    @Test
+    void attach_SameName_DoesNotRename() throws Exception {
+        // Given
+        tenant.setDbName("SnapBuy_spare_1");
+        when(spareRepository.findByTenantId(tenant.getTenantId())).thenReturn(Optional.of(spare));
+
+        // When
+        boolean attached = sparePoolService.attach(tenant);
+
+        // Then
+        assertTrue(attached);
+        verify(sparePoolService, never()).renameDatabase(anyString(), anyString());
+        verify(spareRepository, never()).save(any());
+    }
+
+    @Test
+    void attach_RequestedName_RenamesSpare() throws Exception {
+        // Given
+        tenant.setDbName("SnapBuy_New");
+        when(spareRepository.findByTenantId(tenant.getTenantId())).thenReturn(Optional.of(spare));
+        doReturn(true).when(sparePoolService).databaseExists("SnapBuy_spare_1");
+        doNothing().when(sparePoolService).renameDatabase("SnapBuy_spare_1", "SnapBuy_New");
+
+        // When
+        boolean attached = sparePoolService.attach(tenant);
+
+        // Then
+        assertTrue(attached);
+        verify(sparePoolService).renameDatabase("SnapBuy_spare_1", "SnapBuy_New");
+        assertEquals("SnapBuy_New", spare.getDbName());
+        verify(spareRepository).save(spare);
+    }
+
+    @Test
+    void attach_AlreadyRenamedByPreviousAttempt_Continues() throws Exception {
+        // Given
+        tenant.setDbName("SnapBuy_New");
+        when(spareRepository.findByTenantId(tenant.getTenantId())).thenReturn(Optional.of(spare));
+        doReturn(false).when(sparePoolService).databaseExists("SnapBuy_spare_1");
+        doReturn(true).when(sparePoolService).databaseExists("SnapBuy_New");
+
+        // When
+        boolean attached = sparePoolService.attach(tenant);
+
+        // Then
+        assertTrue(attached);
+        verify(sparePoolService, never()).renameDatabase(anyString(), anyString());
+        assertEquals("SnapBuy_New", spare.getDbName());
+    }
+
+    @Test
+    void attach_NoClaimedSpare_ReturnsFalse() {
+        // Given
+        when(spareRepository.findByTenantId(tenant.getTenantId())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertFalse(sparePoolService.attach(tenant));
+    }
+
+    @Test
+    void release_SpareStillExists_ReturnsToPool() throws Exception {
+        // Given
+        when(spareRepository.findByTenantId(tenant.getTenantId())).thenReturn(Optional.of(spare));
+        doReturn(true).when(sparePoolService).databaseExists("SnapBuy_spare_1");
+
+        // When
+        sparePoolService.release(tenant);
+
+        // Then
+        assertEquals(Status.READY, spare.getStatus());
+        assertNull(spare.getTenantId());
+        assertNull(spare.getClaimedAt());
+        verify(spareRepository).save(spare);
+    }
+
+    @Test
+    void release_SpareMissing_RemovedFromPool() throws Exception {
+        // Given
+        when(spareRepository.findByTenantId(tenant.getTenantId())).thenReturn(Optional.of(spare));
+        doReturn(false).when(sparePoolService).databaseExists("SnapBuy_spare_1");
+
+        // When
+        sparePoolService.release(tenant);
+
+        // Then
+        verify(spareRepository).delete(spare);
+        verify(spareRepository, never()).save(any());
+    }
+
+    @Test
+    void topUp_PoolDisabled_DoesNothing() {
+        // Given
+        sparePoolService = newService(0);
+
+        // When
+        boolean dispatched = sparePoolService.topUp();
+
+        // Then
+        assertFalse(dispatched);
+        verifyNoInteractions(spareRepository, flywayRunner);
+    }
+
+    @Test
+    void topUp_DispatchesPreparationToExecutor() {
+        // Given
+        List<Runnable> submitted = new ArrayList<>();
+        sparePoolService = newService(2, submitted::add);
+
+        // When
+        boolean dispatched = sparePoolService.topUp();
+
+        // Then
+        assertTrue(dispatched);
+        assertEquals(1, submitted.size());
+        // Chưa chạy gì trên luồng gọi (luồng @Scheduled)
+        verifyNoInteractions(spareRepository, flywayRunner);
+    }
+
+    @Test
+    void topUp_PreviousPreparationStillRunning_SkipsCheck() {
+        // Given
+        sparePoolService = newService(2, task -> {
+            throw new TaskRejectedException("busy");
+        });
+
+        // When
+        boolean dispatched = sparePoolService.topUp();
+
+        // Then
+        assertFalse(dispatched);
+        verifyNoInteractions(spareRepository, flywayRunner);
+    }
+
+    @Test
+    void prepareNext_PoolNotFull_PreparesOneSpare() throws Exception {
+        // Given
+        List<TenantSpareDatabase> saved = givenRepositoryStoresSpares();
+        when(spareRepository.findByStatusAndCreatedAtBefore(eq(Status.PREPARING), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        when(spareRepository.countByDbHostAndDbPortAndStatusIn(eq("localhost"), eq(1433), anyCollection()))
+                .thenReturn(0L);
+        doNothing().when(sparePoolService).createDatabase(anyString());
+        when(dataSourceFactory.create(any(Tenant.class))).thenReturn(mock(DataSource.class));
+        MigrateResult migrateResult = new MigrateResult();
+        migrateResult.targetSchemaVersion = "12";
+        when(flywayRunner.runMigrations(anyString())).thenReturn(migrateResult);
+
+        // When
+        boolean prepared = sparePoolService.prepareNext();
+
+        // Then
+        assertTrue(prepared);
+        // Nhóm còn thiếu 2 nhưng mỗi lượt chỉ dựng một database
+        assertEquals(1, saved.size());
+        TenantSpareDatabase spareDb = saved.get(0);
+        assertEquals(Status.READY, spareDb.getStatus());
+        assertEquals("12", spareDb.getSchemaVersion());
+        assertNotNull(spareDb.getReadyAt());
+        assertTrue(spareDb.getDbName().startsWith("SnapBuy_spare_"));
+        String key = "spare-" + spareDb.getSpareId();
+        verify(masterRoleService).syncRolesToTenant(key);
+        verify(tenantDataSource).removeTenantDataSource(key);
+        verify(flywayRunner, times(1)).runMigrations(anyString());
+    }
+
+    @Test
+    void prepareNext_PoolFull_DoesNotPrepare() {
+        // Given
+        when(spareRepository.findByStatusAndCreatedAtBefore(eq(Status.PREPARING), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        when(spareRepository.countByDbHostAndDbPortAndStatusIn(eq("localhost"), eq(1433), anyCollection()))
+                .thenReturn(2L);
+
+        // When
+        boolean prepared = sparePoolService.prepareNext();
+
+        // Then
+        assertFalse(prepared);
+        verify(spareRepository, never()).save(any(TenantSpareDatabase.class));
+        verifyNoInteractions(flywayRunner);
+    }
+
+    @Test
+    void prepareNext_MigrationFails_DropsSpare() throws Exception {
+        // Given
+        List<TenantSpareDatabase> saved = givenRepositoryStoresSpares();
+        when(spareRepository.findByStatusAndCreatedAtBefore(eq(Status.PREPARING), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        when(spareRepository.countByDbHostAndDbPortAndStatusIn(eq("localhost"), eq(1433), anyCollection()))
+                .thenReturn(0L);
+        doNothing().when(sparePoolService).createDatabase(anyString());
+        doNothing().when(sparePoolService).dropDatabase(anyString());
+        when(dataSourceFactory.create(any(Tenant.class))).thenReturn(mock(DataSource.class));
+        when(flywayRunner.runMigrations(anyString())).thenThrow(new RuntimeException("migration failed"));
+
+        // When
+        boolean prepared = sparePoolService.prepareNext();
+
+        // Then
+        assertFalse(prepared);
+        assertEquals(1, saved.size());
+        TenantSpareDatabase failed = saved.get(0);
+        verify(sparePoolService).dropDatabase(failed.getDbName());
+        verify(spareRepository).delete(failed);
+        verify(tenantDataSource).removeTenantDataSource("spare-" + failed.getSpareId());
+        verify(masterRoleService, never()).syncRolesToTenant(anyString());
+    }
+
+    @Test
+    void prepareNext_RemovesStalePreparingSpares() throws Exception {
+        // Given
+        spare.setStatus(Status.PREPARING);
+        spare.setTenantId(null);
+        when(spareRepository.findByStatusAndCreatedAtBefore(eq(Status.PREPARING), any(LocalDateTime.class)))
+                .thenReturn(List.of(spare));
+        when(spareRepository.countByDbHostAndDbPortAndStatusIn(eq("localhost"), eq(1433), anyCollection()))
+                .thenReturn(2L);
+        doNothing().when(sparePoolService).dropDatabase("SnapBuy_spare_1");
+
+        // When
+        boolean prepared = sparePoolService.prepareNext();
+
+        // Then
+        assertFalse(prepared);
+        verify(spareRepository).delete(spare);
+        verifyNoInteractions(flywayRunner);
+    }
+
+    @Test
+    void prepareNext_DropFails_KeepsStaleRowForNextCheck() throws Exception {
+        // Given
+        spare.setStatus(Status.PREPARING);
+        when(spareRepository.findByStatusAndCreatedAtBefore(eq(Status.PREPARING), any(LocalDateTime.class)))
+                .thenReturn(List.of(spare));
+        when(spareRepository.countByDbHostAndDbPortAndStatusIn(eq("localhost"), eq(1433), anyCollection()))
+                .thenReturn(2L);
+        doThrow(new SQLException("server unavailable")).when(sparePoolService).dropDatabase("SnapBuy_spare_1");
+
+        // When
+        sparePoolService.prepareNext();
+
+        // Then
+        verify(spareRepository, never()).delete(any(TenantSpareDatabase.class));
+    }
+
+    private List<TenantSpareDatabase> givenRepositoryStoresSpares() {
+        List<TenantSpareDatabase> saved = new ArrayList<>();
+        when(spareRepository.save(any(TenantSpareDatabase.class))).thenAnswer(invocation -> {
+            TenantSpareDatabase row = invocation.getArgument(0);
+            if (row.getSpareId() == null) {
+                row.setSpareId(UUID.randomUUID());
+                saved.add(row);
+            }
+            return row;
+        });
+        return saved;
+    }
+}
@@ -0,0 +1,181 @@
+package com.g127.snapbuy.tenant.service.impl;
+
+import com.g127.snapbuy.tenant.context.TenantContext;
+import com.g127.snapbuy.tenant.service.TenantJobRunner;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.TenantJobReport;
+import com.g127.snapbuy.tenant.service.TenantJobRunner.TenantRun;
+import com.g127.snapbuy.tenant.service.TenantStatisticsService.TenantStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TenantStatisticsServiceImplTest {
+
+    @Mock
+    private DataSource tenantDataSource;
+
+    @Mock
+    private TenantJobRunner tenantJobRunner;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private TenantStatisticsServiceImpl tenantStatisticsService;
+
+    private final UUID tenantA = UUID.randomUUID();
+    private final UUID tenantB = UUID.randomUUID();
+    private final List<String> tenantsLoaded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tenantStatisticsService = new TenantStatisticsServiceImpl(tenantDataSource, tenantJobRunner, 60000, 4, 10000);
+    }
+
+    // TenantJobRunner giả: chạy lần lượt từng tenant trên luồng hiện tại với TenantContext đã đặt
+    private void givenJobRunnerRunsTenantsInline() {
+        when(tenantJobRunner.run(eq("tenant-statistics"), anyCollection(), eq(4), eq(10000L), any(Runnable.class)))
+                .thenAnswer(invocation -> {
+                    Collection<String> tenantIds = invocation.getArgument(1);
+                    Runnable task = invocation.getArgument(4);
+                    List<TenantRun> runs = new ArrayList<>();
+                    for (String tenantId : tenantIds) {
+                        TenantContext.setCurrentTenant(tenantId);
+                        try {
+                            tenantsLoaded.add(tenantId);
+                            task.run();
+                            runs.add(new TenantRun(tenantId, TenantJobRunner.Status.SUCCEEDED, 1, null));
+                        } catch (Exception e) {
+                            runs.add(new TenantRun(tenantId, TenantJobRunner.Status.FAILED, 1, String.valueOf(e)));
+                        } finally {
+                            TenantContext.clear();
+                        }
+                    }
+                    return new TenantJobReport("tenant-statistics", 1, runs);
+                });
+    }
+
+    private void givenStatsQueryReturns(int users, int products, long revenue) throws SQLException {
+        when(tenantDataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("user_count")).thenReturn(users);
+        when(resultSet.getInt("product_count")).thenReturn(products);
+        when(resultSet.getLong("revenue")).thenReturn(revenue);
+    }
+
+    @Test
+    void getStats_LoadsAllTenantsWithOneQueryEach() throws SQLException {
+        // Given
+        givenJobRunnerRunsTenantsInline();
+        givenStatsQueryReturns(3, 120, 5_000_000L);
+
+        // When
+        Map<UUID, TenantStats> stats = tenantStatisticsService.getStats(List.of(tenantA, tenantB));
+
+        // Then
+        assertEquals(2, stats.size());
+        assertEquals(3, stats.get(tenantA).getUserCount());
+        assertEquals(120, stats.get(tenantA).getProductCount());
+        assertEquals(5_000_000L, stats.get(tenantA).getRevenue());
+        verify(statement, times(2)).executeQuery(anyString());
+    }
+
+    @Test
+    void getStats_CachedTenants_NotReloaded() throws SQLException {
+        // Given
+        givenJobRunnerRunsTenantsInline();
+        givenStatsQueryReturns(3, 120, 5_000_000L);
+        tenantStatisticsService.getStats(List.of(tenantA));
+
+        // When
+        Map<UUID, TenantStats> stats = tenantStatisticsService.getStats(List.of(tenantA, tenantB));
+
+        // Then
+        assertEquals(2, stats.size());
+        assertEquals(List.of(tenantA.toString(), tenantB.toString()), tenantsLoaded);
+    }
+
+    @Test
+    void getStats_AllCached_DoesNotRunJob() throws SQLException {
+        // Given
+        givenJobRunnerRunsTenantsInline();
+        givenStatsQueryReturns(1, 1, 1L);
+        tenantStatisticsService.getStats(List.of(tenantA));
+
+        // When
+        tenantStatisticsService.getStats(List.of(tenantA));
+
+        // Then
+        verify(tenantJobRunner, times(1)).run(anyString(), anyCollection(), anyInt(), anyLong(), any(Runnable.class));
+    }
+
+    @Test
+    void getStats_ExpiredEntry_Reloaded() throws SQLException {
+        // Given
+        tenantStatisticsService = new TenantStatisticsServiceImpl(tenantDataSource, tenantJobRunner, 0, 4, 10000);
+        givenJobRunnerRunsTenantsInline();
+        givenStatsQueryReturns(1, 1, 1L);
+        tenantStatisticsService.getStats(List.of(tenantA));
+
+        // When
+        tenantStatisticsService.getStats(List.of(tenantA));
+
+        // Then
+        assertEquals(2, tenantsLoaded.size());
+    }
+
+    @Test
+    void getStats_TenantDbFails_OmittedAndNotCached() throws SQLException {
+        // Given
+        givenJobRunnerRunsTenantsInline();
+        when(tenantDataSource.getConnection()).thenThrow(new SQLException("Login failed"));
+
+        // When
+        Map<UUID, TenantStats> first = tenantStatisticsService.getStats(List.of(tenantA));
+        tenantStatisticsService.getStats(List.of(tenantA));
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertEquals(2, tenantsLoaded.size());
+    }
+
+    @Test
+    void evict_NextCallReloads() throws SQLException {
+        // Given
+        givenJobRunnerRunsTenantsInline();
+        givenStatsQueryReturns(1, 1, 1L);
+        tenantStatisticsService.getStats(List.of(tenantA));
+
+        // When
+        tenantStatisticsService.evict(tenantA);
+        tenantStatisticsService.getStats(List.of(tenantA));
+
+        // Then
+        assertEquals(2, tenantsLoaded.size());
+    }
+}